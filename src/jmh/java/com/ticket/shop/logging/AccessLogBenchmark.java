@@ -0,0 +1,89 @@
+package com.ticket.shop.logging;
+
+import com.ticket.shop.properties.AccessLogProperties;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
+import org.apache.logging.log4j.core.config.builder.impl.BuiltConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access log cost on the request thread, written to a file
+ * async is the ring buffer of log4j2.component.properties, synchronous formats and writes on the request thread.
+ * When the background thread falls behind the ring buffer fills up and async lines are dropped, not waited for
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccessLogBenchmark {
+
+    @Param({"0", "0.01", "1"})
+    private double sampleRate;
+
+    private Path logFile;
+    private AccessLogFilter accessLogFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.logFile = Files.createTempFile("access", ".log");
+
+        ConfigurationBuilder<BuiltConfiguration> builder = ConfigurationBuilderFactory.newConfigurationBuilder();
+        builder.add(builder.newAppender("File", "RandomAccessFile")
+                .addAttribute("fileName", this.logFile.toString())
+                .add(builder.newLayout("PatternLayout").addAttribute("pattern", "%d %5p [%t] %c : %m%n")));
+        builder.add(builder.newRootLogger(org.apache.logging.log4j.Level.INFO).add(builder.newAppenderRef("File")));
+        Configurator.reconfigure(builder.build());
+
+        AccessLogProperties accessLogProperties = new AccessLogProperties();
+        accessLogProperties.setSampleRate(this.sampleRate);
+        this.accessLogFilter = new AccessLogFilter(accessLogProperties);
+        this.request = new MockHttpServletRequest("GET", "/api/companies/1/events");
+        this.response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        LogManager.shutdown();
+        Files.deleteIfExists(this.logFile);
+    }
+
+    @Benchmark
+    public int async() throws ServletException, IOException {
+        return filter();
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dlog4j2.contextSelector=org.apache.logging.log4j.core.selector.ClassLoaderContextSelector")
+    public int synchronous() throws ServletException, IOException {
+        return filter();
+    }
+
+    private int filter() throws ServletException, IOException {
+        // Each request is a new dispatch, OncePerRequestFilter would skip it otherwise
+        this.request.clearAttributes();
+        this.accessLogFilter.doFilter(this.request, this.response, new MockFilterChain());
+        return this.response.getStatus();
+    }
+}
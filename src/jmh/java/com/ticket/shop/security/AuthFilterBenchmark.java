@@ -0,0 +1,229 @@
+package com.ticket.shop.security;
+
+import com.ticket.shop.enumerators.UserRole;
+import com.ticket.shop.persistence.repository.RevokedTokenRepository;
+import com.ticket.shop.properties.JwtProperties;
+import com.ticket.shop.service.AuthServiceImp;
+import com.ticket.shop.service.TokenDenyListServiceImp;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Authentication filter cost per request, with the real token validation: signature check and parsing of a token signed
+ * at setup, then the deny list lookup against a filter loaded with the revoked token ids.
+ * Tokens are stateless, so the user isn't loaded from the database.
+ * chained is the former cookie filter followed by the jwt filter, single is {@link TokenAuthFilter}.
+ * With both credentials the chained filters validate the token twice
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthFilterBenchmark {
+
+    @Param({"header", "cookie", "both"})
+    private String credentials;
+
+    // Revoked tokens not expired yet, loaded on the deny list filter
+    @Param({"0", "10000"})
+    private int revokedTokens;
+
+    private OncePerRequestFilter cookieAuthFilter;
+    private OncePerRequestFilter jwtAuthFilter;
+    private OncePerRequestFilter tokenAuthFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setStateless(true);
+
+        RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+        when(revokedTokenRepository.findTokenIdsByExpiresAtAfter(any())).thenReturn(IntStream.range(0, this.revokedTokens)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .toList());
+        TokenDenyListServiceImp tokenDenyListServiceImp = new TokenDenyListServiceImp(revokedTokenRepository, jwtProperties);
+        tokenDenyListServiceImp.refreshDenyList();
+
+        AuthServiceImp authServiceImp = new AuthServiceImp(null, null, jwtProperties, null, null,
+                tokenDenyListServiceImp, null, null, null);
+        UserAuthenticationProvider userAuthenticationProvider = new UserAuthenticationProvider(authServiceImp);
+        String token = signToken(authServiceImp);
+
+        this.cookieAuthFilter = new LegacyCookieAuthFilter(userAuthenticationProvider);
+        this.jwtAuthFilter = new LegacyJwtAuthFilter(userAuthenticationProvider);
+        this.tokenAuthFilter = new TokenAuthFilter(userAuthenticationProvider);
+        this.response = new MockHttpServletResponse();
+
+        this.request = new MockHttpServletRequest("GET", "/api/customers/1/tickets");
+        this.request.setCookies(new Cookie("JSESSIONID", "abc"), new Cookie("theme", "dark"));
+        if (!"cookie".equals(this.credentials)) {
+            this.request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        if (!"header".equals(this.credentials)) {
+            this.request.setCookies(new Cookie("JSESSIONID", "abc"), new Cookie("theme", "dark"),
+                    new Cookie(TokenAuthFilter.COOKIE_NAME, token));
+        }
+    }
+
+    /**
+     * Sign a customer token with the claims and key of the login tokens
+     *
+     * @param authServiceImp auth service holding the signing key
+     * @return the token
+     */
+    private static String signToken(AuthServiceImp authServiceImp) {
+        Date now = new Date();
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(now)
+                .claim("id", 1L)
+                .claim("name", "Customer")
+                .claim("email", "customer@ticket-shop.com")
+                .claim("role", List.of(UserRole.CUSTOMER))
+                .claim("countryId", 1L)
+                .claim("companyId", null)
+                .signWith(Keys.hmacShaKeyFor(authServiceImp.getSigningKey().getEncoded()))
+                .setExpiration(new Date(now.getTime() + Duration.ofDays(1).toMillis()))
+                .compact();
+    }
+
+    @Benchmark
+    public Object chained() throws ServletException, IOException {
+        // Each request is a new dispatch, OncePerRequestFilter would skip it otherwise
+        this.request.clearAttributes();
+        FilterChain chain = (request, response) -> this.jwtAuthFilter.doFilter(request, response, new MockFilterChain());
+        this.cookieAuthFilter.doFilter(this.request, this.response, chain);
+        return clear();
+    }
+
+    @Benchmark
+    public Object single() throws ServletException, IOException {
+        this.request.clearAttributes();
+        this.tokenAuthFilter.doFilter(this.request, this.response, new MockFilterChain());
+        return clear();
+    }
+
+    private static Object clear() {
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    /**
+     * The cookie filter {@link TokenAuthFilter} replaced, kept as the baseline
+     */
+    static class LegacyCookieAuthFilter extends OncePerRequestFilter {
+
+        private static final Logger LOGGER = LogManager.getLogger(LegacyCookieAuthFilter.class);
+        private final UserAuthenticationProvider userAuthenticationProvider;
+
+        LegacyCookieAuthFilter(UserAuthenticationProvider userAuthenticationProvider) {
+            this.userAuthenticationProvider = userAuthenticationProvider;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest httpServletRequest,
+                                        HttpServletResponse httpServletResponse,
+                                        FilterChain filterChain) throws ServletException, IOException {
+
+            Optional<Cookie> authCookie = Stream.of(Optional.ofNullable(httpServletRequest.getCookies())
+                            .orElse(new Cookie[0]))
+                    .filter(cookie -> TokenAuthFilter.COOKIE_NAME.equals(cookie.getName()) &&
+                            Objects.nonNull(cookie.getValue()) &&
+                            !cookie.getValue().isEmpty())
+                    .findFirst();
+
+            try {
+                authCookie.ifPresent(cookie -> {
+                    SecurityContextHolder.getContext().setAuthentication(
+                            userAuthenticationProvider.validateToken(cookie.getValue())
+                    );
+                    LOGGER.info("Successfully authenticated with cookie");
+                });
+            } catch (RuntimeException e) {
+                SecurityContextHolder.clearContext();
+                LOGGER.error("Failed to validate cookie", e);
+            }
+
+            filterChain.doFilter(httpServletRequest, httpServletResponse);
+        }
+    }
+
+    /**
+     * The jwt filter {@link TokenAuthFilter} replaced, kept as the baseline
+     */
+    static class LegacyJwtAuthFilter extends OncePerRequestFilter {
+
+        private static final Logger LOGGER = LogManager.getLogger(LegacyJwtAuthFilter.class);
+        private final UserAuthenticationProvider userAuthenticationProvider;
+
+        LegacyJwtAuthFilter(UserAuthenticationProvider userAuthenticationProvider) {
+            this.userAuthenticationProvider = userAuthenticationProvider;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest httpServletRequest,
+                                        HttpServletResponse httpServletResponse,
+                                        FilterChain filterChain) throws ServletException, IOException {
+
+            String header = httpServletRequest.getHeader(HttpHeaders.AUTHORIZATION);
+
+            if (Objects.nonNull(header)) {
+                String[] authElements = header.split(" ");
+
+                if (authElements.length == 2 && "Bearer".equals(authElements[0])) {
+                    try {
+                        Authentication auth = userAuthenticationProvider.validateToken(authElements[1]);
+                        SecurityContextHolder.getContext().setAuthentication(auth);
+                        LOGGER.info("Successfully authenticated with token");
+                    } catch (RuntimeException e) {
+                        SecurityContextHolder.clearContext();
+                        LOGGER.error("Failed to parse token", e);
+                        throw e;
+                    }
+                }
+            }
+
+            filterChain.doFilter(httpServletRequest, httpServletResponse);
+        }
+    }
+}
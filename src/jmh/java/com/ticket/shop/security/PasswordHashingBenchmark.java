@@ -0,0 +1,68 @@
+package com.ticket.shop.security;
+
+import com.ticket.shop.properties.PasswordHashingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login password check throughput
+ * singleCore is the logins per second one core can take, bounded is the whole node going through the hashing pool
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "Passw0rd!";
+
+    @Param({"10", "12"})
+    private int strength;
+
+    private PasswordEncoder bcryptPasswordEncoder;
+    private PasswordHashingExecutor passwordHashingExecutor;
+    private PasswordEncoder boundedPasswordEncoder;
+    private String encodedPassword;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PasswordHashingProperties passwordHashingProperties = new PasswordHashingProperties();
+        passwordHashingProperties.setQueueCapacity(1024);
+        passwordHashingProperties.setMaxWaitMillis(60_000);
+
+        this.bcryptPasswordEncoder = new BCryptPasswordEncoder(this.strength);
+        this.passwordHashingExecutor = new PasswordHashingExecutor(passwordHashingProperties, new SimpleMeterRegistry());
+        this.boundedPasswordEncoder = new BoundedPasswordEncoder(this.bcryptPasswordEncoder, this.passwordHashingExecutor);
+        this.encodedPassword = this.bcryptPasswordEncoder.encode(PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.passwordHashingExecutor.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean singleCore() {
+        return this.bcryptPasswordEncoder.matches(PASSWORD, this.encodedPassword);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean bounded() {
+        return this.boundedPasswordEncoder.matches(PASSWORD, this.encodedPassword);
+    }
+}
@@ -0,0 +1,163 @@
+package com.ticket.shop.cache;
+
+import com.ticket.shop.command.ticket.CustomerTicketsDto;
+import com.ticket.shop.properties.CustomerTicketsProperties;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache of the first page of tickets of each customer, the page shown after every purchase
+ * Entries live for a short time and are evicted when an order of the customer is captured
+ * A page is only cached if no eviction of its user happened while it was loaded, see {@link #getGeneration(Long)}
+ */
+@Component
+public class CustomerTicketsCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(CustomerTicketsCache.class);
+    // Users are spread over a fixed number of generations, users sharing one only skip caching a page
+    private static final int GENERATIONS = 4096;
+
+    private final Map<Long, CachedPage> firstPageByUser = new ConcurrentHashMap<>();
+    // Bumped when the users of an eviction are invalidated
+    private final AtomicLongArray userGenerations = new AtomicLongArray(GENERATIONS);
+    // Bumped when an eviction finds nothing cached and skips looking up its users
+    private final AtomicLong generation = new AtomicLong();
+    private final CustomerTicketsProperties customerTicketsProperties;
+
+    public CustomerTicketsCache(CustomerTicketsProperties customerTicketsProperties) {
+        this.customerTicketsProperties = customerTicketsProperties;
+    }
+
+    /**
+     * Get the cached first page of tickets of a user
+     *
+     * @param userId user id
+     * @param size   page size
+     * @return {@link CustomerTicketsDto}, null if not cached with this size or expired
+     */
+    public CustomerTicketsDto get(Long userId, int size) {
+        CachedPage cachedPage = this.firstPageByUser.get(userId);
+        if (cachedPage == null || cachedPage.size() != size) {
+            return null;
+        }
+
+        if (cachedPage.expiresAtNanos() - System.nanoTime() <= 0) {
+            this.firstPageByUser.remove(userId, cachedPage);
+            return null;
+        }
+
+        return cachedPage.page();
+    }
+
+    /**
+     * Get the generation of a user, to be read before loading the page to cache
+     *
+     * @param userId user id
+     * @return generation, changed by every eviction of the user
+     */
+    public long getGeneration(Long userId) {
+        // Both only grow, so the sum changes whenever one of them does
+        return this.generation.get() + this.userGenerations.get(getIndex(userId));
+    }
+
+    /**
+     * Cache the first page of tickets of a user
+     * Nothing is cached when the cache is full of live entries, or when the user was evicted since the page was loaded
+     *
+     * @param userId     user id
+     * @param size       page size
+     * @param page       {@link CustomerTicketsDto}
+     * @param generation generation of the user read before loading the page
+     */
+    public void put(Long userId, int size, CustomerTicketsDto page, long generation) {
+        if (getGeneration(userId) != generation) {
+            LOGGER.debug("Not caching tickets of user id {}, they changed while loading", userId);
+            return;
+        }
+
+        if (this.firstPageByUser.size() >= this.customerTicketsProperties.getCacheMaxEntries()
+                && !this.firstPageByUser.containsKey(userId)) {
+            purgeExpired();
+            if (this.firstPageByUser.size() >= this.customerTicketsProperties.getCacheMaxEntries()) {
+                return;
+            }
+        }
+
+        long expiresAtNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(this.customerTicketsProperties.getCacheTtlSeconds());
+        CachedPage cachedPage = new CachedPage(size, page, expiresAtNanos);
+        this.firstPageByUser.put(userId, cachedPage);
+
+        // An eviction may have run between the check and the put, its bump comes before its removal,
+        // so either the removal drops the page or the page is dropped here
+        if (getGeneration(userId) != generation) {
+            this.firstPageByUser.remove(userId, cachedPage);
+        }
+    }
+
+    /**
+     * Remove the cached tickets of users, they will be loaded again on the next request
+     *
+     * @param userIds user ids
+     */
+    public void invalidate(Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+
+            // Pages being loaded for the user are not cached
+            this.userGenerations.incrementAndGet(getIndex(userId));
+            if (this.firstPageByUser.remove(userId) != null) {
+                LOGGER.debug("Removed cached tickets of user id {}", userId);
+            }
+        }
+    }
+
+    /**
+     * Invalidate without looking up the users when no user has tickets cached
+     * The pages of every user being loaded are not cached, they may have been read before the change
+     *
+     * @return true if no user has tickets cached, otherwise the users have to be invalidated
+     */
+    public boolean invalidateIfEmpty() {
+        if (!this.firstPageByUser.isEmpty()) {
+            return false;
+        }
+
+        // Checked again after the bump, a page cached before it is seen and its user has to be invalidated
+        this.generation.incrementAndGet();
+        return this.firstPageByUser.isEmpty();
+    }
+
+    /**
+     * Remove the expired entries
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        this.firstPageByUser.values().removeIf(cachedPage -> cachedPage.expiresAtNanos() - now <= 0);
+    }
+
+    private static int getIndex(Long userId) {
+        return Long.hashCode(userId) & (GENERATIONS - 1);
+    }
+
+    /**
+     * First page of tickets of a user
+     *
+     * @param size           page size
+     * @param page           {@link CustomerTicketsDto}
+     * @param expiresAtNanos {@link System#nanoTime()} when the page expires
+     */
+    private record CachedPage(int size, CustomerTicketsDto page, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.ticket.shop.cache;
+
+import com.ticket.shop.enumerators.TicketType;
+import com.ticket.shop.persistence.DatabaseNotifications;
+import com.ticket.shop.persistence.entity.EventEntity;
+import com.ticket.shop.persistence.entity.PriceEntity;
+import com.ticket.shop.properties.OrderProperties;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the ticket prices of each event, used to price orders without querying the database
+ * Prices are stored in cents, indexed by {@link TicketType} ordinal
+ * Entries live for a short time. Invalidations are applied again when the transaction commits and sent to the other
+ * nodes, prices loaded while an invalidation happened are not cached
+ */
+@Component
+public class EventPriceCache {
+
+    public static final long NO_PRICE = -1L;
+
+    private static final Logger LOGGER = LogManager.getLogger(EventPriceCache.class);
+    private static final int TICKET_TYPES = TicketType.values().length;
+    // Database notification channel of the events with changed prices
+    private static final String NOTIFICATION_CHANNEL = "event_prices";
+
+    private final Map<Long, CachedPrices> pricesByEvent = new ConcurrentHashMap<>();
+    // Incremented by every invalidation, prices loaded across a change are not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final OrderProperties orderProperties;
+    private final DatabaseNotifications databaseNotifications;
+
+    public EventPriceCache(OrderProperties orderProperties, DatabaseNotifications databaseNotifications) {
+        this.orderProperties = orderProperties;
+        this.databaseNotifications = databaseNotifications;
+    }
+
+    @PostConstruct
+    public void listenToOtherNodes() {
+        this.databaseNotifications.listen(NOTIFICATION_CHANNEL, new DatabaseNotifications.Listener() {
+            @Override
+            public void onMessage(String payload) {
+                try {
+                    evict(Long.valueOf(payload));
+
+                } catch (NumberFormatException e) {
+                    LOGGER.warn("Ignoring invalid event id {} of an event prices notification", payload);
+                }
+            }
+
+            @Override
+            public void onReconnect() {
+                // Changes of the other nodes may have been missed
+                EventPriceCache.this.generation.incrementAndGet();
+                EventPriceCache.this.pricesByEvent.clear();
+            }
+        });
+    }
+
+    /**
+     * Get the ticket prices of an event, populating the cache from the event prices on a miss or when expired
+     * The returned array is shared and must not be modified
+     *
+     * @param eventEntity event entity
+     * @return prices in cents indexed by ticket type ordinal, {@link #NO_PRICE} for types without price
+     */
+    public long[] getPricesInCents(EventEntity eventEntity) {
+        CachedPrices cachedPrices = this.pricesByEvent.get(eventEntity.getEventId());
+        if (cachedPrices != null && cachedPrices.expiresAtNanos() - System.nanoTime() > 0) {
+            return cachedPrices.prices();
+        }
+
+        // Read before the prices, which are loaded lazily
+        long loadedGeneration = this.generation.get();
+        long[] prices = toPricesInCents(eventEntity.getPrices());
+        if (this.generation.get() != loadedGeneration) {
+            LOGGER.debug("Prices of event id {} loaded during an invalidation, not caching them", eventEntity.getEventId());
+            return prices;
+        }
+
+        LOGGER.debug("Caching prices of event id {}", eventEntity.getEventId());
+        long expiresAtNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(this.orderProperties.getPriceCacheTtlSeconds());
+        this.pricesByEvent.put(eventEntity.getEventId(), new CachedPrices(prices, expiresAtNanos));
+        return prices;
+    }
+
+    /**
+     * Remove the cached prices of an event, on this node and on the other nodes
+     * Within a transaction they are removed again when it commits, the other nodes are only notified then
+     *
+     * @param eventId event id
+     */
+    public void invalidate(Long eventId) {
+        if (eventId == null) {
+            return;
+        }
+
+        evict(eventId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(eventId);
+                }
+            });
+        }
+
+        try {
+            this.databaseNotifications.publish(NOTIFICATION_CHANNEL, String.valueOf(eventId));
+
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed while notifying the changed prices of event id {} to the other nodes - ", eventId, e);
+        }
+    }
+
+    /**
+     * Remove the cached prices of an event on this node
+     *
+     * @param eventId event id
+     */
+    private void evict(Long eventId) {
+        this.generation.incrementAndGet();
+        if (this.pricesByEvent.remove(eventId) != null) {
+            LOGGER.debug("Removed cached prices of event id {}", eventId);
+        }
+    }
+
+    /**
+     * Remove the expired entries, they are also replaced on the next order of the event
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        this.pricesByEvent.values().removeIf(cachedPrices -> cachedPrices.expiresAtNanos() - now <= 0);
+    }
+
+    /**
+     * Convert price to cents
+     *
+     * @param price price
+     * @return price in cents
+     */
+    public static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    /**
+     * Convert price entities to prices in cents indexed by ticket type ordinal
+     *
+     * @param priceEntities price entities
+     * @return prices in cents
+     */
+    private static long[] toPricesInCents(List<PriceEntity> priceEntities) {
+        long[] prices = new long[TICKET_TYPES];
+        Arrays.fill(prices, NO_PRICE);
+        if (priceEntities != null) {
+            for (PriceEntity priceEntity : priceEntities) {
+                prices[priceEntity.getType().ordinal()] = toCents(priceEntity.getPrice());
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Ticket prices of an event
+     *
+     * @param prices         prices in cents indexed by ticket type ordinal
+     * @param expiresAtNanos {@link System#nanoTime()} when the prices expire
+     */
+    private record CachedPrices(long[] prices, long expiresAtNanos) {
+    }
+}
@@ -11,4 +11,5 @@ import lombok.Data;
 public class LoggedInDto {
     private PrincipalDto principal;
     private String token;
+    private String refreshToken;
 }
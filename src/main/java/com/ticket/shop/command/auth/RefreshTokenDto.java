@@ -0,0 +1,14 @@
+package com.ticket.shop.command.auth;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Refresh token issued by a rotation and the user it belongs to
+ */
+@Data
+@Builder
+public class RefreshTokenDto {
+    private Long userId;
+    private String refreshToken;
+}
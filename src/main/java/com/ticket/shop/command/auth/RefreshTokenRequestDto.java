@@ -0,0 +1,29 @@
+package com.ticket.shop.command.auth;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Refresh token request dto, the refresh token cookie is used when it's not sent
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenRequestDto {
+
+    @Schema(example = "b3JpZ2luYWwtcmVmcmVzaC10b2tlbi1ieXRlcy0xMjM0NTY")
+    private String refreshToken;
+
+    /**
+     * Override to String to avoid show the token
+     * in the logs if printing the entire object
+     */
+    @Override
+    public String toString() {
+        return "RefreshTokenRequestDto{refreshToken='***'}";
+    }
+}
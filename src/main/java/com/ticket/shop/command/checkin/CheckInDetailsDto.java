@@ -0,0 +1,19 @@
+package com.ticket.shop.command.checkin;
+
+import com.ticket.shop.enumerators.TicketType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.sql.Timestamp;
+
+/**
+ * CheckInDetailsDto used to respond with the checked in ticket details
+ */
+@Data
+@Builder
+public class CheckInDetailsDto {
+    private Long ticketId;
+    private Long calendarId;
+    private TicketType type;
+    private Timestamp checkedInAt;
+}
@@ -0,0 +1,23 @@
+package com.ticket.shop.command.checkin;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+
+/**
+ * CheckInDto used to store the token scanned at the venue gate
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInDto {
+
+    @Schema(example = "AQAAAAAAAAABAAAAAAAAAAEAuVDTJ2mXoD8cCM-lxOkbzQ")
+    @NotBlank(message = "Must have a token")
+    private String token;
+}
@@ -0,0 +1,26 @@
+package com.ticket.shop.command.checkin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * CheckInSyncDto used to store the redemption log uploaded by a venue gate
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInSyncDto {
+
+    @Valid
+    @NotEmpty(message = "Must have redemptions")
+    @Size(max = 5000, message = "Must have at most 5000 redemptions")
+    private List<RedemptionDto> redemptions;
+}
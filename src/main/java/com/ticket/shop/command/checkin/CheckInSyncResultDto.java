@@ -0,0 +1,20 @@
+package com.ticket.shop.command.checkin;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * CheckInSyncResultDto used to respond with the outcome of a gate redemption log upload
+ */
+@Data
+@Builder
+public class CheckInSyncResultDto {
+    // Tickets checked in by this upload
+    private List<Long> accepted;
+    // Tickets that were already checked in, by another gate or online
+    private List<Long> conflicts;
+    // Tickets that are not sold tickets of the calendar
+    private List<Long> rejected;
+}
@@ -0,0 +1,15 @@
+package com.ticket.shop.command.checkin;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * CheckInTokenDto used to respond with the token to be presented at the venue gate
+ */
+@Data
+@Builder
+public class CheckInTokenDto {
+    private Long ticketId;
+    private Long calendarId;
+    private String token;
+}
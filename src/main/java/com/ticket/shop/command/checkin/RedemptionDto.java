@@ -0,0 +1,24 @@
+package com.ticket.shop.command.checkin;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+import java.sql.Timestamp;
+
+/**
+ * RedemptionDto used to store a ticket redeemed offline by a venue gate
+ */
+@Data
+@Builder
+public class RedemptionDto {
+
+    @Schema(example = "1")
+    @NotNull(message = "Must have a ticket id")
+    private Long ticketId;
+
+    @Schema(example = "2023-07-01T20:15:00.000+00:00")
+    @NotNull(message = "Must have the check-in date")
+    private Timestamp checkedInAt;
+}
@@ -0,0 +1,44 @@
+package com.ticket.shop.command.customer;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * PatchCustomerDto used to partially update customer info.
+ * Fields left null or blank keep their current value
+ */
+@Data
+@Builder
+public class PatchCustomerDto {
+
+    @Schema(example = "New")
+    private String firstname;
+
+    @Schema(example = "Name")
+    private String lastname;
+
+    @Schema(example = "user.new@new.com")
+    private String email;
+
+    @Schema(example = "87654321!")
+    private String password;
+
+    @Schema(example = "1")
+    private Long countryId;
+
+    /**
+     * Override to String to avoid show the password
+     * in the logs if printing the entire object
+     */
+    @Override
+    public String toString() {
+        return "PatchCustomerDto{" +
+                "firstname='" + firstname + '\'' +
+                ", lastname='" + lastname + '\'' +
+                ", email='" + email + '\'' +
+                ", password='" + (password == null ? null : "***") + '\'' +
+                ", countryId=" + countryId +
+                '}';
+    }
+}
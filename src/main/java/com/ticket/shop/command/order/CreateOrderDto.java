@@ -5,7 +5,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
 
+import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 
 /**
@@ -18,20 +21,27 @@ public class CreateOrderDto {
     @Schema(example = "1")
     private Long eventId;
 
-    @Schema(example = "1")
-    private Long calendarId;
-
     @Schema(example = "1")
     private Long customerId;
 
-    @Schema(example = "GENERAL")
+    @Valid
+    @Size(max = 20, message = "Must have at most 20 lines")
+    private List<OrderLineDto> lines;
+
+    @Schema(example = "1", deprecated = true, description = "Single line order, ignored when lines are given")
+    private Long calendarId;
+
+    @Schema(example = "GENERAL", deprecated = true, description = "Single line order, ignored when lines are given")
     private TicketType ticketType;
 
-    @Schema(example = "1")
+    @Schema(example = "1", deprecated = true, description = "Single line order, ignored when lines are given")
     @Min(value = 1, message = "The given number for amountOfTickets must be greater than or equal to 1")
     private Long amountOfTickets;
 
-    @Schema(example = "1")
+    @Schema(example = "1", description = "Total shown to the customer, the order is rejected if it doesn't match the ticket prices")
     @Min(value = 1, message = "The given number for totalPrice must be greater than or equal to 1")
     private Double totalPrice;
+
+    @Schema(description = "Admission tokens of the waiting rooms, needed when a calendar of the order has an open waiting room")
+    private List<String> admissionTokens;
 }
@@ -0,0 +1,30 @@
+package com.ticket.shop.command.order;
+
+import com.ticket.shop.enumerators.TicketType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * OrderLineDto used to store the tickets of one type and calendar in an order
+ */
+@Data
+@Builder
+public class OrderLineDto {
+
+    @Schema(example = "1")
+    @NotNull(message = "Must have a calendar id")
+    private Long calendarId;
+
+    @Schema(example = "GENERAL")
+    @NotNull(message = "Must have a ticket type")
+    private TicketType ticketType;
+
+    @Schema(example = "1")
+    @NotNull(message = "Must have the amount of tickets")
+    @Min(value = 1, message = "The given number for amountOfTickets must be greater than or equal to 1")
+    private Long amountOfTickets;
+}
@@ -0,0 +1,24 @@
+package com.ticket.shop.command.ticket;
+
+import com.ticket.shop.enumerators.TicketType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * CustomerTicketDto used to respond with a ticket owned by a customer
+ */
+@Data
+@Builder
+public class CustomerTicketDto {
+    private Long ticketId;
+    private TicketType type;
+    private Double price;
+    private Long eventId;
+    private String eventName;
+    private Long calendarId;
+    private LocalDateTime startDate;
+    private LocalDateTime purchasedAt;
+    private boolean checkedIn;
+}
@@ -0,0 +1,17 @@
+package com.ticket.shop.command.ticket;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * CustomerTicketsDto used to respond with a page of tickets owned by a customer
+ * The next page is requested with the cursor, which is null on the last page
+ */
+@Data
+@Builder
+public class CustomerTicketsDto {
+    private List<CustomerTicketDto> results;
+    private String nextCursor;
+}
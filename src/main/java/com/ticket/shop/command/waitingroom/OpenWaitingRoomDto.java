@@ -0,0 +1,23 @@
+package com.ticket.shop.command.waitingroom;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.Min;
+
+/**
+ * OpenWaitingRoomDto used to store the waiting room settings when opened
+ */
+@Data
+@Builder
+public class OpenWaitingRoomDto {
+
+    @Schema(example = "50", description = "Customers admitted per second, the platform default when not given")
+    @Min(value = 1, message = "The given number for admissionsPerSecond must be greater than or equal to 1")
+    private Integer admissionsPerSecond;
+
+    @Schema(example = "100000", description = "Maximum customers waiting, the platform default when not given")
+    @Min(value = 1, message = "The given number for capacity must be greater than or equal to 1")
+    private Integer capacity;
+}
@@ -0,0 +1,19 @@
+package com.ticket.shop.command.waitingroom;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * QueueStatusDto used to respond with the customer position in a waiting room
+ */
+@Data
+@Builder
+public class QueueStatusDto {
+    private Long calendarId;
+    private String queueToken;
+    private long position;
+    private long ahead;
+    private long estimatedWaitSeconds;
+    // Only present once the customer is admitted
+    private String admissionToken;
+}
@@ -0,0 +1,17 @@
+package com.ticket.shop.command.waitingroom;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * WaitingRoomDetailsDto used to respond with waiting room details
+ */
+@Data
+@Builder
+public class WaitingRoomDetailsDto {
+    private Long calendarId;
+    private int admissionsPerSecond;
+    private int capacity;
+    private long waiting;
+    private long admitted;
+}
@@ -0,0 +1,51 @@
+package com.ticket.shop.command.worker;
+
+import com.ticket.shop.enumerators.UserRole;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * PatchWorkerDto used to partially update worker info.
+ * Fields left null or blank keep their current value
+ */
+@Data
+@Builder
+public class PatchWorkerDto {
+
+    @Schema(example = "new")
+    private String firstname;
+
+    @Schema(example = "name")
+    private String lastname;
+
+    @Schema(example = "user.new@new.com")
+    private String email;
+
+    @Schema(example = "87654321!")
+    private String password;
+
+    @Schema(example = "[\"WORKER\"]")
+    private Set<UserRole> roles;
+
+    @Schema(example = "1")
+    private Long countryId;
+
+    /**
+     * Override to String to avoid show the password
+     * in the logs if printing the entire object
+     */
+    @Override
+    public String toString() {
+        return "PatchWorkerDto{" +
+                "firstname='" + firstname + '\'' +
+                ", lastname='" + lastname + '\'' +
+                ", email='" + email + '\'' +
+                ", roles=" + roles +
+                ", password='" + (password == null ? null : "***") + '\'' +
+                ", countryId=" + countryId +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package com.ticket.shop.configuration;
+
+import com.ticket.shop.persistence.ConnectionAcquisitionFilter;
+import com.ticket.shop.persistence.ConnectionCountingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Connection acquisition metrics
+ * Every connection pool is wrapped to count the connections taken by each request
+ */
+@Configuration
+public class ConnectionMetricsConfig {
+
+    /**
+     * Wrap the connection pools, static so it applies to the pools created before this configuration
+     *
+     * @return {@link BeanPostProcessor}
+     */
+    @Bean
+    public static BeanPostProcessor connectionCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof HikariDataSource pool ? new ConnectionCountingDataSource(pool) : bean;
+            }
+        };
+    }
+
+    /**
+     * Filter recording the connections taken per request, first in the chain so authentication is included
+     *
+     * @param meterRegistry meter registry
+     * @return {@link FilterRegistrationBean}
+     */
+    @Bean
+    public FilterRegistrationBean<ConnectionAcquisitionFilter> connectionAcquisitionFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConnectionAcquisitionFilter> registration =
+                new FilterRegistrationBean<>(new ConnectionAcquisitionFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ticket.shop.configuration;
+
+import com.ticket.shop.persistence.ReadWriteRoutingDataSource;
+import com.ticket.shop.persistence.ReplicaLagMonitor;
+import com.ticket.shop.properties.ReplicaRoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read replica configuration, only active when ticket-shop.datasource.replica.jdbc-url is set
+ * Without it the single spring.datasource pool is auto configured as usual
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ticket-shop.datasource.replica", name = "jdbc-url")
+public class DataSourceConfig {
+
+    /**
+     * Primary pool, configured by spring.datasource and spring.datasource.hikari
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Replica pool, configured by ticket-shop.datasource.replica with the Hikari property names
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "ticket-shop.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                        @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource);
+    }
+
+    /**
+     * Data source used by JPA, the connection is only taken from a pool on the first statement
+     * when the transaction is already flagged read only
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadWriteRoutingDataSource routingDataSource,
+                                              @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                              ReplicaRoutingProperties replicaRoutingProperties, MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(routingDataSource, replicaDataSource, replicaRoutingProperties, meterRegistry);
+    }
+}
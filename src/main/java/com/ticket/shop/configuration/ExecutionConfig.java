@@ -0,0 +1,93 @@
+package com.ticket.shop.configuration;
+
+import com.ticket.shop.logging.VirtualThreadPinningMonitor;
+import com.ticket.shop.properties.ExecutionProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Execution configuration
+ * Threads running the requests and the @Async tasks, such as the emails. Requests block on JDBC and PayPal, emails on SendGrid.
+ * With ticket-shop.execution.mode=virtual each one runs on a new virtual thread and the database pool, not the number of
+ * request threads, bounds the concurrency. Password hashing is CPU bound and keeps its own pool
+ */
+@Configuration
+@EnableAsync
+public class ExecutionConfig {
+
+    private static final String MODE_PROPERTY = "ticket-shop.execution.mode";
+    private static final String VIRTUAL = "virtual";
+
+    /**
+     * Tomcat requests on virtual threads, server.tomcat.threads no longer applies and
+     * server.tomcat.max-connections bounds the requests in progress
+     *
+     * @return {@link TomcatProtocolHandlerCustomizer}
+     */
+    @Bean
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = VIRTUAL)
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor("http-");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Async tasks on virtual threads, replaces the spring.task.execution pool
+     *
+     * @return {@link AsyncTaskExecutor}
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = VIRTUAL)
+    public AsyncTaskExecutor virtualThreadsTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor("async-"));
+    }
+
+    /**
+     * Pinned virtual threads, they hold their carrier thread while blocked
+     *
+     * @param meterRegistry       meter registry
+     * @param executionProperties execution properties
+     * @return {@link VirtualThreadPinningMonitor}
+     */
+    @Bean
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = VIRTUAL)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry, ExecutionProperties executionProperties) {
+        return new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(executionProperties.getPinnedThresholdMillis()));
+    }
+
+    /**
+     * Executor starting a named virtual thread per task
+     * Looked up reflectively, the sources still build for Java 17
+     *
+     * @param namePrefix thread name prefix
+     * @return {@link ExecutorService}
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21, running on Java " + Runtime.version(), e);
+        }
+    }
+}
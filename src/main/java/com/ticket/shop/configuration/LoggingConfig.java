@@ -0,0 +1,60 @@
+package com.ticket.shop.configuration;
+
+import com.ticket.shop.logging.AccessLogFilter;
+import com.ticket.shop.properties.AccessLogProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.async.AsyncLoggerContext;
+import org.apache.logging.log4j.core.jmx.RingBufferAdmin;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Logging configuration
+ * The appenders are in log4j2-spring.xml and log4j2-json.xml, the async loggers in log4j2.component.properties.
+ * Events logged per level are on log4j2.events, the free slots of the async loggers ring buffer on log4j2.ring.buffer.remaining
+ */
+@Configuration
+public class LoggingConfig {
+
+    /**
+     * Access log filter, right after the connection acquisition filter so rejected requests are written too
+     *
+     * @param accessLogProperties access log properties
+     * @return {@link FilterRegistrationBean}
+     */
+    @Bean
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilter(AccessLogProperties accessLogProperties) {
+        FilterRegistrationBean<AccessLogFilter> registration =
+                new FilterRegistrationBean<>(new AccessLogFilter(accessLogProperties));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        registration.setEnabled(accessLogProperties.isEnabled());
+        return registration;
+    }
+
+    /**
+     * Ring buffer of the async loggers, the logging threads fall behind while it fills up
+     * and events at INFO and below are dropped when it is full
+     *
+     * @return {@link MeterBinder}
+     */
+    @Bean
+    public MeterBinder asyncLoggerMetrics() {
+        return meterRegistry -> {
+            if (LogManager.getContext(false) instanceof AsyncLoggerContext asyncLoggerContext) {
+                RingBufferAdmin ringBuffer = asyncLoggerContext.createRingBufferAdmin();
+                Gauge.builder("log4j2.ring.buffer.remaining", ringBuffer, RingBufferAdmin::getRemainingCapacity)
+                        .description("Free slots of the async loggers ring buffer")
+                        .strongReference(true)
+                        .register(meterRegistry);
+                Gauge.builder("log4j2.ring.buffer.size", ringBuffer, RingBufferAdmin::getBufferSize)
+                        .description("Slots of the async loggers ring buffer")
+                        .strongReference(true)
+                        .register(meterRegistry);
+            }
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.ticket.shop.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling configuration
+ * Enables the {@link org.springframework.scheduling.annotation.Scheduled} jobs
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
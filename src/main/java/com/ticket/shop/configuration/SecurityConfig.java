@@ -1,9 +1,11 @@
 package com.ticket.shop.configuration;
 
+import com.ticket.shop.enumerators.UserRole;
 import com.ticket.shop.persistence.repository.CompanyRepository;
+import com.ticket.shop.properties.RateLimitProperties;
 import com.ticket.shop.security.AuthorizationValidatorService;
-import com.ticket.shop.security.CookieAuthFilter;
-import com.ticket.shop.security.JwtAuthFilter;
+import com.ticket.shop.security.RateLimitFilter;
+import com.ticket.shop.security.TokenAuthFilter;
 import com.ticket.shop.security.UserAuthenticationEntryPoint;
 import com.ticket.shop.security.UserAuthenticationProvider;
 import org.springframework.context.annotation.Bean;
@@ -27,11 +29,14 @@ public class SecurityConfig {
     private final UserAuthenticationEntryPoint userAuthenticationEntryPoint;
     private final UserAuthenticationProvider userAuthenticationProvider;
     private final CompanyRepository companyRepository;
+    private final RateLimitProperties rateLimitProperties;
 
-    public SecurityConfig(UserAuthenticationEntryPoint userAuthenticationEntryPoint, UserAuthenticationProvider userAuthenticationProvider, CompanyRepository companyRepository) {
+    public SecurityConfig(UserAuthenticationEntryPoint userAuthenticationEntryPoint, UserAuthenticationProvider userAuthenticationProvider, CompanyRepository companyRepository,
+                          RateLimitProperties rateLimitProperties) {
         this.userAuthenticationEntryPoint = userAuthenticationEntryPoint;
         this.userAuthenticationProvider = userAuthenticationProvider;
         this.companyRepository = companyRepository;
+        this.rateLimitProperties = rateLimitProperties;
     }
 
     /**
@@ -47,20 +52,25 @@ public class SecurityConfig {
                 .and()
                 .exceptionHandling().authenticationEntryPoint(this.userAuthenticationEntryPoint)
                 .and()
-                .addFilterBefore(new JwtAuthFilter(this.userAuthenticationProvider), BasicAuthenticationFilter.class)
-                .addFilterBefore(new CookieAuthFilter(this.userAuthenticationProvider), JwtAuthFilter.class)
+                .addFilterBefore(new TokenAuthFilter(this.userAuthenticationProvider), BasicAuthenticationFilter.class)
                 .csrf().disable()
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
                 .authorizeRequests()
-                .antMatchers(HttpMethod.POST, "/api/auth/login", "/api/customers")
+                .antMatchers(HttpMethod.POST, "/api/auth/login", "/api/auth/refresh", "/api/auth/logout", "/api/customers")
                 .permitAll()
                 .antMatchers("/api/swagger-ui.html", "/api/swagger-ui/*", "/v3/api-docs",
                         "/v3/api-docs/*", "/api/auth/reset-password", "/api/auth/reset-password/verify-token",
-                        "/api/auth/reset-password/complete")
+                        "/api/auth/reset-password/complete", "/actuator/health")
                 .permitAll()
+                .antMatchers("/actuator/**")
+                .hasAuthority(UserRole.ADMIN.name())
                 .anyRequest().authenticated();
 
+        if (this.rateLimitProperties.isEnabled()) {
+            http.addFilterAfter(new RateLimitFilter(this.rateLimitProperties), BasicAuthenticationFilter.class);
+        }
+
         return http.build();
     }
 
@@ -0,0 +1,42 @@
+package com.ticket.shop.configuration;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Startup configuration
+ * The fast-startup profile creates the beans on first use, see application-fast-startup.properties
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Beans still created at startup with lazy initialization, the first request doesn't wait for Hibernate.
+     * Spring Boot keeps the beans with @Scheduled jobs as well
+     *
+     * @return {@link LazyInitializationExcludeFilter}
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter persistenceLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class);
+    }
+
+    /**
+     * Exit as soon as the application is ready, used by the class data sharing training run of ./gradlew cdsArchive
+     *
+     * @return {@link ApplicationListener}
+     */
+    @Bean
+    @ConditionalOnProperty("ticket-shop.startup.exit-on-ready")
+    public ApplicationListener<ApplicationReadyEvent> exitOnReady() {
+        return event -> System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
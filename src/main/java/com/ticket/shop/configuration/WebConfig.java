@@ -1,7 +1,11 @@
 package com.ticket.shop.configuration;
 
 import com.sendgrid.SendGrid;
+import com.ticket.shop.properties.PasswordHashingProperties;
 import com.ticket.shop.properties.SendGridProperties;
+import com.ticket.shop.security.BCryptStrengthPasswordEncoder;
+import com.ticket.shop.security.BoundedPasswordEncoder;
+import com.ticket.shop.security.PasswordHashingExecutor;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
@@ -11,13 +15,16 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * WebConfigs class
@@ -27,6 +34,8 @@ import java.util.Arrays;
 public class WebConfig {
 
     private final SendGridProperties sendGridProperties;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final PasswordHashingProperties passwordHashingProperties;
 
     /**
      * CORS configuration
@@ -48,12 +57,23 @@ public class WebConfig {
     /**
      * PasswordEncoder configuration
      * Set the password encoder we want to use returned a generic {@link PasswordEncoder}
+     * Hashing runs on the {@link PasswordHashingExecutor}, not on the request threads.
+     * New hashes are prefixed with their scheme, e.g. {bcrypt}, hashes stored without it are BCrypt
      *
      * @return {@link PasswordEncoder}
      */
     @Bean
     public PasswordEncoder getPasswordEncoder() {
-        return new BCryptPasswordEncoder(12);
+        PasswordEncoder bcryptPasswordEncoder = new BCryptStrengthPasswordEncoder(this.passwordHashingProperties.getBcryptStrength());
+
+        Map<String, PasswordEncoder> passwordEncoders = new HashMap<>();
+        passwordEncoders.put("bcrypt", bcryptPasswordEncoder);
+        passwordEncoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(this.passwordHashingProperties.getEncodingId(), passwordEncoders);
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcryptPasswordEncoder);
+
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder, this.passwordHashingExecutor);
     }
 
     /**
@@ -66,7 +66,7 @@ public class AddressController {
     public ResponseEntity<AddressDetailsDto> createUserAddress(@PathVariable Long userId,
                                                                @Valid @RequestBody CreateAddressDto createAddressDto) {
 
-        LOGGER.info("Request to create address for user with id - {}", userId);
+        LOGGER.debug("Request to create address for user with id - {}", userId);
         AddressDetailsDto addressDetailsDto;
         try {
             addressDetailsDto = this.addressServiceImp.createUserAddress(userId, createAddressDto);
@@ -79,7 +79,7 @@ public class AddressController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Address for user with id {} created successfully", userId);
+        LOGGER.debug("Address for user with id {} created successfully", userId);
         return new ResponseEntity<>(addressDetailsDto, OK);
     }
 }
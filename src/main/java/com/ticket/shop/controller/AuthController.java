@@ -3,6 +3,7 @@ package com.ticket.shop.controller;
 import com.ticket.shop.command.auth.CredentialsDto;
 import com.ticket.shop.command.auth.LoggedInDto;
 import com.ticket.shop.command.auth.RecoverPasswordDto;
+import com.ticket.shop.command.auth.RefreshTokenRequestDto;
 import com.ticket.shop.command.auth.ResetPasswordDto;
 import com.ticket.shop.command.auth.ResetPasswordTokenDto;
 import com.ticket.shop.error.Error;
@@ -10,6 +11,7 @@ import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.TicketShopException;
 import com.ticket.shop.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -21,15 +23,18 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import static com.ticket.shop.security.CookieAuthFilter.COOKIE_NAME;
+import static com.ticket.shop.security.TokenAuthFilter.COOKIE_NAME;
+import static com.ticket.shop.security.TokenAuthFilter.TOKEN_ATTRIBUTE;
 
 /**
  * REST controller responsible for authentication operations
@@ -40,6 +45,7 @@ import static com.ticket.shop.security.CookieAuthFilter.COOKIE_NAME;
 public class AuthController {
 
     private static final Logger LOGGER = LogManager.getLogger(AuthController.class);
+    private static final String REFRESH_COOKIE_NAME = "refresh_token";
     private final AuthService authService;
 
     public AuthController(AuthService authService) {
@@ -61,23 +67,16 @@ public class AuthController {
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<LoggedInDto> login(@RequestBody CredentialsDto credentials) {
 
-        LOGGER.info("Request to login user with email {}", credentials.getEmail());
+        LOGGER.debug("Request to login user with email {}", credentials.getEmail());
         LoggedInDto loggedIn;
         try {
             loggedIn = this.authService.loginUser(credentials);
 
-            ResponseCookie cookie = ResponseCookie
-                    .from(COOKIE_NAME, loggedIn.getToken())
-                    .httpOnly(true)
-                    .secure(false)
-                    .maxAge(24 * 60 * 60)
-                    .path("/")
-                    .build();
-
-            LOGGER.info("User logged in successfully. Retrieving jwt token and setting cookie");
+            LOGGER.debug("User logged in successfully. Retrieving jwt token and setting cookie");
 
             return ResponseEntity.ok()
-                    .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                    .header(HttpHeaders.SET_COOKIE, getTokenCookie(loggedIn.getToken()).toString())
+                    .header(HttpHeaders.SET_COOKIE, getRefreshTokenCookie(loggedIn.getRefreshToken()).toString())
                     .body(loggedIn);
 
         } catch (TicketShopException e) {
@@ -89,6 +88,88 @@ public class AuthController {
         }
     }
 
+    /**
+     * Logout, revoking the token used on the request and the refresh token
+     * The refresh token alone is enough, so a client whose access token already expired can still end its session
+     *
+     * @param token               token the request was authenticated with, null when not authenticated
+     * @param refreshTokenRequest {@link RefreshTokenRequestDto}, optional when the refresh token cookie is sent
+     * @param refreshTokenCookie  refresh token from the cookie
+     */
+    @PostMapping("/logout")
+    @Operation(summary = "Logout", description = "Revoke the token used on the request and the refresh token and clear the cookies, " +
+            "works with the refresh token alone once the access token expired")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "No Content"),
+            @ApiResponse(responseCode = "400", description = ErrorMessages.DATABASE_COMMUNICATION_ERROR,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<Void> logout(@Parameter(hidden = true) @RequestAttribute(value = TOKEN_ATTRIBUTE, required = false) String token,
+                                       @RequestBody(required = false) RefreshTokenRequestDto refreshTokenRequest,
+                                       @Parameter(hidden = true) @CookieValue(value = REFRESH_COOKIE_NAME, required = false) String refreshTokenCookie) {
+
+        LOGGER.debug("Request to logout");
+        String refreshToken = refreshTokenRequest != null && refreshTokenRequest.getRefreshToken() != null
+                ? refreshTokenRequest.getRefreshToken()
+                : refreshTokenCookie;
+        try {
+            this.authService.logout(token, refreshToken);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to logout", e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("User logged out successfully");
+        return ResponseEntity.noContent()
+                .header(HttpHeaders.SET_COOKIE, getTokenCookie("").toString())
+                .header(HttpHeaders.SET_COOKIE, getRefreshTokenCookie("").toString())
+                .build();
+    }
+
+    /**
+     * Refresh the access token
+     * The refresh token is rotated, the one sent can't be used again
+     *
+     * @param refreshTokenRequest {@link RefreshTokenRequestDto}, optional when the refresh token cookie is sent
+     * @param refreshTokenCookie  refresh token from the cookie
+     * @return {@link LoggedInDto} with user info and the new tokens
+     */
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh", description = "Issue a new access token and rotate the refresh token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = @Content(schema = @Schema(implementation = LoggedInDto.class))),
+            @ApiResponse(responseCode = "422", description = ErrorMessages.INVALID_TOKEN,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<LoggedInDto> refresh(@RequestBody(required = false) RefreshTokenRequestDto refreshTokenRequest,
+                                               @Parameter(hidden = true) @CookieValue(value = REFRESH_COOKIE_NAME, required = false) String refreshTokenCookie) {
+
+        LOGGER.debug("Request to refresh token");
+        String refreshToken = refreshTokenRequest != null && refreshTokenRequest.getRefreshToken() != null
+                ? refreshTokenRequest.getRefreshToken()
+                : refreshTokenCookie;
+        LoggedInDto loggedIn;
+        try {
+            loggedIn = this.authService.refreshToken(refreshToken);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to refresh token", e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Token refreshed successfully. Retrieving jwt token and setting cookie");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, getTokenCookie(loggedIn.getToken()).toString())
+                .header(HttpHeaders.SET_COOKIE, getRefreshTokenCookie(loggedIn.getRefreshToken()).toString())
+                .body(loggedIn);
+    }
+
     /**
      * Recover Password
      * An email will be sent with the link to make the reset
@@ -192,4 +273,36 @@ public class AuthController {
         }
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Cookie with the access token, an empty token clears it
+     *
+     * @param token token
+     * @return {@link ResponseCookie}
+     */
+    private static ResponseCookie getTokenCookie(String token) {
+        return ResponseCookie
+                .from(COOKIE_NAME, token)
+                .httpOnly(true)
+                .secure(false)
+                .maxAge(token.isEmpty() ? 0 : 24 * 60 * 60)
+                .path("/")
+                .build();
+    }
+
+    /**
+     * Cookie with the refresh token, only sent to the auth endpoints. An empty token clears it
+     *
+     * @param refreshToken refresh token
+     * @return {@link ResponseCookie}
+     */
+    private static ResponseCookie getRefreshTokenCookie(String refreshToken) {
+        return ResponseCookie
+                .from(REFRESH_COOKIE_NAME, refreshToken)
+                .httpOnly(true)
+                .secure(false)
+                .maxAge(refreshToken.isEmpty() ? 0 : 30 * 24 * 60 * 60)
+                .path("/api/auth")
+                .build();
+    }
 }
@@ -79,7 +79,7 @@ public class CalendarController {
                                                                         @PathVariable Long companyId,
                                                                         @PathVariable Long eventId) {
 
-        LOGGER.info("Request to create new calendar - {}", createCalendarDto);
+        LOGGER.debug("Request to create new calendar - {}", createCalendarDto);
         CalendarDetailsWithTicketsDto calendarDetailsDto;
         try {
             calendarDetailsDto = this.calendarServiceImp.createCalendar(createCalendarDto, companyId, eventId);
@@ -91,7 +91,7 @@ public class CalendarController {
             LOGGER.error("Failed to created calendar - {}", createCalendarDto, e);
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
-        LOGGER.info("Calendar created successfully. Retrieving created calendar with id {}", calendarDetailsDto.getCalendarId());
+        LOGGER.debug("Calendar created successfully. Retrieving created calendar with id {}", calendarDetailsDto.getCalendarId());
         return new ResponseEntity<>(calendarDetailsDto, HttpStatus.CREATED);
     }
 
@@ -110,7 +110,7 @@ public class CalendarController {
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<CalendarDetailsDto> getCalendarById(@PathVariable Long calendarId) {
 
-        LOGGER.info("Request to get calendar with id {}", calendarId);
+        LOGGER.debug("Request to get calendar with id {}", calendarId);
         CalendarDetailsDto calendarDetailsDto;
         try {
             calendarDetailsDto = this.calendarServiceImp.getCalendarById(calendarId);
@@ -123,7 +123,7 @@ public class CalendarController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieved calendar with id {}", calendarId);
+        LOGGER.debug("Retrieved calendar with id {}", calendarId);
         return new ResponseEntity<>(calendarDetailsDto, OK);
     }
 
@@ -148,7 +148,7 @@ public class CalendarController {
                                                                                   @RequestParam(defaultValue = "0") int page,
                                                                                   @RequestParam(defaultValue = "10") int size) {
 
-        LOGGER.info("Request to get calendar list with event id {}", eventId);
+        LOGGER.debug("Request to get calendar list with event id {}", eventId);
         Paginated<CalendarDetailsDto> calendarList;
         try {
             calendarList = this.calendarServiceImp.getCalendarListByEventId(eventId, page, size);
@@ -161,7 +161,7 @@ public class CalendarController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieved calendar list");
+        LOGGER.debug("Retrieved calendar list");
         return new ResponseEntity<>(calendarList, OK);
     }
 
@@ -189,7 +189,7 @@ public class CalendarController {
                                                @PathVariable Long eventId,
                                                @PathVariable Long calendarId) {
 
-        LOGGER.info("Request to delete calendar with id - {}", companyId);
+        LOGGER.debug("Request to delete calendar with id - {}", companyId);
         try {
             this.calendarServiceImp.deleteCalendar(companyId, eventId, calendarId);
 
@@ -201,7 +201,7 @@ public class CalendarController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Calendar with id {} deleted successfully", calendarId);
+        LOGGER.debug("Calendar with id {} deleted successfully", calendarId);
         return ResponseEntity.noContent().build();
     }
 
@@ -230,7 +230,7 @@ public class CalendarController {
                                                              @PathVariable Long calendarId,
                                                              @Valid @RequestBody UpdateCalendarDto updateCalendarDto) {
 
-        LOGGER.info("Request to update calendar with id {} - {}", companyId, updateCalendarDto);
+        LOGGER.debug("Request to update calendar with id {} - {}", companyId, updateCalendarDto);
         CalendarDetailsDto calendarDetailsDto;
         try {
             calendarDetailsDto = this.calendarServiceImp.updateCalendar(companyId, calendarId, updateCalendarDto);
@@ -243,7 +243,7 @@ public class CalendarController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Calendar with id {} updated successfully. Retrieving updated calendar", companyId);
+        LOGGER.debug("Calendar with id {} updated successfully. Retrieving updated calendar", companyId);
         return new ResponseEntity<>(calendarDetailsDto, HttpStatus.OK);
     }
 }
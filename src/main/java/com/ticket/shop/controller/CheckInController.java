@@ -0,0 +1,199 @@
+package com.ticket.shop.controller;
+
+import com.ticket.shop.command.checkin.CheckInDetailsDto;
+import com.ticket.shop.command.checkin.CheckInDto;
+import com.ticket.shop.command.checkin.CheckInSyncDto;
+import com.ticket.shop.command.checkin.CheckInSyncResultDto;
+import com.ticket.shop.command.checkin.CheckInTokenDto;
+import com.ticket.shop.error.Error;
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.TicketShopException;
+import com.ticket.shop.service.CheckInServiceImp;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.validation.Valid;
+
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * REST controller responsible for ticket check-in operations
+ */
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Check-ins", description = "Ticket check-in endpoints")
+public class CheckInController {
+
+    private static final Logger LOGGER = LogManager.getLogger(CheckInController.class);
+    private final CheckInServiceImp checkInServiceImp;
+
+    public CheckInController(CheckInServiceImp checkInServiceImp) {
+        this.checkInServiceImp = checkInServiceImp;
+    }
+
+    @GetMapping("/customers/{customerId}/tickets/{ticketId}/check-in-token")
+    @PreAuthorize("@authorized.hasRole('ADMIN') || (@authorized.hasRole('CUSTOMER') && @authorized.isUser(#customerId))")
+    @Operation(summary = "Get ticket check-in token",
+            description = "Get the signed token presented at the venue entrance - Access only for the customer who bought the ticket")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = @Content(schema = @Schema(implementation = CheckInTokenDto.class))),
+            @ApiResponse(responseCode = "404", description = ErrorMessages.TICKET_NOT_FOUND,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<CheckInTokenDto> getCheckInToken(@PathVariable Long customerId,
+                                                           @PathVariable Long ticketId) {
+
+        LOGGER.debug("Request to get check-in token of ticket id {} for customer id {}", ticketId, customerId);
+        CheckInTokenDto checkInTokenDto;
+        try {
+            checkInTokenDto = this.checkInServiceImp.getCheckInToken(customerId, ticketId);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to get check-in token of ticket id {}", ticketId, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Retrieved check-in token of ticket id {}", ticketId);
+        return new ResponseEntity<>(checkInTokenDto, OK);
+    }
+
+    @PostMapping("/companies/{companyId}/calendars/{calendarId}/check-ins")
+    @PreAuthorize("@authorized.hasRole('ADMIN') || ((@authorized.hasRole('COMPANY_ADMIN') || @authorized.hasRole('WORKER')) && @authorized.isOnCompany(#companyId))")
+    @Operation(summary = "Check in a ticket",
+            description = "Redeem a ticket check-in token - Access only for users with 'COMPANY_ADMIN' or 'WORKER' roles and the logged in user company id needs to be the same as the request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = @Content(schema = @Schema(implementation = CheckInDetailsDto.class))),
+            @ApiResponse(responseCode = "404", description = ErrorMessages.TICKET_NOT_FOUND,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "409", description = ErrorMessages.TICKET_ALREADY_CHECKED_IN,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "422", description = ErrorMessages.INVALID_TOKEN,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "400", description = ErrorMessages.DATABASE_COMMUNICATION_ERROR,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<CheckInDetailsDto> checkIn(@PathVariable Long companyId,
+                                                     @PathVariable Long calendarId,
+                                                     @Valid @RequestBody CheckInDto checkInDto) {
+
+        LOGGER.debug("Request to check in ticket on calendar id {}", calendarId);
+        CheckInDetailsDto checkInDetailsDto;
+        try {
+            checkInDetailsDto = this.checkInServiceImp.checkIn(companyId, calendarId, checkInDto);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to check in ticket on calendar id {}", calendarId, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Ticket id {} checked in successfully on calendar id {}", checkInDetailsDto.getTicketId(), calendarId);
+        return new ResponseEntity<>(checkInDetailsDto, OK);
+    }
+
+    @GetMapping("/companies/{companyId}/calendars/{calendarId}/check-ins/manifest")
+    @PreAuthorize("@authorized.hasRole('ADMIN') || ((@authorized.hasRole('COMPANY_ADMIN') || @authorized.hasRole('WORKER')) && @authorized.isOnCompany(#companyId))")
+    @Operation(summary = "Get check-in manifest",
+            description = "Download the binary manifest of the tickets that can still be checked in, used by the venue gates to validate tickets offline. " +
+                    "The ETag is the manifest version, send it on If-None-Match to skip the download when nothing changed - " +
+                    "Access only for users with 'COMPANY_ADMIN' or 'WORKER' roles and the logged in user company id needs to be the same as the request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)),
+            @ApiResponse(responseCode = "304", description = "The manifest didn't change"),
+            @ApiResponse(responseCode = "400", description = ErrorMessages.DATABASE_COMMUNICATION_ERROR,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<StreamingResponseBody> getCheckInManifest(@PathVariable Long companyId,
+                                                                    @PathVariable Long calendarId,
+                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        LOGGER.debug("Request to get check-in manifest of calendar id {}", calendarId);
+        long version;
+        try {
+            version = this.checkInServiceImp.getCheckInManifestVersion(companyId, calendarId);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to get check-in manifest version of calendar id {}", calendarId, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        String eTag = "\"" + version + "\"";
+        if (eTag.equals(ifNoneMatch)) {
+            LOGGER.debug("Check-in manifest of calendar id {} didn't change", calendarId);
+            return ResponseEntity.status(NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        LOGGER.debug("Streaming check-in manifest version {} of calendar id {}", version, calendarId);
+        StreamingResponseBody manifest = outputStream ->
+                this.checkInServiceImp.writeCheckInManifest(companyId, calendarId, version, outputStream);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(manifest);
+    }
+
+    @PostMapping("/companies/{companyId}/calendars/{calendarId}/check-ins/sync")
+    @PreAuthorize("@authorized.hasRole('ADMIN') || ((@authorized.hasRole('COMPANY_ADMIN') || @authorized.hasRole('WORKER')) && @authorized.isOnCompany(#companyId))")
+    @Operation(summary = "Sync offline check-ins",
+            description = "Upload the tickets redeemed offline by a venue gate - Access only for users with 'COMPANY_ADMIN' or 'WORKER' roles and the logged in user company id needs to be the same as the request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = @Content(schema = @Schema(implementation = CheckInSyncResultDto.class))),
+            @ApiResponse(responseCode = "400", description = ErrorMessages.DATABASE_COMMUNICATION_ERROR,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<CheckInSyncResultDto> syncCheckIns(@PathVariable Long companyId,
+                                                             @PathVariable Long calendarId,
+                                                             @Valid @RequestBody CheckInSyncDto checkInSyncDto) {
+
+        LOGGER.debug("Request to sync {} check-ins on calendar id {}", checkInSyncDto.getRedemptions().size(), calendarId);
+        CheckInSyncResultDto checkInSyncResultDto;
+        try {
+            checkInSyncResultDto = this.checkInServiceImp.syncCheckIns(companyId, calendarId, checkInSyncDto);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to sync check-ins on calendar id {}", calendarId, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Check-ins synced successfully on calendar id {}", calendarId);
+        return new ResponseEntity<>(checkInSyncResultDto, OK);
+    }
+}
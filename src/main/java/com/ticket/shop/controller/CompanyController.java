@@ -67,7 +67,7 @@ public class CompanyController {
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<CompanyDetailsDto> companyRegistration(@Valid @RequestBody CreateOrUpdateCompanyDto createOrUpdateCompanyDto) {
 
-        LOGGER.info("Request to create new company - {}", createOrUpdateCompanyDto);
+        LOGGER.debug("Request to create new company - {}", createOrUpdateCompanyDto);
         CompanyDetailsDto companyDetailsDto;
         try {
             companyDetailsDto = this.companyServiceImp.createCompany(createOrUpdateCompanyDto);
@@ -80,7 +80,7 @@ public class CompanyController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Company created successfully. Retrieving created company with id {}", companyDetailsDto.getCompanyId());
+        LOGGER.debug("Company created successfully. Retrieving created company with id {}", companyDetailsDto.getCompanyId());
         return new ResponseEntity<>(companyDetailsDto, HttpStatus.CREATED);
     }
 
@@ -99,7 +99,7 @@ public class CompanyController {
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<CompanyDetailsDto> getCompanyById(@PathVariable Long companyId) {
 
-        LOGGER.info("Request to get company with id {}", companyId);
+        LOGGER.debug("Request to get company with id {}", companyId);
         CompanyDetailsDto companyDetailsDto;
         try {
             companyDetailsDto = this.companyServiceImp.getCompanyById(companyId);
@@ -112,7 +112,7 @@ public class CompanyController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieved company with id {}", companyId);
+        LOGGER.debug("Retrieved company with id {}", companyId);
         return new ResponseEntity<>(companyDetailsDto, OK);
     }
 
@@ -138,7 +138,7 @@ public class CompanyController {
     public ResponseEntity<CompanyDetailsDto> updateCompany(@PathVariable Long companyId,
                                                            @Valid @RequestBody CreateOrUpdateCompanyDto updateCompanyDto) {
 
-        LOGGER.info("Request to update company with id {} - {}", companyId, updateCompanyDto);
+        LOGGER.debug("Request to update company with id {} - {}", companyId, updateCompanyDto);
         CompanyDetailsDto companyDetailsDto;
         try {
             companyDetailsDto = this.companyServiceImp.updateCompany(companyId, updateCompanyDto);
@@ -151,7 +151,7 @@ public class CompanyController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Company with id {} updated successfully. Retrieving updated company", companyId);
+        LOGGER.debug("Company with id {} updated successfully. Retrieving updated company", companyId);
         return new ResponseEntity<>(companyDetailsDto, HttpStatus.OK);
     }
 
@@ -173,7 +173,7 @@ public class CompanyController {
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<Void> deleteCompany(@PathVariable Long companyId) {
 
-        LOGGER.info("Request to delete company with id - {}", companyId);
+        LOGGER.debug("Request to delete company with id - {}", companyId);
         try {
             this.companyServiceImp.deleteCompany(companyId);
 
@@ -185,7 +185,7 @@ public class CompanyController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Company with id {} deleted successfully", companyId);
+        LOGGER.debug("Company with id {} deleted successfully", companyId);
         return ResponseEntity.noContent().build();
     }
 
@@ -206,7 +206,7 @@ public class CompanyController {
     public ResponseEntity<Paginated<CompanyDetailsDto>> getAllCompanies(@RequestParam(defaultValue = "0") int page,
                                                                         @RequestParam(defaultValue = "10") int size) {
 
-        LOGGER.info("Request to get company list - page: {}, size: {}", page, size);
+        LOGGER.debug("Request to get company list - page: {}, size: {}", page, size);
         Paginated<CompanyDetailsDto> companyDetailsDtoList;
         try {
             companyDetailsDtoList = this.companyServiceImp.getCompanyList(page, size);
@@ -219,7 +219,7 @@ public class CompanyController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieved company list");
+        LOGGER.debug("Retrieved company list");
         return new ResponseEntity<>(companyDetailsDtoList, OK);
     }
 }
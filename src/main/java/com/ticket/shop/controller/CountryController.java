@@ -53,7 +53,7 @@ public class CountryController {
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<CountryDetailsDto> getCountryById(@PathVariable Long countryId) {
 
-        LOGGER.info("Request to get country with id {}", countryId);
+        LOGGER.debug("Request to get country with id {}", countryId);
         CountryDetailsDto countryDetailsDto;
         try {
             countryDetailsDto = this.countryServiceImp.getCountryById(countryId);
@@ -66,7 +66,7 @@ public class CountryController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieved country with id {}", countryId);
+        LOGGER.debug("Retrieved country with id {}", countryId);
         return new ResponseEntity<>(countryDetailsDto, OK);
     }
 
@@ -87,7 +87,7 @@ public class CountryController {
     public ResponseEntity<Paginated<CountryDetailsDto>> getAllCountries(@RequestParam(defaultValue = "0") int page,
                                                                         @RequestParam(defaultValue = "10") int size) {
 
-        LOGGER.info("Request to get country list - page: {}, size: {}", page, size);
+        LOGGER.debug("Request to get country list - page: {}, size: {}", page, size);
         Paginated<CountryDetailsDto> countryDetailsDtoList;
         try {
             countryDetailsDtoList = this.countryServiceImp.getCountryList(page, size);
@@ -100,7 +100,7 @@ public class CountryController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieved country list");
+        LOGGER.debug("Retrieved country list");
         return new ResponseEntity<>(countryDetailsDtoList, OK);
     }
 }
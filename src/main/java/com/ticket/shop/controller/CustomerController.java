@@ -3,12 +3,15 @@ package com.ticket.shop.controller;
 import com.ticket.shop.command.Paginated;
 import com.ticket.shop.command.customer.CreateCustomerDto;
 import com.ticket.shop.command.customer.CustomerDetailsDto;
+import com.ticket.shop.command.customer.PatchCustomerDto;
 import com.ticket.shop.command.customer.UpdateCustomerDto;
+import com.ticket.shop.command.ticket.CustomerTicketsDto;
 import com.ticket.shop.error.Error;
 import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.TicketShopException;
 import com.ticket.shop.persistence.entity.UserEntity;
 import com.ticket.shop.service.CustomerServiceImp;
+import com.ticket.shop.service.TicketServiceImp;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -22,6 +25,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -45,9 +49,11 @@ public class CustomerController {
 
     private static final Logger LOGGER = LogManager.getLogger(CustomerController.class);
     private final CustomerServiceImp customerServiceImp;
+    private final TicketServiceImp ticketServiceImp;
 
-    public CustomerController(CustomerServiceImp customerServiceImp) {
+    public CustomerController(CustomerServiceImp customerServiceImp, TicketServiceImp ticketServiceImp) {
         this.customerServiceImp = customerServiceImp;
+        this.ticketServiceImp = ticketServiceImp;
     }
 
     /**
@@ -69,7 +75,7 @@ public class CustomerController {
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<CustomerDetailsDto> customerRegistration(@Valid @RequestBody CreateCustomerDto createCustomerDto) {
 
-        LOGGER.info("Request to create new customer - {}", createCustomerDto);
+        LOGGER.debug("Request to create new customer - {}", createCustomerDto);
         CustomerDetailsDto customerDetailsDto;
         try {
             customerDetailsDto = this.customerServiceImp.createCustomer(createCustomerDto);
@@ -82,7 +88,7 @@ public class CustomerController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Customer created successfully. Retrieving created customer with id {}", customerDetailsDto.getUserId());
+        LOGGER.debug("Customer created successfully. Retrieving created customer with id {}", customerDetailsDto.getUserId());
         return new ResponseEntity<>(customerDetailsDto, HttpStatus.CREATED);
     }
 
@@ -105,7 +111,7 @@ public class CustomerController {
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<CustomerDetailsDto> getCustomerById(@PathVariable Long customerId) {
 
-        LOGGER.info("Request to get customer with id {}", customerId);
+        LOGGER.debug("Request to get customer with id {}", customerId);
         CustomerDetailsDto customerDetailsDto;
         try {
             customerDetailsDto = this.customerServiceImp.getCustomerById(customerId);
@@ -118,10 +124,52 @@ public class CustomerController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieved customer with id {}", customerId);
+        LOGGER.debug("Retrieved customer with id {}", customerId);
         return new ResponseEntity<>(customerDetailsDto, OK);
     }
 
+    /**
+     * Get tickets bought by a customer, the most recent first
+     *
+     * @param customerId customer id
+     * @param cursor     cursor of the page, from the previous page
+     * @param size       page size
+     * @return {@link CustomerTicketsDto} the page of tickets and Ok httpStatus
+     */
+    @GetMapping("/{customerId}/tickets")
+    @PreAuthorize("@authorized.hasRole('ADMIN') || (@authorized.hasRole('CUSTOMER') && @authorized.isUser(#customerId))")
+    @Operation(summary = "Get customer tickets",
+            description = "Get tickets bought by the customer, the next page is requested with the returned cursor - Access only for the own user")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = @Content(schema = @Schema(implementation = CustomerTicketsDto.class))),
+            @ApiResponse(responseCode = "422", description = ErrorMessages.INVALID_CURSOR,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "400", description = ErrorMessages.DATABASE_COMMUNICATION_ERROR,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<CustomerTicketsDto> getCustomerTickets(@PathVariable Long customerId,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "20") int size) {
+
+        LOGGER.debug("Request to get tickets of customer with id {} - cursor: {}, size: {}", customerId, cursor, size);
+        CustomerTicketsDto customerTicketsDto;
+        try {
+            customerTicketsDto = this.ticketServiceImp.getCustomerTickets(customerId, cursor, size);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to get tickets of customer with id {}", customerId, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Retrieving tickets of customer with id {}", customerId);
+        return new ResponseEntity<>(customerTicketsDto, OK);
+    }
+
     /**
      * Get customers list
      *
@@ -142,7 +190,7 @@ public class CustomerController {
     public ResponseEntity<Paginated<CustomerDetailsDto>> getCustomersList(@RequestParam(defaultValue = "0") int page,
                                                                           @RequestParam(defaultValue = "10") int size) {
 
-        LOGGER.info("Request to get customers list - page: {}, size: {}", page, size);
+        LOGGER.debug("Request to get customers list - page: {}, size: {}", page, size);
         Paginated<CustomerDetailsDto> customersList;
         try {
             customersList = this.customerServiceImp.getCustomersList(page, size);
@@ -155,7 +203,7 @@ public class CustomerController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieving customers list");
+        LOGGER.debug("Retrieving customers list");
         return new ResponseEntity<>(customersList, HttpStatus.OK);
     }
 
@@ -182,7 +230,7 @@ public class CustomerController {
     public ResponseEntity<CustomerDetailsDto> updateCustomer(@PathVariable Long customerId,
                                                              @Valid @RequestBody UpdateCustomerDto updateCustomerDto) {
 
-        LOGGER.info("Request to update customer with id {} - {}", customerId, updateCustomerDto);
+        LOGGER.debug("Request to update customer with id {} - {}", customerId, updateCustomerDto);
         CustomerDetailsDto customerDetailsDto;
         try {
             customerDetailsDto = this.customerServiceImp.updateCustomer(customerId, updateCustomerDto);
@@ -195,7 +243,47 @@ public class CustomerController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Customer with id {} updated successfully. Retrieving updated customer", customerId);
+        LOGGER.debug("Customer with id {} updated successfully. Retrieving updated customer", customerId);
+        return new ResponseEntity<>(customerDetailsDto, HttpStatus.OK);
+    }
+
+    /**
+     * Partially update customer
+     *
+     * @param customerId       the customer id
+     * @param patchCustomerDto data to update, fields not sent are kept
+     * @return {@link CustomerDetailsDto}
+     */
+    @PatchMapping("/{customerId}")
+    @PreAuthorize("@authorized.hasRole('ADMIN') || (@authorized.hasRole('CUSTOMER') && @authorized.isUser(#customerId))")
+    @Operation(summary = "Partially update customer",
+            description = "Partially update customer, the password is only changed when sent - Access only for the own user")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = @Content(schema = @Schema(implementation = CustomerDetailsDto.class))),
+            @ApiResponse(responseCode = "404", description = ErrorMessages.USER_NOT_FOUND + " || " + ErrorMessages.COUNTRY_NOT_FOUND,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "400", description = ErrorMessages.DATABASE_COMMUNICATION_ERROR,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<CustomerDetailsDto> patchCustomer(@PathVariable Long customerId,
+                                                            @RequestBody PatchCustomerDto patchCustomerDto) {
+
+        LOGGER.debug("Request to patch customer with id {} - {}", customerId, patchCustomerDto);
+        CustomerDetailsDto customerDetailsDto;
+        try {
+            customerDetailsDto = this.customerServiceImp.patchCustomer(customerId, patchCustomerDto);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to patch customer with id {} - {}", customerId, patchCustomerDto, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Customer with id {} patched successfully. Retrieving updated customer", customerId);
         return new ResponseEntity<>(customerDetailsDto, HttpStatus.OK);
     }
 
@@ -217,7 +305,7 @@ public class CustomerController {
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<Void> deleteCustomer(@PathVariable Long customerId) {
 
-        LOGGER.info("Request to delete customer with id - {}", customerId);
+        LOGGER.debug("Request to delete customer with id - {}", customerId);
         try {
             this.customerServiceImp.deleteCustomer(customerId);
 
@@ -229,7 +317,7 @@ public class CustomerController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Customer with id {} deleted successfully", customerId);
+        LOGGER.debug("Customer with id {} deleted successfully", customerId);
         return ResponseEntity.noContent().build();
     }
 }
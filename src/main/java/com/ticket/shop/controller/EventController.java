@@ -74,7 +74,7 @@ public class EventController {
     public ResponseEntity<EventDetailsDto> createEvent(@Valid @RequestBody CreateEventDto createEventDto,
                                                        @PathVariable Long companyId) {
 
-        LOGGER.info("Request to create new event - {}", createEventDto);
+        LOGGER.debug("Request to create new event - {}", createEventDto);
         EventDetailsDto eventDetailsDto;
         try {
             eventDetailsDto = this.eventServiceImp.createEvent(createEventDto, companyId);
@@ -86,7 +86,7 @@ public class EventController {
             LOGGER.error("Failed to created event - {}", createEventDto, e);
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
-        LOGGER.info("Event created successfully. Retrieving created event with id {}", eventDetailsDto.getEventId());
+        LOGGER.debug("Event created successfully. Retrieving created event with id {}", eventDetailsDto.getEventId());
         return new ResponseEntity<>(eventDetailsDto, HttpStatus.CREATED);
     }
 
@@ -105,7 +105,7 @@ public class EventController {
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<EventDetailsWithCalendarIdsDto> getEventById(@PathVariable Long eventId) {
 
-        LOGGER.info("Request to get event with id {}", eventId);
+        LOGGER.debug("Request to get event with id {}", eventId);
         EventDetailsWithCalendarIdsDto eventDetailsDto;
         try {
             eventDetailsDto = this.eventServiceImp.getEventById(eventId);
@@ -118,7 +118,7 @@ public class EventController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieved event with id {}", eventId);
+        LOGGER.debug("Retrieved event with id {}", eventId);
         return new ResponseEntity<>(eventDetailsDto, OK);
     }
 
@@ -142,7 +142,7 @@ public class EventController {
                                                                    @DateTimeFormat(pattern = "yyyy-MM-dd")
                                                                    @RequestParam(required = false) Date date) {
 
-        LOGGER.info("Request to get event list - page: {}, size: {}", page, size);
+        LOGGER.debug("Request to get event list - page: {}, size: {}", page, size);
         Paginated<EventDetailsDto> eventList;
         try {
             eventList = this.eventServiceImp.getEventList(page, size, companyId, date);
@@ -155,7 +155,7 @@ public class EventController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieved event list");
+        LOGGER.debug("Retrieved event list");
         return new ResponseEntity<>(eventList, OK);
     }
 
@@ -182,7 +182,7 @@ public class EventController {
                                                        @PathVariable Long eventId,
                                                        @Valid @RequestBody UpdateEventDto updateEventDto) {
 
-        LOGGER.info("Request to update event with id {} from company id {} - {}", eventId, companyId, updateEventDto);
+        LOGGER.debug("Request to update event with id {} from company id {} - {}", eventId, companyId, updateEventDto);
         EventDetailsDto eventDetailsDto;
         try {
             eventDetailsDto = this.eventServiceImp.updateEvent(companyId, eventId, updateEventDto);
@@ -195,7 +195,7 @@ public class EventController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Event with id {} updated successfully. Retrieving updated event", eventId);
+        LOGGER.debug("Event with id {} updated successfully. Retrieving updated event", eventId);
         return new ResponseEntity<>(eventDetailsDto, HttpStatus.OK);
     }
 
@@ -222,7 +222,7 @@ public class EventController {
     public ResponseEntity<Void> deleteEvent(@PathVariable Long companyId,
                                             @PathVariable Long eventId) {
 
-        LOGGER.info("Request to delete event with id - {}", companyId);
+        LOGGER.debug("Request to delete event with id - {}", companyId);
         try {
             this.eventServiceImp.deleteEvent(companyId, eventId);
 
@@ -234,7 +234,7 @@ public class EventController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Event with id {} deleted successfully", companyId);
+        LOGGER.debug("Event with id {} deleted successfully", companyId);
         return ResponseEntity.noContent().build();
     }
 }
@@ -49,7 +49,8 @@ public class OrderController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Successfully Created",
                     content = @Content(schema = @Schema(implementation = OrderDetailsDto.class))),
-            @ApiResponse(responseCode = "422", description = "The given number for numberOfTickets and totalPrice must be greater than or equal to 1",
+            @ApiResponse(responseCode = "422", description = "The given number for numberOfTickets and totalPrice must be greater than or equal to 1 || "
+                    + ErrorMessages.ORDER_PRICE_MISMATCH + " || " + ErrorMessages.INVALID_TICKET_TYPE,
                     content = @Content(schema = @Schema(implementation = Error.class))),
             @ApiResponse(responseCode = "404", description = ErrorMessages.EVENT_NOT_FOUND + " || " + ErrorMessages.CALENDAR_NOT_FOUND + " || "
                     + ErrorMessages.USER_NOT_FOUND + " || " + ErrorMessages.TICKET_UNAVAILABLE,
@@ -57,11 +58,13 @@ public class OrderController {
             @ApiResponse(responseCode = "400", description = ErrorMessages.DATABASE_COMMUNICATION_ERROR + " || " + "PayPal Order Error",
                     content = @Content(schema = @Schema(implementation = Error.class))),
             @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "503", description = ErrorMessages.PAYMENT_UNAVAILABLE,
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<OrderDetailsDto> createOrder(@Valid @RequestBody CreateOrderDto createOrderDto,
                                                        HttpServletRequest request) {
 
-        LOGGER.info("Request to create new order - {}", createOrderDto);
+        LOGGER.debug("Request to create new order - {}", createOrderDto);
         OrderDetailsDto createdOrder;
         try {
             createdOrder = this.orderServiceImp.createOrder(createOrderDto, request.getRequestURL().toString());
@@ -73,7 +76,7 @@ public class OrderController {
             LOGGER.error("Failed to create order - {}", createOrderDto, e);
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
-        LOGGER.info("Order created successfully. Retrieving link to the payment {}", createdOrder.getPaymentLink());
+        LOGGER.debug("Order created successfully. Retrieving link to the payment {}", createdOrder.getPaymentLink());
         return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
     }
 
@@ -82,10 +85,14 @@ public class OrderController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully Captured"),
             @ApiResponse(responseCode = "400", description = ErrorMessages.DATABASE_COMMUNICATION_ERROR + " || " + "Capture Error",
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "409", description = ErrorMessages.RESERVATION_EXPIRED,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "503", description = ErrorMessages.PAYMENT_UNAVAILABLE,
                     content = @Content(schema = @Schema(implementation = Error.class)))})
     public ResponseEntity<String> captureOrder(@RequestParam String token) {
 
-        LOGGER.info("Capture order id - {}", token);
+        LOGGER.debug("Capture order id - {}", token);
         String orderStatus;
         try {
             orderStatus = this.orderServiceImp.captureOrder(token);
@@ -6,6 +6,7 @@ import com.ticket.shop.command.ticket.TotalOfTicketsDto;
 import com.ticket.shop.error.Error;
 import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.TicketShopException;
+import com.ticket.shop.service.TicketAvailabilityServiceImp;
 import com.ticket.shop.service.TicketServiceImp;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,6 +17,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,6 +26,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -40,9 +43,11 @@ public class TicketController {
 
     private static final Logger LOGGER = LogManager.getLogger(TicketController.class);
     private final TicketServiceImp ticketServiceImp;
+    private final TicketAvailabilityServiceImp ticketAvailabilityServiceImp;
 
-    public TicketController(TicketServiceImp ticketServiceImp) {
+    public TicketController(TicketServiceImp ticketServiceImp, TicketAvailabilityServiceImp ticketAvailabilityServiceImp) {
         this.ticketServiceImp = ticketServiceImp;
+        this.ticketAvailabilityServiceImp = ticketAvailabilityServiceImp;
     }
 
     @PostMapping("/companies/{companyId}/calendars/{calendarId}/tickets")
@@ -64,7 +69,7 @@ public class TicketController {
                                                                                  @PathVariable Long calendarId,
                                                                                  @Valid @RequestBody List<CreateTicketDto> createTicketDtoList) {
 
-        LOGGER.info("Request to create ticket list - {}", createTicketDtoList);
+        LOGGER.debug("Request to create ticket list - {}", createTicketDtoList);
         List<TicketDetailsWhenCreatedDto> ticketDetailsDtoList;
         try {
             ticketDetailsDtoList = this.ticketServiceImp.bulkCreateTicket(companyId, calendarId, createTicketDtoList);
@@ -77,7 +82,7 @@ public class TicketController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Ticket list created successfully. Retrieving created ticket list for calendar id {}", calendarId);
+        LOGGER.debug("Ticket list created successfully. Retrieving created ticket list for calendar id {}", calendarId);
         return new ResponseEntity<>(ticketDetailsDtoList, HttpStatus.CREATED);
     }
 
@@ -89,7 +94,7 @@ public class TicketController {
 
     public ResponseEntity<TotalOfTicketsDto> getTotalOfTicketsByCalendarId(@PathVariable Long calendarId) {
 
-        LOGGER.info("Request to get total of ticket on calendar id {}", calendarId);
+        LOGGER.debug("Request to get total of ticket on calendar id {}", calendarId);
         TotalOfTicketsDto totalOfTicketsDto;
         try {
             totalOfTicketsDto = this.ticketServiceImp.getTotalOfTicketsByCalendarId(calendarId);
@@ -102,7 +107,35 @@ public class TicketController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieved total of ticket on calendar id {}", calendarId);
+        LOGGER.debug("Retrieved total of ticket on calendar id {}", calendarId);
         return new ResponseEntity<>(totalOfTicketsDto, OK);
     }
+
+    @GetMapping(value = "/calendars/{calendarId}/tickets/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream total of tickets by calendar",
+            description = "Server-Sent Events stream of the total of tickets, per type and per status by calendar id. " +
+                    "The current totals are sent on connect and then every time they change, as 'availability' events")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = TotalOfTicketsDto.class))),
+            @ApiResponse(responseCode = "429", description = ErrorMessages.TOO_MANY_SUBSCRIBERS,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public SseEmitter streamTotalOfTicketsByCalendarId(@PathVariable Long calendarId) {
+
+        LOGGER.debug("Request to stream total of ticket on calendar id {}", calendarId);
+        SseEmitter sseEmitter;
+        try {
+            sseEmitter = this.ticketAvailabilityServiceImp.subscribe(calendarId);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to stream total of ticket on calendar id {}", calendarId, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Streaming total of ticket on calendar id {}", calendarId);
+        return sseEmitter;
+    }
 }
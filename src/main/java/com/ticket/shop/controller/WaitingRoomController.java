@@ -0,0 +1,179 @@
+package com.ticket.shop.controller;
+
+import com.ticket.shop.command.waitingroom.OpenWaitingRoomDto;
+import com.ticket.shop.command.waitingroom.QueueStatusDto;
+import com.ticket.shop.command.waitingroom.WaitingRoomDetailsDto;
+import com.ticket.shop.error.Error;
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.TicketShopException;
+import com.ticket.shop.service.WaitingRoomServiceImp;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * REST controller responsible for waiting room operations
+ */
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Waiting rooms", description = "Waiting room endpoints")
+public class WaitingRoomController {
+
+    private static final Logger LOGGER = LogManager.getLogger(WaitingRoomController.class);
+    private final WaitingRoomServiceImp waitingRoomServiceImp;
+
+    public WaitingRoomController(WaitingRoomServiceImp waitingRoomServiceImp) {
+        this.waitingRoomServiceImp = waitingRoomServiceImp;
+    }
+
+    @PostMapping("/companies/{companyId}/calendars/{calendarId}/waiting-room")
+    @PreAuthorize("@authorized.hasRole('ADMIN') || (@authorized.hasRole('COMPANY_ADMIN') && @authorized.isOnCompany(#companyId))")
+    @Operation(summary = "Open waiting room",
+            description = "Open the waiting room of a calendar, or change its settings if it's already open. While open, orders need an admission token - " +
+                    "Access only for users with 'COMPANY_ADMIN' role and the logged in user company id needs to be the same as the request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = @Content(schema = @Schema(implementation = WaitingRoomDetailsDto.class))),
+            @ApiResponse(responseCode = "404", description = ErrorMessages.CALENDAR_NOT_FOUND,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<WaitingRoomDetailsDto> openWaitingRoom(@PathVariable Long companyId,
+                                                                 @PathVariable Long calendarId,
+                                                                 @Valid @RequestBody OpenWaitingRoomDto openWaitingRoomDto) {
+
+        LOGGER.debug("Request to open waiting room of calendar id {} - {}", calendarId, openWaitingRoomDto);
+        WaitingRoomDetailsDto waitingRoomDetailsDto;
+        try {
+            waitingRoomDetailsDto = this.waitingRoomServiceImp.openWaitingRoom(companyId, calendarId, openWaitingRoomDto);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to open waiting room of calendar id {}", calendarId, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Waiting room of calendar id {} opened successfully - {}", calendarId, waitingRoomDetailsDto);
+        return new ResponseEntity<>(waitingRoomDetailsDto, OK);
+    }
+
+    @DeleteMapping("/companies/{companyId}/calendars/{calendarId}/waiting-room")
+    @PreAuthorize("@authorized.hasRole('ADMIN') || (@authorized.hasRole('COMPANY_ADMIN') && @authorized.isOnCompany(#companyId))")
+    @Operation(summary = "Close waiting room",
+            description = "Close the waiting room of a calendar - " +
+                    "Access only for users with 'COMPANY_ADMIN' role and the logged in user company id needs to be the same as the request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Successful Operation"),
+            @ApiResponse(responseCode = "404", description = ErrorMessages.WAITING_ROOM_NOT_FOUND,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<Void> closeWaitingRoom(@PathVariable Long companyId,
+                                                 @PathVariable Long calendarId) {
+
+        LOGGER.debug("Request to close waiting room of calendar id {}", calendarId);
+        try {
+            this.waitingRoomServiceImp.closeWaitingRoom(companyId, calendarId);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to close waiting room of calendar id {}", calendarId, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Waiting room of calendar id {} closed successfully", calendarId);
+        return new ResponseEntity<>(NO_CONTENT);
+    }
+
+    @PostMapping("/customers/{customerId}/calendars/{calendarId}/waiting-room")
+    @PreAuthorize("@authorized.hasRole('ADMIN') || (@authorized.hasRole('CUSTOMER') && @authorized.isUser(#customerId))")
+    @Operation(summary = "Join waiting room",
+            description = "Join the waiting room of a calendar and get the queue token to poll the position - Access only for the logged in customer")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successful Operation",
+                    content = @Content(schema = @Schema(implementation = QueueStatusDto.class))),
+            @ApiResponse(responseCode = "404", description = ErrorMessages.WAITING_ROOM_NOT_FOUND,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "429", description = ErrorMessages.WAITING_ROOM_FULL,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<QueueStatusDto> joinWaitingRoom(@PathVariable Long customerId,
+                                                          @PathVariable Long calendarId) {
+
+        LOGGER.debug("Request from customer id {} to join waiting room of calendar id {}", customerId, calendarId);
+        QueueStatusDto queueStatusDto;
+        try {
+            queueStatusDto = this.waitingRoomServiceImp.joinWaitingRoom(customerId, calendarId);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to join waiting room of calendar id {}", calendarId, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Customer id {} joined waiting room of calendar id {} on position {}", customerId, calendarId, queueStatusDto.getPosition());
+        return new ResponseEntity<>(queueStatusDto, CREATED);
+    }
+
+    @GetMapping("/customers/{customerId}/calendars/{calendarId}/waiting-room")
+    @PreAuthorize("@authorized.hasRole('ADMIN') || (@authorized.hasRole('CUSTOMER') && @authorized.isUser(#customerId))")
+    @Operation(summary = "Get waiting room position",
+            description = "Poll the position in the waiting room of a calendar, the admission token is returned once admitted - Access only for the logged in customer")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = @Content(schema = @Schema(implementation = QueueStatusDto.class))),
+            @ApiResponse(responseCode = "404", description = ErrorMessages.WAITING_ROOM_NOT_FOUND,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "422", description = ErrorMessages.INVALID_TOKEN,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<QueueStatusDto> getQueueStatus(@PathVariable Long customerId,
+                                                         @PathVariable Long calendarId,
+                                                         @RequestParam String queueToken) {
+
+        LOGGER.debug("Request from customer id {} to get position on waiting room of calendar id {}", customerId, calendarId);
+        QueueStatusDto queueStatusDto;
+        try {
+            queueStatusDto = this.waitingRoomServiceImp.getQueueStatus(customerId, calendarId, queueToken);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to get position on waiting room of calendar id {}", calendarId, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Retrieved position {} on waiting room of calendar id {}", queueStatusDto.getPosition(), calendarId);
+        return new ResponseEntity<>(queueStatusDto, OK);
+    }
+}
@@ -3,6 +3,7 @@ package com.ticket.shop.controller;
 import com.ticket.shop.command.Paginated;
 import com.ticket.shop.command.customer.CustomerDetailsDto;
 import com.ticket.shop.command.worker.CreateWorkerDto;
+import com.ticket.shop.command.worker.PatchWorkerDto;
 import com.ticket.shop.command.worker.UpdateWorkerDto;
 import com.ticket.shop.command.worker.WorkerDetailsDto;
 import com.ticket.shop.error.Error;
@@ -23,6 +24,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -77,7 +79,7 @@ public class WorkerController {
     public ResponseEntity<WorkerDetailsDto> workerRegistration(@PathVariable Long companyId,
                                                                @Valid @RequestBody CreateWorkerDto createWorkerDto) {
 
-        LOGGER.info("Request to create new worker - {}", createWorkerDto);
+        LOGGER.debug("Request to create new worker - {}", createWorkerDto);
         WorkerDetailsDto workerDetailsDto;
         try {
             workerDetailsDto = this.workerServiceImp.createWorker(companyId, createWorkerDto);
@@ -90,7 +92,7 @@ public class WorkerController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Worker created successfully. Retrieving created worker with id {}", workerDetailsDto.getUserId());
+        LOGGER.debug("Worker created successfully. Retrieving created worker with id {}", workerDetailsDto.getUserId());
         return new ResponseEntity<>(workerDetailsDto, HttpStatus.CREATED);
     }
 
@@ -116,7 +118,7 @@ public class WorkerController {
     public ResponseEntity<WorkerDetailsDto> getWorkerById(@PathVariable Long companyId,
                                                           @PathVariable Long workerId) {
 
-        LOGGER.info("Request to get worker with id {}", workerId);
+        LOGGER.debug("Request to get worker with id {}", workerId);
         WorkerDetailsDto workerDetailsDto;
         try {
             workerDetailsDto = this.workerServiceImp.getWorkerById(companyId, workerId);
@@ -129,7 +131,7 @@ public class WorkerController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieved worker with id {}", workerId);
+        LOGGER.debug("Retrieved worker with id {}", workerId);
         return new ResponseEntity<>(workerDetailsDto, OK);
     }
 
@@ -158,7 +160,7 @@ public class WorkerController {
                                                                       @RequestParam(defaultValue = "0") int page,
                                                                       @RequestParam(defaultValue = "10") int size) {
 
-        LOGGER.info("Request to get workers list - page: {}, size: {}", page, size);
+        LOGGER.debug("Request to get workers list - page: {}, size: {}", page, size);
         Paginated<WorkerDetailsDto> workersList;
         try {
             workersList = this.workerServiceImp.getWorkersList(companyId, page, size);
@@ -171,7 +173,7 @@ public class WorkerController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Retrieving workers list");
+        LOGGER.debug("Retrieving workers list");
         return new ResponseEntity<>(workersList, HttpStatus.OK);
     }
 
@@ -203,7 +205,7 @@ public class WorkerController {
                                                          @PathVariable Long workerId,
                                                          @Valid @RequestBody UpdateWorkerDto updateWorkerDto) {
 
-        LOGGER.info("Request to update worker with id {} - {}", workerId, updateWorkerDto);
+        LOGGER.debug("Request to update worker with id {} - {}", workerId, updateWorkerDto);
         WorkerDetailsDto workerDetailsDto;
         try {
             workerDetailsDto = this.workerServiceImp.updateWorker(companyId, workerId, updateWorkerDto);
@@ -216,7 +218,52 @@ public class WorkerController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Worker with id {} updated successfully. Retrieving updated worker", workerId);
+        LOGGER.debug("Worker with id {} updated successfully. Retrieving updated worker", workerId);
+        return new ResponseEntity<>(workerDetailsDto, HttpStatus.OK);
+    }
+
+    /**
+     * Partially update worker
+     *
+     * @param companyId      the company id
+     * @param workerId       the worker id
+     * @param patchWorkerDto data to update, fields not sent are kept
+     * @return the response entity
+     */
+    @PatchMapping("/companies/{companyId}/workers/{workerId}")
+    @PreAuthorize("@authorized.hasRole('ADMIN') || (@authorized.hasRole('COMPANY_ADMIN') && @authorized.isOnCompany(#companyId)) || @authorized.isUser(#workerId)")
+    @Operation(summary = "Partially update worker",
+            description = "Partially update worker, the password is only changed when sent - " +
+                    "Access only for users with 'COMPANY_ADMIN' role and the logged in user company id needs to be the same as the request - Or the logged in user id needs to be the same as the request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful Operation",
+                    content = @Content(schema = @Schema(implementation = WorkerDetailsDto.class))),
+            @ApiResponse(responseCode = "404", description = ErrorMessages.USER_NOT_FOUND + " || " + ErrorMessages.COUNTRY_NOT_FOUND,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "400", description = ErrorMessages.DATABASE_COMMUNICATION_ERROR,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "500", description = ErrorMessages.INVALID_ROLE,
+                    content = @Content(schema = @Schema(implementation = Error.class))),
+            @ApiResponse(responseCode = "403", description = ErrorMessages.ACCESS_DENIED,
+                    content = @Content(schema = @Schema(implementation = Error.class)))})
+    public ResponseEntity<WorkerDetailsDto> patchWorker(@PathVariable Long companyId,
+                                                        @PathVariable Long workerId,
+                                                        @RequestBody PatchWorkerDto patchWorkerDto) {
+
+        LOGGER.debug("Request to patch worker with id {} - {}", workerId, patchWorkerDto);
+        WorkerDetailsDto workerDetailsDto;
+        try {
+            workerDetailsDto = this.workerServiceImp.patchWorker(companyId, workerId, patchWorkerDto);
+
+        } catch (TicketShopException e) {
+            throw e;
+
+        } catch (Exception e) {
+            LOGGER.error("Failed to patch worker with id {} - {}", workerId, patchWorkerDto, e);
+            throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
+        }
+
+        LOGGER.debug("Worker with id {} patched successfully. Retrieving updated worker", workerId);
         return new ResponseEntity<>(workerDetailsDto, HttpStatus.OK);
     }
 
@@ -241,7 +288,7 @@ public class WorkerController {
     public ResponseEntity<Void> deleteWorker(@PathVariable Long companyId,
                                              @PathVariable Long workerId) {
 
-        LOGGER.info("Request to delete worker with id - {}", workerId);
+        LOGGER.debug("Request to delete worker with id - {}", workerId);
         try {
             this.workerServiceImp.deleteWorker(companyId, workerId);
 
@@ -253,7 +300,7 @@ public class WorkerController {
             throw new TicketShopException(ErrorMessages.OPERATION_FAILED, e);
         }
 
-        LOGGER.info("Worker with id {} deleted successfully", workerId);
+        LOGGER.debug("Worker with id {} deleted successfully", workerId);
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,14 +1,19 @@
 package com.ticket.shop.converter;
 
 import com.ticket.shop.command.ticket.CreateTicketDto;
+import com.ticket.shop.command.ticket.CustomerTicketDto;
 import com.ticket.shop.command.ticket.TicketDetailsDto;
 import com.ticket.shop.command.ticket.TicketDetailsWhenCreatedDto;
+import com.ticket.shop.command.ticket.TotalOfTicketsDto;
 import com.ticket.shop.enumerators.TicketStatus;
 import com.ticket.shop.enumerators.TicketType;
 import com.ticket.shop.persistence.entity.CalendarEntity;
 import com.ticket.shop.persistence.entity.PriceEntity;
 import com.ticket.shop.persistence.entity.TicketEntity;
+import com.ticket.shop.persistence.projection.CustomerTicketProjection;
+import com.ticket.shop.persistence.repository.TicketRepository.TicketCount;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -83,4 +88,45 @@ public class TicketConverter {
                 .distinct()
                 .toList();
     }
+
+    /**
+     * From {@link List<TicketCount>} to {@link TotalOfTicketsDto}
+     *
+     * @param ticketCounts {@link List<TicketCount>}
+     * @return {@link TotalOfTicketsDto}
+     */
+    public static TotalOfTicketsDto fromListOfTicketCountToTotalOfTicketsDto(List<TicketCount> ticketCounts) {
+        Map<TicketType, Map<TicketStatus, Long>> totalGroup = new HashMap<>();
+        long totalOfTickets = 0;
+        for (TicketCount ticketCount : ticketCounts) {
+            totalGroup.computeIfAbsent(ticketCount.getType(), type -> new HashMap<>())
+                    .put(ticketCount.getStatus(), ticketCount.getTotal());
+            totalOfTickets += ticketCount.getTotal();
+        }
+
+        return TotalOfTicketsDto.builder()
+                .totalOfTickets(Math.toIntExact(totalOfTickets))
+                .totalByTypeStatus(totalGroup)
+                .build();
+    }
+
+    /**
+     * From {@link CustomerTicketProjection} to {@link CustomerTicketDto}
+     *
+     * @param customerTicketProjection {@link CustomerTicketProjection}
+     * @return {@link CustomerTicketDto}
+     */
+    public static CustomerTicketDto fromCustomerTicketProjectionToCustomerTicketDto(CustomerTicketProjection customerTicketProjection) {
+        return CustomerTicketDto.builder()
+                .ticketId(customerTicketProjection.getTicketId())
+                .type(TicketType.valueOf(customerTicketProjection.getType()))
+                .price(customerTicketProjection.getPrice())
+                .eventId(customerTicketProjection.getEventId())
+                .eventName(customerTicketProjection.getEventName())
+                .calendarId(customerTicketProjection.getCalendarId())
+                .startDate(customerTicketProjection.getStartDate().toLocalDateTime())
+                .purchasedAt(customerTicketProjection.getPurchasedAt().toLocalDateTime())
+                .checkedIn(customerTicketProjection.getCheckedInAt() != null)
+                .build();
+    }
 }
@@ -5,7 +5,15 @@ import com.ticket.shop.command.customer.CreateCustomerDto;
 import com.ticket.shop.command.customer.CustomerDetailsDto;
 import com.ticket.shop.command.worker.CreateWorkerDto;
 import com.ticket.shop.command.worker.WorkerDetailsDto;
+import com.ticket.shop.enumerators.UserRole;
 import com.ticket.shop.persistence.entity.UserEntity;
+import com.ticket.shop.persistence.projection.CustomerDetailsProjection;
+import com.ticket.shop.persistence.projection.WorkerDetailsProjection;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * User converter for Worker Service and Customer Service
@@ -73,6 +81,38 @@ public class UserConverter {
                 .build();
     }
 
+    /**
+     * From {@link CustomerDetailsProjection} to {@link CustomerDetailsDto}
+     * @param customerDetailsProjection {@link CustomerDetailsProjection}
+     * @return {@link CustomerDetailsDto}
+     */
+    public static CustomerDetailsDto fromCustomerDetailsProjectionToCustomerDetailsDto(CustomerDetailsProjection customerDetailsProjection) {
+        return CustomerDetailsDto.builder()
+                .userId(customerDetailsProjection.getUserId())
+                .firstname(customerDetailsProjection.getFirstname())
+                .lastname(customerDetailsProjection.getLastname())
+                .email(customerDetailsProjection.getEmail())
+                .countryId(customerDetailsProjection.getCountryId())
+                .build();
+    }
+
+    /**
+     * From {@link WorkerDetailsProjection} to {@link WorkerDetailsDto}
+     * @param workerDetailsProjection {@link WorkerDetailsProjection}
+     * @return {@link WorkerDetailsDto}
+     */
+    public static WorkerDetailsDto fromWorkerDetailsProjectionToWorkerDetailsDto(WorkerDetailsProjection workerDetailsProjection) {
+        return WorkerDetailsDto.builder()
+                .userId(workerDetailsProjection.getUserId())
+                .firstname(workerDetailsProjection.getFirstname())
+                .lastname(workerDetailsProjection.getLastname())
+                .email(workerDetailsProjection.getEmail())
+                .roles(fromAggregatedRolesToUserRoles(workerDetailsProjection.getRoles()))
+                .companyId(workerDetailsProjection.getCompanyId())
+                .countryId(workerDetailsProjection.getCountryId())
+                .build();
+    }
+
     /**
      * Convert from {@link UserEntity} to {@link PrincipalDto}
      * @param userEntity {@link UserEntity}
@@ -88,4 +128,19 @@ public class UserConverter {
                 .companyId(userEntity.getCompanyEntity() != null ? userEntity.getCompanyEntity().getCompanyId() : null)
                 .build();
     }
+
+    /**
+     * From the comma separated roles of a projection to a set of {@link UserRole}
+     * @param roles comma separated roles, null when the user has none
+     * @return {@link Set<UserRole>}
+     */
+    private static Set<UserRole> fromAggregatedRolesToUserRoles(String roles) {
+        if (roles == null || roles.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        return Arrays.stream(roles.split(","))
+                .map(UserRole::valueOf)
+                .collect(Collectors.toSet());
+    }
 }
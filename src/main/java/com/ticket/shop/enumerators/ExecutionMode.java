@@ -0,0 +1,9 @@
+package com.ticket.shop.enumerators;
+
+/**
+ * Enumerator for the threads running requests and async tasks
+ */
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL
+}
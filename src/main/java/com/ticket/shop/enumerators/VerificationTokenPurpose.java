@@ -0,0 +1,9 @@
+package com.ticket.shop.enumerators;
+
+/**
+ * Enumerator for verification token purposes
+ */
+public enum VerificationTokenPurpose {
+    RESET_PASSWORD,
+    CONFIRM_EMAIL
+}
@@ -20,6 +20,19 @@ public class ErrorMessages {
     public static final String TICKET_UNAVAILABLE = "Can't find any ticket available to purchase";
     public static final String TICKET_CANT_BE_DELETED = "The tickets can't be deleted due some already been sold";
     public static final String INVALID_TICKET_TYPE = "Doesn't have all the ticket types necessary or some are invalid";
+    public static final String TICKET_NOT_FOUND = "Can't find any sold ticket with the given id";
+    public static final String TICKET_ALREADY_CHECKED_IN = "The ticket was already checked in";
+    public static final String INVALID_CURSOR = "The given cursor is invalid";
+    public static final String ORDER_WITHOUT_TICKETS = "The order must have at least one ticket";
+    public static final String ORDER_PRICE_MISMATCH = "The given total price doesn't match the price of the tickets";
+    public static final String RESERVATION_EXPIRED = "The tickets of the order were released after waiting too long for the payment";
+    public static final String WAITING_ROOM_NOT_FOUND = "The calendar doesn't have an open waiting room";
+    public static final String WAITING_ROOM_FULL = "The waiting room is full, try again later";
+    public static final String ADMISSION_REQUIRED = "A valid waiting room admission is required to buy tickets for this calendar";
+    public static final String TOO_MANY_SUBSCRIBERS = "Too many clients are following ticket availability, try again later";
+    public static final String TOO_MANY_REQUESTS = "Too many requests, try again later";
+    public static final String SERVICE_BUSY = "The service is busy, try again later";
+    public static final String PAYMENT_UNAVAILABLE = "The payment provider is unavailable, try again later";
 
     public static final String EMAIL_ALREADY_EXISTS = "The given email already exists";
     public static final String NAME_ALREADY_EXISTS = "The given name already exists";
@@ -0,0 +1,10 @@
+package com.ticket.shop.exception;
+
+/**
+ * Rate Limit Exceeded Exception
+ */
+public class RateLimitExceededException extends TicketShopException {
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,20 +1,34 @@
 package com.ticket.shop.exception;
 
 import com.ticket.shop.error.Error;
+import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.address.AddressNotFoundException;
 import com.ticket.shop.exception.auth.InvalidTokenException;
 import com.ticket.shop.exception.auth.InvalidRoleException;
+import com.ticket.shop.exception.auth.PasswordHashingUnavailableException;
 import com.ticket.shop.exception.calendar.CalendarNotFoundException;
 import com.ticket.shop.exception.company.CompanyAlreadyExistsException;
 import com.ticket.shop.exception.company.CompanyNotFoundException;
 import com.ticket.shop.exception.country.CountryNotFoundException;
 import com.ticket.shop.exception.event.EventNotFoundException;
+import com.ticket.shop.exception.order.EmptyOrderException;
 import com.ticket.shop.exception.order.OrderCaptureException;
+import com.ticket.shop.exception.order.OrderPriceMismatchException;
 import com.ticket.shop.exception.order.PayPalOrderException;
+import com.ticket.shop.exception.order.PaymentUnavailableException;
+import com.ticket.shop.exception.order.ReservationExpiredException;
+import com.ticket.shop.exception.ticket.InvalidCursorException;
 import com.ticket.shop.exception.ticket.InvalidTicketTypeException;
+import com.ticket.shop.exception.ticket.TicketAlreadyCheckedInException;
 import com.ticket.shop.exception.ticket.TicketCantBeDeletedException;
+import com.ticket.shop.exception.ticket.TicketNotFoundException;
+import com.ticket.shop.exception.ticket.TicketUnavailableException;
+import com.ticket.shop.exception.ticket.TooManySubscribersException;
 import com.ticket.shop.exception.user.UserAlreadyExistsException;
 import com.ticket.shop.exception.user.UserNotFoundException;
+import com.ticket.shop.exception.waitingroom.AdmissionRequiredException;
+import com.ticket.shop.exception.waitingroom.WaitingRoomFullException;
+import com.ticket.shop.exception.waitingroom.WaitingRoomNotFoundException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -27,6 +41,7 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import javax.servlet.http.HttpServletRequest;
+import java.sql.SQLTransientConnectionException;
 import java.util.Date;
 
 /**
@@ -35,6 +50,9 @@ import java.util.Date;
 @ControllerAdvice
 public class TicketShopExceptionHandler extends ResponseEntityExceptionHandler {
 
+    // Requests that timed out waiting for a pooled connection can be retried once the queue drains
+    private static final String CONNECTION_POOL_RETRY_AFTER_SECONDS = "1";
+
     /**
      * Handle "already exists" exceptions
      *
@@ -45,7 +63,9 @@ public class TicketShopExceptionHandler extends ResponseEntityExceptionHandler {
     @ExceptionHandler(value = {
             UserAlreadyExistsException.class,
             CompanyAlreadyExistsException.class,
-            TicketCantBeDeletedException.class
+            TicketCantBeDeletedException.class,
+            TicketAlreadyCheckedInException.class,
+            ReservationExpiredException.class
     })
     public ResponseEntity<Error> handlerConflictException(Exception ex, HttpServletRequest request) {
         return buildErrorResponse(ex, request, HttpStatus.CONFLICT);
@@ -64,7 +84,10 @@ public class TicketShopExceptionHandler extends ResponseEntityExceptionHandler {
             CompanyNotFoundException.class,
             AddressNotFoundException.class,
             EventNotFoundException.class,
-            CalendarNotFoundException.class
+            CalendarNotFoundException.class,
+            TicketNotFoundException.class,
+            TicketUnavailableException.class,
+            WaitingRoomNotFoundException.class
     })
     public ResponseEntity<Error> handlerNotFoundException(Exception ex, HttpServletRequest request) {
         return buildErrorResponse(ex, request, HttpStatus.NOT_FOUND);
@@ -83,6 +106,9 @@ public class TicketShopExceptionHandler extends ResponseEntityExceptionHandler {
             PayPalOrderException.class
     })
     public ResponseEntity<Error> handlerBadRequestException(Exception ex, HttpServletRequest request) {
+        if (isConnectionPoolExhausted(ex)) {
+            return buildConnectionPoolExhaustedResponse(request);
+        }
         return buildErrorResponse(ex, request, HttpStatus.BAD_REQUEST);
     }
 
@@ -95,7 +121,8 @@ public class TicketShopExceptionHandler extends ResponseEntityExceptionHandler {
      */
     @ExceptionHandler(value = {
             AccessDeniedException.class,
-            InvalidRoleException.class
+            InvalidRoleException.class,
+            AdmissionRequiredException.class
     })
     public ResponseEntity<Error> handlerForbiddenException(Exception ex, HttpServletRequest request) {
         return buildErrorResponse(ex, request, HttpStatus.FORBIDDEN);
@@ -110,12 +137,46 @@ public class TicketShopExceptionHandler extends ResponseEntityExceptionHandler {
      */
     @ExceptionHandler(value = {
             InvalidTokenException.class,
-            InvalidTicketTypeException.class
+            InvalidTicketTypeException.class,
+            InvalidCursorException.class,
+            OrderPriceMismatchException.class,
+            EmptyOrderException.class
     })
     public ResponseEntity<Error> handlerUnprocessableEntityException(Exception ex, HttpServletRequest request) {
         return buildErrorResponse(ex, request, HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
+    /**
+     * Handle "too many requests" exceptions
+     *
+     * @param ex      exception
+     * @param request http Servlet Request
+     * @return {@link Error}
+     */
+    @ExceptionHandler(value = {
+            WaitingRoomFullException.class,
+            TooManySubscribersException.class,
+            RateLimitExceededException.class
+    })
+    public ResponseEntity<Error> handlerTooManyRequestsException(Exception ex, HttpServletRequest request) {
+        return buildErrorResponse(ex, request, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Handle "service unavailable" exceptions
+     *
+     * @param ex      exception
+     * @param request http Servlet Request
+     * @return {@link Error}
+     */
+    @ExceptionHandler(value = {
+            PasswordHashingUnavailableException.class,
+            PaymentUnavailableException.class
+    })
+    public ResponseEntity<Error> handlerServiceUnavailableException(Exception ex, HttpServletRequest request) {
+        return buildErrorResponse(ex, request, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     /**
      * Handle method other exception
      *
@@ -125,6 +186,9 @@ public class TicketShopExceptionHandler extends ResponseEntityExceptionHandler {
      */
     @ExceptionHandler(value = {Exception.class})
     public ResponseEntity<Error> handlerAnyOtherException(Exception ex, HttpServletRequest request) {
+        if (isConnectionPoolExhausted(ex)) {
+            return buildConnectionPoolExhaustedResponse(request);
+        }
         return buildErrorResponse(ex, request, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
@@ -148,6 +212,40 @@ public class TicketShopExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
+    /**
+     * Check if the exception was caused by a connection pool timeout, thrown when no connection was free in time
+     *
+     * @param ex exception
+     * @return true if some cause is a connection pool timeout
+     */
+    private static boolean isConnectionPoolExhausted(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build the service unavailable response of a connection pool timeout, with the seconds to wait on Retry-After
+     *
+     * @param request http Servlet Request
+     * @return {@link Error}
+     */
+    private ResponseEntity<Error> buildConnectionPoolExhaustedResponse(HttpServletRequest request) {
+        Error error = Error.builder()
+                .timestamp(new Date())
+                .message(ErrorMessages.SERVICE_BUSY)
+                .method(request.getMethod())
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, CONNECTION_POOL_RETRY_AFTER_SECONDS)
+                .body(error);
+    }
+
     /**
      * Build the error response
      *
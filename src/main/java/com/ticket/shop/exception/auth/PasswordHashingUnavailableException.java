@@ -0,0 +1,16 @@
+package com.ticket.shop.exception.auth;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Password Hashing Unavailable Exception
+ */
+public class PasswordHashingUnavailableException extends TicketShopException {
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ticket.shop.exception.order;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Empty Order Exception
+ */
+public class EmptyOrderException extends TicketShopException {
+    public EmptyOrderException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ticket.shop.exception.order;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Order Price Mismatch Exception
+ */
+public class OrderPriceMismatchException extends TicketShopException {
+    public OrderPriceMismatchException(String message) {
+        super(message);
+    }
+}
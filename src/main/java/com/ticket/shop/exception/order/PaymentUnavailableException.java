@@ -0,0 +1,16 @@
+package com.ticket.shop.exception.order;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Payment Unavailable Exception
+ */
+public class PaymentUnavailableException extends TicketShopException {
+    public PaymentUnavailableException(String message) {
+        super(message);
+    }
+
+    public PaymentUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
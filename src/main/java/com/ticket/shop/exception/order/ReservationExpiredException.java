@@ -0,0 +1,12 @@
+package com.ticket.shop.exception.order;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Reservation Expired Exception
+ */
+public class ReservationExpiredException extends TicketShopException {
+    public ReservationExpiredException(String message) {
+        super(message);
+    }
+}
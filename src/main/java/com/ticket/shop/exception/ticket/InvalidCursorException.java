@@ -0,0 +1,12 @@
+package com.ticket.shop.exception.ticket;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Invalid Cursor Exception
+ */
+public class InvalidCursorException extends TicketShopException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ticket.shop.exception.ticket;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Ticket Already Checked In Exception
+ */
+public class TicketAlreadyCheckedInException extends TicketShopException {
+    public TicketAlreadyCheckedInException(String message) {
+        super(message);
+    }
+}
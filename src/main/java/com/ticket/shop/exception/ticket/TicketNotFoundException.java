@@ -0,0 +1,12 @@
+package com.ticket.shop.exception.ticket;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Ticket Not Found Exception
+ */
+public class TicketNotFoundException extends TicketShopException {
+    public TicketNotFoundException(String message) {
+        super(message);
+    }
+}
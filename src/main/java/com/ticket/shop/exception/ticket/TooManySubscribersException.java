@@ -0,0 +1,12 @@
+package com.ticket.shop.exception.ticket;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Too Many Subscribers Exception
+ */
+public class TooManySubscribersException extends TicketShopException {
+    public TooManySubscribersException(String message) {
+        super(message);
+    }
+}
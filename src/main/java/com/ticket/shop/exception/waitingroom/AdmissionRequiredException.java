@@ -0,0 +1,12 @@
+package com.ticket.shop.exception.waitingroom;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Admission Required Exception
+ */
+public class AdmissionRequiredException extends TicketShopException {
+    public AdmissionRequiredException(String message) {
+        super(message);
+    }
+}
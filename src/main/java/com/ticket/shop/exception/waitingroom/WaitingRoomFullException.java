@@ -0,0 +1,12 @@
+package com.ticket.shop.exception.waitingroom;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Waiting Room Full Exception
+ */
+public class WaitingRoomFullException extends TicketShopException {
+    public WaitingRoomFullException(String message) {
+        super(message);
+    }
+}
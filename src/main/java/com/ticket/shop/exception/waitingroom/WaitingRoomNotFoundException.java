@@ -0,0 +1,12 @@
+package com.ticket.shop.exception.waitingroom;
+
+import com.ticket.shop.exception.TicketShopException;
+
+/**
+ * Waiting Room Not Found Exception
+ */
+public class WaitingRoomNotFoundException extends TicketShopException {
+    public WaitingRoomNotFoundException(String message) {
+        super(message);
+    }
+}
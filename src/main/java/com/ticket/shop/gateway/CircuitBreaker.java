@@ -0,0 +1,94 @@
+package com.ticket.shop.gateway;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consecutive failures circuit breaker of a remote service
+ * Open after the failure threshold, calls fail fast until the open time has passed. Then a single trial call is
+ * let through, half open, and its outcome closes or opens the circuit again
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = LogManager.getLogger(CircuitBreaker.class);
+
+    /**
+     * Circuit state, the ordinal is the value of the state gauge
+     */
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInProgress;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * Check if a call can be made, every allowed call must report its outcome
+     *
+     * @return true if the call can be made
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (this.state == State.OPEN && System.nanoTime() - this.openedAt >= this.openNanos) {
+            this.state = State.HALF_OPEN;
+            this.trialInProgress = false;
+        }
+
+        return switch (this.state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (this.trialInProgress) {
+                    yield false;
+                }
+                this.trialInProgress = true;
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Report a successful call, the remote service answered
+     */
+    public synchronized void onSuccess() {
+        if (this.state != State.CLOSED) {
+            LOGGER.info("Circuit {} closed", this.name);
+        }
+        this.state = State.CLOSED;
+        this.consecutiveFailures = 0;
+        this.trialInProgress = false;
+    }
+
+    /**
+     * Report a failed call, the remote service didn't answer in time or answered with a server error
+     */
+    public synchronized void onFailure() {
+        this.consecutiveFailures++;
+        if (this.state == State.HALF_OPEN || this.consecutiveFailures >= this.failureThreshold) {
+            if (this.state != State.OPEN) {
+                LOGGER.warn("Circuit {} opened after {} consecutive failures, calls fail fast for {} ms",
+                        this.name, this.consecutiveFailures, TimeUnit.NANOSECONDS.toMillis(this.openNanos));
+            }
+            this.state = State.OPEN;
+            this.openedAt = System.nanoTime();
+            this.trialInProgress = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return this.state;
+    }
+}
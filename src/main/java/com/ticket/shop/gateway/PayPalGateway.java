@@ -0,0 +1,345 @@
+package com.ticket.shop.gateway;
+
+import com.paypal.core.PayPalEnvironment;
+import com.paypal.core.object.AccessToken;
+import com.paypal.core.request.AccessTokenRequest;
+import com.paypal.http.Encoder;
+import com.paypal.http.Headers;
+import com.paypal.http.HttpRequest;
+import com.paypal.http.exceptions.HttpException;
+import com.paypal.orders.Order;
+import com.paypal.orders.OrderRequest;
+import com.paypal.orders.OrdersCaptureRequest;
+import com.paypal.orders.OrdersCreateRequest;
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.order.OrderCaptureException;
+import com.ticket.shop.exception.order.PayPalOrderException;
+import com.ticket.shop.exception.order.PaymentUnavailableException;
+import com.ticket.shop.properties.PayPalProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PayPal Gateway
+ * Calls the PayPal REST API on a shared HTTP client, which keeps its connections open between calls. The SDK client
+ * opens a new connection, TLS handshake included, on every call and waits up to its default timeouts.
+ * Each call has a deadline, calls beyond the concurrent limit or while the circuit is open fail fast with a 503
+ */
+@Component
+@ConditionalOnProperty(name = "paypal.gateway", havingValue = "paypal", matchIfMissing = true)
+public class PayPalGateway implements PaymentGateway {
+
+    private static final Logger LOGGER = LogManager.getLogger(PayPalGateway.class);
+
+    private static final Pattern ISSUE_PATTERN = Pattern.compile("\"issue\":\"(\\w+)\"");
+    private static final String LIVE = "live";
+    // Idempotency key, PayPal answers retries with the response of the first request
+    private static final String REQUEST_ID_HEADER = "PayPal-Request-Id";
+
+    private final PayPalEnvironment environment;
+    private final HttpClient httpClient;
+    private final Encoder encoder = new Encoder();
+    private final Duration deadline;
+    private final long tokenRefreshMarginNanos;
+    private final int maxConcurrentCalls;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    // Current access token, or its renewal while in progress so concurrent calls wait for the same request
+    private final AtomicReference<CompletableFuture<CachedToken>> accessToken = new AtomicReference<>();
+    private final MeterRegistry meterRegistry;
+    private final Counter circuitOpenCounter;
+    private final Counter bulkheadFullCounter;
+
+    public PayPalGateway(PayPalProperties payPalProperties, MeterRegistry meterRegistry) {
+        PayPalProperties.Client client = payPalProperties.getClient();
+        PayPalEnvironment defaultEnvironment = LIVE.equalsIgnoreCase(payPalProperties.getEnvironment())
+                ? new PayPalEnvironment.Live(client.getId(), client.getSecret())
+                : new PayPalEnvironment.Sandbox(client.getId(), client.getSecret());
+        this.environment = payPalProperties.getBaseUrl() == null || payPalProperties.getBaseUrl().isBlank()
+                ? defaultEnvironment
+                : new PayPalEnvironment(client.getId(), client.getSecret(), payPalProperties.getBaseUrl(), defaultEnvironment.webUrl());
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(payPalProperties.getConnectTimeoutMillis()))
+                .build();
+        this.deadline = Duration.ofMillis(payPalProperties.getDeadlineMillis());
+        this.tokenRefreshMarginNanos = TimeUnit.SECONDS.toNanos(payPalProperties.getTokenRefreshMarginSeconds());
+        this.maxConcurrentCalls = payPalProperties.getMaxConcurrentCalls();
+        this.bulkhead = new Semaphore(this.maxConcurrentCalls);
+        this.circuitBreaker = new CircuitBreaker("paypal", payPalProperties.getCircuitBreaker().getFailureThreshold(),
+                payPalProperties.getCircuitBreaker().getOpenMillis());
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("paypal.circuit.state", this.circuitBreaker, circuitBreaker -> circuitBreaker.getState().ordinal())
+                .description("PayPal circuit state, 0 closed, 1 half open and 2 open")
+                .register(meterRegistry);
+        Gauge.builder("paypal.calls.available", this.bulkhead, Semaphore::availablePermits)
+                .description("PayPal calls that can still start before new ones are rejected")
+                .register(meterRegistry);
+        this.circuitOpenCounter = Counter.builder("paypal.rejected")
+                .description("PayPal calls rejected without calling PayPal")
+                .tag("reason", "circuit_open")
+                .register(meterRegistry);
+        this.bulkheadFullCounter = Counter.builder("paypal.rejected")
+                .description("PayPal calls rejected without calling PayPal")
+                .tag("reason", "bulkhead_full")
+                .register(meterRegistry);
+
+        LOGGER.info("PayPal gateway on {}", this.environment.baseUrl());
+    }
+
+    /**
+     * Create order, retries with the same request id get the order created by the first one
+     *
+     * @see PaymentGateway#createOrder(String, OrderRequest)
+     */
+    @Override
+    public Order createOrder(String requestId, OrderRequest orderRequest) {
+        OrdersCreateRequest ordersCreateRequest = new OrdersCreateRequest().requestBody(orderRequest);
+        ordersCreateRequest.header(REQUEST_ID_HEADER, requestId);
+        return execute("create", ordersCreateRequest, PayPalOrderException::new);
+    }
+
+    /**
+     * Capture order, retries of the same order get the result of the first capture
+     *
+     * @see PaymentGateway#captureOrder(String)
+     */
+    @Override
+    public Order captureOrder(String orderId) {
+        OrdersCaptureRequest ordersCaptureRequest = new OrdersCaptureRequest(orderId);
+        ordersCaptureRequest.header(REQUEST_ID_HEADER, "capture-" + orderId);
+        return execute("capture", ordersCaptureRequest, OrderCaptureException::new);
+    }
+
+    /**
+     * Call PayPal and wait for the response until the deadline
+     * PayPal error responses are thrown with the issue as message, PayPal not answering, 429 and 5xx responses are a
+     * {@link PaymentUnavailableException}
+     *
+     * @param operation    operation name, tag of the metrics
+     * @param request      PayPal request
+     * @param errorFactory exception of the PayPal error responses, from the issue and the cause
+     * @param <T>          response type
+     * @return the response body
+     */
+    private <T> T execute(String operation, HttpRequest<T> request, BiFunction<String, Throwable, RuntimeException> errorFactory) {
+        if (!this.bulkhead.tryAcquire()) {
+            this.bulkheadFullCounter.increment();
+            LOGGER.error("PayPal {} rejected, {} calls already in progress", operation, this.maxConcurrentCalls);
+            throw new PaymentUnavailableException(ErrorMessages.PAYMENT_UNAVAILABLE);
+        }
+        if (!this.circuitBreaker.tryAcquirePermission()) {
+            this.bulkhead.release();
+            this.circuitOpenCounter.increment();
+            LOGGER.warn("PayPal {} rejected, the circuit is open", operation);
+            throw new PaymentUnavailableException(ErrorMessages.PAYMENT_UNAVAILABLE);
+        }
+
+        // The call keeps its permit until PayPal answers or the request timeout ends it, even after the caller gave up
+        long startedAt = System.nanoTime();
+        CompletableFuture<CachedToken> token = getAccessToken();
+        CompletableFuture<T> call = token
+                .thenCompose(cachedToken -> send(request, cachedToken.authorization()));
+        call.whenComplete((result, error) -> {
+            this.bulkhead.release();
+            onCallCompleted(operation, startedAt, token, unwrap(error));
+        });
+
+        try {
+            return call.get(this.deadline.toNanos(), TimeUnit.NANOSECONDS);
+
+        } catch (TimeoutException e) {
+            LOGGER.error("PayPal {} not answered after {} ms", operation, this.deadline.toMillis());
+            throw new PaymentUnavailableException(ErrorMessages.PAYMENT_UNAVAILABLE, e);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentUnavailableException(ErrorMessages.PAYMENT_UNAVAILABLE, e);
+
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e.getCause());
+            if (cause instanceof HttpException httpException && !isServerError(httpException)) {
+                LOGGER.error("PayPal {} failed with status {} - {}", operation, httpException.statusCode(), httpException.getMessage());
+                throw errorFactory.apply(extractIssue(httpException), httpException);
+            }
+
+            LOGGER.error("PayPal {} failed - ", operation, cause);
+            throw new PaymentUnavailableException(ErrorMessages.PAYMENT_UNAVAILABLE, cause);
+        }
+    }
+
+    /**
+     * Record the outcome of a call on the circuit breaker and the paypal.requests timer
+     * Error responses from PayPal are answers and count as successes, except for 429 and 5xx
+     *
+     * @param operation operation name
+     * @param startedAt call start, in nanos
+     * @param token     access token used by the call
+     * @param error     call error, null on success
+     */
+    private void onCallCompleted(String operation, long startedAt, CompletableFuture<CachedToken> token, Throwable error) {
+        String outcome;
+        if (error == null) {
+            outcome = "success";
+        } else if (error instanceof HttpException httpException) {
+            outcome = isServerError(httpException) ? "server_error" : "client_error";
+            if (httpException.statusCode() == HttpStatus.UNAUTHORIZED.value()) {
+                // Revoked before its expiry, the next call gets a new one. Only this token is dropped, a renewal
+                // started by another call is kept
+                this.accessToken.compareAndSet(token, null);
+            }
+        } else if (error instanceof HttpTimeoutException) {
+            outcome = "timeout";
+        } else {
+            outcome = "error";
+        }
+
+        if (outcome.equals("success") || outcome.equals("client_error")) {
+            this.circuitBreaker.onSuccess();
+        } else {
+            this.circuitBreaker.onFailure();
+        }
+
+        Timer.builder("paypal.requests")
+                .description("PayPal calls, access token included")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(this.meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the cached access token, requesting a new one when it is about to expire
+     *
+     * @return the cached access token or its renewal
+     */
+    private CompletableFuture<CachedToken> getAccessToken() {
+        while (true) {
+            CompletableFuture<CachedToken> current = this.accessToken.get();
+            if (current != null && !current.isCompletedExceptionally()
+                    && (!current.isDone() || current.join().refreshAt() - System.nanoTime() > 0)) {
+                return current;
+            }
+
+            CompletableFuture<CachedToken> renewal = new CompletableFuture<>();
+            if (this.accessToken.compareAndSet(current, renewal)) {
+                LOGGER.debug("Requesting PayPal access token");
+                send(new AccessTokenRequest(this.environment), null)
+                        .thenApply(this::toCachedToken)
+                        .whenComplete((token, error) -> {
+                            if (error != null) {
+                                renewal.completeExceptionally(error);
+                            } else {
+                                renewal.complete(token);
+                            }
+                        });
+                return renewal;
+            }
+        }
+    }
+
+    private CachedToken toCachedToken(AccessToken accessToken) {
+        long expiresInNanos = TimeUnit.SECONDS.toNanos(accessToken.expiresIn());
+        return new CachedToken(accessToken.authorizationString(),
+                System.nanoTime() + expiresInNanos - Math.min(this.tokenRefreshMarginNanos, expiresInNanos / 2));
+    }
+
+    /**
+     * Send the PayPal request on the shared client, the SDK encoder serializes the request and deserializes the response
+     *
+     * @param request       PayPal request
+     * @param authorization authorization header value, null when the request has its own
+     * @param <T>           response type
+     * @return the response body, {@link HttpException} with the response body when it isn't 2xx
+     */
+    private <T> CompletableFuture<T> send(HttpRequest<T> request, String authorization) {
+        java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest
+                .newBuilder(URI.create(this.environment.baseUrl() + request.path()))
+                .timeout(this.deadline);
+        for (String name : request.headers()) {
+            builder.header(name, request.headers().header(name));
+        }
+        if (authorization != null) {
+            builder.setHeader(Headers.AUTHORIZATION, authorization);
+        }
+
+        try {
+            builder.method(request.verb(), request.requestBody() == null
+                    ? java.net.http.HttpRequest.BodyPublishers.noBody()
+                    : java.net.http.HttpRequest.BodyPublishers.ofByteArray(this.encoder.serializeRequest(request)));
+
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return this.httpClient.sendAsync(builder.build(), java.net.http.HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> readResponse(response, request.responseClass()));
+    }
+
+    private <T> T readResponse(java.net.http.HttpResponse<byte[]> response, Class<T> responseClass) {
+        Headers headers = new Headers();
+        response.headers().map().forEach((name, values) -> headers.header(name, String.join(",", values)));
+
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new CompletionException(new HttpException(new String(response.body(), StandardCharsets.UTF_8),
+                    response.statusCode(), headers));
+        }
+        if (response.body().length == 0 || Void.class.isAssignableFrom(responseClass)) {
+            return null;
+        }
+
+        try {
+            return this.encoder.deserializeResponse(new ByteArrayInputStream(response.body()), responseClass, headers);
+
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException || error instanceof ExecutionException) {
+            if (error.getCause() == null) {
+                return error;
+            }
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static boolean isServerError(HttpException e) {
+        return e.statusCode() == HttpStatus.TOO_MANY_REQUESTS.value() || e.statusCode() >= 500;
+    }
+
+    private static String extractIssue(HttpException e) {
+        Matcher matcher = ISSUE_PATTERN.matcher(e.getMessage());
+        return matcher.find() ? matcher.group(1) : "";
+    }
+
+    private record CachedToken(String authorization, long refreshAt) {
+    }
+}
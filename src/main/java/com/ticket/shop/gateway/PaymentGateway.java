@@ -0,0 +1,13 @@
+package com.ticket.shop.gateway;
+
+import com.paypal.orders.Order;
+import com.paypal.orders.OrderRequest;
+
+/**
+ * Payment Gateway
+ */
+public interface PaymentGateway {
+    Order createOrder(String requestId, OrderRequest orderRequest);
+
+    Order captureOrder(String orderId);
+}
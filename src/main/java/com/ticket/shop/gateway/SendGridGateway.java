@@ -65,11 +65,10 @@ public class SendGridGateway implements EmailGateway {
             request.setBody(mail.build());
 
             this.sendGrid.api(request);
-            LOGGER.info(String.format("Email %s sent successfully", template.getName()));
+            LOGGER.info("Email {} sent successfully", template.getName());
 
         } catch (IOException ex) {
-            LOGGER.error(String.format("Failed to send email %s to %s", template.getName(), email));
-            ex.printStackTrace();
+            LOGGER.error("Failed to send email {} to {}", template.getName(), email, ex);
         }
     }
 }
@@ -0,0 +1,78 @@
+package com.ticket.shop.gateway;
+
+import com.paypal.orders.LinkDescription;
+import com.paypal.orders.Order;
+import com.paypal.orders.OrderRequest;
+import com.ticket.shop.exception.order.OrderCaptureException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stub Payment Gateway, for tests and local runs without PayPal credentials
+ * Orders are kept in memory and approved at once, the approve link is the return url as PayPal redirects to it.
+ * Capturing an order again returns its status, like a PayPal retry with the same request id
+ */
+@Component
+@ConditionalOnProperty(name = "paypal.gateway", havingValue = "stub")
+public class StubPaymentGateway implements PaymentGateway {
+
+    private static final Logger LOGGER = LogManager.getLogger(StubPaymentGateway.class);
+
+    private static final String ORDER_ID_PREFIX = "STUB-";
+    private static final String APPROVE_URL = "https://www.sandbox.paypal.com/checkoutnow";
+    private static final String CREATED = "CREATED";
+    private static final String COMPLETED = "COMPLETED";
+    private static final String RESOURCE_NOT_FOUND = "RESOURCE_NOT_FOUND";
+
+    // Order id of each request id, retries get the same order
+    private final Map<String, String> orderIdByRequestId = new ConcurrentHashMap<>();
+    // Status of each order id
+    private final Map<String, String> orderStatus = new ConcurrentHashMap<>();
+
+    /**
+     * @see PaymentGateway#createOrder(String, OrderRequest)
+     */
+    @Override
+    public Order createOrder(String requestId, OrderRequest orderRequest) {
+        String orderId = this.orderIdByRequestId.computeIfAbsent(requestId, id -> {
+            String newOrderId = ORDER_ID_PREFIX + UUID.randomUUID();
+            this.orderStatus.put(newOrderId, CREATED);
+            return newOrderId;
+        });
+        LOGGER.info("Stub order {} created", orderId);
+
+        String approveUrl = orderRequest.applicationContext() == null || orderRequest.applicationContext().returnUrl() == null
+                ? APPROVE_URL
+                : orderRequest.applicationContext().returnUrl();
+        return new Order()
+                .id(orderId)
+                .status(this.orderStatus.get(orderId))
+                .links(List.of(new LinkDescription()
+                        .rel("approve")
+                        .method("GET")
+                        .href(approveUrl + "?token=" + orderId)));
+    }
+
+    /**
+     * @see PaymentGateway#captureOrder(String)
+     */
+    @Override
+    public Order captureOrder(String orderId) {
+        String status = this.orderStatus.computeIfPresent(orderId, (id, currentStatus) -> COMPLETED);
+        if (status == null) {
+            throw new OrderCaptureException(RESOURCE_NOT_FOUND, null);
+        }
+        LOGGER.info("Stub order {} captured", orderId);
+
+        return new Order()
+                .id(orderId)
+                .status(status);
+    }
+}
@@ -0,0 +1,61 @@
+package com.ticket.shop.logging;
+
+import com.ticket.shop.properties.AccessLogProperties;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one line per request on the com.ticket.shop.access logger: method, path, status and duration
+ * Server errors and slow requests are always written, the others are sampled.
+ * The query string is left out, it may carry tokens
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    public static final String LOGGER_NAME = "com.ticket.shop.access";
+
+    private static final Logger LOGGER = LogManager.getLogger(LOGGER_NAME);
+
+    private final double sampleRate;
+    private final long slowRequestNanos;
+
+    public AccessLogFilter(AccessLogProperties accessLogProperties) {
+        this.sampleRate = accessLogProperties.getSampleRate();
+        this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(accessLogProperties.getSlowRequestMillis());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest httpServletRequest,
+                                    HttpServletResponse httpServletResponse,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(httpServletRequest, httpServletResponse);
+
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            int status = httpServletResponse.getStatus();
+            if (LOGGER.isInfoEnabled() && isWritten(status, elapsedNanos)) {
+                // boxed into reused holders, the call allocates nothing
+                LOGGER.info("{} {} {} {} ms", httpServletRequest.getMethod(), httpServletRequest.getRequestURI(),
+                        Unbox.box(status), Unbox.box(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+            }
+        }
+    }
+
+    private boolean isWritten(int status, long elapsedNanos) {
+        return status >= 500
+                || elapsedNanos >= this.slowRequestNanos
+                || ThreadLocalRandom.current().nextDouble() < this.sampleRate;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ticket.shop.logging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports the virtual threads pinned to their carrier thread while blocking, mostly inside synchronized blocks
+ * Read from the jdk.VirtualThreadPinned JFR event and timed on jvm.threads.virtual.pinned, tagged by the first frame
+ * outside the JDK. The first stack trace of each frame is logged
+ */
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger LOGGER = LogManager.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String UNKNOWN_FRAME = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> loggedFrames = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void start() {
+        this.recordingStream = new RecordingStream();
+        this.recordingStream.enable(PINNED_EVENT).withThreshold(this.threshold).withStackTrace();
+        this.recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        this.recordingStream.startAsync();
+    }
+
+    @Override
+    public void stop() {
+        this.recordingStream.close();
+        this.recordingStream = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.recordingStream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String frame = getFirstFrameOutsideJdk(stackTrace);
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads blocked while pinned to their carrier")
+                .tag("frame", frame)
+                .register(this.meterRegistry)
+                .record(event.getDuration());
+
+        if (this.loggedFrames.add(frame)) {
+            LOGGER.warn("Virtual thread pinned for {} ms in {}{}", event.getDuration().toMillis(), frame,
+                    stackTrace == null ? "" : stackTrace.getFrames().stream()
+                            .map(VirtualThreadPinningMonitor::toName)
+                            .collect(Collectors.joining(System.lineSeparator() + "\tat ", System.lineSeparator() + "\tat ", "")));
+        }
+    }
+
+    private static String getFirstFrameOutsideJdk(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return UNKNOWN_FRAME;
+        }
+        return stackTrace.getFrames().stream()
+                .filter(frame -> frame.isJavaFrame() && !isJdkClass(frame.getMethod().getType().getName()))
+                .findFirst()
+                .map(VirtualThreadPinningMonitor::toName)
+                .orElse(UNKNOWN_FRAME);
+    }
+
+    private static boolean isJdkClass(String className) {
+        return className.startsWith("java.") || className.startsWith("jdk.") || className.startsWith("sun.");
+    }
+
+    private static String toName(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
@@ -0,0 +1,48 @@
+package com.ticket.shop.persistence;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Records the pool connections taken by each request on db.connections.acquired, tagged like http.server.requests
+ * A use case running in a single transaction takes one connection
+ */
+public class ConnectionAcquisitionFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    public ConnectionAcquisitionFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest httpServletRequest,
+                                    HttpServletResponse httpServletResponse,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        ConnectionCountingDataSource.startCounting();
+        try {
+            filterChain.doFilter(httpServletRequest, httpServletResponse);
+
+        } finally {
+            int acquisitions = ConnectionCountingDataSource.stopCounting();
+            Object uri = httpServletRequest.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("db.connections.acquired")
+                    .description("Pool connections taken per request")
+                    .tag("method", httpServletRequest.getMethod())
+                    .tag("uri", uri == null ? UNKNOWN_URI : uri.toString())
+                    .register(this.meterRegistry)
+                    .record(acquisitions);
+        }
+    }
+}
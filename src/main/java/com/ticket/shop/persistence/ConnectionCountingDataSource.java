@@ -0,0 +1,69 @@
+package com.ticket.shop.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Connection pool wrapper counting the connections taken by the request running on the current thread
+ */
+public class ConnectionCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    // Connections taken on the thread, null while nothing is being counted
+    private static final ThreadLocal<int[]> ACQUISITIONS = new ThreadLocal<>();
+
+    public ConnectionCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    /**
+     * Start counting the connections taken on the current thread
+     */
+    public static void startCounting() {
+        ACQUISITIONS.set(new int[1]);
+    }
+
+    /**
+     * Stop counting the connections taken on the current thread
+     *
+     * @return connections taken since {@link #startCounting()}
+     */
+    public static int stopCounting() {
+        int[] acquisitions = ACQUISITIONS.get();
+        ACQUISITIONS.remove();
+        return acquisitions == null ? 0 : acquisitions[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        count();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        count();
+        return super.getConnection(username, password);
+    }
+
+    /**
+     * Close the pool, the wrapper replaces it as the bean closed on shutdown
+     * Only Hikari pools are wrapped, their close doesn't throw
+     */
+    @Override
+    public void close() {
+        if (obtainTargetDataSource() instanceof HikariDataSource pool) {
+            pool.close();
+        }
+    }
+
+    private static void count() {
+        int[] acquisitions = ACQUISITIONS.get();
+        if (acquisitions != null) {
+            acquisitions[0]++;
+        }
+    }
+}
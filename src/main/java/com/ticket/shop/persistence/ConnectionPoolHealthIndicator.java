@@ -0,0 +1,86 @@
+package com.ticket.shop.persistence;
+
+import com.ticket.shop.properties.ConnectionPoolHealthProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Health of the connection pools, read from the hikaricp metrics of each pool
+ * A pool whose acquire time percentile is above the threshold is DEGRADED: it still serves requests,
+ * but they queue for connections and the pool or the database is undersized for the load
+ */
+@Component
+public class ConnectionPoolHealthIndicator extends AbstractHealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Requests are waiting for database connections");
+
+    private static final String POOL_TAG = "pool";
+
+    private final MeterRegistry meterRegistry;
+    private final long acquireMillisThreshold;
+    private final double acquirePercentile;
+
+    public ConnectionPoolHealthIndicator(MeterRegistry meterRegistry, ConnectionPoolHealthProperties connectionPoolHealthProperties) {
+        super("Connection pool health check failed");
+        this.meterRegistry = meterRegistry;
+        this.acquireMillisThreshold = connectionPoolHealthProperties.getAcquireMillisThreshold();
+        this.acquirePercentile = connectionPoolHealthProperties.getAcquirePercentile();
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        boolean degraded = false;
+        for (Timer acquireTimer : this.meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            String pool = acquireTimer.getId().getTag(POOL_TAG);
+            double acquireMillis = getAcquireMillis(acquireTimer);
+            degraded |= acquireMillis > this.acquireMillisThreshold;
+
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("active", getGaugeValue("hikaricp.connections.active", pool));
+            details.put("idle", getGaugeValue("hikaricp.connections.idle", pool));
+            details.put("pending", getGaugeValue("hikaricp.connections.pending", pool));
+            details.put("max", getGaugeValue("hikaricp.connections.max", pool));
+            details.put("acquireMillis", acquireMillis);
+            details.put("timeouts", getCounterValue("hikaricp.connections.timeout", pool));
+            builder.withDetail(pool, details);
+        }
+
+        builder.status(degraded ? DEGRADED : Status.UP);
+    }
+
+    /**
+     * Get the acquire time percentile of the last distribution window, the window max when it isn't published
+     *
+     * @param acquireTimer acquire timer of a pool
+     * @return acquire time in milliseconds
+     */
+    private double getAcquireMillis(Timer acquireTimer) {
+        for (ValueAtPercentile valueAtPercentile : acquireTimer.takeSnapshot().percentileValues()) {
+            if (valueAtPercentile.percentile() == this.acquirePercentile) {
+                return valueAtPercentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return acquireTimer.max(TimeUnit.MILLISECONDS);
+    }
+
+    private double getGaugeValue(String name, String pool) {
+        Gauge gauge = this.meterRegistry.find(name).tag(POOL_TAG, pool).gauge();
+        return gauge == null ? Double.NaN : gauge.value();
+    }
+
+    private double getCounterValue(String name, String pool) {
+        Counter counter = this.meterRegistry.find(name).tag(POOL_TAG, pool).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
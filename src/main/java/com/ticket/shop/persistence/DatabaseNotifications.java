@@ -0,0 +1,203 @@
+package com.ticket.shop.persistence;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Messages between the nodes over PostgreSQL LISTEN/NOTIFY
+ * Messages are sent on a pooled connection of the primary. They are received by a single daemon thread on its own
+ * connection, outside the pool, started by the first listener. Messages of this node are not delivered back to it.
+ * Delivery is not durable, messages sent while the listener reconnects are lost, so listeners resync on reconnection
+ */
+@Component
+public class DatabaseNotifications {
+
+    private static final Logger LOGGER = LogManager.getLogger(DatabaseNotifications.class);
+
+    private static final String NOTIFY_QUERY = "select pg_notify(?, ?)";
+    // Channels are sent as identifiers by LISTEN, so only plain names are accepted
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_]+");
+    private static final char NODE_SEPARATOR = ':';
+    private static final int POLL_MILLIS = 1000;
+    private static final long RECONNECT_MILLIS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    // Payload prefix of the messages of this node
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Listener>> listeners = new ConcurrentHashMap<>();
+    private volatile Thread listenerThread;
+    private volatile boolean running = true;
+
+    public DatabaseNotifications(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    /**
+     * Send a message to the listeners of the channel on the other nodes
+     * The message is only delivered when the current transaction commits, if any
+     *
+     * @param channel channel
+     * @param payload message, up to a few KB
+     */
+    public void publish(String channel, String payload) {
+        validateChannel(channel);
+        this.jdbcTemplate.query(NOTIFY_QUERY, resultSet -> {
+        }, channel, this.nodeId + NODE_SEPARATOR + payload);
+    }
+
+    /**
+     * Listen to the messages of a channel sent by the other nodes
+     *
+     * @param channel  channel
+     * @param listener listener, called on the listener thread so it must not block
+     */
+    public void listen(String channel, Listener listener) {
+        validateChannel(channel);
+        this.listeners.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>()).add(listener);
+        startListenerThread();
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.running = false;
+        Thread thread = this.listenerThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private synchronized void startListenerThread() {
+        if (this.listenerThread != null) {
+            return;
+        }
+
+        this.listenerThread = new Thread(this::receive, "database-notifications");
+        this.listenerThread.setDaemon(true);
+        this.listenerThread.start();
+    }
+
+    /**
+     * Receive messages until stopped, reconnecting after failures
+     */
+    private void receive() {
+        boolean reconnecting = false;
+        while (this.running) {
+            try (Connection connection = DriverManager.getConnection(this.dataSourceProperties.determineUrl(),
+                    this.dataSourceProperties.determineUsername(), this.dataSourceProperties.determinePassword())) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                Set<String> listening = new HashSet<>();
+                LOGGER.info("Listening to database notifications");
+                if (reconnecting) {
+                    this.listeners.values().forEach(channelListeners -> channelListeners.forEach(this::resync));
+                }
+
+                while (this.running) {
+                    listenToNewChannels(connection, listening);
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getName(), notification.getParameter());
+                        }
+                    }
+                }
+
+            } catch (SQLException e) {
+                if (!this.running) {
+                    return;
+                }
+                LOGGER.error("Failed while listening to database notifications, reconnecting in {} ms", RECONNECT_MILLIS, e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(RECONNECT_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listenToNewChannels(Connection connection, Set<String> listening) throws SQLException {
+        for (String channel : this.listeners.keySet()) {
+            if (listening.add(channel)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("listen " + channel);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deliver a message to the listeners of its channel, unless it was sent by this node
+     *
+     * @param channel channel
+     * @param message node id and payload
+     */
+    private void dispatch(String channel, String message) {
+        int separator = message.indexOf(NODE_SEPARATOR);
+        if (separator < 0 || message.startsWith(this.nodeId + NODE_SEPARATOR)) {
+            return;
+        }
+
+        String payload = message.substring(separator + 1);
+        for (Listener listener : this.listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.onMessage(payload);
+
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed while handling database notification of channel {} - ", channel, e);
+            }
+        }
+    }
+
+    private void resync(Listener listener) {
+        try {
+            listener.onReconnect();
+
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed while resyncing after the database notifications reconnected - ", e);
+        }
+    }
+
+    private static void validateChannel(String channel) {
+        if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel " + channel);
+        }
+    }
+
+    /**
+     * Listener of the messages of a channel
+     */
+    public interface Listener {
+
+        /**
+         * @param payload message sent by another node
+         */
+        void onMessage(String payload);
+
+        /**
+         * Called when the connection is restored, the messages sent meanwhile were lost
+         */
+        void onReconnect();
+    }
+}
@@ -0,0 +1,28 @@
+package com.ticket.shop.persistence;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+/**
+ * Recognizes unique constraint violations raised by the database
+ */
+public final class DuplicateKey {
+
+    // PostgreSQL unique_violation
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private DuplicateKey() {
+    }
+
+    /**
+     * Check if the integrity violation was caused by a unique constraint or index
+     *
+     * @param e integrity violation
+     * @return true if a unique key was duplicated
+     */
+    public static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        return e.getMostSpecificCause() instanceof SQLException sqlException
+                && UNIQUE_VIOLATION.equals(sqlException.getSQLState());
+    }
+}
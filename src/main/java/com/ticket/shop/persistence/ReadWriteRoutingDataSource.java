@@ -0,0 +1,86 @@
+package com.ticket.shop.persistence;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends the read only transactions of the {@link ReplicaRead} methods to the replica and everything else to the primary
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * the transaction is flagged read only only after its connection is requested
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    // Transaction names, the qualified name of the transactional method, that are replica reads
+    private final Map<String, Boolean> replicaReads = new ConcurrentHashMap<>();
+    private volatile boolean replicaAvailable;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Routing is opt in, read only transactions of methods without {@link ReplicaRead} stay on the primary
+     * so flows that read right after writing, like an update followed by a get, keep reading their writes
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!this.replicaAvailable || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        return transactionName != null && this.replicaReads.computeIfAbsent(transactionName, ReadWriteRoutingDataSource::isReplicaRead)
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+
+    /**
+     * Check if a transaction was started by a {@link ReplicaRead} method, from its name class.method
+     *
+     * @param transactionName transaction name
+     * @return true if the method is annotated
+     */
+    private static boolean isReplicaRead(String transactionName) {
+        int separator = transactionName.lastIndexOf('.');
+        if (separator < 0) {
+            return false;
+        }
+
+        Class<?> type;
+        try {
+            type = ClassUtils.getUserClass(ClassUtils.forName(transactionName.substring(0, separator), null));
+
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+
+        String methodName = transactionName.substring(separator + 1);
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(methodName) && AnnotatedElementUtils.hasAnnotation(method, ReplicaRead.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isReplicaAvailable() {
+        return this.replicaAvailable;
+    }
+
+    public void setReplicaAvailable(boolean replicaAvailable) {
+        this.replicaAvailable = replicaAvailable;
+    }
+}
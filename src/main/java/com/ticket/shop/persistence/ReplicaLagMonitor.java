@@ -0,0 +1,75 @@
+package com.ticket.shop.persistence;
+
+import com.ticket.shop.properties.ReplicaRoutingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Checks how far the replica is behind the primary and takes it out of the routing while it lags
+ * A server that is not in recovery, like a second local instance, reports no lag
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger LOGGER = LogManager.getLogger(ReplicaLagMonitor.class);
+
+    // An idle primary stops moving the replay timestamp, a replica that replayed everything it received is not behind
+    private static final String LAG_QUERY = """
+            select case
+                when not pg_is_in_recovery() then 0
+                when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            end""";
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagMillis;
+    private volatile double lagMillis = Double.NaN;
+
+    public ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource, DataSource replicaDataSource,
+                             ReplicaRoutingProperties replicaRoutingProperties, MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(replicaRoutingProperties.getLagQueryTimeoutSeconds());
+        this.maxLagMillis = replicaRoutingProperties.getMaxLagMillis();
+
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagMillis)
+                .description("Replication lag of the read replica in milliseconds, NaN when unreachable")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.available", routingDataSource, dataSource -> dataSource.isReplicaAvailable() ? 1 : 0)
+                .description("1 when read only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Check replica lag, routing reads to the primary while it is above the threshold or unreachable
+     */
+    @Scheduled(fixedDelayString = "${ticket-shop.datasource.replica-routing.lag-check-interval-millis:1000}")
+    public void checkReplicaLag() {
+        boolean available;
+        try {
+            Double lag = this.replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            this.lagMillis = lag == null ? 0 : lag;
+            available = this.lagMillis <= this.maxLagMillis;
+
+        } catch (Exception e) {
+            LOGGER.debug("Failed while checking replica lag", e);
+            this.lagMillis = Double.NaN;
+            available = false;
+        }
+
+        if (available != this.routingDataSource.isReplicaAvailable()) {
+            if (available) {
+                LOGGER.info("Replica lag is {} ms, routing read only transactions to the replica", this.lagMillis);
+            } else {
+                LOGGER.warn("Replica lag is {} ms, routing read only transactions to the primary", this.lagMillis);
+            }
+            this.routingDataSource.setReplicaAvailable(available);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ticket.shop.persistence;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read only service transaction that may be served by the read replica
+ * Only for reads that tolerate the replica lag, such as the public catalog and listings. The method must also be
+ * {@code @Transactional(readOnly = true)}, other read only transactions keep reading from the primary
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
@@ -49,7 +49,11 @@ public class CalendarEntity {
     @Column()
     private Timestamp updatedAt;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Bumped by the database in the same statement as every change to the check-in manifest, never written by the entity
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long checkInManifestVersion;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event_id", nullable = false)
     private EventEntity eventEntity;
 
@@ -43,7 +43,7 @@ public class PriceEntity {
     @Enumerated(EnumType.STRING)
     private TicketType type;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event_id", nullable = false)
     private EventEntity eventEntity;
 
@@ -15,6 +15,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -28,7 +29,10 @@ import java.sql.Timestamp;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "tickets")
+@Table(name = "tickets", indexes = {
+        @Index(name = "idx_tickets_calendar_id_ticket_id", columnList = "calendar_id, ticketId"),
+        @Index(name = "idx_tickets_user_id_purchased_at_ticket_id", columnList = "user_id, purchasedAt DESC, ticketId")
+})
 public class TicketEntity {
 
     @Id
@@ -51,7 +55,7 @@ public class TicketEntity {
     @JoinColumn(name = "company_id", nullable = false)
     private CompanyEntity companyEntity;
 
-    @ManyToOne()
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private UserEntity userEntity;
 
@@ -60,4 +64,15 @@ public class TicketEntity {
 
     @Column
     private Timestamp purchasedAt;
+
+    @Column
+    private Timestamp checkedInAt;
+
+    // Tickets waiting for payment are released after this time
+    @Column
+    private Timestamp reservedUntil;
+
+    // Unit price of the order the ticket was reserved for, the event prices may change afterwards
+    @Column
+    private Double price;
 }
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
@@ -23,7 +24,6 @@ import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 import java.sql.Timestamp;
-import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -35,6 +35,7 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 public class UserEntity {
 
@@ -73,18 +74,6 @@ public class UserEntity {
     @Column()
     private Timestamp updatedAt;
 
-    @Column(insertable = false)
-    private String resetPasswordToken;
-
-    @Column(insertable = false)
-    private Date resetPasswordExpireToken;
-
-    @Column()
-    private String confirmEmailToken;
-
-    @Column()
-    private Date confirmEmailExpireToken;
-
     @Column(nullable = false, columnDefinition = "boolean default false")
     private boolean isEmailConfirmed;
 
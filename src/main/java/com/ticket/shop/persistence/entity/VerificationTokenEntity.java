@@ -0,0 +1,68 @@
+package com.ticket.shop.persistence.entity;
+
+import com.ticket.shop.enumerators.VerificationTokenPurpose;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.Table;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Verification token entity, for password resets and email confirmations
+ * Only the SHA-256 of the token sent by email is stored
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "verification_tokens", indexes = {
+        @Index(name = "idx_verification_tokens_expires_at", columnList = "expiresAt"),
+        @Index(name = "idx_verification_tokens_user_id_purpose", columnList = "user_id, purpose")
+})
+public class VerificationTokenEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long verificationTokenId;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private VerificationTokenPurpose purpose;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private UserEntity userEntity;
+
+    @Column(nullable = false)
+    private Date expiresAt;
+
+    @Column(updatable = false)
+    private Timestamp createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = new Timestamp(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,197 @@
+package com.ticket.shop.persistence.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only local log of the waiting room state, so the queues survive a node restart
+ * Each record has a fixed size: type (1 byte), calendar id (8 bytes) and value (8 bytes).
+ * The log is replayed and compacted to one record set per open room on startup
+ */
+public class WaitingRoomLog implements Closeable {
+
+    // Room opened or its settings changed, the value holds the admissions per second and the capacity
+    public static final byte OPEN = 1;
+    // First position of the room
+    public static final byte START = 2;
+    public static final byte CLOSE = 3;
+    // Positions were handed out up to the value, exclusive
+    public static final byte JOIN = 4;
+    // Positions were admitted up to the value, exclusive
+    public static final byte ADMIT = 5;
+
+    private static final Logger LOGGER = LogManager.getLogger(WaitingRoomLog.class);
+    private static final int RECORD_SIZE = 17;
+
+    private final Path path;
+    // Guards the channel and the buffer, a lock instead of synchronized so a virtual thread waiting on the disk doesn't
+    // pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+    private FileChannel channel;
+
+    public WaitingRoomLog(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Replay the log
+     * A torn record at the end, left by a crash while writing, is ignored
+     *
+     * @return state of the rooms still open, by calendar id
+     * @throws IOException if the log can't be read
+     */
+    public Map<Long, RoomState> replay() throws IOException {
+        Map<Long, RoomState> rooms = new LinkedHashMap<>();
+        if (!Files.exists(this.path)) {
+            return rooms;
+        }
+
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(this.path));
+        while (records.remaining() >= RECORD_SIZE) {
+            byte type = records.get();
+            long calendarId = records.getLong();
+            long value = records.getLong();
+
+            switch (type) {
+                case OPEN -> rooms.merge(calendarId, new RoomState(calendarId, (int) (value >>> 32), (int) value, 0, 0, 0),
+                        (room, settings) -> room.withSettings(settings.admissionsPerSecond(), settings.capacity()));
+                case START -> rooms.computeIfPresent(calendarId, (id, room) -> room.withStart(value));
+                case CLOSE -> rooms.remove(calendarId);
+                case JOIN -> rooms.computeIfPresent(calendarId, (id, room) -> room.withTail(Math.max(room.tail(), value)));
+                case ADMIT -> rooms.computeIfPresent(calendarId, (id, room) -> room.withAdmitted(Math.max(room.admitted(), value)));
+                default -> LOGGER.warn("Ignoring unknown waiting room log record type {}", type);
+            }
+        }
+
+        return rooms;
+    }
+
+    /**
+     * Rewrite the log with only the state of the given rooms and open it for appending
+     *
+     * @param rooms rooms still open
+     * @throws IOException if the log can't be written
+     */
+    public void compact(Collection<RoomState> rooms) throws IOException {
+        this.lock.lock();
+        try {
+            close();
+            if (this.path.getParent() != null) {
+                Files.createDirectories(this.path.getParent());
+            }
+
+            Path compacted = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+            try (FileChannel compactedChannel = FileChannel.open(compacted,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (RoomState room : rooms) {
+                    write(compactedChannel, OPEN, room.calendarId(), room.openValue());
+                    write(compactedChannel, START, room.calendarId(), room.start());
+                    write(compactedChannel, JOIN, room.calendarId(), room.tail());
+                    write(compactedChannel, ADMIT, room.calendarId(), room.admitted());
+                }
+                compactedChannel.force(true);
+            }
+
+            Files.move(compacted, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.channel = FileChannel.open(this.path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Append record
+     *
+     * @param type       record type
+     * @param calendarId calendar id
+     * @param value      record value
+     * @param sync       true to force the record to disk before returning
+     * @throws IOException if the record can't be written
+     */
+    public void append(byte type, long calendarId, long value, boolean sync) throws IOException {
+        this.lock.lock();
+        try {
+            write(this.channel, type, calendarId, value);
+            if (sync) {
+                this.channel.force(false);
+            }
+
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.lock.lock();
+        try {
+            if (this.channel != null) {
+                this.channel.close();
+                this.channel = null;
+            }
+
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void write(FileChannel target, byte type, long calendarId, long value) throws IOException {
+        this.buffer.clear();
+        this.buffer.put(type).putLong(calendarId).putLong(value).flip();
+        while (this.buffer.hasRemaining()) {
+            target.write(this.buffer);
+        }
+    }
+
+    /**
+     * Waiting room state
+     *
+     * @param calendarId          calendar id
+     * @param admissionsPerSecond customers admitted per second
+     * @param capacity            maximum customers waiting
+     * @param start               first position of the room
+     * @param tail                next position to hand out
+     * @param admitted            positions below this one are admitted
+     */
+    public record RoomState(long calendarId, int admissionsPerSecond, int capacity, long start, long tail, long admitted) {
+
+        public static long openValue(int admissionsPerSecond, int capacity) {
+            return ((long) admissionsPerSecond << 32) | (capacity & 0xFFFFFFFFL);
+        }
+
+        long openValue() {
+            return openValue(this.admissionsPerSecond, this.capacity);
+        }
+
+        RoomState withSettings(int admissionsPerSecond, int capacity) {
+            return new RoomState(this.calendarId, admissionsPerSecond, capacity, this.start, this.tail, this.admitted);
+        }
+
+        RoomState withStart(long start) {
+            return new RoomState(this.calendarId, this.admissionsPerSecond, this.capacity, start, start, start);
+        }
+
+        RoomState withTail(long tail) {
+            return new RoomState(this.calendarId, this.admissionsPerSecond, this.capacity, this.start, tail, this.admitted);
+        }
+
+        RoomState withAdmitted(long admitted) {
+            return new RoomState(this.calendarId, this.admissionsPerSecond, this.capacity, this.start, this.tail, admitted);
+        }
+    }
+}
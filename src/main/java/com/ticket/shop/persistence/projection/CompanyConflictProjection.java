@@ -0,0 +1,13 @@
+package com.ticket.shop.persistence.projection;
+
+/**
+ * Which of the unique company fields are already taken
+ */
+public interface CompanyConflictProjection {
+
+    boolean isNameTaken();
+
+    boolean isEmailTaken();
+
+    boolean isWebsiteTaken();
+}
@@ -0,0 +1,17 @@
+package com.ticket.shop.persistence.projection;
+
+/**
+ * Columns of a customer listing row
+ */
+public interface CustomerDetailsProjection {
+
+    Long getUserId();
+
+    String getFirstname();
+
+    String getLastname();
+
+    String getEmail();
+
+    Long getCountryId();
+}
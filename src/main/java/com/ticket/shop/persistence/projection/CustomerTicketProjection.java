@@ -0,0 +1,27 @@
+package com.ticket.shop.persistence.projection;
+
+import java.sql.Timestamp;
+
+/**
+ * Columns of a customer ticket listing row
+ */
+public interface CustomerTicketProjection {
+
+    Long getTicketId();
+
+    String getType();
+
+    Double getPrice();
+
+    Long getEventId();
+
+    String getEventName();
+
+    Long getCalendarId();
+
+    Timestamp getStartDate();
+
+    Timestamp getPurchasedAt();
+
+    Timestamp getCheckedInAt();
+}
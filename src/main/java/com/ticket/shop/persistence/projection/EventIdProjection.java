@@ -0,0 +1,9 @@
+package com.ticket.shop.persistence.projection;
+
+/**
+ * Id of an event listing row
+ */
+public interface EventIdProjection {
+
+    Long getEventId();
+}
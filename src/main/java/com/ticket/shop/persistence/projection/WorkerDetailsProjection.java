@@ -0,0 +1,24 @@
+package com.ticket.shop.persistence.projection;
+
+/**
+ * Columns of a worker listing row
+ */
+public interface WorkerDetailsProjection {
+
+    Long getUserId();
+
+    String getFirstname();
+
+    String getLastname();
+
+    String getEmail();
+
+    /**
+     * @return comma separated roles, aggregated from the roles table
+     */
+    String getRoles();
+
+    Long getCountryId();
+
+    Long getCompanyId();
+}
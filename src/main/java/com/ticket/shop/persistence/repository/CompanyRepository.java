@@ -1,8 +1,11 @@
 package com.ticket.shop.persistence.repository;
 
 import com.ticket.shop.persistence.entity.CompanyEntity;
+import com.ticket.shop.persistence.projection.CompanyConflictProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.Optional;
@@ -14,34 +17,61 @@ import java.util.Optional;
 public interface CompanyRepository extends CrudRepository<CompanyEntity, Long> {
 
     /**
-     * Get company by name
+     * Check in a single query which of name, email and website are already taken, ignoring case
+     * Served by the unique lower() indexes of each column
      *
-     * @param name name
-     * @return Optional of {@link CompanyEntity}
+     * @param name    name
+     * @param email   email
+     * @param website website
+     * @return {@link CompanyConflictProjection}
      */
-    Optional<CompanyEntity> findByName(String name);
+    @Query(value = """
+            select coalesce(bool_or(lower(c.name) = lower(:name)), false) as "nameTaken",
+                   coalesce(bool_or(lower(c.email) = lower(:email)), false) as "emailTaken",
+                   coalesce(bool_or(lower(c.website) = lower(:website)), false) as "websiteTaken"
+            from companies c
+            where lower(c.name) = lower(:name)
+            or lower(c.email) = lower(:email)
+            or lower(c.website) = lower(:website)""",
+            nativeQuery = true)
+    CompanyConflictProjection findConflicts(String name, String email, String website);
 
     /**
-     * Get company by email
+     * Check in a single query which of name, email and website are already taken by another company, ignoring case
      *
-     * @param email email
-     * @return Optional of {@link CompanyEntity}
+     * @param companyId id of the company to leave out
+     * @param name      name
+     * @param email     email
+     * @param website   website
+     * @return {@link CompanyConflictProjection}
      */
-    Optional<CompanyEntity> findByEmail(String email);
+    @Query(value = """
+            select coalesce(bool_or(lower(c.name) = lower(:name)), false) as "nameTaken",
+                   coalesce(bool_or(lower(c.email) = lower(:email)), false) as "emailTaken",
+                   coalesce(bool_or(lower(c.website) = lower(:website)), false) as "websiteTaken"
+            from companies c
+            where c.company_id <> :companyId
+            and (lower(c.name) = lower(:name)
+            or lower(c.email) = lower(:email)
+            or lower(c.website) = lower(:website))""",
+            nativeQuery = true)
+    CompanyConflictProjection findConflictsWithOtherCompanies(Long companyId, String name, String email, String website);
 
     /**
-     * Get company by website
+     * Get company by id with its address, in a single query
      *
-     * @param website website
-     * @return Optional of {@link CompanyEntity}
+     * @param companyId company id
+     * @return {@link Optional<CompanyEntity>}
      */
-    Optional<CompanyEntity> findByWebsite(String website);
+    @EntityGraph(attributePaths = "addressEntity")
+    Optional<CompanyEntity> findWithAddressByCompanyId(Long companyId);
 
     /**
-     * Get companies with pagination
+     * Get companies with pagination, with their addresses
      *
      * @param pageable {@link Pageable}
      * @return {@link Page<CompanyEntity>}
      */
+    @EntityGraph(attributePaths = "addressEntity")
     Page<CompanyEntity> findAll(Pageable pageable);
 }
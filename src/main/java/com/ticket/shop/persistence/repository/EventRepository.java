@@ -1,12 +1,16 @@
 package com.ticket.shop.persistence.repository;
 
 import com.ticket.shop.persistence.entity.EventEntity;
+import com.ticket.shop.persistence.projection.EventIdProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -26,21 +30,47 @@ public interface EventRepository extends CrudRepository<EventEntity, Long> {
     Optional<EventEntity> findByCompanyIdAndEventId(Long companyId, Long eventId);
 
     /**
-     * Get all events by company id and/or date
+     * Get event by id with its address and prices, in a single query
+     *
+     * @param eventId event id
+     * @return {@link Optional<EventEntity>}
+     */
+    @EntityGraph(attributePaths = {"addressEntity", "prices"})
+    Optional<EventEntity> findWithAddressAndPricesByEventId(Long eventId);
+
+    /**
+     * Get events by ids with their address and prices, in a single query
+     *
+     * @param eventIds event ids
+     * @return {@link List<EventEntity>} repeated once per price
+     */
+    @EntityGraph(attributePaths = {"addressEntity", "prices"})
+    List<EventEntity> findWithAddressAndPricesByEventIdIn(Collection<Long> eventIds);
+
+    /**
+     * Get the ids of all events by company id and/or date
      * Also can get without the company id or date
+     * Only the ids are paged, the events are loaded with {@link #findWithAddressAndPricesByEventIdIn(Collection)}
      *
      * @param companyId company id
      * @param date      date
      * @param pageable  pageable
-     * @return {@link Page<EventEntity>}
+     * @return {@link Page<EventIdProjection>}
      */
     @Query(value = """
-            SELECT e.*
+            SELECT e.event_id AS "eventId"
+            FROM events e
+                LEFT JOIN calendars ca ON ca.event_id = e.event_id
+            WHERE (e.company_id = :companyId OR :companyId IS NULL)
+            AND ((ca.start_date >= :date OR CAST(:date AS TIMESTAMP) IS NULL) OR ca.calendar_id IS NOT NULL)
+            """,
+            countQuery = """
+            SELECT count(*)
             FROM events e
                 LEFT JOIN calendars ca ON ca.event_id = e.event_id
             WHERE (e.company_id = :companyId OR :companyId IS NULL)
             AND ((ca.start_date >= :date OR CAST(:date AS TIMESTAMP) IS NULL) OR ca.calendar_id IS NOT NULL)
             """,
             nativeQuery = true)
-    Page<EventEntity> findByAll(Long companyId, Date date, Pageable pageable);
+    Page<EventIdProjection> findEventIdsByAll(Long companyId, Date date, Pageable pageable);
 }
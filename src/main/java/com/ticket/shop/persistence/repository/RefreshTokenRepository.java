@@ -0,0 +1,68 @@
+package com.ticket.shop.persistence.repository;
+
+import com.ticket.shop.persistence.entity.RefreshTokenEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Repository for {@link RefreshTokenEntity} persistence operations
+ * This interface is implemented by Spring Data JPA
+ */
+public interface RefreshTokenRepository extends CrudRepository<RefreshTokenEntity, Long> {
+
+    /**
+     * Get refresh token by hash
+     *
+     * @param tokenHash SHA-256 of the token
+     * @return Optional of {@link RefreshTokenEntity}
+     */
+    Optional<RefreshTokenEntity> findByTokenHash(String tokenHash);
+
+    /**
+     * Mark a refresh token as rotated if it wasn't rotated or revoked meanwhile
+     *
+     * @param refreshTokenId refresh token id
+     * @param rotatedAt      rotation date
+     * @return 1 if rotated, 0 if it was already used
+     */
+    @Transactional
+    @Modifying
+    @Query("update RefreshTokenEntity r set r.rotatedAt = :rotatedAt where r.refreshTokenId = :refreshTokenId and r.rotatedAt is null and r.revoked = false")
+    int markRotated(Long refreshTokenId, Date rotatedAt);
+
+    /**
+     * Revoke every refresh token of a family
+     *
+     * @param familyId family id
+     */
+    @Transactional
+    @Modifying
+    @Query("update RefreshTokenEntity r set r.revoked = true where r.familyId = :familyId")
+    void revokeByFamilyId(String familyId);
+
+    /**
+     * Revoke every refresh token of a user
+     *
+     * @param userId user id
+     */
+    @Transactional
+    @Modifying
+    @Query("update RefreshTokenEntity r set r.revoked = true where r.userId = :userId")
+    void revokeByUserId(Long userId);
+
+    /**
+     * Delete the expired refresh tokens
+     *
+     * @param now current date
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshTokenEntity r where r.expiresAt <= :now")
+    int deleteByExpiresAtNotAfter(Date now);
+}
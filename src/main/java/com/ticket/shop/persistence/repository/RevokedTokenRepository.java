@@ -0,0 +1,37 @@
+package com.ticket.shop.persistence.repository;
+
+import com.ticket.shop.persistence.entity.RevokedTokenEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository for {@link RevokedTokenEntity} persistence operations
+ * This interface is implemented by Spring Data JPA
+ */
+public interface RevokedTokenRepository extends CrudRepository<RevokedTokenEntity, String> {
+
+    /**
+     * Get the ids of the revoked tokens that didn't expire yet
+     *
+     * @param now current date
+     * @return list of token ids
+     */
+    @Query("select r.tokenId from RevokedTokenEntity r where r.expiresAt > :now")
+    List<String> findTokenIdsByExpiresAtAfter(Date now);
+
+    /**
+     * Delete the revoked tokens already expired, they are rejected by the expiration anyway
+     *
+     * @param now current date
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedTokenEntity r where r.expiresAt <= :now")
+    int deleteByExpiresAtNotAfter(Date now);
+}
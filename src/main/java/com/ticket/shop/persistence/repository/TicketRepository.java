@@ -1,67 +1,113 @@
 package com.ticket.shop.persistence.repository;
 
+import com.ticket.shop.enumerators.TicketStatus;
+import com.ticket.shop.enumerators.TicketType;
 import com.ticket.shop.persistence.entity.CalendarEntity;
 import com.ticket.shop.persistence.entity.CompanyEntity;
 import com.ticket.shop.persistence.entity.TicketEntity;
-import com.ticket.shop.persistence.entity.UserEntity;
+import com.ticket.shop.persistence.projection.CustomerTicketProjection;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for {@link TicketEntity} persistence operations
  * This interface is implemented by Spring Data JPA
  */
-public interface TicketRepository extends CrudRepository<TicketEntity, Long> {
+public interface TicketRepository extends CrudRepository<TicketEntity, Long>, TicketRepositoryCustom {
 
     /**
-     * Get Available Tickets by calendar and type
+     * Move the tickets reserved under a reservation id to the PayPal order
      *
-     * @param calendarId   calendar id
-     * @param type         type
-     * @param totalTickets total of tickets wanted
-     * @return list of ticket ids
+     * @param reservationId reservation id
+     * @param paypalOrderId order id
      */
-    @Query(value = """
-            select t.ticket_id
-            from tickets t
-            where t.calendar_id = :calendarId
-            and t.type = :type
-            and t.user_id is null
-            and t.status = 'AVAILABLE'
-            limit :totalTickets""",
-            nativeQuery = true)
-    List<Long> findAvailableByCalendarAndType(Long calendarId, String type, Long totalTickets);
+    @Transactional
+    @Modifying
+    @Query("update TicketEntity t set t.paypalOrderId = :paypalOrderId where t.paypalOrderId = :reservationId and t.status = 'WAITING_PAYMENT'")
+    void updatePaypalOrderIdByReservationId(String reservationId, String paypalOrderId);
 
+    /**
+     * Release the tickets reserved under a reservation id, making them available again
+     *
+     * @param reservationId reservation id
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update TicketEntity t
+            set t.userEntity = null,
+                t.status = 'AVAILABLE',
+                t.paypalOrderId = null,
+                t.reservedUntil = null,
+                t.price = null
+            where t.paypalOrderId = :reservationId
+            and t.status = 'WAITING_PAYMENT'""")
+    void releaseTicketsByReservationId(String reservationId);
 
     /**
-     * Update ticket with userEntity, WAITING_PAYMENT status and orderId
+     * Hold the tickets of a PayPal order for more seconds, only while their reservation didn't expire
+     * The tickets are locked by the update, so the reservation sweeper either released them before or skips them
      *
-     * @param userEntity user entity
-     * @param ticketIds  ticket ids to be updated
-     * @param orderId    order id
+     * @param paypalOrderId order id
+     * @param holdSeconds   seconds the tickets are held from now
+     * @return number of tickets still held by the order
      */
     @Transactional
     @Modifying
     @Query(value = """
-            update TicketEntity t
-            set t.userEntity = :userEntity,
-                t.status = 'WAITING_PAYMENT',
-                t.paypalOrderId = :orderId
-            where t.ticketId in :ticketIds""")
-    void updateUserEntityAndStatusByCalendarEntityAndType(UserEntity userEntity, List<Long> ticketIds, String orderId);
+            update tickets
+            set reserved_until = localtimestamp + make_interval(secs => :holdSeconds)
+            where paypal_order_id = :paypalOrderId
+            and status = 'WAITING_PAYMENT'
+            and reserved_until > localtimestamp""",
+            nativeQuery = true)
+    int extendReservationByPaypalOrderId(String paypalOrderId, long holdSeconds);
+
+    /**
+     * Verify if the order has tickets with the given status
+     *
+     * @param paypalOrderId order id
+     * @param status        ticket status
+     * @return true if any ticket of the order has the status
+     */
+    boolean existsByPaypalOrderIdAndStatus(String paypalOrderId, TicketStatus status);
 
     /**
      * Update Ticket to SOLD status by order id
+     * The check-in manifest version of the calendars of the order is bumped in the same statement, the calendars are
+     * locked in id order so concurrent captures of orders with several calendars can't deadlock
      *
      * @param paypalOrderId order id
      */
     @Transactional
     @Modifying
-    @Query("update TicketEntity t set t.status = 'SOLD', t.purchasedAt = now() where t.paypalOrderId = :paypalOrderId")
+    @Query(value = """
+            with sold as (
+                update tickets
+                set status = 'SOLD',
+                    purchased_at = now(),
+                    reserved_until = null
+                where paypal_order_id = :paypalOrderId
+                returning calendar_id
+            ),
+            locked as (
+                select c.calendar_id
+                from calendars c
+                where c.calendar_id in (select s.calendar_id from sold s)
+                order by c.calendar_id
+                for update
+            )
+            update calendars c
+            set check_in_manifest_version = c.check_in_manifest_version + 1
+            from locked l
+            where c.calendar_id = l.calendar_id""",
+            nativeQuery = true)
     void updateStatusByPaypalOrderId(String paypalOrderId);
 
     /**
@@ -88,4 +134,200 @@ public interface TicketRepository extends CrudRepository<TicketEntity, Long> {
      */
     @Query("select e from TicketEntity e where e.calendarEntity.calendarId = :calendarId")
     List<TicketEntity> findByCalendarId(Long calendarId);
+
+    /**
+     * Count tickets of a calendar by type and status
+     *
+     * @param calendarId calendar id
+     * @return {@link List<TicketCount>}
+     */
+    @Query("""
+            select t.type as type, t.status as status, count(t) as total
+            from TicketEntity t
+            where t.calendarEntity.calendarId = :calendarId
+            group by t.type, t.status""")
+    List<TicketCount> countByCalendarIdGroupByTypeAndStatus(Long calendarId);
+
+    /**
+     * Get the calendar ids of the tickets of an order
+     *
+     * @param paypalOrderId order id
+     * @return calendar ids
+     */
+    @Query("select distinct t.calendarEntity.calendarId from TicketEntity t where t.paypalOrderId = :paypalOrderId")
+    List<Long> findCalendarIdsByPaypalOrderId(String paypalOrderId);
+
+    /**
+     * Get sold ticket by ticket id and owner
+     *
+     * @param ticketId ticket id
+     * @param userId   user id
+     * @return {@link Optional<TicketEntity>}
+     */
+    @Query("select t from TicketEntity t where t.ticketId = :ticketId and t.userEntity.userId = :userId and t.status = 'SOLD'")
+    Optional<TicketEntity> findSoldByTicketIdAndUserId(Long ticketId, Long userId);
+
+    /**
+     * Check in a sold ticket
+     * The update only matches tickets not checked in yet, so each ticket can only be redeemed once.
+     * The check-in manifest version of the calendar is bumped in the same statement when the ticket is checked in
+     *
+     * @param ticketId   ticket id
+     * @param calendarId calendar id
+     * @param companyId  company id
+     * @return number of tickets checked in, 0 if the ticket doesn't exist, wasn't sold or was already checked in
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            with checked_in as (
+                update tickets
+                set checked_in_at = now()
+                where ticket_id = :ticketId
+                and calendar_id = :calendarId
+                and company_id = :companyId
+                and status = 'SOLD'
+                and checked_in_at is null
+                returning calendar_id
+            )
+            update calendars c
+            set check_in_manifest_version = c.check_in_manifest_version + 1
+            where c.calendar_id in (select i.calendar_id from checked_in i)""",
+            nativeQuery = true)
+    int checkInTicket(Long ticketId, Long calendarId, Long companyId);
+
+    /**
+     * Verify if the ticket of a calendar of the company was already checked in
+     * Scoped like {@link #checkInTicket(Long, Long, Long)}, so tickets of other companies are reported as not found
+     *
+     * @param ticketId   ticket id
+     * @param calendarId calendar id
+     * @param companyId  company id
+     * @return true if the ticket was already checked in
+     */
+    @Query(value = """
+            select exists(
+                select 1
+                from tickets t
+                where t.ticket_id = :ticketId
+                and t.calendar_id = :calendarId
+                and t.company_id = :companyId
+                and t.checked_in_at is not null)""",
+            nativeQuery = true)
+    boolean isTicketCheckedIn(Long ticketId, Long calendarId, Long companyId);
+
+    /**
+     * Get the check-in manifest version of a calendar
+     * The version is a counter bumped in the same statement as every sale or check-in of a ticket of the calendar,
+     * so it changes even when a ticket is checked in with an earlier time. Any new update that adds or removes sold
+     * tickets of a calendar must bump it too
+     *
+     * @param calendarId calendar id
+     * @param companyId  company id
+     * @return manifest version, 0 if no ticket was sold yet
+     */
+    @Query(value = """
+            select coalesce((
+                select c.check_in_manifest_version
+                from calendars c
+                where c.calendar_id = :calendarId
+                and c.company_id = :companyId), 0)""",
+            nativeQuery = true)
+    long findCheckInManifestVersion(Long calendarId, Long companyId);
+
+    /**
+     * Get the ids of the tickets of a calendar that were already checked in
+     *
+     * @param calendarId calendar id
+     * @param companyId  company id
+     * @param ticketIds  ticket ids
+     * @return ids of the tickets already checked in
+     */
+    @Query("""
+            select t.ticketId
+            from TicketEntity t
+            where t.calendarEntity.calendarId = :calendarId
+            and t.companyEntity.companyId = :companyId
+            and t.ticketId in :ticketIds
+            and t.checkedInAt is not null""")
+    List<Long> findCheckedInTicketIds(Long calendarId, Long companyId, List<Long> ticketIds);
+
+    /**
+     * Get the id of the owners of the tickets of an order
+     *
+     * @param paypalOrderId order id
+     * @return user ids
+     */
+    @Query("select distinct t.userEntity.userId from TicketEntity t where t.paypalOrderId = :paypalOrderId")
+    List<Long> findUserIdsByPaypalOrderId(String paypalOrderId);
+
+    /**
+     * Get the first page of tickets bought by a user, the most recent first
+     * Seeks on the (user_id, purchased_at desc, ticket_id) index, the calendar and event are read in the same query
+     *
+     * @param userId user id
+     * @param size   page size
+     * @return {@link List<CustomerTicketProjection>}
+     */
+    @Query(value = """
+            select t.ticket_id as "ticketId",
+                   t.type as "type",
+                   t.price as "price",
+                   e.event_id as "eventId",
+                   e.name as "eventName",
+                   c.calendar_id as "calendarId",
+                   c.start_date as "startDate",
+                   t.purchased_at as "purchasedAt",
+                   t.checked_in_at as "checkedInAt"
+            from tickets t
+            join calendars c on c.calendar_id = t.calendar_id
+            join events e on e.event_id = c.event_id
+            where t.user_id = :userId
+            and t.status = 'SOLD'
+            order by t.purchased_at desc, t.ticket_id
+            limit :size""",
+            nativeQuery = true)
+    List<CustomerTicketProjection> findCustomerTickets(Long userId, int size);
+
+    /**
+     * Get the next page of tickets bought by a user, starting after the last ticket of the previous page
+     *
+     * @param userId      user id
+     * @param purchasedAt purchase date of the last ticket of the previous page
+     * @param ticketId    id of the last ticket of the previous page
+     * @param size        page size
+     * @return {@link List<CustomerTicketProjection>}
+     */
+    @Query(value = """
+            select t.ticket_id as "ticketId",
+                   t.type as "type",
+                   t.price as "price",
+                   e.event_id as "eventId",
+                   e.name as "eventName",
+                   c.calendar_id as "calendarId",
+                   c.start_date as "startDate",
+                   t.purchased_at as "purchasedAt",
+                   t.checked_in_at as "checkedInAt"
+            from tickets t
+            join calendars c on c.calendar_id = t.calendar_id
+            join events e on e.event_id = c.event_id
+            where t.user_id = :userId
+            and t.status = 'SOLD'
+            and (t.purchased_at < :purchasedAt or (t.purchased_at = :purchasedAt and t.ticket_id > :ticketId))
+            order by t.purchased_at desc, t.ticket_id
+            limit :size""",
+            nativeQuery = true)
+    List<CustomerTicketProjection> findCustomerTicketsAfter(Long userId, Timestamp purchasedAt, Long ticketId, int size);
+
+    /**
+     * Amount of tickets with a type and status
+     */
+    interface TicketCount {
+
+        TicketType getType();
+
+        TicketStatus getStatus();
+
+        long getTotal();
+    }
 }
@@ -0,0 +1,77 @@
+package com.ticket.shop.persistence.repository;
+
+import com.ticket.shop.enumerators.TicketType;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Custom {@link TicketRepository} operations that work on plain rows instead of entities
+ */
+public interface TicketRepositoryCustom {
+
+    /**
+     * Stream the sold tickets of a calendar that were not checked in yet, ordered by ticket id
+     * Rows are fetched with a database cursor and handed to the handler one by one, no entity is materialized
+     *
+     * @param calendarId calendar id
+     * @param companyId  company id
+     * @param rowHandler handler called for each ticket
+     */
+    void streamCheckInManifest(Long calendarId, Long companyId, CheckInManifestRowHandler rowHandler);
+
+    /**
+     * Check in a batch of tickets with a single set based update
+     * Only sold tickets of the calendar that were not checked in yet are updated, the check-in manifest version of
+     * the calendar is bumped in the same statement when any ticket is checked in
+     *
+     * @param calendarId   calendar id
+     * @param companyId    company id
+     * @param ticketIds    ticket ids
+     * @param checkedInAts check-in time of each ticket, in the same order as the ticket ids
+     * @return ids of the tickets checked in
+     */
+    List<Long> bulkCheckInTickets(Long calendarId, Long companyId, Long[] ticketIds, Timestamp[] checkedInAts);
+
+    /**
+     * Reserve available tickets for a customer with a single statement
+     * Each line claims its amount of tickets of a calendar and type, skipping tickets locked by concurrent orders.
+     * The claim is all or nothing, if any line can't get all its tickets no ticket is reserved.
+     * The tickets are held for the given seconds, then the reservation sweeper makes them available again.
+     * Each ticket keeps the unit price of its line, the price paid whatever the event prices become
+     *
+     * @param userId        user id
+     * @param reservationId reservation id stored as order id of the reserved tickets
+     * @param holdSeconds   seconds the tickets are held
+     * @param calendarIds   calendar id of each line
+     * @param types         ticket type of each line
+     * @param amounts       amount of tickets of each line
+     * @param prices        unit price of each line
+     * @return ids of the reserved tickets, empty if the order can't be fulfilled
+     */
+    List<Long> claimTickets(Long userId, String reservationId, long holdSeconds, Long[] calendarIds, String[] types,
+                            Integer[] amounts, Double[] prices);
+
+    /**
+     * Release a batch of tickets whose reservation expired, making them available again
+     * Covers the reservations that were never linked to a PayPal order and the orders that were never approved or
+     * captured. Tickets locked by a capture are skipped
+     *
+     * @param batchSize maximum tickets released
+     * @return calendar id of each released ticket
+     */
+    List<Long> releaseExpiredReservations(int batchSize);
+
+    /**
+     * Handler for the rows of the check-in manifest
+     */
+    @FunctionalInterface
+    interface CheckInManifestRowHandler {
+
+        /**
+         * @param ticketId ticket id
+         * @param type     ticket type
+         */
+        void handle(long ticketId, TicketType type);
+    }
+}
@@ -0,0 +1,162 @@
+package com.ticket.shop.persistence.repository;
+
+import com.ticket.shop.enumerators.TicketType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link TicketRepositoryCustom}
+ */
+public class TicketRepositoryCustomImpl implements TicketRepositoryCustom {
+
+    private static final int MANIFEST_FETCH_SIZE = 1000;
+
+    private static final String CHECK_IN_MANIFEST_QUERY = """
+            select t.ticket_id, t.type
+            from tickets t
+            where t.calendar_id = ?
+            and t.company_id = ?
+            and t.status = 'SOLD'
+            and t.checked_in_at is null
+            order by t.ticket_id""";
+
+    private static final String BULK_CHECK_IN_QUERY = """
+            with checked_in as (
+                update tickets t
+                set checked_in_at = least(r.checked_in_at, localtimestamp)
+                from unnest(?, ?) as r(ticket_id, checked_in_at)
+                where t.ticket_id = r.ticket_id
+                and t.calendar_id = ?
+                and t.company_id = ?
+                and t.status = 'SOLD'
+                and t.checked_in_at is null
+                returning t.ticket_id
+            ),
+            bumped as (
+                update calendars c
+                set check_in_manifest_version = c.check_in_manifest_version + 1
+                where c.calendar_id = ?
+                and exists (select 1 from checked_in)
+            )
+            select i.ticket_id from checked_in i""";
+
+    private static final String CLAIM_TICKETS_QUERY = """
+            with lines as (
+                select * from unnest(?, ?, ?, ?) as l(calendar_id, type, amount, price)
+            ),
+            claimed as (
+                select c.ticket_id, l.calendar_id, l.type, l.price
+                from lines l
+                cross join lateral (
+                    select a.ticket_id
+                    from tickets a
+                    where a.calendar_id = l.calendar_id
+                    and a.type = l.type
+                    and a.user_id is null
+                    and a.status = 'AVAILABLE'
+                    limit l.amount
+                    for update skip locked
+                ) c
+            )
+            update tickets t
+            set user_id = ?,
+                status = 'WAITING_PAYMENT',
+                paypal_order_id = ?,
+                reserved_until = localtimestamp + make_interval(secs => ?),
+                price = c.price
+            from claimed c
+            where t.ticket_id = c.ticket_id
+            and not exists (
+                select 1
+                from lines l
+                where l.amount > (select count(*) from claimed s where s.calendar_id = l.calendar_id and s.type = l.type))
+            returning t.ticket_id""";
+
+    private static final String RELEASE_EXPIRED_RESERVATIONS_QUERY = """
+            update tickets t
+            set user_id = null,
+                status = 'AVAILABLE',
+                paypal_order_id = null,
+                reserved_until = null,
+                price = null
+            where t.ticket_id in (
+                select e.ticket_id
+                from tickets e
+                where e.status = 'WAITING_PAYMENT'
+                and e.reserved_until < localtimestamp
+                limit ?
+                for update skip locked)
+            returning t.calendar_id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TicketRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @see TicketRepositoryCustom#streamCheckInManifest(Long, Long, CheckInManifestRowHandler)
+     */
+    @Override
+    public void streamCheckInManifest(Long calendarId, Long companyId, CheckInManifestRowHandler rowHandler) {
+        this.jdbcTemplate.query(connection -> {
+                    // The driver only uses a cursor with a fetch size inside a transaction
+                    PreparedStatement statement = connection.prepareStatement(CHECK_IN_MANIFEST_QUERY);
+                    statement.setFetchSize(MANIFEST_FETCH_SIZE);
+                    statement.setLong(1, calendarId);
+                    statement.setLong(2, companyId);
+                    return statement;
+                },
+                resultSet -> {
+                    rowHandler.handle(resultSet.getLong(1), TicketType.valueOf(resultSet.getString(2)));
+                });
+    }
+
+    /**
+     * @see TicketRepositoryCustom#bulkCheckInTickets(Long, Long, Long[], Timestamp[])
+     */
+    @Override
+    public List<Long> bulkCheckInTickets(Long calendarId, Long companyId, Long[] ticketIds, Timestamp[] checkedInAts) {
+        return this.jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(BULK_CHECK_IN_QUERY);
+                    statement.setArray(1, connection.createArrayOf("bigint", ticketIds));
+                    statement.setArray(2, connection.createArrayOf("timestamp", checkedInAts));
+                    statement.setLong(3, calendarId);
+                    statement.setLong(4, companyId);
+                    statement.setLong(5, calendarId);
+                    return statement;
+                },
+                (resultSet, rowNum) -> resultSet.getLong(1));
+    }
+
+    /**
+     * @see TicketRepositoryCustom#claimTickets(Long, String, long, Long[], String[], Integer[], Double[])
+     */
+    @Override
+    public List<Long> claimTickets(Long userId, String reservationId, long holdSeconds, Long[] calendarIds, String[] types,
+                                   Integer[] amounts, Double[] prices) {
+        return this.jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(CLAIM_TICKETS_QUERY);
+                    statement.setArray(1, connection.createArrayOf("bigint", calendarIds));
+                    statement.setArray(2, connection.createArrayOf("varchar", types));
+                    statement.setArray(3, connection.createArrayOf("integer", amounts));
+                    statement.setArray(4, connection.createArrayOf("float8", prices));
+                    statement.setLong(5, userId);
+                    statement.setString(6, reservationId);
+                    statement.setLong(7, holdSeconds);
+                    return statement;
+                },
+                (resultSet, rowNum) -> resultSet.getLong(1));
+    }
+
+    /**
+     * @see TicketRepositoryCustom#releaseExpiredReservations(int)
+     */
+    @Override
+    public List<Long> releaseExpiredReservations(int batchSize) {
+        return this.jdbcTemplate.queryForList(RELEASE_EXPIRED_RESERVATIONS_QUERY, Long.class, batchSize);
+    }
+}
@@ -1,14 +1,16 @@
 package com.ticket.shop.persistence.repository;
 
 import com.ticket.shop.enumerators.UserRole;
-import com.ticket.shop.persistence.entity.CompanyEntity;
 import com.ticket.shop.persistence.entity.UserEntity;
+import com.ticket.shop.persistence.projection.CustomerDetailsProjection;
+import com.ticket.shop.persistence.projection.WorkerDetailsProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Date;
 import java.util.Optional;
 
 /**
@@ -25,6 +27,16 @@ public interface UserRepository extends CrudRepository<UserEntity, Long> {
      */
     Optional<UserEntity> findByEmail(String email);
 
+    /**
+     * Check if the email is already used, ignoring case
+     * Compares with lower() to be served by the unique lower(email) index
+     *
+     * @param email user email
+     * @return true if a user has the email
+     */
+    @Query("select count(u) > 0 from UserEntity u where lower(u.email) = lower(:email)")
+    boolean existsByEmailIgnoreCase(String email);
+
     /**
      * Get Worker by id and company
      *
@@ -42,38 +54,65 @@ public interface UserRepository extends CrudRepository<UserEntity, Long> {
     Optional<UserEntity> findByUserIdAndCompanyId(Long companyId, Long userId);
 
     /**
-     * Get page of workers by user entity
+     * Get page of workers of a company, with only the listed columns and the roles aggregated in the same query
      *
-     * @param companyEntity company
-     * @param pageable      pageable
-     * @return {@link Page<UserEntity>}
+     * @param companyId company id
+     * @param pageable  pageable
+     * @return {@link Page<WorkerDetailsProjection>}
      */
-    Page<UserEntity> findByCompanyEntity(CompanyEntity companyEntity, Pageable pageable);
+    @Query(value = """
+            select u.user_id as "userId",
+                   u.firstname as "firstname",
+                   u.lastname as "lastname",
+                   u.email as "email",
+                   string_agg(distinct r.roles, ',') as "roles",
+                   u.country_id as "countryId",
+                   u.company_id as "companyId"
+            from users u
+            left join roles r on u.user_id = r.user_id
+            where u.company_id = :companyId
+            group by u.user_id
+            order by u.user_id""",
+            countQuery = """
+                    select count(*)
+                    from users u
+                    where u.company_id = :companyId""",
+            nativeQuery = true)
+    Page<WorkerDetailsProjection> findWorkerDetailsByCompanyId(Long companyId, Pageable pageable);
 
     /**
-     * Get user list by role
+     * Get page of users with a role, with only the customer listing columns
      *
      * @param role     role
      * @param pageable pageable
-     * @return {@link Page<UserEntity>}
-     */
-    Page<UserEntity> findByRolesContains(UserRole role, Pageable pageable);
-
-    /**
-     * Get user by reset token and expire token
-     *
-     * @param token token
-     * @param date  {@link Date}
-     * @return {@link Optional<UserEntity>}
+     * @return {@link Page<CustomerDetailsProjection>}
      */
-    Optional<UserEntity> findByResetPasswordTokenAndResetPasswordExpireTokenIsAfter(String token, Date date);
+    @Query(value = """
+            select u.user_id as "userId",
+                   u.firstname as "firstname",
+                   u.lastname as "lastname",
+                   u.email as "email",
+                   u.country_id as "countryId"
+            from users u
+            where exists (select 1 from roles r where r.user_id = u.user_id and r.roles = :#{#role.name()})
+            order by u.user_id""",
+            countQuery = """
+                    select count(*)
+                    from users u
+                    where exists (select 1 from roles r where r.user_id = u.user_id and r.roles = :#{#role.name()})""",
+            nativeQuery = true)
+    Page<CustomerDetailsProjection> findCustomerDetailsByRole(UserRole role, Pageable pageable);
 
     /**
-     * Get user by confirm email token and expire token
+     * Replace the encrypted password of a user, only if it wasn't changed meanwhile
      *
-     * @param token token
-     * @param date  {@link Date}
-     * @return {@link Optional<UserEntity>}
+     * @param userId               user id
+     * @param encryptedPassword    current encrypted password
+     * @param newEncryptedPassword new encrypted password
+     * @return 1 if updated, 0 if the password was changed meanwhile
      */
-    Optional<UserEntity> findByConfirmEmailTokenAndConfirmEmailExpireTokenIsAfter(String token, Date date);
+    @Transactional
+    @Modifying
+    @Query("update UserEntity u set u.encryptedPassword = :newEncryptedPassword where u.userId = :userId and u.encryptedPassword = :encryptedPassword")
+    int updateEncryptedPassword(Long userId, String encryptedPassword, String newEncryptedPassword);
 }
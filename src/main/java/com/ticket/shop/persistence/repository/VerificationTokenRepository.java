@@ -0,0 +1,55 @@
+package com.ticket.shop.persistence.repository;
+
+import com.ticket.shop.enumerators.VerificationTokenPurpose;
+import com.ticket.shop.persistence.entity.VerificationTokenEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Repository for {@link VerificationTokenEntity} persistence operations
+ * This interface is implemented by Spring Data JPA
+ */
+public interface VerificationTokenRepository extends CrudRepository<VerificationTokenEntity, Long> {
+
+    /**
+     * Get a verification token that didn't expire yet, with its user
+     *
+     * @param tokenHash SHA-256 of the token
+     * @param purpose   token purpose
+     * @param now       current date
+     * @return Optional of {@link VerificationTokenEntity}
+     */
+    @Query("""
+            select v from VerificationTokenEntity v
+            join fetch v.userEntity
+            where v.tokenHash = :tokenHash and v.purpose = :purpose and v.expiresAt > :now
+            """)
+    Optional<VerificationTokenEntity> findByTokenHashAndPurposeAndExpiresAtAfter(String tokenHash, VerificationTokenPurpose purpose, Date now);
+
+    /**
+     * Delete the verification tokens of a user for a purpose
+     *
+     * @param userId  user id
+     * @param purpose token purpose
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from VerificationTokenEntity v where v.userEntity.userId = :userId and v.purpose = :purpose")
+    void deleteByUserIdAndPurpose(Long userId, VerificationTokenPurpose purpose);
+
+    /**
+     * Delete the expired verification tokens
+     *
+     * @param now current date
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from VerificationTokenEntity v where v.expiresAt <= :now")
+    int deleteByExpiresAtNotAfter(Date now);
+}
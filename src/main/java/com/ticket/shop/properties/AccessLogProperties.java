@@ -0,0 +1,19 @@
+package com.ticket.shop.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Access log properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticket-shop.access-log")
+public class AccessLogProperties {
+    private boolean enabled = true;
+    // Share of the requests written, between 0 and 1. Server errors and slow requests are always written
+    private double sampleRate = 1;
+    // Requests taking longer than this are always written
+    private long slowRequestMillis = 1000;
+}
@@ -0,0 +1,18 @@
+package com.ticket.shop.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Check-in properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticket-shop.check-in")
+public class CheckInProperties {
+    // Redeemed tickets of a calendar are forgotten after this long without check-ins, the event is over by then
+    private long redeemedTicketsIdleMinutes = 360;
+    // Calendars with redeemed tickets kept in memory on this node
+    private int redeemedTicketsMaxCalendars = 1_000;
+}
@@ -0,0 +1,19 @@
+package com.ticket.shop.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Connection pool health properties
+ * The pools themselves are configured under spring.datasource.hikari and ticket-shop.datasource.replica
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticket-shop.datasource.pool-health")
+public class ConnectionPoolHealthProperties {
+    // Pools taking longer than this to hand out a connection are reported as degraded
+    private long acquireMillisThreshold = 100;
+    // Percentile of the acquire time compared with the threshold, must be one of the published percentiles
+    private double acquirePercentile = 0.95;
+}
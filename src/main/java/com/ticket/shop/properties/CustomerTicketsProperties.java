@@ -0,0 +1,20 @@
+package com.ticket.shop.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Customer tickets listing properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticket-shop.customer-tickets")
+public class CustomerTicketsProperties {
+    // Larger pages are cut to this size
+    private int maxPageSize = 100;
+    // First pages are served from memory for this long, captured orders evict them earlier
+    private long cacheTtlSeconds = 30;
+    // Users with a cached first page on this node
+    private int cacheMaxEntries = 10_000;
+}
@@ -0,0 +1,20 @@
+package com.ticket.shop.properties;
+
+import com.ticket.shop.enumerators.ExecutionMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Execution properties
+ * The platform thread pools are sized with server.tomcat.threads and spring.task.execution.pool
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticket-shop.execution")
+public class ExecutionProperties {
+    // Virtual threads need Java 21
+    private ExecutionMode mode = ExecutionMode.PLATFORM;
+    // Virtual threads pinned to their carrier longer than this are reported
+    private long pinnedThresholdMillis = 20;
+}
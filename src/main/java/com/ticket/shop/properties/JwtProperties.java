@@ -13,4 +13,23 @@ import org.springframework.stereotype.Component;
 public class JwtProperties {
     private String secretKey;
     private Long expiresInDays;
+    // Build the principal from the token claims instead of loading the user on every request
+    private boolean stateless = false;
+    // Token lifetime when stateless, since role and profile changes only apply on the next login
+    private Long statelessExpiresInMinutes = 15L;
+    // Refresh tokens are rotated on every use, the lifetime restarts with each rotation
+    private Long refreshTokenExpiresInDays = 30L;
+    private DenyList denyList = new DenyList();
+
+    /**
+     * Deny list of revoked token ids
+     */
+    @Data
+    public static class DenyList {
+        // Interval to reload the revoked ids, so revocations made on other instances are seen
+        private long refreshMillis = 30_000;
+        // Revoked ids expected before the false positive rate degrades
+        private int expectedEntries = 100_000;
+        private double falsePositiveRate = 0.001;
+    }
 }
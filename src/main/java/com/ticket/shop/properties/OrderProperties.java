@@ -0,0 +1,22 @@
+package com.ticket.shop.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Order properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticket-shop.orders")
+public class OrderProperties {
+    // Reserved tickets wait this long for the payment, then they are available again
+    private long reservationHoldSeconds = 900;
+    // Time between runs of the sweeper of expired reservations
+    private long reservationSweepIntervalMillis = 60_000;
+    // Tickets released by each statement of the sweeper
+    private int reservationSweepBatchSize = 500;
+    // Cached event prices are loaded again after this time, even when no invalidation reached this node
+    private long priceCacheTtlSeconds = 60;
+}
@@ -0,0 +1,24 @@
+package com.ticket.shop.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Password hashing properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticket-shop.password-hashing")
+public class PasswordHashingProperties {
+    // Threads hashing passwords, half of the cores by default so the rest of the API keeps CPU
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    // Hashes waiting for a thread, requests beyond it fail fast
+    private int queueCapacity = 32;
+    // Requests waiting longer than this for their hash fail
+    private long maxWaitMillis = 3000;
+    // Scheme of the new hashes, bcrypt or pbkdf2. Stored hashes of other schemes are upgraded on login
+    private String encodingId = "bcrypt";
+    // Stored BCrypt hashes with another strength are upgraded on login
+    private int bcryptStrength = 12;
+}
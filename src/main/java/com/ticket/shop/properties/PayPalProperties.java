@@ -0,0 +1,50 @@
+package com.ticket.shop.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * PayPal properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "paypal")
+public class PayPalProperties {
+    // paypal calls the PayPal API, stub creates and captures orders locally without calling anyone
+    private String gateway = "paypal";
+    // sandbox or live
+    private String environment = "sandbox";
+    // API base url used instead of the one of the environment when set, e.g. a mock server
+    private String baseUrl;
+    private Client client = new Client();
+    // Time to open a connection, connections are kept open and reused by the following calls
+    private long connectTimeoutMillis = 2000;
+    // Time a call waits for PayPal, the access token included, before failing with a 503
+    private long deadlineMillis = 10_000;
+    // Calls in progress at once, calls beyond it fail fast instead of holding request threads
+    private int maxConcurrentCalls = 20;
+    // Access tokens are renewed this long before they expire
+    private long tokenRefreshMarginSeconds = 300;
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * PayPal REST app credentials
+     */
+    @Data
+    public static class Client {
+        private String id;
+        private String secret;
+    }
+
+    /**
+     * Circuit breaker of the PayPal calls
+     */
+    @Data
+    public static class CircuitBreaker {
+        // Consecutive failed calls (timeouts, connection errors, 429 and 5xx responses) that open the circuit
+        private int failureThreshold = 5;
+        // Time calls fail fast once open, then a single trial call decides whether it closes
+        private long openMillis = 30_000;
+    }
+}
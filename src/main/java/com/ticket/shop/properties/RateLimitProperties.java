@@ -0,0 +1,40 @@
+package com.ticket.shop.properties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limit properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticket-shop.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // Buckets per route class, rounded up to a power of two. Clients hashed to the same bucket share its budget
+    private int buckets = 65_536;
+    // Login, sign up and password reset, per IP
+    private Budget login = new Budget(5, 5.0 / 60);
+    // Token refresh and logout, per IP
+    private Budget refresh = new Budget(30, 1);
+    // Order creation and capture, per user
+    private Budget orders = new Budget(10, 1);
+    // Any GET, per user or per IP when not logged in
+    private Budget reads = new Budget(100, 20);
+
+    /**
+     * Budget of a route class
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+        // Requests allowed at once
+        private int burst;
+        // Requests allowed per second once the burst is spent
+        private double perSecond;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ticket.shop.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read replica routing properties
+ * The replica pool itself is configured under ticket-shop.datasource.replica
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticket-shop.datasource.replica-routing")
+public class ReplicaRoutingProperties {
+    // Replica lagging more than this serves no reads until it catches up
+    private long maxLagMillis = 5000;
+    // Time between replica lag checks
+    private long lagCheckIntervalMillis = 1000;
+    // Lag checks taking longer than this mark the replica as unavailable
+    private int lagQueryTimeoutSeconds = 2;
+}
@@ -0,0 +1,28 @@
+package com.ticket.shop.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ticket availability stream properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticket-shop.ticket-availability")
+public class TicketAvailabilityProperties {
+    // Changes of a calendar inside this window are published together
+    private long flushIntervalMillis = 500;
+    // Keeps idle connections open through proxies and detects closed clients
+    private long heartbeatIntervalSeconds = 15;
+    // Clients reconnect after the timeout, EventSource does it automatically
+    private long subscriptionTimeoutMinutes = 30;
+    // Maximum open subscriptions on this node
+    private int maxSubscribers = 10_000;
+    // Events waiting to be sent to a subscriber, a subscriber that falls further behind is disconnected
+    private int maxPendingEvents = 16;
+    // Threads writing the events to the subscribers
+    private int senderThreads = 4;
+    // Changes are also published to the subscribers of the other nodes, through database notifications
+    private boolean crossNode = true;
+}
@@ -0,0 +1,21 @@
+package com.ticket.shop.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Waiting room properties
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticket-shop.waiting-room")
+public class WaitingRoomProperties {
+    // Default customers admitted per second when a room is opened without a rate
+    private int admissionsPerSecond = 50;
+    // Default maximum customers waiting per room
+    private int capacity = 100_000;
+    private long admissionTokenExpiresInSeconds = 600;
+    // Local file where the waiting room state is kept across restarts
+    private String logPath = "data/waiting-room.log";
+}
@@ -0,0 +1,99 @@
+package com.ticket.shop.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of strings
+ * Answers "definitely absent" or "maybe present" using a fixed bit array and no stored keys,
+ * so membership can be checked without touching the database for the overwhelming majority of keys.
+ * Safe for concurrent puts and reads
+ */
+public class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    /**
+     * @param expectedEntries   entries expected to be put
+     * @param falsePositiveRate false positive rate once the expected entries are put
+     */
+    public BloomFilter(int expectedEntries, double falsePositiveRate) {
+        long n = Math.max(1, expectedEntries);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (m + 63) / 64);
+
+        this.words = new AtomicLongArray(words);
+        this.bits = words * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) this.bits / n * Math.log(2)));
+    }
+
+    /**
+     * Add a key
+     *
+     * @param key key
+     */
+    public void put(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= this.hashes; i++) {
+            long bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+
+            long current;
+            do {
+                current = this.words.get(word);
+            } while ((current & mask) == 0 && !this.words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * Check if a key may have been added
+     *
+     * @param key key
+     * @return false if the key was never added, true if it probably was
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= this.hashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((this.words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Map a combined hash to a bit position
+     */
+    private long index(int combined) {
+        return (combined & 0x7fffffffL) % this.bits;
+    }
+
+    /**
+     * 64 bit FNV-1a, split in two 32 bit hashes to derive the k positions (Kirsch-Mitzenmacher)
+     */
+    private static long hash(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        // Final avalanche, FNV alone mixes the last bytes poorly into the high bits
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ticket.shop.security;
+
+import com.ticket.shop.service.AuthServiceImp;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Signer for compact platform tokens (e.g. ticket check-in tokens)
+ * A token is the base64url encoding of a fixed size payload followed by a truncated HMAC-SHA256 of that payload,
+ * signed with the same key material as the JWT tokens.
+ * Every payload should start with a byte identifying the purpose of the token, so a token issued
+ * for one purpose can never be accepted for another one
+ */
+@Component
+public class HmacTokenSigner {
+
+    public static final int MAC_LENGTH = 16;
+
+    // Token purposes, the first byte of every payload
+    public static final byte CHECK_IN_PURPOSE = 1;
+    public static final byte QUEUE_PURPOSE = 2;
+    public static final byte ADMISSION_PURPOSE = 3;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Mac instances are not thread safe, so each thread keeps its own
+    private final ThreadLocal<Mac> macs;
+
+    public HmacTokenSigner(AuthServiceImp authServiceImp) {
+        SecretKeySpec key = new SecretKeySpec(authServiceImp.getSigningKey().getEncoded(), MAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Failed to initialize " + MAC_ALGORITHM, e);
+            }
+        });
+    }
+
+    /**
+     * Sign payload
+     *
+     * @param payload payload to be signed
+     * @return the token
+     */
+    public String sign(byte[] payload) {
+        byte[] token = Arrays.copyOf(payload, payload.length + MAC_LENGTH);
+        System.arraycopy(mac(payload), 0, token, payload.length, MAC_LENGTH);
+        return ENCODER.encodeToString(token);
+    }
+
+    /**
+     * Compute the truncated signature of a payload, the same bytes that are appended to its token
+     *
+     * @param payload payload to be signed
+     * @return the first {@link #MAC_LENGTH} bytes of the HMAC
+     */
+    public byte[] mac(byte[] payload) {
+        return Arrays.copyOf(this.macs.get().doFinal(payload), MAC_LENGTH);
+    }
+
+    /**
+     * Verify token signature
+     *
+     * @param token         token
+     * @param payloadLength expected payload length
+     * @return Optional of the signed payload, empty if the token is malformed or the signature doesn't match
+     */
+    public Optional<ByteBuffer> verify(String token, int payloadLength) {
+        int tokenLength = payloadLength + MAC_LENGTH;
+
+        // Cheap length check before decoding, base64 without padding uses ceil(4n / 3) chars
+        if (token == null || token.length() != (tokenLength * 4 + 2) / 3) {
+            return Optional.empty();
+        }
+
+        byte[] decoded;
+        try {
+            decoded = DECODER.decode(token);
+
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        Mac mac = this.macs.get();
+        mac.update(decoded, 0, payloadLength);
+        byte[] expected = mac.doFinal();
+
+        // Constant time comparison
+        int diff = 0;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            diff |= expected[i] ^ decoded[payloadLength + i];
+        }
+
+        return diff == 0
+                ? Optional.of(ByteBuffer.wrap(decoded, 0, payloadLength))
+                : Optional.empty();
+    }
+}
@@ -0,0 +1,182 @@
+package com.ticket.shop.security;
+
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.auth.PasswordHashingUnavailableException;
+import com.ticket.shop.properties.PasswordHashingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Size-capped pool for password hashing, isolating the BCrypt CPU load from the request threads
+ * When the queue is full, or the hashes queued ahead would take longer than the maximum wait, the request fails at
+ * submit instead of piling up. Cancellation is advisory: BCrypt never checks the interrupt flag, so a hash that started
+ * runs to completion after its caller gave up. Only the hashes still queued are dropped
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private static final Logger LOGGER = LogManager.getLogger(PasswordHashingExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitNanos;
+    private final Timer waitTimer;
+    private final Timer hashTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingExecutor(PasswordHashingProperties passwordHashingProperties, MeterRegistry meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(passwordHashingProperties.getThreads(), passwordHashingProperties.getThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(passwordHashingProperties.getQueueCapacity()),
+                runnable -> new HashingThread(runnable, "password-hashing-" + threadCount.incrementAndGet()));
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(passwordHashingProperties.getMaxWaitMillis());
+
+        Gauge.builder("password.hashing.queue.depth", this.executor, executor -> executor.getQueue().size())
+                .description("Password hashes waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", this.executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes running")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time password hashes waited for a thread")
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("password.hashing.duration")
+                .description("Time spent hashing passwords")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Password hashes rejected because the pool was saturated")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Run hashing task on the pool and wait for its result
+     *
+     * @param task hashing task
+     * @param <T>  result type
+     * @return the task result
+     */
+    public <T> T execute(Supplier<T> task) {
+        // Tasks already on the pool hash inline, waiting on the pool from the pool could deadlock it
+        if (Thread.currentThread() instanceof HashingThread) {
+            return this.hashTimer.record(task);
+        }
+
+        long submittedAt = System.nanoTime();
+        rejectWhenSaturated();
+
+        Future<T> future;
+        try {
+            future = this.executor.submit(() -> {
+                this.waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return this.hashTimer.record(task);
+            });
+
+        } catch (RejectedExecutionException e) {
+            this.rejectedCounter.increment();
+            LOGGER.error("Password hashing pool is saturated with {} queued hashes", this.executor.getQueue().size());
+            throw new PasswordHashingUnavailableException(ErrorMessages.SERVICE_BUSY, e);
+        }
+
+        try {
+            return future.get(this.maxWaitNanos, TimeUnit.NANOSECONDS);
+
+        } catch (TimeoutException e) {
+            drop(future);
+            this.rejectedCounter.increment();
+            LOGGER.error("Password hash not done after {} ms", TimeUnit.NANOSECONDS.toMillis(this.maxWaitNanos));
+            throw new PasswordHashingUnavailableException(ErrorMessages.SERVICE_BUSY, e);
+
+        } catch (InterruptedException e) {
+            drop(future);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException(ErrorMessages.SERVICE_BUSY, e);
+
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Reject a hash when the hashes already queued would keep it waiting longer than the maximum wait
+     * Estimated from the mean hash time, so nothing is rejected this way before the first hashes
+     */
+    private void rejectWhenSaturated() {
+        int queued = this.executor.getQueue().size();
+        if (queued == 0) {
+            return;
+        }
+
+        double expectedWaitNanos = this.hashTimer.mean(TimeUnit.NANOSECONDS) * (queued / this.executor.getMaximumPoolSize() + 1);
+        if (expectedWaitNanos > this.maxWaitNanos) {
+            this.rejectedCounter.increment();
+            LOGGER.error("Password hashing pool is saturated, {} queued hashes would take {} ms", queued,
+                    TimeUnit.NANOSECONDS.toMillis((long) expectedWaitNanos));
+            throw new PasswordHashingUnavailableException(ErrorMessages.SERVICE_BUSY);
+        }
+    }
+
+    /**
+     * Drop a hash its caller gave up on
+     * A queued hash is removed so it never runs and frees its queue slot, a running one can't be stopped
+     *
+     * @param future hash future
+     */
+    private void drop(Future<?> future) {
+        future.cancel(false);
+        this.executor.remove((Runnable) future);
+    }
+
+    /**
+     * Run background task on the pool only when no hash is waiting, so it never delays a request
+     *
+     * @param task background task
+     * @return true if the task was submitted
+     */
+    public boolean submit(Runnable task) {
+        if (!this.executor.getQueue().isEmpty()) {
+            return false;
+        }
+
+        try {
+            this.executor.execute(task);
+            return true;
+
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Password hashing pool thread
+     */
+    private static final class HashingThread extends Thread {
+
+        private HashingThread(Runnable runnable, String name) {
+            super(runnable, name);
+            setDaemon(true);
+        }
+    }
+}
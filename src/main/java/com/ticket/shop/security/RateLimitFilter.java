@@ -0,0 +1,152 @@
+package com.ticket.shop.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticket.shop.command.auth.PrincipalDto;
+import com.ticket.shop.error.Error;
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.RateLimitExceededException;
+import com.ticket.shop.properties.RateLimitProperties;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limit filter
+ * Requests are classified by route, each route class has its own budget per client.
+ * Runs after the authentication filters, so logged in clients are limited by user id instead of IP
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger LOGGER = LogManager.getLogger(RateLimitFilter.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // User keys have the high bit set, so they never share a bucket key with an IP
+    private static final long USER_KEY = Long.MIN_VALUE;
+
+    private final RateLimiter loginRateLimiter;
+    private final RateLimiter refreshRateLimiter;
+    private final RateLimiter ordersRateLimiter;
+    private final RateLimiter readsRateLimiter;
+
+    public RateLimitFilter(RateLimitProperties rateLimitProperties) {
+        this.loginRateLimiter = new RateLimiter(rateLimitProperties.getLogin(), rateLimitProperties.getBuckets());
+        this.refreshRateLimiter = new RateLimiter(rateLimitProperties.getRefresh(), rateLimitProperties.getBuckets());
+        this.ordersRateLimiter = new RateLimiter(rateLimitProperties.getOrders(), rateLimitProperties.getBuckets());
+        this.readsRateLimiter = new RateLimiter(rateLimitProperties.getReads(), rateLimitProperties.getBuckets());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest httpServletRequest,
+                                    HttpServletResponse httpServletResponse,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String path = httpServletRequest.getServletPath();
+        String method = httpServletRequest.getMethod();
+        // Trailing slashes reach the same handlers
+        String route = path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+
+        long waitNanos = 0;
+        if (isCredentialRequest(method, route)) {
+            // Runs a password hash or sends an email, always limited by IP
+            waitNanos = this.loginRateLimiter.tryAcquire(getIpKey(httpServletRequest));
+
+        } else if (HttpMethod.POST.matches(method) && (route.equals("/api/auth/refresh") || route.equals("/api/auth/logout"))) {
+            // Every open tab refreshes, so it can't share the login budget
+            waitNanos = this.refreshRateLimiter.tryAcquire(getIpKey(httpServletRequest));
+
+        } else if (path.startsWith("/api/paypal/orders")) {
+            waitNanos = this.ordersRateLimiter.tryAcquire(getClientKey(httpServletRequest));
+
+        } else if (HttpMethod.GET.matches(method)) {
+            waitNanos = this.readsRateLimiter.tryAcquire(getClientKey(httpServletRequest));
+        }
+
+        if (waitNanos > 0) {
+            LOGGER.debug("Rate limit exceeded on {} {} from {}", method, path, httpServletRequest.getRemoteAddr());
+            writeTooManyRequests(httpServletRequest, httpServletResponse, waitNanos);
+            return;
+        }
+
+        filterChain.doFilter(httpServletRequest, httpServletResponse);
+    }
+
+    /**
+     * Check if the request checks credentials: login, sign up and password reset
+     *
+     * @param method request method
+     * @param route  request path without trailing slash
+     * @return true if the request is limited by the login budget
+     */
+    private static boolean isCredentialRequest(String method, String route) {
+        if (HttpMethod.POST.matches(method)) {
+            return route.equals("/api/auth/login") || route.equals("/api/customers");
+        }
+        return HttpMethod.PUT.matches(method) && (route.equals("/api/auth/reset-password") || route.equals("/api/auth/reset-password/complete"));
+    }
+
+    /**
+     * Get the key of the logged in user, or of the IP when not logged in
+     *
+     * @param httpServletRequest request
+     * @return client key
+     */
+    private long getClientKey(HttpServletRequest httpServletRequest) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof PrincipalDto principal && principal.getUserId() != null) {
+            return USER_KEY | principal.getUserId();
+        }
+        return getIpKey(httpServletRequest);
+    }
+
+    /**
+     * Get the key of the client IP
+     * Behind a proxy, set server.forward-headers-strategy so the remote address is the client one
+     *
+     * @param httpServletRequest request
+     * @return IP key
+     */
+    private long getIpKey(HttpServletRequest httpServletRequest) {
+        return httpServletRequest.getRemoteAddr().hashCode() & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Write 429 response with the seconds to wait on Retry-After
+     *
+     * @param httpServletRequest  request
+     * @param httpServletResponse response
+     * @param waitNanos           nanoseconds to wait before retrying
+     * @throws IOException if the response can't be written
+     */
+    private void writeTooManyRequests(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse,
+                                      long waitNanos) throws IOException {
+
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        httpServletResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        httpServletResponse.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        httpServletResponse.setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+
+        MAPPER.writeValue(
+                httpServletResponse.getOutputStream(),
+                Error.builder()
+                        .timestamp(new Date())
+                        .message(ErrorMessages.TOO_MANY_REQUESTS)
+                        .method(httpServletRequest.getMethod())
+                        .path(httpServletRequest.getServletPath())
+                        .exception(RateLimitExceededException.class.getSimpleName())
+                        .build()
+        );
+    }
+}
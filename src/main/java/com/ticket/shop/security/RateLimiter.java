@@ -0,0 +1,70 @@
+package com.ticket.shop.security;
+
+import com.ticket.shop.properties.RateLimitProperties.Budget;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free rate limiter over a fixed array of buckets, so memory doesn't grow with the number of clients
+ * Each bucket is a single theoretical arrival time (GCRA), updated with compare-and-set
+ */
+public class RateLimiter {
+
+    private final AtomicLongArray arrivalTimes;
+    private final int mask;
+    // Keys are mixed with a random seed, so clients can't choose to share a bucket with someone else
+    private final long seed = ThreadLocalRandom.current().nextLong();
+    private final long origin = System.nanoTime();
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+
+    public RateLimiter(Budget budget, int buckets) {
+        int size = Integer.highestOneBit(Math.max(1, buckets - 1)) << 1;
+        this.arrivalTimes = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / budget.getPerSecond());
+        this.toleranceNanos = this.emissionIntervalNanos * Math.max(0, budget.getBurst() - 1);
+    }
+
+    /**
+     * Try to take a request from the bucket of a key
+     *
+     * @param key client key
+     * @return 0 if allowed, otherwise nanoseconds to wait before retrying
+     */
+    public long tryAcquire(long key) {
+        int bucket = (int) mix(key ^ this.seed) & this.mask;
+        // Relative to the limiter creation, so the untouched buckets (0) are never in the future
+        long now = System.nanoTime() - this.origin;
+
+        while (true) {
+            long current = this.arrivalTimes.get(bucket);
+            long arrivalTime = Math.max(current, now);
+            long waitNanos = arrivalTime - this.toleranceNanos - now;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+
+            if (this.arrivalTimes.compareAndSet(bucket, current, arrivalTime + this.emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Murmur3 64 bit finalizer
+     *
+     * @param key key
+     * @return mixed key
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,131 @@
+package com.ticket.shop.security;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Token authentication filter
+ * Authenticates with the bearer token of the authorization header or, when there is none, with the
+ * authentication cookie. The credential is picked and validated once per request and the token is kept
+ * as a request attribute, so nothing down the chain needs to parse it again
+ */
+public class TokenAuthFilter extends OncePerRequestFilter {
+
+    private static final Logger LOGGER = LogManager.getLogger(TokenAuthFilter.class);
+    public static final String COOKIE_NAME = "auth_by_cookie";
+    // Request attribute with the token the request was authenticated with
+    public static final String TOKEN_ATTRIBUTE = "com.ticket.shop.security.TokenAuthFilter.token";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private final UserAuthenticationProvider userAuthenticationProvider;
+
+    public TokenAuthFilter(UserAuthenticationProvider userAuthenticationProvider) {
+        this.userAuthenticationProvider = userAuthenticationProvider;
+    }
+
+    /**
+     * Filter implementation to authenticate with the jwt token or cookie if provided
+     * A bad bearer token fails the request, a bad cookie is ignored and the request goes on unauthenticated
+     * @param httpServletRequest
+     * @param httpServletResponse
+     * @param filterChain
+     * @throws ServletException
+     * @throws IOException
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest httpServletRequest,
+                                    HttpServletResponse httpServletResponse,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String token = getBearerToken(httpServletRequest);
+
+        if (token != null) {
+            try {
+                authenticate(httpServletRequest, token);
+                LOGGER.debug("Successfully authenticated with token");
+
+            } catch (RuntimeException e) {
+                SecurityContextHolder.clearContext();
+                LOGGER.error("Failed to parse token", e);
+                throw e;
+            }
+
+        } else {
+            token = getCookieToken(httpServletRequest);
+
+            if (token != null) {
+                try {
+                    authenticate(httpServletRequest, token);
+                    LOGGER.debug("Successfully authenticated with cookie");
+
+                } catch (RuntimeException e) {
+                    SecurityContextHolder.clearContext();
+                    LOGGER.error("Failed to validate cookie", e);
+                }
+            }
+        }
+
+        // Always call this in order to tell Spring Security to continue
+        filterChain.doFilter(httpServletRequest, httpServletResponse);
+    }
+
+    /**
+     * Validate the token and set the authentication of the request
+     *
+     * @param httpServletRequest request
+     * @param token              token
+     */
+    private void authenticate(HttpServletRequest httpServletRequest, String token) {
+        Authentication auth = this.userAuthenticationProvider.validateToken(token);
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        httpServletRequest.setAttribute(TOKEN_ATTRIBUTE, token);
+    }
+
+    /**
+     * Get the token of a "Bearer <token>" authorization header
+     *
+     * @param httpServletRequest request
+     * @return the token or null if there is no bearer token
+     */
+    private static String getBearerToken(HttpServletRequest httpServletRequest) {
+        String header = httpServletRequest.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (header == null
+                || header.length() <= BEARER_PREFIX.length()
+                || !header.startsWith(BEARER_PREFIX)
+                || header.indexOf(' ', BEARER_PREFIX.length()) >= 0) {
+            return null;
+        }
+        return header.substring(BEARER_PREFIX.length());
+    }
+
+    /**
+     * Get the token of the authentication cookie
+     *
+     * @param httpServletRequest request
+     * @return the token or null if there is no authentication cookie
+     */
+    private static String getCookieToken(HttpServletRequest httpServletRequest) {
+        Cookie[] cookies = httpServletRequest.getCookies();
+
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName()) && cookie.getValue() != null && !cookie.getValue().isEmpty()) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ticket.shop.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Opaque tokens sent to clients (refresh tokens, verification links) and the digest stored in their place
+ * The tokens are 256 random bits, so a plain SHA-256 is enough to keep a database leak from exposing them
+ */
+public final class TokenDigest {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private TokenDigest() {
+    }
+
+    /**
+     * Generate a random url safe token
+     *
+     * @return token
+     */
+    public static String generateToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        SECURE_RANDOM.nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+
+    /**
+     * SHA-256 of a token
+     *
+     * @param token token
+     * @return hex encoded hash, 64 characters
+     */
+    public static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
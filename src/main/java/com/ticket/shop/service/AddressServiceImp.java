@@ -16,6 +16,7 @@ import com.ticket.shop.persistence.repository.UserRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * An {@link AddressService} implementation
@@ -38,15 +39,16 @@ public class AddressServiceImp implements AddressService {
      * @see AddressService#createAddress(CreateAddressDto)
      */
     @Override
+    @Transactional
     public AddressDetailsDto createAddress(CreateAddressDto createAddressDto) {
         CountryEntity countryEntity = getCountryEntityById(createAddressDto.getCountryId());
         AddressEntity addressEntity = AddressConverter.fromCreateAddressDtoToAddressEntity(createAddressDto);
         addressEntity.setCountryEntity(countryEntity);
 
-        LOGGER.info("Persisting address into database");
+        LOGGER.debug("Persisting address into database");
         AddressEntity createAddress;
         try {
-            LOGGER.info("Saving address on database");
+            LOGGER.debug("Saving address on database");
             createAddress = this.addressRepository.save(addressEntity);
 
         } catch (Exception e) {
@@ -61,6 +63,7 @@ public class AddressServiceImp implements AddressService {
      * @see AddressService#createUserAddress(Long, CreateAddressDto)
      */
     @Override
+    @Transactional
     public AddressDetailsDto createUserAddress(Long userId, CreateAddressDto createAddressDto) {
         CountryEntity countryEntity = getCountryEntityById(createAddressDto.getCountryId());
         UserEntity userEntity = getUserEntityById(userId);
@@ -69,10 +72,10 @@ public class AddressServiceImp implements AddressService {
         addressEntity.setCountryEntity(countryEntity);
         addressEntity.setUserEntity(userEntity);
 
-        LOGGER.info("Persisting address into database");
+        LOGGER.debug("Persisting address into database");
         AddressEntity createdAddress;
         try {
-            LOGGER.info("Saving address on database");
+            LOGGER.debug("Saving address on database");
             createdAddress = this.addressRepository.save(addressEntity);
 
         } catch (Exception e) {
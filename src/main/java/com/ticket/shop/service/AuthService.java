@@ -27,6 +27,22 @@ public interface AuthService {
      */
     PrincipalDto validateToken(String token);
 
+    /**
+     * Issue a new access token with a refresh token, the refresh token is rotated
+     *
+     * @param refreshToken refresh token
+     * @return {@link LoggedInDto} with the new access and refresh tokens
+     */
+    LoggedInDto refreshToken(String refreshToken);
+
+    /**
+     * Logout, revoking the token until it expires and the refresh token family
+     *
+     * @param token        token, null when the request wasn't authenticated
+     * @param refreshToken refresh token, may be null
+     */
+    void logout(String token, String refreshToken);
+
     /**
      * Request to recover password
      *
@@ -3,11 +3,14 @@ package com.ticket.shop.service;
 import com.ticket.shop.command.auth.CredentialsDto;
 import com.ticket.shop.command.auth.LoggedInDto;
 import com.ticket.shop.command.auth.PrincipalDto;
+import com.ticket.shop.command.auth.RefreshTokenDto;
 import com.ticket.shop.command.auth.ResetPasswordDto;
 import com.ticket.shop.command.auth.ResetPasswordTokenDto;
 import com.ticket.shop.command.email.EmailDto;
 import com.ticket.shop.converter.UserConverter;
 import com.ticket.shop.enumerators.EmailTemplate;
+import com.ticket.shop.enumerators.UserRole;
+import com.ticket.shop.enumerators.VerificationTokenPurpose;
 import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.auth.InvalidTokenException;
@@ -16,6 +19,7 @@ import com.ticket.shop.exception.user.UserNotFoundException;
 import com.ticket.shop.persistence.entity.UserEntity;
 import com.ticket.shop.persistence.repository.UserRepository;
 import com.ticket.shop.properties.JwtProperties;
+import com.ticket.shop.security.PasswordHashingExecutor;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.Jwts;
@@ -26,6 +30,9 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.PostConstruct;
 import javax.crypto.spec.SecretKeySpec;
@@ -34,7 +41,9 @@ import java.security.Key;
 import java.time.Duration;
 import java.util.Base64;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * An {@link AuthService} implementation
@@ -50,15 +59,28 @@ public class AuthServiceImp implements AuthService {
     private final String secretKey = Base64.getEncoder().withoutPadding().encodeToString(new byte[256]);
     private Key signingKey = new SecretKeySpec(DatatypeConverter.parseBase64Binary(this.secretKey), this.signatureAlgorithm);
     private final EmailServiceImp emailServiceImp;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final TokenDenyListServiceImp tokenDenyListServiceImp;
+    private final RefreshTokenServiceImp refreshTokenServiceImp;
+    private final VerificationTokenServiceImp verificationTokenServiceImp;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${ticket-shop.resetPassToken.expiresInHours}")
     private long expiresInHours;
 
-    public AuthServiceImp(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtProperties jwtProperties, EmailServiceImp emailServiceImp) {
+    public AuthServiceImp(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtProperties jwtProperties, EmailServiceImp emailServiceImp,
+                          PasswordHashingExecutor passwordHashingExecutor, TokenDenyListServiceImp tokenDenyListServiceImp,
+                          RefreshTokenServiceImp refreshTokenServiceImp, VerificationTokenServiceImp verificationTokenServiceImp,
+                          PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtProperties = jwtProperties;
         this.emailServiceImp = emailServiceImp;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.tokenDenyListServiceImp = tokenDenyListServiceImp;
+        this.refreshTokenServiceImp = refreshTokenServiceImp;
+        this.verificationTokenServiceImp = verificationTokenServiceImp;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @PostConstruct
@@ -86,14 +108,42 @@ public class AuthServiceImp implements AuthService {
             throw new WrongCredentialsException(ErrorMessages.WRONG_CREDENTIALS);
         }
 
+        upgradePasswordHash(userEntity.getUserId(), credentialsDto.getPassword(), userEntity.getEncryptedPassword());
+
         PrincipalDto principal = UserConverter.fromUserEntityToPrincipalDto(userEntity);
 
-        LOGGER.info("Generating JWT token for the user with id {} ...", userEntity.getUserId());
+        LOGGER.debug("Generating JWT token for the user with id {} ...", userEntity.getUserId());
         String token = generateJwtToken(principal);
+        String refreshToken = this.refreshTokenServiceImp.createRefreshToken(userEntity.getUserId());
 
         return LoggedInDto.builder()
                 .principal(principal)
                 .token(token)
+                .refreshToken(refreshToken)
+                .build();
+    }
+
+    /**
+     * @see AuthService#refreshToken(String)
+     */
+    @Override
+    public LoggedInDto refreshToken(String refreshToken) {
+        RefreshTokenDto refreshTokenDto = this.refreshTokenServiceImp.rotateRefreshToken(refreshToken);
+
+        // Roles and profile changes are picked up here, once per access token lifetime
+        UserEntity userEntity = this.userRepository.findById(refreshTokenDto.getUserId())
+                .orElseThrow(() -> {
+                    LOGGER.error("User with id {} of the refresh token not found on database", refreshTokenDto.getUserId());
+                    return new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
+                });
+
+        PrincipalDto principal = UserConverter.fromUserEntityToPrincipalDto(userEntity);
+
+        LOGGER.debug("Refreshing JWT token for the user with id {} ...", userEntity.getUserId());
+        return LoggedInDto.builder()
+                .principal(principal)
+                .token(generateJwtToken(principal))
+                .refreshToken(refreshTokenDto.getRefreshToken())
                 .build();
     }
 
@@ -102,14 +152,19 @@ public class AuthServiceImp implements AuthService {
      */
     @Override
     public PrincipalDto validateToken(String token) {
-        Jws<Claims> jwtClaims = Jwts.parserBuilder()
-                .setSigningKey(this.signingKey)
-                .build()
-                .parseClaimsJws(token);
+        Claims claims = parseToken(token);
+
+        if (this.tokenDenyListServiceImp.isRevoked(claims.getId())) {
+            LOGGER.error("The token {} was revoked", claims.getId());
+            throw new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
+        }
+
+        if (this.jwtProperties.isStateless()) {
+            return fromClaimsToPrincipalDto(claims);
+        }
 
         // Get userId from payload/body
-        Long userId = jwtClaims.getBody()
-                .get("id", Long.class);
+        Long userId = claims.get("id", Long.class);
 
         // Get user from database
         UserEntity userEntity = this.userRepository.findById(userId)
@@ -119,6 +174,28 @@ public class AuthServiceImp implements AuthService {
         return UserConverter.fromUserEntityToPrincipalDto(userEntity);
     }
 
+    /**
+     * @see AuthService#logout(String, String)
+     */
+    @Override
+    public void logout(String token, String refreshToken) {
+        if (refreshToken != null) {
+            this.refreshTokenServiceImp.revokeRefreshToken(refreshToken);
+        }
+        if (token == null) {
+            return;
+        }
+
+        Claims claims = parseToken(token);
+
+        if (claims.getId() == null) {
+            LOGGER.warn("Token of user with id {} has no id and can't be revoked, it's valid until it expires", claims.get("id"));
+            return;
+        }
+
+        this.tokenDenyListServiceImp.revoke(claims.getId(), claims.get("id", Long.class), claims.getExpiration());
+    }
+
     /**
      * @see AuthService#requestRecoverPassword(String)
      */
@@ -126,21 +203,8 @@ public class AuthServiceImp implements AuthService {
     public void requestRecoverPassword(String email) {
         String subject = "Request to reset password";
         UserEntity user = getUserByEmail(email);
-        String token = generateTokenForValidations();
-        Date expiresAt = new Date(new Date().getTime() +
-                Duration.ofHours(this.expiresInHours).toMillis());
-
-        user.setResetPasswordToken(token);
-        user.setResetPasswordExpireToken(expiresAt);
-
-        LOGGER.debug("Persisting recover password token on database");
-        try {
-            this.userRepository.save(user);
-
-        } catch (Exception e) {
-            LOGGER.error("Failed while saving token into database", e);
-            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
-        }
+        String token = this.verificationTokenServiceImp.createVerificationToken(
+                user, VerificationTokenPurpose.RESET_PASSWORD, Duration.ofHours(this.expiresInHours));
 
         this.emailServiceImp.sendEmail(
                 EmailDto.builder()
@@ -159,7 +223,7 @@ public class AuthServiceImp implements AuthService {
      */
     @Override
     public ResetPasswordTokenDto validateResetPasswordToken(String token) {
-        UserEntity userEntity = getUserFromResetPasswordToken(token);
+        UserEntity userEntity = this.verificationTokenServiceImp.getUserByVerificationToken(token, VerificationTokenPurpose.RESET_PASSWORD);
 
         return ResetPasswordTokenDto.builder()
                 .token(token)
@@ -174,21 +238,28 @@ public class AuthServiceImp implements AuthService {
     @Override
     public void resetPassword(String token, ResetPasswordDto resetPasswordDto) {
         String subject = "Confirm of Password Reset";
-        UserEntity userEntity = getUserFromResetPasswordToken(token);
+        UserEntity userEntity = this.verificationTokenServiceImp.getUserByVerificationToken(token, VerificationTokenPurpose.RESET_PASSWORD);
 
+        // The password is hashed before the transaction, no connection is held while hashing
         String encryptedPassword = passwordEncoder.encode(resetPasswordDto.getPassword());
         userEntity.setEncryptedPassword(encryptedPassword);
-        userEntity.setResetPasswordToken(null);
-        userEntity.setResetPasswordExpireToken(new Date());
 
-        LOGGER.debug("Persisting reset password token as null on database");
-        try {
-            this.userRepository.save(userEntity);
+        // The new password is committed with the token deletion and the sessions revocation, the email is sent after
+        this.transactionTemplate.executeWithoutResult(status -> {
+            LOGGER.debug("Persisting new password on database");
+            try {
+                this.userRepository.save(userEntity);
 
-        } catch (Exception e) {
-            LOGGER.error("Failed while saving token as null into database", e);
-            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
-        }
+            } catch (Exception e) {
+                LOGGER.error("Failed while saving new password into database", e);
+                throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+            }
+
+            this.verificationTokenServiceImp.deleteVerificationTokens(userEntity.getUserId(), VerificationTokenPurpose.RESET_PASSWORD);
+
+            // Sessions opened with the old password can't be refreshed anymore
+            this.refreshTokenServiceImp.revokeUserRefreshTokens(userEntity.getUserId());
+        });
 
         this.emailServiceImp.sendEmail(
                 EmailDto.builder()
@@ -204,10 +275,9 @@ public class AuthServiceImp implements AuthService {
      * @see AuthService#confirmEmail(String)
      */
     @Override
+    @Transactional
     public void confirmEmail(String token) {
-        UserEntity userEntity = getUserFromConfirmEmailToken(token);
-        userEntity.setConfirmEmailToken(null);
-        userEntity.setConfirmEmailExpireToken(new Date());
+        UserEntity userEntity = this.verificationTokenServiceImp.getUserByVerificationToken(token, VerificationTokenPurpose.CONFIRM_EMAIL);
         userEntity.setEmailConfirmed(true);
 
         LOGGER.debug("Persisting email confirmation on database");
@@ -218,6 +288,18 @@ public class AuthServiceImp implements AuthService {
             LOGGER.error("Failed while saving email confirmation into database", e);
             throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
         }
+
+        this.verificationTokenServiceImp.deleteVerificationTokens(userEntity.getUserId(), VerificationTokenPurpose.CONFIRM_EMAIL);
+    }
+
+    /**
+     * Get the key used to sign the JWT tokens
+     * It's also reused to sign other platform tokens, like the ticket check-in tokens
+     *
+     * @return {@link Key}
+     */
+    public Key getSigningKey() {
+        return this.signingKey;
     }
 
     /**
@@ -228,60 +310,59 @@ public class AuthServiceImp implements AuthService {
      */
     protected String generateJwtToken(PrincipalDto principalDto) {
         Date now = new Date(System.currentTimeMillis());
-        Date expiresAt = new Date(now.getTime() +
-                Duration.ofDays(this.jwtProperties.getExpiresInDays()).toMillis());
+        Duration expiresIn = this.jwtProperties.isStateless()
+                ? Duration.ofMinutes(this.jwtProperties.getStatelessExpiresInMinutes())
+                : Duration.ofDays(this.jwtProperties.getExpiresInDays());
+        Date expiresAt = new Date(now.getTime() + expiresIn.toMillis());
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
                 .claim("id", principalDto.getUserId())
                 .claim("name", principalDto.getName())
+                .claim("email", principalDto.getEmail())
                 .claim("role", principalDto.getRoles())
+                .claim("countryId", principalDto.getCountryId())
+                .claim("companyId", principalDto.getCompanyId())
                 .signWith(Keys.hmacShaKeyFor(this.signingKey.getEncoded()))
                 .setExpiration(expiresAt)
                 .compact();
     }
 
     /**
-     * Generate token for password reset and email confirmation
-     *
-     * @return token
-     */
-    protected String generateTokenForValidations() {
-        String token = UUID.randomUUID().toString().toLowerCase();
-        token = token.replaceAll("-", "");
-        return token;
-    }
-
-    /**
-     * Get user by reset password token if the token is after the actual date
+     * Parse and verify a jwt token
      *
      * @param token token
-     * @return {@link UserEntity}
+     * @return {@link Claims} of the token
      */
-    private UserEntity getUserFromResetPasswordToken(String token) {
-        LOGGER.debug("Verifying if the token {} exists or is expired", token);
-        return this.userRepository.findByResetPasswordTokenAndResetPasswordExpireTokenIsAfter(
-                token, new Date()
-        ).orElseThrow(() -> {
-            LOGGER.error("The token is invalid or it expired already");
-            return new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
-        });
+    private Claims parseToken(String token) {
+        Jws<Claims> jwtClaims = Jwts.parserBuilder()
+                .setSigningKey(this.signingKey)
+                .build()
+                .parseClaimsJws(token);
+
+        return jwtClaims.getBody();
     }
 
     /**
-     * Get user by confirm email token if the token is after the actual date
+     * Build the principal from the token claims, without loading the user
      *
-     * @param token token
-     * @return {@link UserEntity}
+     * @param claims {@link Claims}
+     * @return {@link PrincipalDto}
      */
-    private UserEntity getUserFromConfirmEmailToken(String token) {
-        LOGGER.debug("Verifying if the token {} exists or is expired", token);
-        return this.userRepository.findByConfirmEmailTokenAndConfirmEmailExpireTokenIsAfter(
-                token, new Date()
-        ).orElseThrow(() -> {
-            LOGGER.error("The token is invalid or it expired already");
-            return new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
-        });
+    private static PrincipalDto fromClaimsToPrincipalDto(Claims claims) {
+        List<?> roles = claims.get("role", List.class);
+
+        return PrincipalDto.builder()
+                .userId(claims.get("id", Long.class))
+                .name(claims.get("name", String.class))
+                .email(claims.get("email", String.class))
+                .roles(roles.stream()
+                        .map(role -> UserRole.valueOf(role.toString()))
+                        .collect(Collectors.toSet()))
+                .countryId(claims.get("countryId", Long.class))
+                .companyId(claims.get("companyId", Long.class))
+                .build();
     }
 
     /**
@@ -298,4 +379,32 @@ public class AuthServiceImp implements AuthService {
                     return new UserNotFoundException(ErrorMessages.USER_NOT_FOUND);
                 });
     }
+
+    /**
+     * Upgrade the stored password hash in the background when its scheme or parameters aren't the current ones
+     * Only uses spare hashing capacity, a skipped upgrade is retried on the next login
+     *
+     * @param userId            user id
+     * @param password          password that matched the stored hash
+     * @param encryptedPassword stored hash
+     */
+    private void upgradePasswordHash(Long userId, String password, String encryptedPassword) {
+        if (!this.passwordEncoder.upgradeEncoding(encryptedPassword)) {
+            return;
+        }
+
+        boolean submitted = this.passwordHashingExecutor.submit(() -> {
+            try {
+                String upgradedPassword = this.passwordEncoder.encode(password);
+                if (this.userRepository.updateEncryptedPassword(userId, encryptedPassword, upgradedPassword) == 0) {
+                    LOGGER.debug("The password of user id {} changed before its hash was upgraded", userId);
+                }
+
+            } catch (Exception e) {
+                LOGGER.error("Failed while upgrading password hash of user id {}", userId, e);
+            }
+        });
+
+        LOGGER.debug("Password hash upgrade of user id {} {}", userId, submitted ? "scheduled" : "skipped");
+    }
 }
@@ -11,6 +11,7 @@ import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.calendar.CalendarNotFoundException;
 import com.ticket.shop.exception.event.EventNotFoundException;
+import com.ticket.shop.persistence.ReplicaRead;
 import com.ticket.shop.persistence.entity.CalendarEntity;
 import com.ticket.shop.persistence.entity.EventEntity;
 import com.ticket.shop.persistence.repository.CalendarRepository;
@@ -54,10 +55,10 @@ public class CalendarServiceImp implements CalendarService {
         LOGGER.debug("Creating calendar - {}", createCalendarDto);
         CalendarEntity calendarEntity = CalendarConverter.fromCreateCalendarDtoToCalendarEntity(createCalendarDto, eventEntity);
 
-        LOGGER.info("Persisting calendar into database");
+        LOGGER.debug("Persisting calendar into database");
         CalendarEntity createdCalendar;
         try {
-            LOGGER.info("Saving calendar on database");
+            LOGGER.debug("Saving calendar on database");
             createdCalendar = this.calendarRepository.save(calendarEntity);
 
         } catch (Exception e) {
@@ -77,6 +78,8 @@ public class CalendarServiceImp implements CalendarService {
      * @see CalendarService#getCalendarById(Long)
      */
     @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public CalendarDetailsDto getCalendarById(Long calendarId) {
         CalendarEntity calendarEntity = getCalendarEntityById(calendarId);
         return CalendarConverter.fromCalendarEntityToCalendarDetailsDto(calendarEntity);
@@ -86,6 +89,8 @@ public class CalendarServiceImp implements CalendarService {
      * @see CalendarService#getCalendarListByEventId(Long, int, int)
      */
     @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public Paginated<CalendarDetailsDto> getCalendarListByEventId(Long eventId, int page, int size) {
         EventEntity eventEntity = getEventEntityById(eventId);
 
@@ -117,6 +122,7 @@ public class CalendarServiceImp implements CalendarService {
      * @see CalendarService#deleteCalendar(Long, Long, Long)
      */
     @Override
+    @Transactional
     public void deleteCalendar(Long companyId, Long eventId, Long calendarId) {
         LOGGER.debug("Getting calendar with id {} from database", calendarId);
         EventEntity eventEntity = getEventEntityById(eventId);
@@ -136,6 +142,7 @@ public class CalendarServiceImp implements CalendarService {
      * @see CalendarService#updateCalendar(Long, Long, UpdateCalendarDto)
      */
     @Override
+    @Transactional
     public CalendarDetailsDto updateCalendar(Long companyId, Long calendarId, UpdateCalendarDto updateCalendarDto) {
         CalendarEntity calendarEntity = getCalendarEntityByCompanyIdAndCalendarId(companyId, calendarId);
         calendarEntity.setStartDate(updateCalendarDto.getStartDate());
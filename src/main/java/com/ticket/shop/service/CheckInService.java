@@ -0,0 +1,65 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.command.checkin.CheckInDetailsDto;
+import com.ticket.shop.command.checkin.CheckInDto;
+import com.ticket.shop.command.checkin.CheckInSyncDto;
+import com.ticket.shop.command.checkin.CheckInSyncResultDto;
+import com.ticket.shop.command.checkin.CheckInTokenDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Common interface for check-in services, provides methods to redeem tickets at the venue
+ */
+public interface CheckInService {
+
+    /**
+     * Get the check-in token of a sold ticket
+     *
+     * @param customerId customer id
+     * @param ticketId   ticket id
+     * @return {@link CheckInTokenDto}
+     */
+    CheckInTokenDto getCheckInToken(Long customerId, Long ticketId);
+
+    /**
+     * Check in ticket with the token scanned at the gate
+     *
+     * @param companyId  company id
+     * @param calendarId calendar id
+     * @param checkInDto {@link CheckInDto}
+     * @return {@link CheckInDetailsDto}
+     */
+    CheckInDetailsDto checkIn(Long companyId, Long calendarId, CheckInDto checkInDto);
+
+    /**
+     * Get the version of the check-in manifest of a calendar
+     *
+     * @param companyId  company id
+     * @param calendarId calendar id
+     * @return manifest version
+     */
+    long getCheckInManifestVersion(Long companyId, Long calendarId);
+
+    /**
+     * Write the binary check-in manifest of a calendar, used by the venue gates to validate tickets offline
+     *
+     * @param companyId    company id
+     * @param calendarId   calendar id
+     * @param version      manifest version
+     * @param outputStream stream where the manifest is written
+     * @throws IOException if the manifest can't be written
+     */
+    void writeCheckInManifest(Long companyId, Long calendarId, long version, OutputStream outputStream) throws IOException;
+
+    /**
+     * Check in the tickets redeemed offline by a venue gate
+     *
+     * @param companyId      company id
+     * @param calendarId     calendar id
+     * @param checkInSyncDto {@link CheckInSyncDto}
+     * @return {@link CheckInSyncResultDto}
+     */
+    CheckInSyncResultDto syncCheckIns(Long companyId, Long calendarId, CheckInSyncDto checkInSyncDto);
+}
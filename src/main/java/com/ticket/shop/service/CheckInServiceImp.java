@@ -0,0 +1,414 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.command.checkin.CheckInDetailsDto;
+import com.ticket.shop.command.checkin.CheckInDto;
+import com.ticket.shop.command.checkin.CheckInSyncDto;
+import com.ticket.shop.command.checkin.CheckInSyncResultDto;
+import com.ticket.shop.command.checkin.RedemptionDto;
+import com.ticket.shop.command.checkin.CheckInTokenDto;
+import com.ticket.shop.enumerators.TicketType;
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.exception.auth.InvalidTokenException;
+import com.ticket.shop.exception.ticket.TicketAlreadyCheckedInException;
+import com.ticket.shop.exception.ticket.TicketNotFoundException;
+import com.ticket.shop.persistence.entity.TicketEntity;
+import com.ticket.shop.persistence.repository.TicketRepository;
+import com.ticket.shop.persistence.repository.TicketRepositoryCustom.CheckInManifestRowHandler;
+import com.ticket.shop.properties.CheckInProperties;
+import com.ticket.shop.security.HmacTokenSigner;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An {@link CheckInService} implementation
+ */
+@Service
+public class CheckInServiceImp implements CheckInService {
+
+    private static final Logger LOGGER = LogManager.getLogger(CheckInService.class);
+
+    // Token payload: purpose (1 byte) + ticket id (8 bytes) + calendar id (8 bytes) + ticket type (1 byte)
+    private static final int CHECK_IN_PAYLOAD_LENGTH = 18;
+    private static final TicketType[] TICKET_TYPES = TicketType.values();
+
+    // Manifest layout
+    //   header  - magic (4 bytes), format version (1 byte), calendar id (8 bytes), manifest version (8 bytes), tag length (1 byte)
+    //   entry   - ticket id delta to the previous entry (unsigned varint, never 0), ticket type (1 byte), tag
+    //   trailer - 0 delta as terminator, followed by the number of entries (4 bytes)
+    // The tag is the prefix of the check-in token signature, so a gate can match scanned tokens without the signing key
+    private static final int MANIFEST_MAGIC = 0x5453434D;
+    private static final byte MANIFEST_FORMAT_VERSION = 1;
+    private static final int MANIFEST_TAG_LENGTH = 8;
+    private static final int MANIFEST_BUFFER_SIZE = 64 * 1024;
+
+    private final TicketRepository ticketRepository;
+    private final HmacTokenSigner hmacTokenSigner;
+    private final CheckInProperties checkInProperties;
+
+    // Tickets already redeemed on this node, per calendar id, removed once the calendar has no more check-ins
+    private final Map<Long, RedeemedTickets> redeemedTicketsByCalendar = new ConcurrentHashMap<>();
+
+    public CheckInServiceImp(TicketRepository ticketRepository, HmacTokenSigner hmacTokenSigner, CheckInProperties checkInProperties) {
+        this.ticketRepository = ticketRepository;
+        this.hmacTokenSigner = hmacTokenSigner;
+        this.checkInProperties = checkInProperties;
+    }
+
+    /**
+     * @see CheckInService#getCheckInToken(Long, Long)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CheckInTokenDto getCheckInToken(Long customerId, Long ticketId) {
+        LOGGER.debug("Getting sold ticket with id {} of customer id {} from database", ticketId, customerId);
+        TicketEntity ticketEntity = this.ticketRepository.findSoldByTicketIdAndUserId(ticketId, customerId)
+                .orElseThrow(() -> {
+                    LOGGER.error("The sold ticket with id {} of customer id {} does not exist in database", ticketId, customerId);
+                    return new TicketNotFoundException(ErrorMessages.TICKET_NOT_FOUND);
+                });
+
+        Long calendarId = ticketEntity.getCalendarEntity().getCalendarId();
+        byte[] payload = buildCheckInPayload(ticketId, calendarId, ticketEntity.getType());
+
+        return CheckInTokenDto.builder()
+                .ticketId(ticketId)
+                .calendarId(calendarId)
+                .token(this.hmacTokenSigner.sign(payload))
+                .build();
+    }
+
+    /**
+     * @see CheckInService#checkIn(Long, Long, CheckInDto)
+     */
+    @Override
+    public CheckInDetailsDto checkIn(Long companyId, Long calendarId, CheckInDto checkInDto) {
+        // Validated in memory, invalid and already redeemed tokens never reach the database
+        CheckInToken token = parseCheckInToken(checkInDto.getToken());
+        if (token.calendarId() != calendarId) {
+            LOGGER.error("The check-in token of ticket id {} belongs to calendar id {} and not to calendar id {}",
+                    token.ticketId(), token.calendarId(), calendarId);
+            throw new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
+        }
+
+        RedeemedTickets redeemedTickets = getRedeemedTickets(calendarId);
+        if (redeemedTickets.contains(token.ticketId())) {
+            LOGGER.error("The ticket with id {} was already checked in", token.ticketId());
+            throw new TicketAlreadyCheckedInException(ErrorMessages.TICKET_ALREADY_CHECKED_IN);
+        }
+
+        LOGGER.debug("Checking in ticket with id {} on calendar id {}", token.ticketId(), calendarId);
+        int checkedIn;
+        try {
+            checkedIn = this.ticketRepository.checkInTicket(token.ticketId(), calendarId, companyId);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while checking in ticket with id {} - ", token.ticketId(), e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+
+        if (checkedIn == 0) {
+            // Redeemed by another node or before this node started
+            if (this.ticketRepository.isTicketCheckedIn(token.ticketId(), calendarId, companyId)) {
+                redeemedTickets.add(token.ticketId());
+                LOGGER.error("The ticket with id {} was already checked in", token.ticketId());
+                throw new TicketAlreadyCheckedInException(ErrorMessages.TICKET_ALREADY_CHECKED_IN);
+            }
+
+            LOGGER.error("The sold ticket with id {} does not exist on calendar id {}", token.ticketId(), calendarId);
+            throw new TicketNotFoundException(ErrorMessages.TICKET_NOT_FOUND);
+        }
+
+        redeemedTickets.add(token.ticketId());
+        return CheckInDetailsDto.builder()
+                .ticketId(token.ticketId())
+                .calendarId(calendarId)
+                .type(token.type())
+                .checkedInAt(new Timestamp(System.currentTimeMillis()))
+                .build();
+    }
+
+    /**
+     * @see CheckInService#getCheckInManifestVersion(Long, Long)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long getCheckInManifestVersion(Long companyId, Long calendarId) {
+        LOGGER.debug("Getting check-in manifest version of calendar id {}", calendarId);
+        try {
+            return this.ticketRepository.findCheckInManifestVersion(calendarId, companyId);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while getting check-in manifest version of calendar id {} - ", calendarId, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+    }
+
+    /**
+     * @see CheckInService#writeCheckInManifest(Long, Long, long, OutputStream)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void writeCheckInManifest(Long companyId, Long calendarId, long version, OutputStream outputStream) throws IOException {
+        DataOutputStream manifest = new DataOutputStream(new BufferedOutputStream(outputStream, MANIFEST_BUFFER_SIZE));
+        manifest.writeInt(MANIFEST_MAGIC);
+        manifest.writeByte(MANIFEST_FORMAT_VERSION);
+        manifest.writeLong(calendarId);
+        manifest.writeLong(version);
+        manifest.writeByte(MANIFEST_TAG_LENGTH);
+
+        ManifestWriter manifestWriter = new ManifestWriter(manifest, calendarId);
+        try {
+            this.ticketRepository.streamCheckInManifest(calendarId, companyId, manifestWriter);
+
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writeVarLong(manifest, 0);
+        manifest.writeInt(manifestWriter.count);
+        manifest.flush();
+        LOGGER.debug("Check-in manifest of calendar id {} written with {} tickets", calendarId, manifestWriter.count);
+    }
+
+    /**
+     * @see CheckInService#syncCheckIns(Long, Long, CheckInSyncDto)
+     */
+    @Override
+    public CheckInSyncResultDto syncCheckIns(Long companyId, Long calendarId, CheckInSyncDto checkInSyncDto) {
+        // A ticket scanned more than once only keeps its first check-in, sorted so concurrent uploads lock rows in the same order
+        Map<Long, Timestamp> redemptions = new TreeMap<>();
+        for (RedemptionDto redemption : checkInSyncDto.getRedemptions()) {
+            redemptions.merge(redemption.getTicketId(), redemption.getCheckedInAt(),
+                    (first, second) -> first.before(second) ? first : second);
+        }
+
+        LOGGER.debug("Syncing {} check-ins on calendar id {}", redemptions.size(), calendarId);
+        List<Long> accepted;
+        try {
+            accepted = this.ticketRepository.bulkCheckInTickets(calendarId, companyId,
+                    redemptions.keySet().toArray(Long[]::new), redemptions.values().toArray(Timestamp[]::new));
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while syncing check-ins on calendar id {} - ", calendarId, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+
+        RedeemedTickets redeemedTickets = getRedeemedTickets(calendarId);
+        accepted.forEach(redeemedTickets::add);
+
+        List<Long> conflicts = new ArrayList<>();
+        List<Long> rejected = new ArrayList<>();
+        if (accepted.size() < redemptions.size()) {
+            Set<Long> acceptedIds = new HashSet<>(accepted);
+            List<Long> notAccepted = redemptions.keySet().stream()
+                    .filter(ticketId -> !acceptedIds.contains(ticketId))
+                    .toList();
+
+            try {
+                conflicts = this.ticketRepository.findCheckedInTicketIds(calendarId, companyId, notAccepted);
+
+            } catch (Exception e) {
+                LOGGER.error("Failed while getting checked in tickets on calendar id {} - ", calendarId, e);
+                throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+            }
+
+            conflicts.forEach(redeemedTickets::add);
+            Set<Long> conflictIds = new HashSet<>(conflicts);
+            rejected = notAccepted.stream()
+                    .filter(ticketId -> !conflictIds.contains(ticketId))
+                    .toList();
+        }
+
+        LOGGER.debug("Synced check-ins on calendar id {} - {} accepted, {} conflicts, {} rejected",
+                calendarId, accepted.size(), conflicts.size(), rejected.size());
+        return CheckInSyncResultDto.builder()
+                .accepted(accepted)
+                .conflicts(conflicts)
+                .rejected(rejected)
+                .build();
+    }
+
+    /**
+     * Remove the redeemed tickets of the calendars without check-ins for a while
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeIdleRedeemedTickets() {
+        long idleSinceNanos = System.nanoTime() - TimeUnit.MINUTES.toNanos(this.checkInProperties.getRedeemedTicketsIdleMinutes());
+        this.redeemedTicketsByCalendar.entrySet().removeIf(entry -> {
+            boolean idle = entry.getValue().lastUsedNanos - idleSinceNanos <= 0;
+            if (idle) {
+                LOGGER.debug("Removing redeemed tickets of calendar id {}, no check-ins for a while", entry.getKey());
+            }
+            return idle;
+        });
+    }
+
+    /**
+     * Get the tickets redeemed on this node of a calendar
+     * When too many calendars are kept, tickets of a new calendar are not kept and every check-in goes to the database
+     *
+     * @param calendarId calendar id
+     * @return {@link RedeemedTickets}
+     */
+    private RedeemedTickets getRedeemedTickets(Long calendarId) {
+        RedeemedTickets redeemedTickets = this.redeemedTicketsByCalendar.get(calendarId);
+        if (redeemedTickets == null) {
+            if (this.redeemedTicketsByCalendar.size() >= this.checkInProperties.getRedeemedTicketsMaxCalendars()) {
+                purgeIdleRedeemedTickets();
+            }
+            if (this.redeemedTicketsByCalendar.size() >= this.checkInProperties.getRedeemedTicketsMaxCalendars()) {
+                LOGGER.warn("Redeemed tickets of {} calendars in memory, not keeping the ones of calendar id {}",
+                        this.redeemedTicketsByCalendar.size(), calendarId);
+                return new RedeemedTickets();
+            }
+            redeemedTickets = this.redeemedTicketsByCalendar.computeIfAbsent(calendarId, id -> new RedeemedTickets());
+        }
+
+        redeemedTickets.lastUsedNanos = System.nanoTime();
+        return redeemedTickets;
+    }
+
+    /**
+     * Build the check-in token payload of a ticket
+     *
+     * @param ticketId   ticket id
+     * @param calendarId calendar id
+     * @param type       ticket type
+     * @return the payload
+     */
+    private static byte[] buildCheckInPayload(long ticketId, long calendarId, TicketType type) {
+        return ByteBuffer.allocate(CHECK_IN_PAYLOAD_LENGTH)
+                .put(HmacTokenSigner.CHECK_IN_PURPOSE)
+                .putLong(ticketId)
+                .putLong(calendarId)
+                .put((byte) type.ordinal())
+                .array();
+    }
+
+    /**
+     * Write unsigned variable length long, 7 bits per byte with the high bit set on all but the last byte
+     *
+     * @param output output
+     * @param value  value
+     * @throws IOException if the value can't be written
+     */
+    private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    /**
+     * Verify the check-in token signature and extract its content
+     *
+     * @param token token
+     * @return {@link CheckInToken}
+     */
+    private CheckInToken parseCheckInToken(String token) {
+        ByteBuffer payload = this.hmacTokenSigner.verify(token, CHECK_IN_PAYLOAD_LENGTH)
+                .filter(p -> p.get() == HmacTokenSigner.CHECK_IN_PURPOSE)
+                .orElseThrow(() -> {
+                    LOGGER.error("The check-in token is invalid");
+                    return new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
+                });
+
+        long ticketId = payload.getLong();
+        long calendarId = payload.getLong();
+        int type = payload.get();
+        if (type < 0 || type >= TICKET_TYPES.length) {
+            LOGGER.error("The check-in token has an unknown ticket type {}", type);
+            throw new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
+        }
+
+        return new CheckInToken(ticketId, calendarId, TICKET_TYPES[type]);
+    }
+
+    private record CheckInToken(long ticketId, long calendarId, TicketType type) {
+    }
+
+    /**
+     * Writes each streamed ticket as a manifest entry
+     */
+    private final class ManifestWriter implements CheckInManifestRowHandler {
+
+        private final DataOutputStream manifest;
+        private final long calendarId;
+        private long previousTicketId;
+        private int count;
+
+        private ManifestWriter(DataOutputStream manifest, long calendarId) {
+            this.manifest = manifest;
+            this.calendarId = calendarId;
+        }
+
+        @Override
+        public void handle(long ticketId, TicketType type) {
+            byte[] tag = hmacTokenSigner.mac(buildCheckInPayload(ticketId, this.calendarId, type));
+            try {
+                writeVarLong(this.manifest, ticketId - this.previousTicketId);
+                this.manifest.writeByte(type.ordinal());
+                this.manifest.write(tag, 0, MANIFEST_TAG_LENGTH);
+
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            this.previousTicketId = ticketId;
+            this.count++;
+        }
+    }
+
+    /**
+     * Lock-free bitmap of redeemed ticket ids
+     * Split in chunks of 4096 ids, so the sparse ticket id ranges of a calendar stay cheap
+     */
+    private static final class RedeemedTickets {
+
+        private static final int CHUNK_SHIFT = 12;
+        private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+        private static final int WORDS_PER_CHUNK = (1 << CHUNK_SHIFT) / Long.SIZE;
+
+        private final Map<Long, AtomicLongArray> chunks = new ConcurrentHashMap<>();
+        // System.nanoTime() of the last check-in of the calendar
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        boolean contains(long ticketId) {
+            AtomicLongArray chunk = this.chunks.get(ticketId >>> CHUNK_SHIFT);
+            if (chunk == null) {
+                return false;
+            }
+
+            int bit = (int) (ticketId & CHUNK_MASK);
+            return (chunk.get(bit >>> 6) & (1L << bit)) != 0;
+        }
+
+        void add(long ticketId) {
+            AtomicLongArray chunk = this.chunks.computeIfAbsent(ticketId >>> CHUNK_SHIFT, id -> new AtomicLongArray(WORDS_PER_CHUNK));
+            int bit = (int) (ticketId & CHUNK_MASK);
+            chunk.getAndAccumulate(bit >>> 6, 1L << bit, (word, mask) -> word | mask);
+        }
+    }
+}
@@ -10,16 +10,23 @@ import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.address.AddressNotFoundException;
 import com.ticket.shop.exception.company.CompanyAlreadyExistsException;
 import com.ticket.shop.exception.company.CompanyNotFoundException;
+import com.ticket.shop.persistence.DuplicateKey;
+import com.ticket.shop.persistence.ReplicaRead;
 import com.ticket.shop.persistence.entity.AddressEntity;
 import com.ticket.shop.persistence.entity.CompanyEntity;
 import com.ticket.shop.persistence.entity.CountryEntity;
+import com.ticket.shop.persistence.projection.CompanyConflictProjection;
 import com.ticket.shop.persistence.repository.AddressRepository;
 import com.ticket.shop.persistence.repository.CompanyRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -34,11 +41,14 @@ public class CompanyServiceImp implements CompanyService {
     private final CompanyRepository companyRepository;
     private final AddressRepository addressRepository;
     private final AddressServiceImp addressServiceImp;
+    private final TransactionTemplate transactionTemplate;
 
-    public CompanyServiceImp(CompanyRepository companyRepository, AddressRepository addressRepository, AddressServiceImp addressService) {
+    public CompanyServiceImp(CompanyRepository companyRepository, AddressRepository addressRepository, AddressServiceImp addressService,
+                             PlatformTransactionManager transactionManager) {
         this.companyRepository = companyRepository;
         this.addressRepository = addressRepository;
         this.addressServiceImp = addressService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -50,29 +60,52 @@ public class CompanyServiceImp implements CompanyService {
         CompanyEntity companyEntity = CompanyConverter.fromCreateCompanyDtoToCompanyEntity(createOrUpdateCompanyDto);
         validateCompany(companyEntity.getName(), companyEntity.getEmail(), companyEntity.getWebsite());
 
+        // The address and the company are saved together, a duplicate rolls both back before being translated
+        CompanyEntity createCompany;
+        try {
+            createCompany = this.transactionTemplate.execute(status -> saveCompany(companyEntity, createOrUpdateCompanyDto));
+
+        } catch (DataIntegrityViolationException e) {
+            throw toCompanyAlreadyExistsException(null, companyEntity, e);
+        }
+
+        LOGGER.debug("Retrieving created company");
+        return CompanyConverter.fromCompanyEntityToCompanyDetailsDto(createCompany);
+    }
+
+    /**
+     * Save the company address and the company
+     * Integrity violations are rethrown to be translated once the transaction is rolled back
+     *
+     * @param companyEntity            company to save
+     * @param createOrUpdateCompanyDto {@link CreateOrUpdateCompanyDto}
+     * @return saved {@link CompanyEntity}
+     */
+    private CompanyEntity saveCompany(CompanyEntity companyEntity, CreateOrUpdateCompanyDto createOrUpdateCompanyDto) {
         AddressDetailsDto address = this.addressServiceImp.createAddress(createOrUpdateCompanyDto.getAddress());
         AddressEntity addressEntityById = getAddressEntityById(address.getAddressId());
         companyEntity.setAddressEntity(addressEntityById);
 
-        LOGGER.info("Persisting company into database");
-        CompanyEntity createCompany;
+        LOGGER.debug("Persisting company into database");
         try {
-            LOGGER.info("Saving company on database");
-            createCompany = this.companyRepository.save(companyEntity);
+            LOGGER.debug("Saving company on database");
+            return this.companyRepository.save(companyEntity);
+
+        } catch (DataIntegrityViolationException e) {
+            throw e;
 
         } catch (Exception e) {
             LOGGER.error("Failed while saving worker into database {}", createOrUpdateCompanyDto, e);
             throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
         }
-
-        LOGGER.debug("Retrieving created company");
-        return CompanyConverter.fromCompanyEntityToCompanyDetailsDto(createCompany);
     }
 
     /**
      * @see CompanyService#getCompanyById(Long)
      */
     @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public CompanyDetailsDto getCompanyById(Long companyId) throws CompanyNotFoundException {
         CompanyEntity companyEntity = getCompanyEntityById(companyId);
         return CompanyConverter.fromCompanyEntityToCompanyDetailsDto(companyEntity);
@@ -83,29 +116,42 @@ public class CompanyServiceImp implements CompanyService {
      */
     @Override
     public CompanyDetailsDto updateCompany(Long companyId, CreateOrUpdateCompanyDto updateWorkerDto) {
-        CompanyEntity companyEntity = getCompanyEntityById(companyId);
-        companyEntity.setName(updateWorkerDto.getName());
-        companyEntity.setEmail(updateWorkerDto.getEmail());
-        companyEntity.setWebsite(updateWorkerDto.getWebsite());
+        // The unique indexes are only checked when the changes are flushed, a duplicate is translated after the rollback
+        try {
+            return this.transactionTemplate.execute(status -> {
+                CompanyEntity companyEntity = getCompanyEntityById(companyId);
+                companyEntity.setName(updateWorkerDto.getName());
+                companyEntity.setEmail(updateWorkerDto.getEmail());
+                companyEntity.setWebsite(updateWorkerDto.getWebsite());
 
-        this.addressServiceImp.updateAddress(companyEntity.getAddressEntity(), updateWorkerDto.getAddress());
+                this.addressServiceImp.updateAddress(companyEntity.getAddressEntity(), updateWorkerDto.getAddress());
 
-        LOGGER.debug("Updating company with id {} with new data", companyId);
-        try {
-            this.companyRepository.save(companyEntity);
+                LOGGER.debug("Updating company with id {} with new data", companyId);
+                try {
+                    this.companyRepository.save(companyEntity);
 
-        } catch (Exception e) {
-            LOGGER.error("Failed while updating company with id {} with new data - {}", companyId, companyEntity, e);
-            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
-        }
+                } catch (DataIntegrityViolationException e) {
+                    throw e;
 
-        return CompanyConverter.fromCompanyEntityToCompanyDetailsDto(companyEntity);
+                } catch (Exception e) {
+                    LOGGER.error("Failed while updating company with id {} with new data - {}", companyId, companyEntity, e);
+                    throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+                }
+
+                return CompanyConverter.fromCompanyEntityToCompanyDetailsDto(companyEntity);
+            });
+
+        } catch (DataIntegrityViolationException e) {
+            throw toCompanyAlreadyExistsException(companyId,
+                    CompanyConverter.fromCreateCompanyDtoToCompanyEntity(updateWorkerDto), e);
+        }
     }
 
     /**
      * @see CompanyService#deleteCompany(Long)
      */
     @Override
+    @Transactional
     public void deleteCompany(Long companyId) {
         LOGGER.debug("Getting company with id {} from database", companyId);
         CompanyEntity companyEntity = getCompanyEntityById(companyId);
@@ -124,6 +170,8 @@ public class CompanyServiceImp implements CompanyService {
      * @see CompanyService#getCompanyList(int, int)
      */
     @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public Paginated<CompanyDetailsDto> getCompanyList(int page, int size) {
         LOGGER.debug("Getting companies page {} from database", page);
         Page<CompanyEntity> companyList;
@@ -151,25 +199,28 @@ public class CompanyServiceImp implements CompanyService {
 
     /**
      * Validate Company by name, email and website
+     * A single query checks the three fields
      *
      * @param name    name
      * @param email   email
      * @param website website
      */
     private void validateCompany(String name, String email, String website) {
-        if (this.companyRepository.findByName(name).isPresent()) {
+        CompanyConflictProjection conflicts = this.companyRepository.findConflicts(name, email, website);
+
+        if (conflicts.isNameTaken()) {
 
             LOGGER.error("Duplicated name - {}", name);
             throw new CompanyAlreadyExistsException(ErrorMessages.NAME_ALREADY_EXISTS);
         }
 
-        if (this.companyRepository.findByEmail(email).isPresent()) {
+        if (conflicts.isEmailTaken()) {
 
             LOGGER.error("Duplicated email - {}", email);
             throw new CompanyAlreadyExistsException(ErrorMessages.EMAIL_ALREADY_EXISTS);
         }
 
-        if (this.companyRepository.findByWebsite(website).isPresent()) {
+        if (conflicts.isWebsiteTaken()) {
 
             LOGGER.error("Duplicated website - {}", website);
             throw new CompanyAlreadyExistsException(ErrorMessages.WEBSITE_ALREADY_EXISTS);
@@ -177,14 +228,52 @@ public class CompanyServiceImp implements CompanyService {
     }
 
     /**
-     * Get Company by id
+     * Translate an integrity violation on save into the matching {@link CompanyAlreadyExistsException}
+     * The unique indexes are the authoritative check, this covers concurrent creations and updates
+     *
+     * @param companyId     id of the company being updated, null when creating it
+     * @param companyEntity company being saved
+     * @param e             integrity violation
+     * @return {@link CompanyAlreadyExistsException}, or {@link DatabaseCommunicationException} when not a duplicate
+     */
+    private RuntimeException toCompanyAlreadyExistsException(Long companyId, CompanyEntity companyEntity,
+                                                             DataIntegrityViolationException e) {
+        if (DuplicateKey.isDuplicateKey(e)) {
+            // The index names don't tell which field collided, the conflicts query does
+            // An updated company still holds its own values, only other companies can conflict with it
+            CompanyConflictProjection conflicts = companyId == null
+                    ? this.companyRepository.findConflicts(
+                            companyEntity.getName(), companyEntity.getEmail(), companyEntity.getWebsite())
+                    : this.companyRepository.findConflictsWithOtherCompanies(
+                            companyId, companyEntity.getName(), companyEntity.getEmail(), companyEntity.getWebsite());
+
+            if (conflicts.isNameTaken()) {
+                LOGGER.error("Duplicated name - {}", companyEntity.getName());
+                return new CompanyAlreadyExistsException(ErrorMessages.NAME_ALREADY_EXISTS);
+            }
+            if (conflicts.isEmailTaken()) {
+                LOGGER.error("Duplicated email - {}", companyEntity.getEmail());
+                return new CompanyAlreadyExistsException(ErrorMessages.EMAIL_ALREADY_EXISTS);
+            }
+            if (conflicts.isWebsiteTaken()) {
+                LOGGER.error("Duplicated website - {}", companyEntity.getWebsite());
+                return new CompanyAlreadyExistsException(ErrorMessages.WEBSITE_ALREADY_EXISTS);
+            }
+        }
+
+        LOGGER.error("Failed while saving company into database {}", companyEntity, e);
+        return new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+    }
+
+    /**
+     * Get Company by id with its address
      *
      * @param companyId company id
      * @return {@link CompanyEntity}
      */
     private CompanyEntity getCompanyEntityById(Long companyId) {
         LOGGER.debug("Getting company with id {} from database", companyId);
-        return this.companyRepository.findById(companyId)
+        return this.companyRepository.findWithAddressByCompanyId(companyId)
                 .orElseThrow(() -> {
                     LOGGER.error("The company with id {} does not exist in database", companyId);
                     return new CompanyNotFoundException(ErrorMessages.COMPANY_NOT_FOUND);
@@ -6,6 +6,7 @@ import com.ticket.shop.converter.CountryConverter;
 import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.country.CountryNotFoundException;
+import com.ticket.shop.persistence.ReplicaRead;
 import com.ticket.shop.persistence.entity.CountryEntity;
 import com.ticket.shop.persistence.repository.CountryRepository;
 import org.apache.logging.log4j.LogManager;
@@ -13,6 +14,7 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -34,6 +36,8 @@ public class CountryServiceImp implements CountryService {
      * @see CountryService#getCountryById(Long)
      */
     @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public CountryDetailsDto getCountryById(Long countryId) {
         CountryEntity countryEntity = getCountryEntityById(countryId);
         return CountryConverter.fromCountryEntityToCountryDetailsDto(countryEntity);
@@ -43,6 +47,8 @@ public class CountryServiceImp implements CountryService {
      * @see CountryService#getCountryList(int, int)
      */
     @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public Paginated<CountryDetailsDto> getCountryList(int page, int size) {
         LOGGER.debug("Getting countries page {} from database", page);
         Page<CountryEntity> countryEntities;
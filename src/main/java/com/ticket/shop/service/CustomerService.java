@@ -3,8 +3,10 @@ package com.ticket.shop.service;
 import com.ticket.shop.command.Paginated;
 import com.ticket.shop.command.customer.CreateCustomerDto;
 import com.ticket.shop.command.customer.CustomerDetailsDto;
+import com.ticket.shop.command.customer.PatchCustomerDto;
 import com.ticket.shop.command.customer.UpdateCustomerDto;
 import com.ticket.shop.exception.company.CompanyNotFoundException;
+import com.ticket.shop.exception.country.CountryNotFoundException;
 import com.ticket.shop.exception.user.UserAlreadyExistsException;
 import com.ticket.shop.exception.user.UserNotFoundException;
 
@@ -51,6 +53,18 @@ public interface CustomerService {
      */
     CustomerDetailsDto updateCustomer(Long userId, UpdateCustomerDto updateCustomerDto);
 
+    /**
+     * Partially update customer, only the fields sent and different from the
+     * current ones are written and the password is only hashed when sent
+     *
+     * @param userId           user id to be updated
+     * @param patchCustomerDto {@link PatchCustomerDto}
+     * @return {@link CustomerDetailsDto} the customer updated
+     * @throws UserNotFoundException    when the user isn't found
+     * @throws CountryNotFoundException when the country isn't found
+     */
+    CustomerDetailsDto patchCustomer(Long userId, PatchCustomerDto patchCustomerDto);
+
     /**
      * Delete customer
      *
@@ -4,29 +4,36 @@ package com.ticket.shop.service;
 import com.ticket.shop.command.Paginated;
 import com.ticket.shop.command.customer.CreateCustomerDto;
 import com.ticket.shop.command.customer.CustomerDetailsDto;
+import com.ticket.shop.command.customer.PatchCustomerDto;
 import com.ticket.shop.command.customer.UpdateCustomerDto;
 import com.ticket.shop.converter.UserConverter;
 import com.ticket.shop.enumerators.UserRole;
+import com.ticket.shop.enumerators.VerificationTokenPurpose;
 import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.country.CountryNotFoundException;
 import com.ticket.shop.exception.user.UserAlreadyExistsException;
 import com.ticket.shop.exception.user.UserNotFoundException;
+import com.ticket.shop.persistence.DuplicateKey;
 import com.ticket.shop.persistence.entity.CountryEntity;
 import com.ticket.shop.persistence.entity.UserEntity;
+import com.ticket.shop.persistence.projection.CustomerDetailsProjection;
 import com.ticket.shop.persistence.repository.CountryRepository;
 import com.ticket.shop.persistence.repository.UserRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -40,19 +47,24 @@ public class CustomerServiceImp implements CustomerService {
     private final UserRepository userRepository;
     private final CountryRepository countryRepository;
     private final PasswordEncoder passwordEncoder;
-    private final AuthServiceImp authServiceImp;
+    private final VerificationTokenServiceImp verificationTokenServiceImp;
     private final EmailServiceImp emailServiceImp;
+    private final RefreshTokenServiceImp refreshTokenServiceImp;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${ticket-shop.resetPassToken.expiresInHours}")
     private long expiresInHours;
 
     public CustomerServiceImp(UserRepository userRepository, CountryRepository countryRepository,
-                              PasswordEncoder passwordEncoder, AuthServiceImp authServiceImp, EmailServiceImp emailServiceImp) {
+                              PasswordEncoder passwordEncoder, VerificationTokenServiceImp verificationTokenServiceImp, EmailServiceImp emailServiceImp,
+                              RefreshTokenServiceImp refreshTokenServiceImp, PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.countryRepository = countryRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authServiceImp = authServiceImp;
+        this.verificationTokenServiceImp = verificationTokenServiceImp;
         this.emailServiceImp = emailServiceImp;
+        this.refreshTokenServiceImp = refreshTokenServiceImp;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -60,28 +72,27 @@ public class CustomerServiceImp implements CustomerService {
      */
     @Override
     public CustomerDetailsDto createCustomer(CreateCustomerDto createUserDto) {
-        if (this.userRepository.findByEmail(createUserDto.getEmail()).isPresent()) {
+        if (this.userRepository.existsByEmailIgnoreCase(createUserDto.getEmail())) {
             LOGGER.error("Duplicated email - {}", createUserDto.getEmail());
             throw new UserAlreadyExistsException(ErrorMessages.EMAIL_ALREADY_EXISTS);
         }
 
+        // The password is hashed before the transaction, no connection is held while hashing
         UserEntity userEntity = buildUserEntity(createUserDto);
 
-        LOGGER.info("Persisting customer into database");
-        UserEntity createdCustomer;
-        try {
-            LOGGER.info("Saving customer on database");
-            createdCustomer = this.userRepository.save(userEntity);
-
-        } catch (Exception e) {
-            LOGGER.error("Failed while saving customer into database {}", userEntity, e);
-            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
-        }
+        // The customer and its email token are saved together, the email is only sent after the commit
+        SavedCustomer savedCustomer = this.transactionTemplate.execute(status -> {
+            UserEntity createdCustomer = saveCustomer(userEntity);
+            String emailToken = this.verificationTokenServiceImp.createVerificationToken(
+                    createdCustomer, VerificationTokenPurpose.CONFIRM_EMAIL, Duration.ofHours(this.expiresInHours));
+            return new SavedCustomer(createdCustomer, emailToken);
+        });
+        UserEntity createdCustomer = savedCustomer.userEntity();
 
         this.emailServiceImp.sendEmailToConfirmEmailAddress(
                 createdCustomer.getFirstname(),
                 createdCustomer.getEmail(),
-                createdCustomer.getConfirmEmailToken(),
+                savedCustomer.emailToken(),
                 this.expiresInHours
         );
 
@@ -89,6 +100,56 @@ public class CustomerServiceImp implements CustomerService {
         return UserConverter.fromUserEntityToCustomerDetailsDto(createdCustomer);
     }
 
+    /**
+     * Save a new customer, translating a concurrent signup with the same email
+     *
+     * @param userEntity customer to save
+     * @return saved {@link UserEntity}
+     */
+    private UserEntity saveCustomer(UserEntity userEntity) {
+        LOGGER.debug("Persisting customer into database");
+        try {
+            LOGGER.debug("Saving customer on database");
+            return this.userRepository.save(userEntity);
+
+        } catch (DataIntegrityViolationException e) {
+            if (!DuplicateKey.isDuplicateKey(e)) {
+                LOGGER.error("Failed while saving customer into database {}", userEntity, e);
+                throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+            }
+
+            // Lost the race against a concurrent signup with the same email
+            LOGGER.error("Duplicated email - {}", userEntity.getEmail());
+            throw new UserAlreadyExistsException(ErrorMessages.EMAIL_ALREADY_EXISTS);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while saving customer into database {}", userEntity, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+    }
+
+    private record SavedCustomer(UserEntity userEntity, String emailToken) {
+    }
+
+    /**
+     * Translate an integrity violation on an existing customer into {@link UserAlreadyExistsException}
+     * The email index is the authoritative check, the violation only surfaces when the changes are flushed
+     *
+     * @param userId user id
+     * @param email  new email
+     * @param e      integrity violation
+     * @return {@link UserAlreadyExistsException}, or {@link DatabaseCommunicationException} when not a duplicate
+     */
+    private RuntimeException toUserAlreadyExistsException(Long userId, String email, DataIntegrityViolationException e) {
+        if (DuplicateKey.isDuplicateKey(e)) {
+            LOGGER.error("Duplicated email - {}", email);
+            return new UserAlreadyExistsException(ErrorMessages.EMAIL_ALREADY_EXISTS);
+        }
+
+        LOGGER.error("Failed while saving customer with id {} into database", userId, e);
+        return new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+    }
+
     private UserEntity buildUserEntity(CreateCustomerDto createCustomerDto) {
         LOGGER.debug("Creating customer - {}", createCustomerDto);
         UserEntity userEntity = UserConverter.fromCreateCustomerDtoToUserEntity(createCustomerDto);
@@ -99,12 +160,6 @@ public class CustomerServiceImp implements CustomerService {
 
         String encryptedPassword = this.passwordEncoder.encode(createCustomerDto.getPassword());
         userEntity.setEncryptedPassword(encryptedPassword);
-
-        // Insert data about email validation
-        String emailToken = this.authServiceImp.generateTokenForValidations();
-        Date expiresAt = new Date(new Date().getTime() + Duration.ofHours(2).toMillis());
-        userEntity.setConfirmEmailToken(emailToken);
-        userEntity.setConfirmEmailExpireToken(expiresAt);
         userEntity.setEmailConfirmed(false);
 
         return userEntity;
@@ -114,6 +169,7 @@ public class CustomerServiceImp implements CustomerService {
      * @see CustomerService#getCustomerById(Long)
      */
     @Override
+    @Transactional(readOnly = true)
     public CustomerDetailsDto getCustomerById(Long userId) {
         return UserConverter.fromUserEntityToCustomerDetailsDto(getUserEntityById(userId));
     }
@@ -122,11 +178,12 @@ public class CustomerServiceImp implements CustomerService {
      * @see CustomerService#getCustomersList(int, int)
      */
     @Override
+    @Transactional(readOnly = true)
     public Paginated<CustomerDetailsDto> getCustomersList(int page, int size) {
         LOGGER.debug("Getting all customers from database");
-        Page<UserEntity> customersList;
+        Page<CustomerDetailsProjection> customersList;
         try {
-            customersList = this.userRepository.findByRolesContains(UserRole.CUSTOMER, PageRequest.of(page, size));
+            customersList = this.userRepository.findCustomerDetailsByRole(UserRole.CUSTOMER, PageRequest.of(page, size));
 
         } catch (Exception e) {
             LOGGER.error("Failed at getting customers page from database", e);
@@ -135,8 +192,8 @@ public class CustomerServiceImp implements CustomerService {
 
         LOGGER.debug("Converting customers list to CustomerDetailsDto");
         List<CustomerDetailsDto> customerListResponse = new ArrayList<>();
-        for (UserEntity customer : customersList) {
-            customerListResponse.add(UserConverter.fromUserEntityToCustomerDetailsDto(customer));
+        for (CustomerDetailsProjection customer : customersList) {
+            customerListResponse.add(UserConverter.fromCustomerDetailsProjectionToCustomerDetailsDto(customer));
         }
 
         return new Paginated<>(
@@ -152,33 +209,117 @@ public class CustomerServiceImp implements CustomerService {
      */
     @Override
     public CustomerDetailsDto updateCustomer(Long userId, UpdateCustomerDto updateCustomerDto) {
-
-        UserEntity userEntity = getUserEntityById(userId);
-        CountryEntity countryEntity = getCountryEntityById(updateCustomerDto.getCountryId());
+        // The password is hashed before the transaction, no connection is held while hashing
         String encryptedPassword = this.passwordEncoder.encode(updateCustomerDto.getPassword());
 
-        userEntity.setFirstname(updateCustomerDto.getFirstname());
-        userEntity.setLastname(updateCustomerDto.getLastname());
-        userEntity.setEmail(updateCustomerDto.getEmail());
-        userEntity.setEncryptedPassword(encryptedPassword);
-        userEntity.setCountryEntity(countryEntity);
-
-        LOGGER.debug("Updating customer with id {} with new data", userId);
+        // The email index is only checked when the changes are flushed, a duplicate is translated after the rollback
         try {
-            this.userRepository.save(userEntity);
+            return this.transactionTemplate.execute(status -> {
+                UserEntity userEntity = getUserEntityById(userId);
+                CountryEntity countryEntity = getCountryEntityById(updateCustomerDto.getCountryId());
 
-        } catch (Exception e) {
-            LOGGER.error("Failed while updating customer with id {} with new data - {}", userId, userEntity, e);
-            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+                userEntity.setFirstname(updateCustomerDto.getFirstname());
+                userEntity.setLastname(updateCustomerDto.getLastname());
+                userEntity.setEmail(updateCustomerDto.getEmail());
+                userEntity.setEncryptedPassword(encryptedPassword);
+                userEntity.setCountryEntity(countryEntity);
+
+                LOGGER.debug("Updating customer with id {} with new data", userId);
+                try {
+                    this.userRepository.save(userEntity);
+
+                } catch (DataIntegrityViolationException e) {
+                    throw e;
+
+                } catch (Exception e) {
+                    LOGGER.error("Failed while updating customer with id {} with new data - {}", userId, userEntity, e);
+                    throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+                }
+
+                // Sessions opened with the old password can't be refreshed anymore
+                this.refreshTokenServiceImp.revokeUserRefreshTokens(userId);
+
+                return UserConverter.fromUserEntityToCustomerDetailsDto(userEntity);
+            });
+
+        } catch (DataIntegrityViolationException e) {
+            throw toUserAlreadyExistsException(userId, updateCustomerDto.getEmail(), e);
         }
+    }
 
-        return UserConverter.fromUserEntityToCustomerDetailsDto(userEntity);
+    /**
+     * @see CustomerService#patchCustomer(Long, PatchCustomerDto)
+     */
+    @Override
+    public CustomerDetailsDto patchCustomer(Long userId, PatchCustomerDto patchCustomerDto) {
+        // The password is hashed before the transaction, no connection is held while hashing
+        String encryptedPassword = patchCustomerDto.getPassword() != null && !patchCustomerDto.getPassword().isBlank()
+                ? this.passwordEncoder.encode(patchCustomerDto.getPassword())
+                : null;
+
+        // The email index is only checked when the changes are flushed, a duplicate is translated after the rollback
+        try {
+            return this.transactionTemplate.execute(status -> {
+                UserEntity userEntity = getUserEntityById(userId);
+                boolean changed = false;
+
+                if (isChanged(patchCustomerDto.getFirstname(), userEntity.getFirstname())) {
+                    userEntity.setFirstname(patchCustomerDto.getFirstname());
+                    changed = true;
+                }
+                if (isChanged(patchCustomerDto.getLastname(), userEntity.getLastname())) {
+                    userEntity.setLastname(patchCustomerDto.getLastname());
+                    changed = true;
+                }
+                if (isChanged(patchCustomerDto.getEmail(), userEntity.getEmail())) {
+                    userEntity.setEmail(patchCustomerDto.getEmail());
+                    changed = true;
+                }
+                if (patchCustomerDto.getCountryId() != null
+                        && !patchCustomerDto.getCountryId().equals(userEntity.getCountryEntity().getCountryId())) {
+                    userEntity.setCountryEntity(getCountryEntityById(patchCustomerDto.getCountryId()));
+                    changed = true;
+                }
+                if (encryptedPassword != null) {
+                    userEntity.setEncryptedPassword(encryptedPassword);
+                    changed = true;
+                }
+
+                if (!changed) {
+                    LOGGER.debug("Nothing to update on customer with id {}", userId);
+                    return UserConverter.fromUserEntityToCustomerDetailsDto(userEntity);
+                }
+
+                LOGGER.debug("Patching customer with id {} with new data", userId);
+                try {
+                    this.userRepository.save(userEntity);
+
+                } catch (DataIntegrityViolationException e) {
+                    throw e;
+
+                } catch (Exception e) {
+                    LOGGER.error("Failed while patching customer with id {} with new data - {}", userId, userEntity, e);
+                    throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+                }
+
+                if (encryptedPassword != null) {
+                    // Sessions opened with the old password can't be refreshed anymore
+                    this.refreshTokenServiceImp.revokeUserRefreshTokens(userId);
+                }
+
+                return UserConverter.fromUserEntityToCustomerDetailsDto(userEntity);
+            });
+
+        } catch (DataIntegrityViolationException e) {
+            throw toUserAlreadyExistsException(userId, patchCustomerDto.getEmail(), e);
+        }
     }
 
     /**
      * @see CustomerService#deleteCustomer(Long)
      */
     @Override
+    @Transactional
     public void deleteCustomer(Long customerId) {
         LOGGER.debug("Getting customer with id {} from database", customerId);
         UserEntity userEntity = getUserEntityById(customerId);
@@ -222,4 +363,15 @@ public class CustomerServiceImp implements CustomerService {
                     return new UserNotFoundException(ErrorMessages.USER_NOT_FOUND);
                 });
     }
+
+    /**
+     * Check if a patched value is sent and differs from the current one
+     *
+     * @param value   patched value
+     * @param current current value
+     * @return true if the value should be written
+     */
+    private static boolean isChanged(String value, String current) {
+        return value != null && !value.isBlank() && !value.equals(current);
+    }
 }
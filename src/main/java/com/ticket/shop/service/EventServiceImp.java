@@ -1,5 +1,6 @@
 package com.ticket.shop.service;
 
+import com.ticket.shop.cache.EventPriceCache;
 import com.ticket.shop.command.Paginated;
 import com.ticket.shop.command.address.AddressDetailsDto;
 import com.ticket.shop.command.event.CreateEventDto;
@@ -12,11 +13,13 @@ import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.address.AddressNotFoundException;
 import com.ticket.shop.exception.company.CompanyNotFoundException;
 import com.ticket.shop.exception.event.EventNotFoundException;
+import com.ticket.shop.persistence.ReplicaRead;
 import com.ticket.shop.persistence.entity.AddressEntity;
 import com.ticket.shop.persistence.entity.CalendarEntity;
 import com.ticket.shop.persistence.entity.CompanyEntity;
 import com.ticket.shop.persistence.entity.CountryEntity;
 import com.ticket.shop.persistence.entity.EventEntity;
+import com.ticket.shop.persistence.projection.EventIdProjection;
 import com.ticket.shop.persistence.repository.AddressRepository;
 import com.ticket.shop.persistence.repository.CompanyRepository;
 import com.ticket.shop.persistence.repository.EventRepository;
@@ -29,7 +32,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * An {@link EventService} implementation
@@ -43,14 +48,16 @@ public class EventServiceImp implements EventService {
     private final CompanyRepository companyRepository;
     private final AddressServiceImp addressServiceImp;
     private final PriceServiceImp priceServiceImp;
+    private final EventPriceCache eventPriceCache;
 
     public EventServiceImp(EventRepository eventRepository, AddressServiceImp addressServiceImp, AddressRepository addressRepository,
-                           CompanyRepository companyRepository, PriceServiceImp priceServiceImp) {
+                           CompanyRepository companyRepository, PriceServiceImp priceServiceImp, EventPriceCache eventPriceCache) {
         this.eventRepository = eventRepository;
         this.addressServiceImp = addressServiceImp;
         this.addressRepository = addressRepository;
         this.companyRepository = companyRepository;
         this.priceServiceImp = priceServiceImp;
+        this.eventPriceCache = eventPriceCache;
     }
 
     /**
@@ -69,10 +76,10 @@ public class EventServiceImp implements EventService {
         CompanyEntity companyEntity = getCompanyEntityById(companyId);
         eventEntity.setCompanyEntity(companyEntity);
 
-        LOGGER.info("Persisting event into database");
+        LOGGER.debug("Persisting event into database");
         EventEntity createdEvent;
         try {
-            LOGGER.info("Saving event on database");
+            LOGGER.debug("Saving event on database");
             createdEvent = this.eventRepository.save(eventEntity);
 
         } catch (Exception e) {
@@ -90,6 +97,8 @@ public class EventServiceImp implements EventService {
      * @see EventService#getEventById(Long)
      */
     @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public EventDetailsWithCalendarIdsDto getEventById(Long eventId) {
         EventEntity eventEntity = getEventEntityById(eventId);
         List<Long> calendarIds = eventEntity.getCalendars().stream().map(CalendarEntity::getCalendarId).toList();
@@ -101,11 +110,20 @@ public class EventServiceImp implements EventService {
      * @see EventService#getEventList(int, int, Long, Date)
      */
     @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public Paginated<EventDetailsDto> getEventList(int page, int size, Long companyId, Date date) {
         LOGGER.debug("Getting all events from database");
-        Page<EventEntity> eventList;
+        Page<Long> eventIds;
+        Map<Long, EventEntity> eventsById = new HashMap<>();
         try {
-            eventList = this.eventRepository.findByAll(companyId, date, PageRequest.of(page, size));
+            eventIds = this.eventRepository.findEventIdsByAll(companyId, date, PageRequest.of(page, size))
+                    .map(EventIdProjection::getEventId);
+            if (eventIds.hasContent()) {
+                for (EventEntity event : this.eventRepository.findWithAddressAndPricesByEventIdIn(eventIds.getContent())) {
+                    eventsById.put(event.getEventId(), event);
+                }
+            }
 
         } catch (Exception e) {
             LOGGER.error("Failed at getting events page from database", e);
@@ -114,22 +132,26 @@ public class EventServiceImp implements EventService {
 
         LOGGER.debug("Converting event list to EventDetailsDto");
         List<EventDetailsDto> eventListResponse = new ArrayList<>();
-        for (EventEntity event : eventList) {
-            eventListResponse.add(EventConverter.fromEventEntityToEventDetailsDto(event));
+        for (Long eventId : eventIds) {
+            EventEntity event = eventsById.get(eventId);
+            if (event != null) {
+                eventListResponse.add(EventConverter.fromEventEntityToEventDetailsDto(event));
+            }
         }
 
         return new Paginated<>(
                 eventListResponse,
                 page,
                 eventListResponse.size(),
-                eventList.getTotalPages(),
-                eventList.getTotalElements());
+                eventIds.getTotalPages(),
+                eventIds.getTotalElements());
     }
 
     /**
      * @see EventService#updateEvent(Long, Long, UpdateEventDto)
      */
     @Override
+    @Transactional
     public EventDetailsDto updateEvent(Long companyId, Long eventId, UpdateEventDto updateWorkerDto) {
         EventEntity eventEntity = getEventEntityByCompanyIdAndEventId(companyId, eventId);
         eventEntity.setName(updateWorkerDto.getName());
@@ -145,6 +167,8 @@ public class EventServiceImp implements EventService {
             throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
         }
 
+        this.eventPriceCache.invalidate(eventId);
+
         return EventConverter.fromEventEntityToEventDetailsDto(eventEntity);
     }
 
@@ -152,6 +176,7 @@ public class EventServiceImp implements EventService {
      * @see EventService#deleteEvent(Long, Long)
      */
     @Override
+    @Transactional
     public void deleteEvent(Long companyId, Long eventId) {
         LOGGER.debug("Getting event with id {} from database", companyId);
         EventEntity eventEntity = getEventEntityByCompanyIdAndEventId(companyId, eventId);
@@ -164,6 +189,8 @@ public class EventServiceImp implements EventService {
             LOGGER.error("Failed while deleting event with id {} from database", companyId, e);
             throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
         }
+
+        this.eventPriceCache.invalidate(eventId);
     }
 
     /**
@@ -197,14 +224,14 @@ public class EventServiceImp implements EventService {
     }
 
     /**
-     * Get Event by id
+     * Get Event by id with its address and prices
      *
      * @param eventId event id
      * @return {@link EventEntity}
      */
     private EventEntity getEventEntityById(Long eventId) {
         LOGGER.debug("Getting event with id {} from database", eventId);
-        return this.eventRepository.findById(eventId)
+        return this.eventRepository.findWithAddressAndPricesByEventId(eventId)
                 .orElseThrow(() -> {
                     LOGGER.error("The event with id {} does not exist in database", eventId);
                     return new EventNotFoundException(ErrorMessages.EVENT_NOT_FOUND);
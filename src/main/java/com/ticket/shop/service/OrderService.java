@@ -24,4 +24,11 @@ public interface OrderService {
      * @return order status
      */
     String captureOrder(String orderId);
+
+    /**
+     * Release the tickets whose reservation expired, in batches until none is left
+     * Covers the orders that were never paid and the reservations that couldn't be released when the order failed.
+     * Failures are logged, the next run releases the remaining tickets
+     */
+    void releaseExpiredReservations();
 }
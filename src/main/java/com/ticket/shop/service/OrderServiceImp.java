@@ -1,66 +1,93 @@
 package com.ticket.shop.service;
 
-import com.paypal.core.PayPalEnvironment;
-import com.paypal.core.PayPalHttpClient;
-import com.paypal.http.HttpResponse;
+import com.paypal.orders.AmountBreakdown;
 import com.paypal.orders.AmountWithBreakdown;
 import com.paypal.orders.ApplicationContext;
+import com.paypal.orders.Item;
 import com.paypal.orders.LinkDescription;
+import com.paypal.orders.Money;
 import com.paypal.orders.Order;
 import com.paypal.orders.OrderRequest;
-import com.paypal.orders.OrdersCaptureRequest;
-import com.paypal.orders.OrdersCreateRequest;
 import com.paypal.orders.PurchaseUnitRequest;
+import com.ticket.shop.cache.CustomerTicketsCache;
+import com.ticket.shop.cache.EventPriceCache;
 import com.ticket.shop.command.order.CreateOrderDto;
 import com.ticket.shop.command.order.OrderDetailsDto;
+import com.ticket.shop.command.order.OrderLineDto;
+import com.ticket.shop.enumerators.TicketStatus;
 import com.ticket.shop.enumerators.TicketType;
 import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.DatabaseCommunicationException;
-import com.ticket.shop.exception.order.OrderCaptureException;
+import com.ticket.shop.exception.order.EmptyOrderException;
 import com.ticket.shop.exception.calendar.CalendarNotFoundException;
 import com.ticket.shop.exception.event.EventNotFoundException;
-import com.ticket.shop.exception.order.PayPalOrderException;
+import com.ticket.shop.exception.order.OrderPriceMismatchException;
+import com.ticket.shop.exception.order.ReservationExpiredException;
+import com.ticket.shop.exception.ticket.InvalidTicketTypeException;
 import com.ticket.shop.exception.ticket.TicketUnavailableException;
 import com.ticket.shop.exception.user.UserNotFoundException;
+import com.ticket.shop.gateway.PaymentGateway;
 import com.ticket.shop.persistence.entity.CalendarEntity;
 import com.ticket.shop.persistence.entity.EventEntity;
 import com.ticket.shop.persistence.entity.UserEntity;
 import com.ticket.shop.persistence.repository.EventRepository;
 import com.ticket.shop.persistence.repository.TicketRepository;
 import com.ticket.shop.persistence.repository.UserRepository;
+import com.ticket.shop.properties.OrderProperties;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.IOException;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class OrderServiceImp implements OrderService {
 
     private static final Logger LOGGER = LogManager.getLogger(OrderServiceImp.class);
-    private final PayPalHttpClient paypalHttpClient;
+    private static final TicketType[] TICKET_TYPES = TicketType.values();
+    // Order id of the reserved tickets until the PayPal order is created
+    private static final String RESERVATION_PREFIX = "RESERVATION-";
+    private final PaymentGateway paymentGateway;
     private final EventRepository eventRepository;
     private final TicketRepository ticketRepository;
     private final UserRepository userRepository;
-
-    public OrderServiceImp(@Value("${paypal.client.id}") String clientId,
-                           @Value("${paypal.client.secret}") String clientSecret,
-                           EventRepository eventRepository, TicketRepository ticketRepository,
-                           UserRepository userRepository) {
-
-        this.paypalHttpClient = new PayPalHttpClient(new PayPalEnvironment.Sandbox(clientId, clientSecret));
+    private final EventPriceCache eventPriceCache;
+    private final WaitingRoomServiceImp waitingRoomServiceImp;
+    private final TicketAvailabilityServiceImp ticketAvailabilityServiceImp;
+    private final CustomerTicketsCache customerTicketsCache;
+    private final OrderProperties orderProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderServiceImp(PaymentGateway paymentGateway, EventRepository eventRepository, TicketRepository ticketRepository,
+                           UserRepository userRepository, EventPriceCache eventPriceCache,
+                           WaitingRoomServiceImp waitingRoomServiceImp, TicketAvailabilityServiceImp ticketAvailabilityServiceImp,
+                           CustomerTicketsCache customerTicketsCache, OrderProperties orderProperties,
+                           PlatformTransactionManager transactionManager) {
+
+        this.paymentGateway = paymentGateway;
         this.eventRepository = eventRepository;
         this.ticketRepository = ticketRepository;
         this.userRepository = userRepository;
+        this.eventPriceCache = eventPriceCache;
+        this.waitingRoomServiceImp = waitingRoomServiceImp;
+        this.ticketAvailabilityServiceImp = ticketAvailabilityServiceImp;
+        this.customerTicketsCache = customerTicketsCache;
+        this.orderProperties = orderProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -68,30 +95,77 @@ public class OrderServiceImp implements OrderService {
      */
     public OrderDetailsDto createOrder(CreateOrderDto createOrderDto, String requestUrl) {
 
-        // Get All Entities needed
-        EventEntity eventEntity = getEventById(createOrderDto.getEventId());
-        CalendarEntity calendarEntity = getCalendarFromEventEntity(eventEntity, createOrderDto.getCalendarId());
-        UserEntity userEntity = getUserById(createOrderDto.getCustomerId());
+        // Calendars with an open waiting room only take orders from admitted customers, checked before touching the database
+        Set<Long> calendarIds = getCalendarIds(createOrderDto);
+        this.waitingRoomServiceImp.verifyAdmission(createOrderDto.getCustomerId(), calendarIds, createOrderDto.getAdmissionTokens());
+
+        // Price the order and reserve its tickets in a single transaction, PayPal is only called after the commit.
+        // Tickets that are never released here, because the release failed or the order is never paid, are released by
+        // the reservation sweeper once their hold expires
+        String reservationId = RESERVATION_PREFIX + UUID.randomUUID();
+        ReservedOrder reservedOrder = this.transactionTemplate.execute(status -> reserveOrder(createOrderDto, reservationId));
+        this.ticketAvailabilityServiceImp.markChanged(calendarIds);
 
         URI returnUri = buildReturnUrl(requestUrl);
 
-        // Create PayPal order
-        PayPalData payPalOrder = createPayPalOrder(createOrderDto.getTotalPrice(), userEntity.getCountryEntity().getCurrency(), returnUri);
+        // Create PayPal order, releasing the reserved tickets if it fails
+        PayPalData payPalOrder;
+        try {
+            payPalOrder = createPayPalOrder(reservationId, reservedOrder.eventEntity(), reservedOrder.orderLines(),
+                    reservedOrder.totalInCents(), reservedOrder.currency(), returnUri);
 
-        // Finding tickets available for the event and calendar
-        List<Long> availableTicketIds = getAvailableTicketIdsToBuy(calendarEntity.getCalendarId(), createOrderDto.getTicketType(), createOrderDto.getAmountOfTickets());
+        } catch (RuntimeException e) {
+            releaseTickets(reservationId);
+            this.ticketAvailabilityServiceImp.markChanged(calendarIds);
+            throw e;
+        }
 
-        // Update the tickets found
-        updateTicketWithUserAndStatus(userEntity, availableTicketIds, payPalOrder.orderId());
+        // Link the reserved tickets to the PayPal order, the unlinked tickets can't be captured so they are released
+        try {
+            updateTicketsOrderId(reservationId, payPalOrder.orderId());
+
+        } catch (RuntimeException e) {
+            releaseTickets(reservationId);
+            this.ticketAvailabilityServiceImp.markChanged(calendarIds);
+            throw e;
+        }
 
         return new OrderDetailsDto(payPalOrder.orderId(), URI.create(payPalOrder.approveUri().href()));
     }
 
+    /**
+     * Load the order entities, price the order on the server and reserve all its tickets
+     *
+     * @param createOrderDto {@link CreateOrderDto}
+     * @param reservationId  reservation id of the tickets
+     * @return {@link ReservedOrder}
+     */
+    private ReservedOrder reserveOrder(CreateOrderDto createOrderDto, String reservationId) {
+        // Get All Entities needed
+        EventEntity eventEntity = getEventById(createOrderDto.getEventId());
+        UserEntity userEntity = getUserById(createOrderDto.getCustomerId());
+        List<OrderLine> orderLines = getOrderLines(eventEntity, createOrderDto);
+
+        // Price the order on the server, the client total is only checked against it
+        long totalInCents = 0;
+        for (OrderLine orderLine : orderLines) {
+            totalInCents = Math.addExact(totalInCents, orderLine.totalInCents());
+        }
+        validateTotalPrice(createOrderDto.getTotalPrice(), totalInCents);
+
+        // Reserve the tickets of all lines at once, PayPal is only called when the whole order can be fulfilled
+        reserveTickets(userEntity, reservationId, orderLines);
+
+        return new ReservedOrder(eventEntity, orderLines, totalInCents, userEntity.getCountryEntity().getCurrency());
+    }
+
     /**
      * @see OrderService#captureOrder(String)
      */
     @Override
     public String captureOrder(String orderId) {
+        // The tickets are held through the capture, an expired order is not charged as its tickets may be sold again
+        holdReservation(orderId);
         String orderStatus = requestOrderCapture(orderId);
 
         if (!Objects.equals(orderStatus, "COMPLETED")) {
@@ -107,31 +181,193 @@ public class OrderServiceImp implements OrderService {
             throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
         }
 
+        notifySoldTickets(orderId);
+        evictCustomerTickets(orderId);
         return orderStatus;
     }
 
     /**
-     * Request order capture
+     * @see OrderService#releaseExpiredReservations()
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${ticket-shop.orders.reservation-sweep-interval-millis:60000}")
+    public void releaseExpiredReservations() {
+        int batchSize = this.orderProperties.getReservationSweepBatchSize();
+        Set<Long> calendarIds = new HashSet<>();
+        int released = 0;
+        try {
+            List<Long> releasedCalendarIds;
+            do {
+                releasedCalendarIds = this.ticketRepository.releaseExpiredReservations(batchSize);
+                calendarIds.addAll(releasedCalendarIds);
+                released += releasedCalendarIds.size();
+            } while (releasedCalendarIds.size() == batchSize);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while releasing expired reservations - ", e);
+        }
+
+        if (released > 0) {
+            LOGGER.info("Released {} tickets with an expired reservation", released);
+            this.ticketAvailabilityServiceImp.markChanged(calendarIds);
+        }
+    }
+
+    /**
+     * Hold the tickets of the order while it is captured
+     * Orders without held tickets are only captured again when their tickets were already sold
      *
      * @param orderId order id
-     * @return order status
      */
-    private String requestOrderCapture(String orderId) {
-        OrdersCaptureRequest ordersCaptureRequest = new OrdersCaptureRequest(orderId);
+    private void holdReservation(String orderId) {
+        LOGGER.debug("Holding tickets of order id {} for the capture", orderId);
+        boolean held;
+        try {
+            held = this.ticketRepository.extendReservationByPaypalOrderId(orderId, this.orderProperties.getReservationHoldSeconds()) > 0
+                    || this.ticketRepository.existsByPaypalOrderIdAndStatus(orderId, TicketStatus.SOLD);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while holding tickets of order id {} - ", orderId, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+
+        if (!held) {
+            LOGGER.error("The reservation of order id {} expired before the capture", orderId);
+            throw new ReservationExpiredException(ErrorMessages.RESERVATION_EXPIRED);
+        }
+    }
+
+    /**
+     * Evict the cached tickets of the customers of a captured order, so they see the new tickets
+     * The customers are only looked up when someone has tickets cached
+     *
+     * @param orderId order id
+     */
+    private void evictCustomerTickets(String orderId) {
+        if (this.customerTicketsCache.invalidateIfEmpty()) {
+            return;
+        }
+
+        try {
+            this.customerTicketsCache.invalidate(this.ticketRepository.findUserIdsByPaypalOrderId(orderId));
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while getting customers from order id {} - ", orderId, e);
+        }
+    }
+
+    /**
+     * Notify the ticket availability subscribers of the calendars of a captured order
+     * The calendars are only looked up when someone is subscribed
+     *
+     * @param orderId order id
+     */
+    private void notifySoldTickets(String orderId) {
+        if (!this.ticketAvailabilityServiceImp.hasSubscribers()) {
+            return;
+        }
 
-        LOGGER.debug("Requesting capture of order id {}", orderId);
-        HttpResponse<Order> httpResponse;
         try {
-            httpResponse = this.paypalHttpClient.execute(ordersCaptureRequest);
+            this.ticketAvailabilityServiceImp.markChanged(this.ticketRepository.findCalendarIdsByPaypalOrderId(orderId));
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while getting calendars from order id {} - ", orderId, e);
+        }
+    }
+
+    /**
+     * Get the calendar ids of the order, from the lines or the single line fields
+     *
+     * @param createOrderDto {@link CreateOrderDto}
+     * @return calendar ids
+     */
+    private Set<Long> getCalendarIds(CreateOrderDto createOrderDto) {
+        if (createOrderDto.getLines() == null || createOrderDto.getLines().isEmpty()) {
+            return createOrderDto.getCalendarId() == null ? Set.of() : Set.of(createOrderDto.getCalendarId());
+        }
 
-        } catch (IOException e) {
-            String issue = extractErrorMessage(e);
+        Set<Long> calendarIds = new HashSet<>();
+        for (OrderLineDto orderLineDto : createOrderDto.getLines()) {
+            calendarIds.add(orderLineDto.getCalendarId());
+        }
+        return calendarIds;
+    }
+
+    /**
+     * Get the order lines, priced from the cached event prices
+     * Lines with the same calendar and ticket type are merged, the single line fields are used when no lines are given
+     *
+     * @param eventEntity    event entity
+     * @param createOrderDto {@link CreateOrderDto}
+     * @return {@link List<OrderLine>} grouped by calendar
+     */
+    private List<OrderLine> getOrderLines(EventEntity eventEntity, CreateOrderDto createOrderDto) {
+        List<OrderLineDto> orderLineDtos = createOrderDto.getLines();
+        if (orderLineDtos == null || orderLineDtos.isEmpty()) {
+            if (createOrderDto.getTicketType() == null || createOrderDto.getAmountOfTickets() == null) {
+                LOGGER.error("The order doesn't have any ticket");
+                throw new EmptyOrderException(ErrorMessages.ORDER_WITHOUT_TICKETS);
+            }
+
+            orderLineDtos = List.of(OrderLineDto.builder()
+                    .calendarId(createOrderDto.getCalendarId())
+                    .ticketType(createOrderDto.getTicketType())
+                    .amountOfTickets(createOrderDto.getAmountOfTickets())
+                    .build());
+        }
 
-            LOGGER.error("Failed while requesting the capture of order id {} - ", orderId, e);
-            throw new OrderCaptureException(issue, e);
+        // Amount of tickets by calendar id, indexed by ticket type ordinal
+        Map<Long, long[]> amountsByCalendar = new LinkedHashMap<>();
+        for (OrderLineDto orderLineDto : orderLineDtos) {
+            long[] amounts = amountsByCalendar.computeIfAbsent(orderLineDto.getCalendarId(), id -> new long[TICKET_TYPES.length]);
+            amounts[orderLineDto.getTicketType().ordinal()] += orderLineDto.getAmountOfTickets();
         }
 
-        String orderStatus = httpResponse.result().status();
+        long[] pricesInCents = this.eventPriceCache.getPricesInCents(eventEntity);
+        List<OrderLine> orderLines = new ArrayList<>();
+        amountsByCalendar.forEach((calendarId, amounts) -> {
+            CalendarEntity calendarEntity = getCalendarFromEventEntity(eventEntity, calendarId);
+            for (TicketType type : TICKET_TYPES) {
+                long amount = amounts[type.ordinal()];
+                if (amount == 0) {
+                    continue;
+                }
+
+                long unitPriceInCents = pricesInCents[type.ordinal()];
+                if (unitPriceInCents == EventPriceCache.NO_PRICE) {
+                    LOGGER.error("The event with id {} doesn't have a price for ticket type {}", eventEntity.getEventId(), type);
+                    throw new InvalidTicketTypeException(ErrorMessages.INVALID_TICKET_TYPE);
+                }
+
+                orderLines.add(new OrderLine(calendarEntity, type, amount, unitPriceInCents));
+            }
+        });
+
+        return orderLines;
+    }
+
+    /**
+     * Validate the total price sent by the client against the server total
+     *
+     * @param totalPrice   total price sent by the client, optional
+     * @param totalInCents server total in cents
+     */
+    private void validateTotalPrice(Double totalPrice, long totalInCents) {
+        if (totalPrice != null && EventPriceCache.toCents(totalPrice) != totalInCents) {
+            LOGGER.error("The given total price {} doesn't match the order total of {} cents", totalPrice, totalInCents);
+            throw new OrderPriceMismatchException(ErrorMessages.ORDER_PRICE_MISMATCH);
+        }
+    }
+
+    /**
+     * Request order capture
+     *
+     * @param orderId order id
+     * @return order status
+     */
+    private String requestOrderCapture(String orderId) {
+        LOGGER.debug("Requesting capture of order id {}", orderId);
+        String orderStatus = this.paymentGateway.captureOrder(orderId).status();
         LOGGER.info("Order with id {} have the capture Status: {}", orderId, orderStatus);
         return orderStatus;
     }
@@ -143,7 +379,7 @@ public class OrderServiceImp implements OrderService {
      * @return {@link URI}
      */
     private URI buildReturnUrl(String requestUrl) {
-        LOGGER.info("Build return url - {}", requestUrl);
+        LOGGER.debug("Build return url - {}", requestUrl);
         //NOTE -> This return url should be use for redirect a FE page
         // after the payment is done on the PayPal website
         try {
@@ -162,61 +398,55 @@ public class OrderServiceImp implements OrderService {
     /**
      * Create PayPal order to receive the Uri for the payment
      *
-     * @param totalPrice total price of all tickets
-     * @param currency   currency
-     * @param returnUrl  return Url
+     * @param reservationId reservation id, the request id of the PayPal order
+     * @param eventEntity   event entity
+     * @param orderLines    order lines
+     * @param totalInCents  total price of all tickets in cents
+     * @param currency      currency
+     * @param returnUrl     return Url
      * @return {@link PayPalData}
      */
-    private PayPalData createPayPalOrder(Double totalPrice, String currency, URI returnUrl) {
-        OrderRequest orderRequest = createOrderRequest(totalPrice, currency, returnUrl);
-        OrdersCreateRequest ordersCreateRequest = new OrdersCreateRequest().requestBody(orderRequest);
-
-        LOGGER.debug("Creating PayPal order with - {} price, {} currency", totalPrice, currency);
-        HttpResponse<Order> orderHttpResponse;
-        try {
-            orderHttpResponse = this.paypalHttpClient.execute(ordersCreateRequest);
-
-        } catch (IOException e) {
-            String issue = extractErrorMessage(e);
-
-            LOGGER.error("Failed while creating PayPal", e);
-            throw new PayPalOrderException(issue, e);
-        }
+    private PayPalData createPayPalOrder(String reservationId, EventEntity eventEntity, List<OrderLine> orderLines, long totalInCents,
+                                         String currency, URI returnUrl) {
+        OrderRequest orderRequest = createOrderRequest(eventEntity, orderLines, totalInCents, currency, returnUrl);
 
-        Order order = orderHttpResponse.result();
+        LOGGER.debug("Creating PayPal order with - {} cents price, {} currency", totalInCents, currency);
+        Order order = this.paymentGateway.createOrder(reservationId, orderRequest);
         LinkDescription approveUri = extractApprovalLink(order);
 
         return new PayPalData(order.id(), approveUri);
     }
 
-    private static String extractErrorMessage(IOException e) {
-        Pattern pattern = Pattern.compile("\"issue\":\"(\\w+)\"");
-        Matcher matcher = pattern.matcher(e.getMessage());
-        String issue = "";
-        if (matcher.find()) {
-            issue = matcher.group(1);
-        }
-        return issue;
+    private record PayPalData(String orderId, LinkDescription approveUri) {
     }
 
-    private record PayPalData(String orderId, LinkDescription approveUri) {
+    private record ReservedOrder(EventEntity eventEntity, List<OrderLine> orderLines, long totalInCents, String currency) {
+    }
+
+    private record OrderLine(CalendarEntity calendarEntity, TicketType type, long amount, long unitPriceInCents) {
+
+        long totalInCents() {
+            return Math.multiplyExact(this.unitPriceInCents, this.amount);
+        }
     }
 
     /**
      * Create Order request
      *
-     * @param totalAmount  total amount
+     * @param eventEntity  event entity
+     * @param orderLines   order lines
+     * @param totalInCents total amount in cents
      * @param currencyCode currency code
      * @param returnUrl    {@link URI}
      * @return {@link OrderRequest}
      */
-    private OrderRequest createOrderRequest(Double totalAmount, String currencyCode, URI returnUrl) {
-        LOGGER.info("Creating order request with values - {} total amount, {} currency code, {} return url",
-                totalAmount, currencyCode, returnUrl);
+    private OrderRequest createOrderRequest(EventEntity eventEntity, List<OrderLine> orderLines, long totalInCents, String currencyCode, URI returnUrl) {
+        LOGGER.debug("Creating order request with values - {} lines, {} total amount in cents, {} currency code, {} return url",
+                orderLines.size(), totalInCents, currencyCode, returnUrl);
 
         OrderRequest orderRequest = new OrderRequest();
         setCheckoutIntent(orderRequest);
-        setPurchaseUnits(totalAmount, currencyCode, orderRequest);
+        setPurchaseUnits(eventEntity, orderLines, currencyCode, orderRequest);
         setApplicationContext(returnUrl, orderRequest);
         return orderRequest;
     }
@@ -231,17 +461,57 @@ public class OrderServiceImp implements OrderService {
     }
 
     /**
-     * Set amount to be charged and Currency Code
+     * Set amount to be charged and Currency Code, with one purchase unit per calendar itemized by ticket type
      *
-     * @param totalAmount  total amount
+     * @param eventEntity  event entity
+     * @param orderLines   order lines grouped by calendar
      * @param currencyCode currency code
      * @param orderRequest {@link OrderRequest}
      */
-    private void setPurchaseUnits(Double totalAmount, String currencyCode, OrderRequest orderRequest) {
-        PurchaseUnitRequest purchaseUnitRequest =
-                new PurchaseUnitRequest().amountWithBreakdown(new AmountWithBreakdown().currencyCode(currencyCode).value(totalAmount.toString()));
+    private void setPurchaseUnits(EventEntity eventEntity, List<OrderLine> orderLines, String currencyCode, OrderRequest orderRequest) {
+        List<PurchaseUnitRequest> purchaseUnitRequests = new ArrayList<>();
+        int from = 0;
+        while (from < orderLines.size()) {
+            CalendarEntity calendarEntity = orderLines.get(from).calendarEntity();
+            List<Item> items = new ArrayList<>();
+            long unitTotalInCents = 0;
+
+            int to = from;
+            while (to < orderLines.size() && orderLines.get(to).calendarEntity() == calendarEntity) {
+                OrderLine orderLine = orderLines.get(to++);
+                items.add(new Item()
+                        .name(eventEntity.getName() + " - " + orderLine.type())
+                        .quantity(String.valueOf(orderLine.amount()))
+                        .unitAmount(toMoney(orderLine.unitPriceInCents(), currencyCode)));
+                unitTotalInCents += orderLine.totalInCents();
+            }
+
+            Money unitTotal = toMoney(unitTotalInCents, currencyCode);
+            purchaseUnitRequests.add(new PurchaseUnitRequest()
+                    .referenceId(String.valueOf(calendarEntity.getCalendarId()))
+                    .description(eventEntity.getName() + " - " + calendarEntity.getStartDate())
+                    .items(items)
+                    .amountWithBreakdown(new AmountWithBreakdown()
+                            .currencyCode(currencyCode)
+                            .value(unitTotal.value())
+                            .amountBreakdown(new AmountBreakdown().itemTotal(unitTotal))));
+            from = to;
+        }
 
-        orderRequest.purchaseUnits(Collections.singletonList(purchaseUnitRequest));
+        orderRequest.purchaseUnits(purchaseUnitRequests);
+    }
+
+    /**
+     * Convert amount in cents to PayPal {@link Money}
+     *
+     * @param amountInCents amount in cents
+     * @param currencyCode  currency code
+     * @return {@link Money}
+     */
+    private static Money toMoney(long amountInCents, String currencyCode) {
+        return new Money()
+                .currencyCode(currencyCode)
+                .value(BigDecimal.valueOf(amountInCents, 2).toPlainString());
     }
 
     /**
@@ -301,18 +571,74 @@ public class OrderServiceImp implements OrderService {
     }
 
     /**
-     * Update tickets with user and WAITING_PAYMENT status
+     * Reserve the tickets of all order lines for the user with a single claim
+     *
+     * @param userEntity    user that will buy the tickets
+     * @param reservationId reservation id
+     * @param orderLines    order lines
+     */
+    private void reserveTickets(UserEntity userEntity, String reservationId, List<OrderLine> orderLines) {
+        Long[] calendarIds = new Long[orderLines.size()];
+        String[] types = new String[orderLines.size()];
+        Integer[] amounts = new Integer[orderLines.size()];
+        Double[] prices = new Double[orderLines.size()];
+        long totalTickets = 0;
+        for (int i = 0; i < orderLines.size(); i++) {
+            OrderLine orderLine = orderLines.get(i);
+            calendarIds[i] = orderLine.calendarEntity().getCalendarId();
+            types[i] = orderLine.type().name();
+            amounts[i] = Math.toIntExact(orderLine.amount());
+            prices[i] = orderLine.unitPriceInCents() / 100.0;
+            totalTickets += orderLine.amount();
+        }
+
+        LOGGER.debug("Reserving {} tickets for user id {} with reservation id {}", totalTickets, userEntity.getUserId(), reservationId);
+        List<Long> reservedTicketIds;
+        try {
+            reservedTicketIds = this.ticketRepository.claimTickets(userEntity.getUserId(), reservationId,
+                    this.orderProperties.getReservationHoldSeconds(), calendarIds, types, amounts, prices);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while reserving tickets for user id {} - ", userEntity.getUserId(), e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+
+        if (reservedTicketIds.size() < totalTickets) {
+            LOGGER.error("Don't exist tickets available for all the order lines of event id {}",
+                    orderLines.get(0).calendarEntity().getEventEntity().getEventId());
+            throw new TicketUnavailableException(ErrorMessages.TICKET_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Release the reserved tickets when the PayPal order can't be created or linked
+     * Failures are only logged, the reservation sweeper releases the tickets when their hold expires
+     *
+     * @param reservationId reservation id
+     */
+    private void releaseTickets(String reservationId) {
+        LOGGER.debug("Releasing tickets with reservation id {}", reservationId);
+        try {
+            this.ticketRepository.releaseTicketsByReservationId(reservationId);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while releasing tickets with reservation id {} - ", reservationId, e);
+        }
+    }
+
+    /**
+     * Update the reserved tickets with the PayPal order id
      *
-     * @param userEntity user that will buy the ticket
-     * @param ticketIds  ticket ids
+     * @param reservationId reservation id
+     * @param orderId       order id
      */
-    private void updateTicketWithUserAndStatus(UserEntity userEntity, List<Long> ticketIds, String orderId) {
-        LOGGER.debug("Updating ticket ids {} with user id {} and order id {} from database", ticketIds, userEntity.getUserId(), orderId);
+    private void updateTicketsOrderId(String reservationId, String orderId) {
+        LOGGER.debug("Updating tickets with reservation id {} with order id {}", reservationId, orderId);
         try {
-            this.ticketRepository.updateUserEntityAndStatusByCalendarEntityAndType(userEntity, ticketIds, orderId);
+            this.ticketRepository.updatePaypalOrderIdByReservationId(reservationId, orderId);
 
         } catch (Exception e) {
-            LOGGER.error("Failed while updating ticket ids {} - ", ticketIds, e);
+            LOGGER.error("Failed while updating tickets with reservation id {} - ", reservationId, e);
             throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
         }
     }
@@ -331,23 +657,4 @@ public class OrderServiceImp implements OrderService {
                     return new UserNotFoundException(ErrorMessages.USER_NOT_FOUND);
                 });
     }
-
-    /**
-     * Get Available tickets ids to Buy
-     *
-     * @param calendarId   calendar id
-     * @param type         ticket type
-     * @param totalTickets total of tickets
-     * @return {@link List<Long>}
-     */
-    private List<Long> getAvailableTicketIdsToBuy(Long calendarId, TicketType type, Long totalTickets) {
-        LOGGER.debug("Getting available tickets from database");
-        List<Long> availableByCalendarAndType = this.ticketRepository.findAvailableByCalendarAndType(calendarId, type.name(), totalTickets);
-
-        if (availableByCalendarAndType.isEmpty()) {
-            LOGGER.error("Don't exist tickets available for calendar id {}", calendarId);
-            throw new TicketUnavailableException(ErrorMessages.TICKET_UNAVAILABLE);
-        }
-        return availableByCalendarAndType;
-    }
 }
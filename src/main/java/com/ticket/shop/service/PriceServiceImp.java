@@ -1,5 +1,6 @@
 package com.ticket.shop.service;
 
+import com.ticket.shop.cache.EventPriceCache;
 import com.ticket.shop.command.price.CreatePriceDto;
 import com.ticket.shop.command.price.PriceDetailsDto;
 import com.ticket.shop.converter.PriceConverter;
@@ -24,9 +25,11 @@ public class PriceServiceImp implements PriceService {
 
     private static final Logger LOGGER = LogManager.getLogger(EventService.class);
     private final PriceRepository priceRepository;
+    private final EventPriceCache eventPriceCache;
 
-    public PriceServiceImp(PriceRepository priceRepository) {
+    public PriceServiceImp(PriceRepository priceRepository, EventPriceCache eventPriceCache) {
         this.priceRepository = priceRepository;
+        this.eventPriceCache = eventPriceCache;
     }
 
     /**
@@ -37,10 +40,10 @@ public class PriceServiceImp implements PriceService {
         LOGGER.debug("Creating prices - {}", createPriceDto);
         List<PriceEntity> priceEntityList = PriceConverter.fromListOfCreatePriceDtoToListOfPriceEntity(createPriceDto, eventEntity);
 
-        LOGGER.info("Persisting prices into database");
+        LOGGER.debug("Persisting prices into database");
         Iterable<PriceEntity> createdTicketPrice;
         try {
-            LOGGER.info("Saving prices on database");
+            LOGGER.debug("Saving prices on database");
             createdTicketPrice = this.priceRepository.saveAll(priceEntityList);
 
         } catch (Exception e) {
@@ -51,6 +54,7 @@ public class PriceServiceImp implements PriceService {
         LOGGER.debug("Retrieving created prices");
         List<PriceEntity> prices = StreamSupport.stream(createdTicketPrice.spliterator(), false).collect(Collectors.toList());
         eventEntity.setPrices(prices);
+        this.eventPriceCache.invalidate(eventEntity.getEventId());
         return PriceConverter.fromPriceEntityToPriceDetailsDtoList(prices);
     }
 }
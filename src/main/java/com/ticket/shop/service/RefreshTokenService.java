@@ -0,0 +1,49 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.command.auth.RefreshTokenDto;
+import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.exception.auth.InvalidTokenException;
+
+/**
+ * Common interface for refresh token operations
+ */
+public interface RefreshTokenService {
+
+    /**
+     * Create a refresh token starting a new family, on login
+     *
+     * @param userId user id
+     * @return the refresh token, only its hash is stored
+     * @throws DatabaseCommunicationException when the token can't be persisted
+     */
+    String createRefreshToken(Long userId);
+
+    /**
+     * Rotate a refresh token, the token is used up and a new one of the same family is returned
+     * A token used twice revokes its whole family, since either the client or an attacker holds a stolen copy
+     *
+     * @param refreshToken refresh token
+     * @return {@link RefreshTokenDto} with the new token
+     * @throws InvalidTokenException when the token doesn't exist, expired, was revoked or was already used
+     */
+    RefreshTokenDto rotateRefreshToken(String refreshToken);
+
+    /**
+     * Revoke the family of a refresh token, on logout
+     *
+     * @param refreshToken refresh token
+     */
+    void revokeRefreshToken(String refreshToken);
+
+    /**
+     * Revoke every refresh token of a user, e.g. after a password reset
+     *
+     * @param userId user id
+     */
+    void revokeUserRefreshTokens(Long userId);
+
+    /**
+     * Delete the expired refresh tokens
+     */
+    void purgeExpiredRefreshTokens();
+}
@@ -0,0 +1,184 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.command.auth.RefreshTokenDto;
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.exception.auth.InvalidTokenException;
+import com.ticket.shop.persistence.entity.RefreshTokenEntity;
+import com.ticket.shop.persistence.repository.RefreshTokenRepository;
+import com.ticket.shop.properties.JwtProperties;
+import com.ticket.shop.security.TokenDigest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * An {@link RefreshTokenService} implementation
+ */
+@Service
+public class RefreshTokenServiceImp implements RefreshTokenService {
+
+    private static final Logger LOGGER = LogManager.getLogger(RefreshTokenServiceImp.class);
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtProperties jwtProperties;
+
+    public RefreshTokenServiceImp(RefreshTokenRepository refreshTokenRepository, JwtProperties jwtProperties) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtProperties = jwtProperties;
+    }
+
+    /**
+     * @see RefreshTokenService#createRefreshToken(Long)
+     */
+    @Override
+    public String createRefreshToken(Long userId) {
+        return saveRefreshToken(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * @see RefreshTokenService#rotateRefreshToken(String)
+     */
+    @Override
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public RefreshTokenDto rotateRefreshToken(String refreshToken) {
+        RefreshTokenEntity refreshTokenEntity = getRefreshTokenEntity(refreshToken)
+                .filter(token -> !token.isRevoked() && token.getExpiresAt().after(new Date()))
+                .orElseThrow(() -> {
+                    LOGGER.error("The refresh token doesn't exist, expired or was revoked");
+                    return new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
+                });
+
+        int rotated;
+        try {
+            rotated = this.refreshTokenRepository.markRotated(refreshTokenEntity.getRefreshTokenId(), new Date());
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while rotating refresh token with id {}", refreshTokenEntity.getRefreshTokenId(), e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+
+        if (rotated == 0) {
+            LOGGER.warn("Refresh token with id {} of user with id {} was reused, revoking its family {}",
+                    refreshTokenEntity.getRefreshTokenId(), refreshTokenEntity.getUserId(), refreshTokenEntity.getFamilyId());
+            revokeFamily(refreshTokenEntity.getFamilyId());
+            throw new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
+        }
+
+        return RefreshTokenDto.builder()
+                .userId(refreshTokenEntity.getUserId())
+                .refreshToken(saveRefreshToken(refreshTokenEntity.getUserId(), refreshTokenEntity.getFamilyId()))
+                .build();
+    }
+
+    /**
+     * @see RefreshTokenService#revokeRefreshToken(String)
+     */
+    @Override
+    public void revokeRefreshToken(String refreshToken) {
+        getRefreshTokenEntity(refreshToken)
+                .ifPresent(refreshTokenEntity -> revokeFamily(refreshTokenEntity.getFamilyId()));
+    }
+
+    /**
+     * @see RefreshTokenService#revokeUserRefreshTokens(Long)
+     */
+    @Override
+    public void revokeUserRefreshTokens(Long userId) {
+        LOGGER.debug("Revoking refresh tokens of user with id {}", userId);
+        try {
+            this.refreshTokenRepository.revokeByUserId(userId);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while revoking refresh tokens of user with id {}", userId, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+    }
+
+    /**
+     * @see RefreshTokenService#purgeExpiredRefreshTokens()
+     */
+    @Override
+    @Scheduled(cron = "${ticket-shop.jwt.refreshTokenPurgeCron:0 30 * * * *}")
+    public void purgeExpiredRefreshTokens() {
+        try {
+            int purged = this.refreshTokenRepository.deleteByExpiresAtNotAfter(new Date());
+            LOGGER.debug("Purged {} expired refresh tokens", purged);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while purging expired refresh tokens", e);
+        }
+    }
+
+    /**
+     * Create and persist a refresh token of a family
+     *
+     * @param userId   user id
+     * @param familyId family id
+     * @return the refresh token
+     */
+    private String saveRefreshToken(Long userId, String familyId) {
+        String refreshToken = TokenDigest.generateToken();
+
+        RefreshTokenEntity refreshTokenEntity = RefreshTokenEntity.builder()
+                .tokenHash(TokenDigest.sha256(refreshToken))
+                .familyId(familyId)
+                .userId(userId)
+                .expiresAt(new Date(System.currentTimeMillis() +
+                        Duration.ofDays(this.jwtProperties.getRefreshTokenExpiresInDays()).toMillis()))
+                .build();
+
+        LOGGER.debug("Persisting refresh token of user with id {}", userId);
+        try {
+            this.refreshTokenRepository.save(refreshTokenEntity);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while saving refresh token of user with id {}", userId, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+
+        return refreshToken;
+    }
+
+    /**
+     * Get refresh token entity by the token
+     *
+     * @param refreshToken refresh token
+     * @return Optional of {@link RefreshTokenEntity}
+     */
+    private Optional<RefreshTokenEntity> getRefreshTokenEntity(String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return this.refreshTokenRepository.findByTokenHash(TokenDigest.sha256(refreshToken));
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while getting refresh token from database", e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+    }
+
+    /**
+     * Revoke a refresh token family
+     *
+     * @param familyId family id
+     */
+    private void revokeFamily(String familyId) {
+        LOGGER.debug("Revoking refresh token family {}", familyId);
+        try {
+            this.refreshTokenRepository.revokeByFamilyId(familyId);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while revoking refresh token family {}", familyId, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.ticket.shop.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+
+/**
+ * Common interface for ticket availability services, provides methods to push calendar inventory changes to clients
+ */
+public interface TicketAvailabilityService {
+
+    /**
+     * Subscribe to the ticket totals of a calendar
+     * The current totals are sent first, then every time they change
+     *
+     * @param calendarId calendar id
+     * @return {@link SseEmitter}
+     */
+    SseEmitter subscribe(Long calendarId);
+
+    /**
+     * Notify the ticket inventory of calendars changed
+     *
+     * @param calendarIds calendar ids
+     */
+    void markChanged(Collection<Long> calendarIds);
+
+    /**
+     * Check if changes have to be published, to the subscribers of this node or of the other nodes
+     *
+     * @return true if there may be subscribers
+     */
+    boolean hasSubscribers();
+}
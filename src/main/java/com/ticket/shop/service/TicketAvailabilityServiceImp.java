@@ -0,0 +1,418 @@
+package com.ticket.shop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticket.shop.command.ticket.TotalOfTicketsDto;
+import com.ticket.shop.converter.TicketConverter;
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.ticket.TooManySubscribersException;
+import com.ticket.shop.persistence.DatabaseNotifications;
+import com.ticket.shop.persistence.repository.TicketRepository;
+import com.ticket.shop.properties.TicketAvailabilityProperties;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link TicketAvailabilityService} implementation
+ * Changes are coalesced per calendar over a short window. Each changed calendar with subscribers is counted with a
+ * single aggregate query, serialized once and sent to all its subscribers, whatever their number.
+ * Events are written by a few sender threads through a bounded queue per subscriber, a subscriber that falls behind is
+ * disconnected instead of delaying the others. The changed calendars are also notified to the other nodes, each node
+ * counts and publishes them to its own subscribers
+ */
+@Service
+public class TicketAvailabilityServiceImp implements TicketAvailabilityService {
+
+    private static final Logger LOGGER = LogManager.getLogger(TicketAvailabilityService.class);
+    private static final String EVENT_NAME = "availability";
+    private static final Set<SseEmitter.DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+    // Database notification channel of the calendars changed on each node
+    private static final String NOTIFICATION_CHANNEL = "ticket_availability";
+    // Calendar ids per notification, the payload can't go over 8000 bytes
+    private static final int CALENDARS_PER_NOTIFICATION = 400;
+
+    private final TicketRepository ticketRepository;
+    private final TicketAvailabilityProperties ticketAvailabilityProperties;
+    private final ObjectMapper objectMapper;
+    private final DatabaseNotifications databaseNotifications;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final Set<Long> changedCalendarIds = ConcurrentHashMap.newKeySet();
+    // Calendars changed on this node, notified to the other nodes on the next publish
+    private final Set<Long> notifiedCalendarIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean publishScheduled = new AtomicBoolean();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    // Single publisher thread, it counts and serializes the changes and never writes to a client
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ticket-availability-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Writes the events to the clients, a slow client only holds one of them
+    private final ExecutorService senders;
+
+    public TicketAvailabilityServiceImp(TicketRepository ticketRepository, TicketAvailabilityProperties ticketAvailabilityProperties,
+                                        ObjectMapper objectMapper, DatabaseNotifications databaseNotifications) {
+        this.ticketRepository = ticketRepository;
+        this.ticketAvailabilityProperties = ticketAvailabilityProperties;
+        this.objectMapper = objectMapper;
+        this.databaseNotifications = databaseNotifications;
+
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(ticketAvailabilityProperties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "ticket-availability-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = this.ticketAvailabilityProperties.getHeartbeatIntervalSeconds();
+        this.publisher.scheduleWithFixedDelay(this::sendHeartbeats, interval, interval, TimeUnit.SECONDS);
+
+        if (this.ticketAvailabilityProperties.isCrossNode()) {
+            this.databaseNotifications.listen(NOTIFICATION_CHANNEL, new DatabaseNotifications.Listener() {
+                @Override
+                public void onMessage(String payload) {
+                    markChanged(parseCalendarIds(payload), false);
+                }
+
+                @Override
+                public void onReconnect() {
+                    // Changes of the other nodes may have been missed, the totals are only sent again if they changed
+                    markChanged(List.copyOf(TicketAvailabilityServiceImp.this.channels.keySet()), false);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stopPublisher() {
+        this.publisher.shutdownNow();
+        this.senders.shutdownNow();
+        this.channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    /**
+     * @see TicketAvailabilityService#subscribe(Long)
+     */
+    @Override
+    public SseEmitter subscribe(Long calendarId) {
+        if (this.subscribers.incrementAndGet() > this.ticketAvailabilityProperties.getMaxSubscribers()) {
+            this.subscribers.decrementAndGet();
+            LOGGER.error("Reached the maximum of {} ticket availability subscribers", this.ticketAvailabilityProperties.getMaxSubscribers());
+            throw new TooManySubscribersException(ErrorMessages.TOO_MANY_SUBSCRIBERS);
+        }
+
+        SseEmitter emitter = createEmitter(Duration.ofMinutes(this.ticketAvailabilityProperties.getSubscriptionTimeoutMinutes()).toMillis());
+        Subscriber subscriber = new Subscriber(emitter, this.ticketAvailabilityProperties.getMaxPendingEvents());
+        Channel channel = this.channels.compute(calendarId, (id, current) -> {
+            Channel subscribed = current != null ? current : new Channel(id);
+            subscribed.subscribers.add(subscriber);
+            return subscribed;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(channel, subscriber));
+        emitter.onTimeout(() -> unsubscribe(channel, subscriber));
+        emitter.onError(e -> unsubscribe(channel, subscriber));
+
+        // New subscribers get the last published totals, the first one of a calendar triggers the count
+        Set<SseEmitter.DataWithMediaType> lastEvent = channel.lastEvent;
+        if (lastEvent != null) {
+            send(channel, subscriber, lastEvent);
+        } else {
+            markChanged(Set.of(calendarId), false);
+        }
+
+        LOGGER.debug("Subscribed to ticket availability of calendar id {} - {} subscribers", calendarId, channel.subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Create the emitter of a new subscriber
+     *
+     * @param timeoutMillis subscription timeout
+     * @return {@link SseEmitter}
+     */
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /**
+     * @see TicketAvailabilityService#markChanged(Collection)
+     */
+    @Override
+    public void markChanged(Collection<Long> calendarIds) {
+        markChanged(calendarIds, this.ticketAvailabilityProperties.isCrossNode());
+    }
+
+    /**
+     * Mark calendars changed, scheduling a publish when any of them is new since the last one
+     *
+     * @param calendarIds      calendar ids
+     * @param notifyOtherNodes true when the change happened on this node
+     */
+    private void markChanged(Collection<Long> calendarIds, boolean notifyOtherNodes) {
+        boolean changed = false;
+        for (Long calendarId : calendarIds) {
+            if (calendarId == null) {
+                continue;
+            }
+            if (notifyOtherNodes) {
+                changed |= this.notifiedCalendarIds.add(calendarId);
+            }
+            if (this.channels.containsKey(calendarId)) {
+                changed |= this.changedCalendarIds.add(calendarId);
+            }
+        }
+
+        if (changed && this.publishScheduled.compareAndSet(false, true)) {
+            this.publisher.schedule(this::publishChanges, this.ticketAvailabilityProperties.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @see TicketAvailabilityService#hasSubscribers()
+     */
+    @Override
+    public boolean hasSubscribers() {
+        // Subscribers of the other nodes are not known here
+        return this.ticketAvailabilityProperties.isCrossNode() || !this.channels.isEmpty();
+    }
+
+    /**
+     * Publish the totals of the calendars changed since the last run
+     * Totals equal to the last published ones are not sent again
+     */
+    public void publishChanges() {
+        this.publishScheduled.set(false);
+        notifyOtherNodes();
+
+        Iterator<Long> iterator = this.changedCalendarIds.iterator();
+        while (iterator.hasNext()) {
+            Long calendarId = iterator.next();
+            iterator.remove();
+
+            Channel channel = this.channels.get(calendarId);
+            if (channel == null) {
+                continue;
+            }
+
+            TotalOfTicketsDto totalOfTicketsDto;
+            String data;
+            try {
+                LOGGER.debug("Counting tickets of calendar id {} from database", calendarId);
+                totalOfTicketsDto = TicketConverter.fromListOfTicketCountToTotalOfTicketsDto(
+                        this.ticketRepository.countByCalendarIdGroupByTypeAndStatus(calendarId));
+                data = this.objectMapper.writeValueAsString(totalOfTicketsDto);
+
+            } catch (JsonProcessingException | RuntimeException e) {
+                LOGGER.error("Failed while counting tickets of calendar id {} - ", calendarId, e);
+                continue;
+            }
+
+            if (totalOfTicketsDto.equals(channel.lastTotals)) {
+                continue;
+            }
+
+            SseEventBuilder event = SseEmitter.event()
+                    .id(String.valueOf(++channel.version))
+                    .name(EVENT_NAME)
+                    .data(data, MediaType.APPLICATION_JSON);
+            Set<SseEmitter.DataWithMediaType> serializedEvent = event.build();
+            channel.lastTotals = totalOfTicketsDto;
+            channel.lastEvent = serializedEvent;
+
+            LOGGER.debug("Publishing ticket availability of calendar id {} to {} subscribers", calendarId, channel.subscribers.size());
+            channel.subscribers.forEach(subscriber -> send(channel, subscriber, serializedEvent));
+        }
+    }
+
+    /**
+     * Notify the calendars changed on this node to the other nodes
+     * Failures are only logged, the other nodes publish the calendars on their next change
+     */
+    private void notifyOtherNodes() {
+        List<Long> calendarIds = new ArrayList<>();
+        Iterator<Long> iterator = this.notifiedCalendarIds.iterator();
+        while (iterator.hasNext()) {
+            calendarIds.add(iterator.next());
+            iterator.remove();
+        }
+
+        for (int from = 0; from < calendarIds.size(); from += CALENDARS_PER_NOTIFICATION) {
+            List<Long> batch = calendarIds.subList(from, Math.min(calendarIds.size(), from + CALENDARS_PER_NOTIFICATION));
+            try {
+                this.databaseNotifications.publish(NOTIFICATION_CHANNEL,
+                        String.join(",", batch.stream().map(String::valueOf).toList()));
+
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed while notifying {} changed calendars to the other nodes - ", batch.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Parse the calendar ids of a notification of another node
+     *
+     * @param payload comma separated calendar ids
+     * @return calendar ids
+     */
+    private static List<Long> parseCalendarIds(String payload) {
+        List<Long> calendarIds = new ArrayList<>();
+        for (String calendarId : payload.split(",")) {
+            try {
+                calendarIds.add(Long.valueOf(calendarId));
+
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Ignoring invalid calendar id {} of a ticket availability notification", calendarId);
+            }
+        }
+        return calendarIds;
+    }
+
+    /**
+     * Send heartbeat to all subscribers
+     */
+    private void sendHeartbeats() {
+        this.channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> send(channel, subscriber, HEARTBEAT)));
+    }
+
+    /**
+     * Queue event for a subscriber, disconnecting it when too many events are waiting
+     * The caller never waits for the client, the events are written by the sender threads
+     *
+     * @param channel    channel
+     * @param subscriber subscriber
+     * @param event      serialized event
+     */
+    private void send(Channel channel, Subscriber subscriber, Set<SseEmitter.DataWithMediaType> event) {
+        if (!subscriber.pending.offer(event)) {
+            LOGGER.debug("Disconnecting slow ticket availability subscriber of calendar id {} - {} events waiting",
+                    channel.calendarId, subscriber.pending.size());
+            unsubscribe(channel, subscriber);
+            subscriber.dropped = true;
+        }
+
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                this.senders.execute(() -> drain(channel, subscriber));
+
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("Ticket availability senders stopped, dropping event of calendar id {}", channel.calendarId);
+            }
+        }
+    }
+
+    /**
+     * Write the pending events of a subscriber in order, on a sender thread
+     * A dropped subscriber is completed here, after its last write returned
+     *
+     * @param channel    channel
+     * @param subscriber subscriber
+     */
+    private void drain(Channel channel, Subscriber subscriber) {
+        while (true) {
+            if (subscriber.dropped) {
+                subscriber.emitter.complete();
+                return;
+            }
+
+            Set<SseEmitter.DataWithMediaType> event = subscriber.pending.poll();
+            if (event == null) {
+                subscriber.draining.set(false);
+                // An event queued after the poll found no drain running, so it is taken here unless another one started
+                if ((subscriber.pending.isEmpty() && !subscriber.dropped) || !subscriber.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            try {
+                // Written item by item, sending the set itself would serialize it as the data of a new event
+                for (SseEmitter.DataWithMediaType item : event) {
+                    subscriber.emitter.send(item.getData(), item.getMediaType());
+                }
+
+            } catch (IOException | IllegalStateException e) {
+                LOGGER.debug("Removing ticket availability subscriber of calendar id {} - {}", channel.calendarId, e.getMessage());
+                unsubscribe(channel, subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove subscriber, and the calendar channel when it was the last one
+     *
+     * @param channel    channel
+     * @param subscriber subscriber
+     */
+    private void unsubscribe(Channel channel, Subscriber subscriber) {
+        if (channel.subscribers.remove(subscriber)) {
+            this.subscribers.decrementAndGet();
+        }
+        this.channels.computeIfPresent(channel.calendarId, (id, current) -> current.subscribers.isEmpty() ? null : current);
+    }
+
+    /**
+     * Subscribers and last published totals of a calendar
+     */
+    private static final class Channel {
+
+        private final Long calendarId;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        // Only written by the publisher thread
+        private long version;
+        private TotalOfTicketsDto lastTotals;
+        private volatile Set<SseEmitter.DataWithMediaType> lastEvent;
+
+        private Channel(Long calendarId) {
+            this.calendarId = calendarId;
+        }
+    }
+
+    /**
+     * Client of a channel and its events waiting to be written
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<SseEmitter.DataWithMediaType>> pending;
+        // Set while a sender thread writes the pending events, so they are written in order by one thread at a time
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Disconnected for falling behind, the emitter is completed by the sender thread
+        private volatile boolean dropped;
+
+        private Subscriber(SseEmitter emitter, int maxPendingEvents) {
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(maxPendingEvents);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ticket.shop.service;
 
 import com.ticket.shop.command.ticket.CreateTicketDto;
+import com.ticket.shop.command.ticket.CustomerTicketsDto;
 import com.ticket.shop.command.ticket.TicketDetailsWhenCreatedDto;
 import com.ticket.shop.command.ticket.TotalOfTicketsDto;
 
@@ -36,4 +37,14 @@ public interface TicketService {
      * @return {@link TotalOfTicketsDto}
      */
     TotalOfTicketsDto getTotalOfTicketsByCalendarId(Long calendarId);
+
+    /**
+     * Get a page of the tickets bought by a customer, the most recent first
+     *
+     * @param customerId customer id
+     * @param cursor     cursor of the page, null for the first page
+     * @param size       page size
+     * @return {@link CustomerTicketsDto}
+     */
+    CustomerTicketsDto getCustomerTickets(Long customerId, String cursor, int size);
 }
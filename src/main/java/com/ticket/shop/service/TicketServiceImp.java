@@ -1,6 +1,8 @@
 package com.ticket.shop.service;
 
+import com.ticket.shop.cache.CustomerTicketsCache;
 import com.ticket.shop.command.ticket.CreateTicketDto;
+import com.ticket.shop.command.ticket.CustomerTicketsDto;
 import com.ticket.shop.command.ticket.TicketDetailsWhenCreatedDto;
 import com.ticket.shop.command.ticket.TotalOfTicketsDto;
 import com.ticket.shop.converter.TicketConverter;
@@ -10,21 +12,30 @@ import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.calendar.CalendarNotFoundException;
 import com.ticket.shop.exception.company.CompanyNotFoundException;
+import com.ticket.shop.exception.ticket.InvalidCursorException;
 import com.ticket.shop.exception.ticket.InvalidTicketTypeException;
 import com.ticket.shop.exception.ticket.TicketCantBeDeletedException;
+import com.ticket.shop.persistence.ReplicaRead;
 import com.ticket.shop.persistence.entity.CalendarEntity;
 import com.ticket.shop.persistence.entity.CompanyEntity;
 import com.ticket.shop.persistence.entity.EventEntity;
 import com.ticket.shop.persistence.entity.PriceEntity;
 import com.ticket.shop.persistence.entity.TicketEntity;
+import com.ticket.shop.persistence.projection.CustomerTicketProjection;
 import com.ticket.shop.persistence.repository.CalendarRepository;
 import com.ticket.shop.persistence.repository.CompanyRepository;
 import com.ticket.shop.persistence.repository.PriceRepository;
 import com.ticket.shop.persistence.repository.TicketRepository;
+import com.ticket.shop.properties.CustomerTicketsProperties;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,18 +53,27 @@ public class TicketServiceImp implements TicketService {
     private final PriceRepository priceRepository;
     private final CompanyRepository companyRepository;
     private final CalendarRepository calendarRepository;
+    private final TicketAvailabilityServiceImp ticketAvailabilityServiceImp;
+    private final CustomerTicketsCache customerTicketsCache;
+    private final CustomerTicketsProperties customerTicketsProperties;
 
-    public TicketServiceImp(TicketRepository ticketRepository, PriceRepository priceRepository, CompanyRepository companyRepository, CalendarRepository calendarRepository) {
+    public TicketServiceImp(TicketRepository ticketRepository, PriceRepository priceRepository, CompanyRepository companyRepository, CalendarRepository calendarRepository,
+                            TicketAvailabilityServiceImp ticketAvailabilityServiceImp, CustomerTicketsCache customerTicketsCache,
+                            CustomerTicketsProperties customerTicketsProperties) {
         this.ticketRepository = ticketRepository;
         this.priceRepository = priceRepository;
         this.companyRepository = companyRepository;
         this.calendarRepository = calendarRepository;
+        this.ticketAvailabilityServiceImp = ticketAvailabilityServiceImp;
+        this.customerTicketsCache = customerTicketsCache;
+        this.customerTicketsProperties = customerTicketsProperties;
     }
 
     /**
      * @see TicketService#bulkCreateTicket(Long, Long, List)
      */
     @Override
+    @Transactional
     public List<TicketDetailsWhenCreatedDto> bulkCreateTicket(Long companyId, Long calendarId, List<CreateTicketDto> createTicketDto) {
         CompanyEntity companyEntity = getCompanyById(companyId);
         CalendarEntity calendarEntity = getCalendarByCalendarIdAndCompanyEntity(calendarId, companyEntity);
@@ -63,10 +83,10 @@ public class TicketServiceImp implements TicketService {
         LOGGER.debug("Creating tickets - {}", createTicketDto);
         List<TicketEntity> ticketEntities = TicketConverter.fromListOfCreateTicketDtoToListOfTicketEntity(createTicketDto, calendarEntity);
 
-        LOGGER.info("Persisting tickets into database");
+        LOGGER.debug("Persisting tickets into database");
         Iterable<TicketEntity> createdTicketsIterable;
         try {
-            LOGGER.info("Saving tickets on database");
+            LOGGER.debug("Saving tickets on database");
             createdTicketsIterable = this.ticketRepository.saveAll(ticketEntities);
 
         } catch (Exception e) {
@@ -74,6 +94,8 @@ public class TicketServiceImp implements TicketService {
             throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
         }
 
+        this.ticketAvailabilityServiceImp.markChanged(Collections.singletonList(calendarId));
+
         LOGGER.debug("Retrieving created tickets");
         List<TicketEntity> tickets = StreamSupport.stream(createdTicketsIterable.spliterator(), false).collect(Collectors.toList());
         return TicketConverter.fromListOfTicketEntityToListOfTicketDetailsWhenCreatedDto(tickets, prices);
@@ -83,6 +105,7 @@ public class TicketServiceImp implements TicketService {
      * @see TicketService#deleteTicketsByCalendarId(Long, Long)
      */
     @Override
+    @Transactional
     public void deleteTicketsByCalendarId(Long companyId, Long calendarId) {
         CompanyEntity companyEntity = getCompanyById(companyId);
         CalendarEntity calendarEntity = getCalendarByCalendarIdAndCompanyEntity(calendarId, companyEntity);
@@ -101,12 +124,16 @@ public class TicketServiceImp implements TicketService {
             LOGGER.error("Failed while deleting tickets with calendar id {} from database", calendarId, e);
             throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
         }
+
+        this.ticketAvailabilityServiceImp.markChanged(Collections.singletonList(calendarId));
     }
 
     /**
      * @see TicketService#getTotalOfTicketsByCalendarId(Long)
      */
     @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public TotalOfTicketsDto getTotalOfTicketsByCalendarId(Long calendarId) {
         List<TicketEntity> ticketEntities = getTicketsByCalendarId(calendarId);
         Map<TicketType, Map<TicketStatus, Long>> totalGroup = new HashMap<>();
@@ -125,6 +152,57 @@ public class TicketServiceImp implements TicketService {
                 .build();
     }
 
+    /**
+     * @see TicketService#getCustomerTickets(Long, String, int)
+     */
+    @Override
+    public CustomerTicketsDto getCustomerTickets(Long customerId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, this.customerTicketsProperties.getMaxPageSize()));
+
+        // The first page is the one reloaded after every purchase
+        if (cursor == null) {
+            CustomerTicketsDto cachedPage = this.customerTicketsCache.get(customerId, pageSize);
+            if (cachedPage != null) {
+                LOGGER.debug("Retrieving cached tickets of customer with id {}", customerId);
+                return cachedPage;
+            }
+        }
+
+        TicketCursor ticketCursor = cursor == null ? null : TicketCursor.decode(cursor);
+        // Read before the query, a capture evicting the customer meanwhile keeps this page out of the cache
+        long generation = this.customerTicketsCache.getGeneration(customerId);
+
+        LOGGER.debug("Getting tickets of customer with id {} from database", customerId);
+        List<CustomerTicketProjection> tickets;
+        try {
+            // One extra row tells if there is a next page
+            tickets = ticketCursor == null
+                    ? this.ticketRepository.findCustomerTickets(customerId, pageSize + 1)
+                    : this.ticketRepository.findCustomerTicketsAfter(customerId, ticketCursor.purchasedAt(), ticketCursor.ticketId(), pageSize + 1);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed at getting tickets of customer with id {} from database", customerId, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+
+        String nextCursor = null;
+        if (tickets.size() > pageSize) {
+            tickets = tickets.subList(0, pageSize);
+            CustomerTicketProjection lastTicket = tickets.get(pageSize - 1);
+            nextCursor = new TicketCursor(lastTicket.getPurchasedAt(), lastTicket.getTicketId()).encode();
+        }
+
+        CustomerTicketsDto customerTicketsDto = CustomerTicketsDto.builder()
+                .results(tickets.stream().map(TicketConverter::fromCustomerTicketProjectionToCustomerTicketDto).toList())
+                .nextCursor(nextCursor)
+                .build();
+
+        if (cursor == null) {
+            this.customerTicketsCache.put(customerId, pageSize, customerTicketsDto, generation);
+        }
+        return customerTicketsDto;
+    }
+
     /**
      * Get Prices by types and event id
      *
@@ -199,4 +277,46 @@ public class TicketServiceImp implements TicketService {
         LOGGER.debug("Getting tickets by calendar id {} from database", calendarId);
         return this.ticketRepository.findByCalendarId(calendarId);
     }
+
+    /**
+     * Position of a ticket in the customer tickets listing, the next page starts after it
+     * Encoded as base64url of the purchase date in epoch microseconds and the ticket id
+     *
+     * @param purchasedAt purchase date, with the microseconds kept by the database
+     * @param ticketId    ticket id
+     */
+    private record TicketCursor(Timestamp purchasedAt, Long ticketId) {
+
+        private static final char SEPARATOR = ':';
+
+        /**
+         * @return cursor to send to the client
+         */
+        String encode() {
+            long epochMicros = Math.floorDiv(this.purchasedAt.getTime(), 1000) * 1_000_000 + this.purchasedAt.getNanos() / 1000;
+            String cursor = Long.toString(epochMicros) + SEPARATOR + this.ticketId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        /**
+         * @param cursor cursor received from the client
+         * @return {@link TicketCursor}
+         */
+        static TicketCursor decode(String cursor) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+                int separator = decoded.indexOf(SEPARATOR);
+                long epochMicros = Long.parseLong(decoded.substring(0, separator));
+                long ticketId = Long.parseLong(decoded.substring(separator + 1));
+
+                Timestamp purchasedAt = new Timestamp(Math.floorDiv(epochMicros, 1000));
+                purchasedAt.setNanos(Math.floorMod(epochMicros, 1_000_000) * 1000);
+                return new TicketCursor(purchasedAt, ticketId);
+
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                LOGGER.error("Invalid tickets cursor - {}", cursor);
+                throw new InvalidCursorException(ErrorMessages.INVALID_CURSOR);
+            }
+        }
+    }
 }
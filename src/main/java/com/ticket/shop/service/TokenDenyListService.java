@@ -0,0 +1,35 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.exception.DatabaseCommunicationException;
+
+import java.util.Date;
+
+/**
+ * Common interface for the deny list of revoked jwt tokens
+ */
+public interface TokenDenyListService {
+
+    /**
+     * Revoke a token until it expires
+     *
+     * @param tokenId   token id (jti claim)
+     * @param userId    owner of the token
+     * @param expiresAt token expiration
+     * @throws DatabaseCommunicationException when the revocation can't be persisted
+     */
+    void revoke(String tokenId, Long userId, Date expiresAt);
+
+    /**
+     * Check if a token was revoked
+     * Only ids flagged by the in memory filter are confirmed on the database
+     *
+     * @param tokenId token id (jti claim)
+     * @return true if revoked
+     */
+    boolean isRevoked(String tokenId);
+
+    /**
+     * Reload the deny list from the database and purge the expired revocations
+     */
+    void refreshDenyList();
+}
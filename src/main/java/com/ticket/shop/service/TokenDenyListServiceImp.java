@@ -0,0 +1,156 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.persistence.entity.RevokedTokenEntity;
+import com.ticket.shop.persistence.repository.RevokedTokenRepository;
+import com.ticket.shop.properties.JwtProperties;
+import com.ticket.shop.security.BloomFilter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An {@link TokenDenyListService} implementation
+ * Revoked token ids live on a small table and each instance keeps a Bloom filter of them,
+ * so authenticating a request that was not revoked never touches the database
+ */
+@Service
+public class TokenDenyListServiceImp implements TokenDenyListService {
+
+    private static final Logger LOGGER = LogManager.getLogger(TokenDenyListServiceImp.class);
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtProperties.DenyList denyListProperties;
+    // Guards the filter writes and the swap, the database is never queried while holding it
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile BloomFilter denyList;
+    // Ids revoked on this instance while the filter is reloaded, added to the new filter before the swap
+    private List<String> revokedWhileReloading;
+
+    public TokenDenyListServiceImp(RevokedTokenRepository revokedTokenRepository, JwtProperties jwtProperties) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.denyListProperties = jwtProperties.getDenyList();
+        this.denyList = newFilter(0);
+    }
+
+    /**
+     * @see TokenDenyListService#revoke(String, Long, Date)
+     */
+    @Override
+    public void revoke(String tokenId, Long userId, Date expiresAt) {
+        RevokedTokenEntity revokedTokenEntity = RevokedTokenEntity.builder()
+                .tokenId(tokenId)
+                .userId(userId)
+                .expiresAt(expiresAt)
+                .build();
+
+        LOGGER.debug("Revoking token {} of user with id {}", tokenId, userId);
+        try {
+            this.revokedTokenRepository.save(revokedTokenEntity);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while revoking token {} of user with id {}", tokenId, userId, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+
+        this.lock.lock();
+        try {
+            this.denyList.put(tokenId);
+            if (this.revokedWhileReloading != null) {
+                this.revokedWhileReloading.add(tokenId);
+            }
+
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @see TokenDenyListService#isRevoked(String)
+     */
+    @Override
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !this.denyList.mightContain(tokenId)) {
+            return false;
+        }
+
+        LOGGER.debug("Token {} is on the deny list filter, confirming on database", tokenId);
+        try {
+            return this.revokedTokenRepository.existsById(tokenId);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while checking if token {} is revoked", tokenId, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+    }
+
+    /**
+     * @see TokenDenyListService#refreshDenyList()
+     */
+    @Override
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${ticket-shop.jwt.denyList.refreshMillis:30000}",
+            initialDelayString = "${ticket-shop.jwt.denyList.refreshMillis:30000}")
+    public void refreshDenyList() {
+        Date now = new Date();
+        try {
+            int purged = this.revokedTokenRepository.deleteByExpiresAtNotAfter(now);
+            if (purged > 0) {
+                LOGGER.debug("Purged {} expired revoked tokens", purged);
+            }
+
+            // Revocations are recorded from before the query, the ones it misses are added before the swap
+            this.lock.lock();
+            try {
+                this.revokedWhileReloading = new ArrayList<>();
+
+            } finally {
+                this.lock.unlock();
+            }
+
+            List<String> tokenIds = this.revokedTokenRepository.findTokenIdsByExpiresAtAfter(now);
+            BloomFilter filter = newFilter(tokenIds.size());
+            tokenIds.forEach(filter::put);
+
+            this.lock.lock();
+            try {
+                this.revokedWhileReloading.forEach(filter::put);
+                this.denyList = filter;
+
+            } finally {
+                this.lock.unlock();
+            }
+
+        } catch (Exception e) {
+            // Keep serving with the current filter, it still holds every id revoked on this instance
+            LOGGER.error("Failed while refreshing the revoked tokens deny list", e);
+
+        } finally {
+            this.lock.lock();
+            try {
+                this.revokedWhileReloading = null;
+
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Create an empty filter with room for the revoked ids plus the expected new ones
+     *
+     * @param revokedTokens revoked ids to load
+     * @return {@link BloomFilter}
+     */
+    private BloomFilter newFilter(int revokedTokens) {
+        return new BloomFilter(revokedTokens + this.denyListProperties.getExpectedEntries(),
+                this.denyListProperties.getFalsePositiveRate());
+    }
+}
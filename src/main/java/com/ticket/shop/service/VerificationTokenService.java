@@ -0,0 +1,48 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.enumerators.VerificationTokenPurpose;
+import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.exception.auth.InvalidTokenException;
+import com.ticket.shop.persistence.entity.UserEntity;
+
+import java.time.Duration;
+
+/**
+ * Common interface for verification token operations (password reset and email confirmation links)
+ */
+public interface VerificationTokenService {
+
+    /**
+     * Create a verification token, replacing the previous ones of the user for the same purpose
+     *
+     * @param userEntity user, already persisted
+     * @param purpose    token purpose
+     * @param expiresIn  token lifetime
+     * @return the token to send, only its hash is stored
+     * @throws DatabaseCommunicationException when the token can't be persisted
+     */
+    String createVerificationToken(UserEntity userEntity, VerificationTokenPurpose purpose, Duration expiresIn);
+
+    /**
+     * Get the user of a verification token that didn't expire yet
+     *
+     * @param token   token
+     * @param purpose token purpose
+     * @return {@link UserEntity}
+     * @throws InvalidTokenException when the token doesn't exist or expired
+     */
+    UserEntity getUserByVerificationToken(String token, VerificationTokenPurpose purpose);
+
+    /**
+     * Delete the verification tokens of a user for a purpose, once one of them is used
+     *
+     * @param userId  user id
+     * @param purpose token purpose
+     */
+    void deleteVerificationTokens(Long userId, VerificationTokenPurpose purpose);
+
+    /**
+     * Delete the expired verification tokens
+     */
+    void purgeExpiredVerificationTokens();
+}
@@ -0,0 +1,110 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.enumerators.VerificationTokenPurpose;
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.exception.auth.InvalidTokenException;
+import com.ticket.shop.persistence.entity.UserEntity;
+import com.ticket.shop.persistence.entity.VerificationTokenEntity;
+import com.ticket.shop.persistence.repository.VerificationTokenRepository;
+import com.ticket.shop.security.TokenDigest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * An {@link VerificationTokenService} implementation
+ */
+@Service
+public class VerificationTokenServiceImp implements VerificationTokenService {
+
+    private static final Logger LOGGER = LogManager.getLogger(VerificationTokenServiceImp.class);
+    private final VerificationTokenRepository verificationTokenRepository;
+
+    public VerificationTokenServiceImp(VerificationTokenRepository verificationTokenRepository) {
+        this.verificationTokenRepository = verificationTokenRepository;
+    }
+
+    /**
+     * @see VerificationTokenService#createVerificationToken(UserEntity, VerificationTokenPurpose, Duration)
+     */
+    @Override
+    @Transactional
+    public String createVerificationToken(UserEntity userEntity, VerificationTokenPurpose purpose, Duration expiresIn) {
+        String token = TokenDigest.generateToken();
+
+        VerificationTokenEntity verificationTokenEntity = VerificationTokenEntity.builder()
+                .tokenHash(TokenDigest.sha256(token))
+                .purpose(purpose)
+                .userEntity(userEntity)
+                .expiresAt(new Date(System.currentTimeMillis() + expiresIn.toMillis()))
+                .build();
+
+        LOGGER.debug("Persisting {} token of user with id {}", purpose, userEntity.getUserId());
+        try {
+            // Only the last link sent is valid
+            this.verificationTokenRepository.deleteByUserIdAndPurpose(userEntity.getUserId(), purpose);
+            this.verificationTokenRepository.save(verificationTokenEntity);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while saving {} token of user with id {}", purpose, userEntity.getUserId(), e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+
+        return token;
+    }
+
+    /**
+     * @see VerificationTokenService#getUserByVerificationToken(String, VerificationTokenPurpose)
+     */
+    @Override
+    public UserEntity getUserByVerificationToken(String token, VerificationTokenPurpose purpose) {
+        LOGGER.debug("Verifying if the {} token exists or is expired", purpose);
+        if (token == null || token.isEmpty()) {
+            throw new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
+        }
+
+        return this.verificationTokenRepository.findByTokenHashAndPurposeAndExpiresAtAfter(
+                        TokenDigest.sha256(token), purpose, new Date())
+                .map(VerificationTokenEntity::getUserEntity)
+                .orElseThrow(() -> {
+                    LOGGER.error("The token is invalid or it expired already");
+                    return new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
+                });
+    }
+
+    /**
+     * @see VerificationTokenService#deleteVerificationTokens(Long, VerificationTokenPurpose)
+     */
+    @Override
+    public void deleteVerificationTokens(Long userId, VerificationTokenPurpose purpose) {
+        LOGGER.debug("Removing {} tokens of user with id {}", purpose, userId);
+        try {
+            this.verificationTokenRepository.deleteByUserIdAndPurpose(userId, purpose);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while removing {} tokens of user with id {}", purpose, userId, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+    }
+
+    /**
+     * @see VerificationTokenService#purgeExpiredVerificationTokens()
+     */
+    @Override
+    @Scheduled(cron = "${ticket-shop.verification-token.purge-cron:0 15 * * * *}")
+    public void purgeExpiredVerificationTokens() {
+        try {
+            int purged = this.verificationTokenRepository.deleteByExpiresAtNotAfter(new Date());
+            LOGGER.debug("Purged {} expired verification tokens", purged);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while purging expired verification tokens", e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.command.waitingroom.OpenWaitingRoomDto;
+import com.ticket.shop.command.waitingroom.QueueStatusDto;
+import com.ticket.shop.command.waitingroom.WaitingRoomDetailsDto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Common interface for waiting room services, provides methods to queue customers in front of high demand on-sales
+ */
+public interface WaitingRoomService {
+
+    /**
+     * Open the waiting room of a calendar, or change its settings if it's already open
+     *
+     * @param companyId          company id
+     * @param calendarId         calendar id
+     * @param openWaitingRoomDto {@link OpenWaitingRoomDto}
+     * @return {@link WaitingRoomDetailsDto}
+     */
+    WaitingRoomDetailsDto openWaitingRoom(Long companyId, Long calendarId, OpenWaitingRoomDto openWaitingRoomDto);
+
+    /**
+     * Close the waiting room of a calendar, orders no longer need an admission
+     *
+     * @param companyId  company id
+     * @param calendarId calendar id
+     */
+    void closeWaitingRoom(Long companyId, Long calendarId);
+
+    /**
+     * Join the waiting room of a calendar
+     *
+     * @param customerId customer id
+     * @param calendarId calendar id
+     * @return {@link QueueStatusDto}
+     */
+    QueueStatusDto joinWaitingRoom(Long customerId, Long calendarId);
+
+    /**
+     * Get the customer position in the waiting room of a calendar, with the admission token once admitted
+     *
+     * @param customerId customer id
+     * @param calendarId calendar id
+     * @param queueToken queue token received when joining
+     * @return {@link QueueStatusDto}
+     */
+    QueueStatusDto getQueueStatus(Long customerId, Long calendarId, String queueToken);
+
+    /**
+     * Verify the customer was admitted in the waiting room of every given calendar that has one open
+     *
+     * @param customerId      customer id
+     * @param calendarIds     calendar ids
+     * @param admissionTokens admission tokens
+     */
+    void verifyAdmission(Long customerId, Collection<Long> calendarIds, List<String> admissionTokens);
+}
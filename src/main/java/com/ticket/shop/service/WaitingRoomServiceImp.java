@@ -0,0 +1,447 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.command.waitingroom.OpenWaitingRoomDto;
+import com.ticket.shop.command.waitingroom.QueueStatusDto;
+import com.ticket.shop.command.waitingroom.WaitingRoomDetailsDto;
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.auth.InvalidTokenException;
+import com.ticket.shop.exception.calendar.CalendarNotFoundException;
+import com.ticket.shop.exception.waitingroom.AdmissionRequiredException;
+import com.ticket.shop.exception.waitingroom.WaitingRoomFullException;
+import com.ticket.shop.exception.waitingroom.WaitingRoomNotFoundException;
+import com.ticket.shop.persistence.log.WaitingRoomLog;
+import com.ticket.shop.persistence.log.WaitingRoomLog.RoomState;
+import com.ticket.shop.persistence.repository.CalendarRepository;
+import com.ticket.shop.properties.WaitingRoomProperties;
+import com.ticket.shop.security.HmacTokenSigner;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An {@link WaitingRoomService} implementation
+ * Each room is a FIFO of positions handed out by a counter, admitted by a watermark that moves at a fixed rate.
+ * Customers hold their position in a signed queue token. The room only remembers the position of each customer, so
+ * joining again returns the same position, until the admission of that position expires
+ */
+@Service
+public class WaitingRoomServiceImp implements WaitingRoomService {
+
+    private static final Logger LOGGER = LogManager.getLogger(WaitingRoomService.class);
+
+    // Token payload: purpose (1 byte) + calendar id (8 bytes) + customer id (8 bytes) + value (8 bytes)
+    // The value is the position for queue tokens and the expiration, in epoch seconds, for admission tokens
+    private static final int TOKEN_PAYLOAD_LENGTH = 25;
+    // Room positions start at the opening time, so tokens of a closed room are never valid on a reopened one
+    private static final long POSITIONS_PER_MILLISECOND = 1_000_000L;
+
+    private final CalendarRepository calendarRepository;
+    private final HmacTokenSigner hmacTokenSigner;
+    private final WaitingRoomProperties waitingRoomProperties;
+    private final WaitingRoomLog waitingRoomLog;
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+    // Orders the opening and closing of rooms with their log records, a lock instead of synchronized so a virtual
+    // thread waiting on the disk doesn't pin its carrier
+    private final ReentrantLock roomsLock = new ReentrantLock();
+
+    public WaitingRoomServiceImp(CalendarRepository calendarRepository, HmacTokenSigner hmacTokenSigner,
+                                 WaitingRoomProperties waitingRoomProperties) {
+        this.calendarRepository = calendarRepository;
+        this.hmacTokenSigner = hmacTokenSigner;
+        this.waitingRoomProperties = waitingRoomProperties;
+        this.waitingRoomLog = new WaitingRoomLog(Path.of(waitingRoomProperties.getLogPath()));
+    }
+
+    /**
+     * Restore the rooms open before the last shutdown and compact the log
+     */
+    @PostConstruct
+    public void restoreWaitingRooms() {
+        try {
+            for (RoomState roomState : this.waitingRoomLog.replay().values()) {
+                this.rooms.put(roomState.calendarId(), new Room(roomState));
+            }
+            this.waitingRoomLog.compact(this.rooms.values().stream().map(Room::toState).toList());
+
+        } catch (IOException e) {
+            LOGGER.error("Failed while restoring waiting rooms from {}", this.waitingRoomProperties.getLogPath(), e);
+            throw new UncheckedIOException(e);
+        }
+
+        LOGGER.info("Restored {} open waiting rooms", this.rooms.size());
+    }
+
+    @PreDestroy
+    public void closeWaitingRoomLog() throws IOException {
+        this.waitingRoomLog.close();
+    }
+
+    /**
+     * @see WaitingRoomService#openWaitingRoom(Long, Long, OpenWaitingRoomDto)
+     */
+    @Override
+    public WaitingRoomDetailsDto openWaitingRoom(Long companyId, Long calendarId, OpenWaitingRoomDto openWaitingRoomDto) {
+        validateCalendar(companyId, calendarId);
+
+        int admissionsPerSecond = openWaitingRoomDto.getAdmissionsPerSecond() != null
+                ? openWaitingRoomDto.getAdmissionsPerSecond()
+                : this.waitingRoomProperties.getAdmissionsPerSecond();
+        int capacity = openWaitingRoomDto.getCapacity() != null
+                ? openWaitingRoomDto.getCapacity()
+                : this.waitingRoomProperties.getCapacity();
+
+        LOGGER.debug("Opening waiting room of calendar id {} - {} admissions per second, {} capacity", calendarId, admissionsPerSecond, capacity);
+        Room room;
+        this.roomsLock.lock();
+        try {
+            room = this.rooms.get(calendarId);
+            boolean opening = room == null;
+            if (opening) {
+                long start = System.currentTimeMillis() * POSITIONS_PER_MILLISECOND;
+                room = new Room(new RoomState(calendarId, admissionsPerSecond, capacity, start, start, start));
+            } else {
+                room.admissionsPerSecond = admissionsPerSecond;
+                room.capacity = capacity;
+            }
+
+            appendToLog(WaitingRoomLog.OPEN, calendarId, RoomState.openValue(admissionsPerSecond, capacity), true);
+            if (opening) {
+                appendToLog(WaitingRoomLog.START, calendarId, room.start, true);
+                this.rooms.put(calendarId, room);
+            }
+
+        } finally {
+            this.roomsLock.unlock();
+        }
+
+        return buildWaitingRoomDetails(room);
+    }
+
+    /**
+     * @see WaitingRoomService#closeWaitingRoom(Long, Long)
+     */
+    @Override
+    public void closeWaitingRoom(Long companyId, Long calendarId) {
+        validateCalendar(companyId, calendarId);
+
+        LOGGER.debug("Closing waiting room of calendar id {}", calendarId);
+        this.roomsLock.lock();
+        try {
+            getRoom(calendarId);
+            appendToLog(WaitingRoomLog.CLOSE, calendarId, 0, true);
+            this.rooms.remove(calendarId);
+
+        } finally {
+            this.roomsLock.unlock();
+        }
+    }
+
+    /**
+     * @see WaitingRoomService#joinWaitingRoom(Long, Long)
+     */
+    @Override
+    public QueueStatusDto joinWaitingRoom(Long customerId, Long calendarId) {
+        Room room = getRoom(calendarId);
+
+        // A customer joining again, from another tab or after losing the queue token, keeps the same position
+        long position = room.positionsByCustomer.computeIfAbsent(customerId, id -> {
+            long tail;
+            do {
+                tail = room.tail.get();
+                if (tail - room.admitted >= room.capacity) {
+                    LOGGER.error("The waiting room of calendar id {} is full", calendarId);
+                    throw new WaitingRoomFullException(ErrorMessages.WAITING_ROOM_FULL);
+                }
+            } while (!room.tail.compareAndSet(tail, tail + 1));
+
+            room.joined.add(new Joined(id, tail));
+            return tail;
+        });
+
+        String queueToken = sign(HmacTokenSigner.QUEUE_PURPOSE, calendarId, customerId, position);
+        return buildQueueStatus(room, customerId, queueToken, position);
+    }
+
+    /**
+     * @see WaitingRoomService#getQueueStatus(Long, Long, String)
+     */
+    @Override
+    public QueueStatusDto getQueueStatus(Long customerId, Long calendarId, String queueToken) {
+        Room room = getRoom(calendarId);
+
+        long position = verify(queueToken, HmacTokenSigner.QUEUE_PURPOSE, calendarId, customerId);
+        if (position < room.start || position >= room.tail.get()) {
+            LOGGER.error("The queue token position doesn't belong to the waiting room of calendar id {}", calendarId);
+            throw new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
+        }
+
+        return buildQueueStatus(room, customerId, queueToken, position);
+    }
+
+    /**
+     * @see WaitingRoomService#verifyAdmission(Long, Collection, List)
+     */
+    @Override
+    public void verifyAdmission(Long customerId, Collection<Long> calendarIds, List<String> admissionTokens) {
+        if (this.rooms.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis() / 1000;
+        for (Long calendarId : calendarIds) {
+            if (calendarId == null || !this.rooms.containsKey(calendarId)) {
+                continue;
+            }
+
+            boolean admitted = admissionTokens != null && admissionTokens.stream()
+                    .anyMatch(token -> isValidAdmission(token, calendarId, customerId, now));
+            if (!admitted) {
+                LOGGER.error("The customer id {} wasn't admitted in the waiting room of calendar id {}", customerId, calendarId);
+                throw new AdmissionRequiredException(ErrorMessages.ADMISSION_REQUIRED);
+            }
+        }
+    }
+
+    /**
+     * Move the admitted watermark of every room by its admission rate
+     * Admissions not used while the queue is empty are not accumulated.
+     * The tail is persisted here too, so joining never touches the disk. Customers admitted longer than an admission
+     * token lifetime ago are forgotten, they get a new position if they join again
+     */
+    @Scheduled(fixedRate = 1000)
+    public void advanceAdmissions() {
+        for (Room room : this.rooms.values()) {
+            long tail = room.tail.get();
+            if (tail != room.persistedTail) {
+                room.persistedTail = tail;
+                appendToLog(WaitingRoomLog.JOIN, room.calendarId, tail, false);
+            }
+
+            long admitted = Math.min(tail, room.admitted + room.admissionsPerSecond);
+            if (admitted != room.admitted) {
+                room.admitted = admitted;
+                appendToLog(WaitingRoomLog.ADMIT, room.calendarId, admitted, false);
+            }
+
+            forgetAdmittedCustomers(room);
+        }
+    }
+
+    /**
+     * Forget the positions admitted about an admission token lifetime ago, at the current admission rate
+     *
+     * @param room room
+     */
+    private void forgetAdmittedCustomers(Room room) {
+        long forgetBefore = room.admitted - room.admissionsPerSecond * this.waitingRoomProperties.getAdmissionTokenExpiresInSeconds();
+        Joined joined;
+        // Joins are queued roughly in position order, a late one is forgotten on a later run
+        while ((joined = room.joined.peek()) != null && joined.position() < forgetBefore) {
+            room.joined.poll();
+            room.positionsByCustomer.remove(joined.customerId(), joined.position());
+        }
+    }
+
+    /**
+     * Append record to the waiting room log
+     * Failures are only logged, the rooms keep working in memory
+     *
+     * @param type       record type
+     * @param calendarId calendar id
+     * @param value      record value
+     * @param sync       true to force the record to disk
+     */
+    private void appendToLog(byte type, long calendarId, long value, boolean sync) {
+        try {
+            this.waitingRoomLog.append(type, calendarId, value, sync);
+
+        } catch (IOException e) {
+            LOGGER.error("Failed while writing waiting room record {} of calendar id {}", type, calendarId, e);
+        }
+    }
+
+    /**
+     * Build queue status, with a new admission token once the position was admitted
+     *
+     * @param room       room
+     * @param customerId customer id
+     * @param queueToken queue token
+     * @param position   position
+     * @return {@link QueueStatusDto}
+     */
+    private QueueStatusDto buildQueueStatus(Room room, Long customerId, String queueToken, long position) {
+        long ahead = Math.max(0, position - room.admitted);
+        String admissionToken = null;
+        if (position < room.admitted) {
+            long expiresAt = System.currentTimeMillis() / 1000 + this.waitingRoomProperties.getAdmissionTokenExpiresInSeconds();
+            admissionToken = sign(HmacTokenSigner.ADMISSION_PURPOSE, room.calendarId, customerId, expiresAt);
+        }
+
+        return QueueStatusDto.builder()
+                .calendarId(room.calendarId)
+                .queueToken(queueToken)
+                .position(position - room.start + 1)
+                .ahead(ahead)
+                .estimatedWaitSeconds(admissionToken == null ? ahead / room.admissionsPerSecond + 1 : 0)
+                .admissionToken(admissionToken)
+                .build();
+    }
+
+    /**
+     * Build waiting room details
+     *
+     * @param room room
+     * @return {@link WaitingRoomDetailsDto}
+     */
+    private WaitingRoomDetailsDto buildWaitingRoomDetails(Room room) {
+        return WaitingRoomDetailsDto.builder()
+                .calendarId(room.calendarId)
+                .admissionsPerSecond(room.admissionsPerSecond)
+                .capacity(room.capacity)
+                .waiting(room.tail.get() - room.admitted)
+                .admitted(room.admitted - room.start)
+                .build();
+    }
+
+    /**
+     * Check if admission token is valid for the calendar and customer
+     *
+     * @param token      admission token
+     * @param calendarId calendar id
+     * @param customerId customer id
+     * @param now        now in epoch seconds
+     * @return true if valid
+     */
+    private boolean isValidAdmission(String token, Long calendarId, Long customerId, long now) {
+        ByteBuffer payload = this.hmacTokenSigner.verify(token, TOKEN_PAYLOAD_LENGTH).orElse(null);
+        return payload != null
+                && payload.get() == HmacTokenSigner.ADMISSION_PURPOSE
+                && payload.getLong() == calendarId
+                && payload.getLong() == customerId
+                && payload.getLong() > now;
+    }
+
+    /**
+     * Sign token
+     *
+     * @param purpose    token purpose
+     * @param calendarId calendar id
+     * @param customerId customer id
+     * @param value      token value
+     * @return the token
+     */
+    private String sign(byte purpose, long calendarId, long customerId, long value) {
+        return this.hmacTokenSigner.sign(ByteBuffer.allocate(TOKEN_PAYLOAD_LENGTH)
+                .put(purpose)
+                .putLong(calendarId)
+                .putLong(customerId)
+                .putLong(value)
+                .array());
+    }
+
+    /**
+     * Verify token signature, purpose, calendar and customer
+     *
+     * @param token      token
+     * @param purpose    token purpose
+     * @param calendarId calendar id
+     * @param customerId customer id
+     * @return token value
+     */
+    private long verify(String token, byte purpose, Long calendarId, Long customerId) {
+        ByteBuffer payload = this.hmacTokenSigner.verify(token, TOKEN_PAYLOAD_LENGTH)
+                .filter(p -> p.get() == purpose && p.getLong() == calendarId && p.getLong() == customerId)
+                .orElseThrow(() -> {
+                    LOGGER.error("The queue token is invalid for calendar id {} and customer id {}", calendarId, customerId);
+                    return new InvalidTokenException(ErrorMessages.INVALID_TOKEN);
+                });
+
+        return payload.getLong();
+    }
+
+    /**
+     * Get open room
+     *
+     * @param calendarId calendar id
+     * @return {@link Room}
+     */
+    private Room getRoom(Long calendarId) {
+        Room room = this.rooms.get(calendarId);
+        if (room == null) {
+            LOGGER.error("The calendar id {} doesn't have an open waiting room", calendarId);
+            throw new WaitingRoomNotFoundException(ErrorMessages.WAITING_ROOM_NOT_FOUND);
+        }
+        return room;
+    }
+
+    /**
+     * Validate calendar belongs to the company
+     *
+     * @param companyId  company id
+     * @param calendarId calendar id
+     */
+    private void validateCalendar(Long companyId, Long calendarId) {
+        LOGGER.debug("Getting calendar with id {} of company id {} from database", calendarId, companyId);
+        if (this.calendarRepository.findByCompanyIdAndCalendarId(companyId, calendarId).isEmpty()) {
+            LOGGER.error("The calendar with id {} does not exist in database", calendarId);
+            throw new CalendarNotFoundException(ErrorMessages.CALENDAR_NOT_FOUND);
+        }
+    }
+
+    /**
+     * Waiting room of a calendar
+     */
+    private static final class Room {
+
+        private final long calendarId;
+        private final long start;
+        private final AtomicLong tail;
+        private volatile int admissionsPerSecond;
+        private volatile int capacity;
+        // Only moved by the scheduler
+        private volatile long admitted;
+        private long persistedTail;
+        // Position of each customer, kept in memory only so a customer joining after a restart gets a new one
+        private final Map<Long, Long> positionsByCustomer = new ConcurrentHashMap<>();
+        // Joins in position order, to forget the admitted customers
+        private final ConcurrentLinkedQueue<Joined> joined = new ConcurrentLinkedQueue<>();
+
+        private Room(RoomState roomState) {
+            this.calendarId = roomState.calendarId();
+            this.start = roomState.start();
+            this.tail = new AtomicLong(roomState.tail());
+            this.admissionsPerSecond = roomState.admissionsPerSecond();
+            this.capacity = roomState.capacity();
+            this.admitted = roomState.admitted();
+            this.persistedTail = roomState.tail();
+        }
+
+        private RoomState toState() {
+            return new RoomState(this.calendarId, this.admissionsPerSecond, this.capacity, this.start, this.tail.get(), this.admitted);
+        }
+    }
+
+    /**
+     * Position handed out to a customer
+     *
+     * @param customerId customer id
+     * @param position   position
+     */
+    private record Joined(long customerId, long position) {
+    }
+}
@@ -2,6 +2,7 @@ package com.ticket.shop.service;
 
 import com.ticket.shop.command.Paginated;
 import com.ticket.shop.command.worker.CreateWorkerDto;
+import com.ticket.shop.command.worker.PatchWorkerDto;
 import com.ticket.shop.command.worker.UpdateWorkerDto;
 import com.ticket.shop.command.worker.WorkerDetailsDto;
 import com.ticket.shop.exception.auth.InvalidRoleException;
@@ -61,6 +62,20 @@ public interface WorkerService {
      */
     WorkerDetailsDto updateWorker(Long companyId, Long workerId, UpdateWorkerDto updateWorkerDto);
 
+    /**
+     * Partially update worker, only the fields sent and different from the
+     * current ones are written and the password is only hashed when sent
+     *
+     * @param companyId      company id
+     * @param workerId       worker id to be updated
+     * @param patchWorkerDto {@link PatchWorkerDto}
+     * @return {@link WorkerDetailsDto} the worker updated
+     * @throws UserNotFoundException    when the user isn't found
+     * @throws CountryNotFoundException when the country isn't found
+     * @throws InvalidRoleException     when the roles aren't valid for workers
+     */
+    WorkerDetailsDto patchWorker(Long companyId, Long workerId, PatchWorkerDto patchWorkerDto);
+
     /**
      * Delete worker
      *
@@ -2,10 +2,12 @@ package com.ticket.shop.service;
 
 import com.ticket.shop.command.Paginated;
 import com.ticket.shop.command.worker.CreateWorkerDto;
+import com.ticket.shop.command.worker.PatchWorkerDto;
 import com.ticket.shop.command.worker.UpdateWorkerDto;
 import com.ticket.shop.command.worker.WorkerDetailsDto;
 import com.ticket.shop.converter.UserConverter;
 import com.ticket.shop.enumerators.UserRole;
+import com.ticket.shop.enumerators.VerificationTokenPurpose;
 import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.auth.InvalidRoleException;
@@ -13,23 +15,28 @@ import com.ticket.shop.exception.company.CompanyNotFoundException;
 import com.ticket.shop.exception.country.CountryNotFoundException;
 import com.ticket.shop.exception.user.UserAlreadyExistsException;
 import com.ticket.shop.exception.user.UserNotFoundException;
+import com.ticket.shop.persistence.DuplicateKey;
 import com.ticket.shop.persistence.entity.CompanyEntity;
 import com.ticket.shop.persistence.entity.CountryEntity;
 import com.ticket.shop.persistence.entity.UserEntity;
+import com.ticket.shop.persistence.projection.WorkerDetailsProjection;
 import com.ticket.shop.persistence.repository.CompanyRepository;
 import com.ticket.shop.persistence.repository.CountryRepository;
 import com.ticket.shop.persistence.repository.UserRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -44,19 +51,24 @@ public class WorkerServiceImp implements WorkerService {
     private final CountryRepository countryRepository;
     private final CompanyRepository companyRepository;
     private final PasswordEncoder passwordEncoder;
-    private final AuthServiceImp authServiceImp;
+    private final VerificationTokenServiceImp verificationTokenServiceImp;
     private final EmailServiceImp emailServiceImp;
+    private final RefreshTokenServiceImp refreshTokenServiceImp;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${ticket-shop.resetPassToken.expiresInHours}")
     private long expiresInHours;
 
-    public WorkerServiceImp(UserRepository userRepository, CountryRepository countryRepository, PasswordEncoder passwordEncoder, CompanyRepository companyRepository, AuthServiceImp authServiceImp, EmailServiceImp emailServiceImp) {
+    public WorkerServiceImp(UserRepository userRepository, CountryRepository countryRepository, PasswordEncoder passwordEncoder, CompanyRepository companyRepository, VerificationTokenServiceImp verificationTokenServiceImp, EmailServiceImp emailServiceImp,
+                            RefreshTokenServiceImp refreshTokenServiceImp, PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.countryRepository = countryRepository;
         this.passwordEncoder = passwordEncoder;
         this.companyRepository = companyRepository;
-        this.authServiceImp = authServiceImp;
+        this.verificationTokenServiceImp = verificationTokenServiceImp;
         this.emailServiceImp = emailServiceImp;
+        this.refreshTokenServiceImp = refreshTokenServiceImp;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -65,28 +77,27 @@ public class WorkerServiceImp implements WorkerService {
     @Override
     public WorkerDetailsDto createWorker(Long companyId, CreateWorkerDto createWorkerDto) {
 
-        if (this.userRepository.findByEmail(createWorkerDto.getEmail()).isPresent()) {
+        if (this.userRepository.existsByEmailIgnoreCase(createWorkerDto.getEmail())) {
             LOGGER.error("Duplicated email - {}", createWorkerDto.getEmail());
             throw new UserAlreadyExistsException(ErrorMessages.EMAIL_ALREADY_EXISTS);
         }
 
+        // The password is hashed before the transaction, no connection is held while hashing
         UserEntity userEntity = buildUserEntity(companyId, createWorkerDto);
 
-        LOGGER.info("Persisting worker into database");
-        UserEntity createdWorker;
-        try {
-            LOGGER.info("Saving worker on database");
-            createdWorker = this.userRepository.save(userEntity);
-
-        } catch (Exception e) {
-            LOGGER.error("Failed while saving worker into database {}", userEntity, e);
-            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
-        }
+        // The worker and its email token are saved together, the email is only sent after the commit
+        SavedWorker savedWorker = this.transactionTemplate.execute(status -> {
+            UserEntity createdWorker = saveWorker(userEntity);
+            String emailToken = this.verificationTokenServiceImp.createVerificationToken(
+                    createdWorker, VerificationTokenPurpose.CONFIRM_EMAIL, Duration.ofHours(this.expiresInHours));
+            return new SavedWorker(createdWorker, emailToken);
+        });
+        UserEntity createdWorker = savedWorker.userEntity();
 
         this.emailServiceImp.sendEmailToConfirmEmailAddress(
                 createdWorker.getFirstname(),
                 createdWorker.getEmail(),
-                createdWorker.getConfirmEmailToken(),
+                savedWorker.emailToken(),
                 this.expiresInHours
         );
 
@@ -94,6 +105,56 @@ public class WorkerServiceImp implements WorkerService {
         return UserConverter.fromUserEntityToWorkerDetailsDto(createdWorker);
     }
 
+    /**
+     * Save a new worker, translating a concurrent signup with the same email
+     *
+     * @param userEntity worker to save
+     * @return saved {@link UserEntity}
+     */
+    private UserEntity saveWorker(UserEntity userEntity) {
+        LOGGER.debug("Persisting worker into database");
+        try {
+            LOGGER.debug("Saving worker on database");
+            return this.userRepository.save(userEntity);
+
+        } catch (DataIntegrityViolationException e) {
+            if (!DuplicateKey.isDuplicateKey(e)) {
+                LOGGER.error("Failed while saving worker into database {}", userEntity, e);
+                throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+            }
+
+            // Lost the race against a concurrent signup with the same email
+            LOGGER.error("Duplicated email - {}", userEntity.getEmail());
+            throw new UserAlreadyExistsException(ErrorMessages.EMAIL_ALREADY_EXISTS);
+
+        } catch (Exception e) {
+            LOGGER.error("Failed while saving worker into database {}", userEntity, e);
+            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+        }
+    }
+
+    private record SavedWorker(UserEntity userEntity, String emailToken) {
+    }
+
+    /**
+     * Translate an integrity violation on an existing worker into {@link UserAlreadyExistsException}
+     * The email index is the authoritative check, the violation only surfaces when the changes are flushed
+     *
+     * @param userId user id
+     * @param email  new email
+     * @param e      integrity violation
+     * @return {@link UserAlreadyExistsException}, or {@link DatabaseCommunicationException} when not a duplicate
+     */
+    private RuntimeException toUserAlreadyExistsException(Long userId, String email, DataIntegrityViolationException e) {
+        if (DuplicateKey.isDuplicateKey(e)) {
+            LOGGER.error("Duplicated email - {}", email);
+            return new UserAlreadyExistsException(ErrorMessages.EMAIL_ALREADY_EXISTS);
+        }
+
+        LOGGER.error("Failed while saving worker with id {} into database", userId, e);
+        return new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+    }
+
     private UserEntity buildUserEntity(Long companyId, CreateWorkerDto createWorkerDto) {
         LOGGER.debug("Creating worker - {}", createWorkerDto);
         UserEntity userEntity = UserConverter.fromCreateWorkerDtoToUserEntity(createWorkerDto);
@@ -108,12 +169,6 @@ public class WorkerServiceImp implements WorkerService {
 
         String encryptedPassword = this.passwordEncoder.encode(createWorkerDto.getPassword());
         userEntity.setEncryptedPassword(encryptedPassword);
-
-        // Insert data about email validation
-        String emailToken = this.authServiceImp.generateTokenForValidations();
-        Date expiresAt = new Date(new Date().getTime() + Duration.ofHours(2).toMillis());
-        userEntity.setConfirmEmailToken(emailToken);
-        userEntity.setConfirmEmailExpireToken(expiresAt);
         userEntity.setEmailConfirmed(false);
 
         return userEntity;
@@ -123,6 +178,7 @@ public class WorkerServiceImp implements WorkerService {
      * @see WorkerService#getWorkerById(Long, Long)
      */
     @Override
+    @Transactional(readOnly = true)
     public WorkerDetailsDto getWorkerById(Long companyId, Long workerId) {
         UserEntity userEntity = getWorkerByIdAndCompany(companyId, workerId);
 
@@ -133,14 +189,16 @@ public class WorkerServiceImp implements WorkerService {
      * @see WorkerService#getWorkersList(Long, int, int)
      */
     @Override
+    @Transactional(readOnly = true)
     public Paginated<WorkerDetailsDto> getWorkersList(Long companyId, int page, int size) {
 
-        CompanyEntity companyEntity = getCompanyEntityById(companyId);
+        // Fails with not found when the company doesn't exist
+        getCompanyEntityById(companyId);
 
         LOGGER.debug("Getting all workers from database");
-        Page<UserEntity> workersList;
+        Page<WorkerDetailsProjection> workersList;
         try {
-            workersList = this.userRepository.findByCompanyEntity(companyEntity, PageRequest.of(page, size));
+            workersList = this.userRepository.findWorkerDetailsByCompanyId(companyId, PageRequest.of(page, size));
 
         } catch (Exception e) {
             LOGGER.error("Failed at getting workers page from database", e);
@@ -149,8 +207,8 @@ public class WorkerServiceImp implements WorkerService {
 
         LOGGER.debug("Converting workers list to WorkerDetailsDto");
         List<WorkerDetailsDto> workerListResponse = new ArrayList<>();
-        for (UserEntity worker : workersList) {
-            workerListResponse.add(UserConverter.fromUserEntityToWorkerDetailsDto(worker));
+        for (WorkerDetailsProjection worker : workersList) {
+            workerListResponse.add(UserConverter.fromWorkerDetailsProjectionToWorkerDetailsDto(worker));
         }
 
         return new Paginated<>(
@@ -169,33 +227,128 @@ public class WorkerServiceImp implements WorkerService {
 
         validateRoles(updateUserDto.getRoles());
 
-        UserEntity userEntity = getWorkerByIdAndCompany(companyId, userId);
-        CountryEntity countryEntity = getCountryEntityById(updateUserDto.getCountryId());
+        // The password is hashed before the transaction, no connection is held while hashing
         String encryptedPassword = this.passwordEncoder.encode(updateUserDto.getPassword());
 
-        userEntity.setFirstname(updateUserDto.getFirstname());
-        userEntity.setLastname(updateUserDto.getLastname());
-        userEntity.setEmail(updateUserDto.getEmail());
-        userEntity.setEncryptedPassword(encryptedPassword);
-        userEntity.setRoles(updateUserDto.getRoles());
-        userEntity.setCountryEntity(countryEntity);
-
-        LOGGER.debug("Updating worker with id {} with new data", userId);
+        // The email index is only checked when the changes are flushed, a duplicate is translated after the rollback
         try {
-            this.userRepository.save(userEntity);
+            return this.transactionTemplate.execute(status -> {
+                UserEntity userEntity = getWorkerByIdAndCompany(companyId, userId);
+                CountryEntity countryEntity = getCountryEntityById(updateUserDto.getCountryId());
 
-        } catch (Exception e) {
-            LOGGER.error("Failed while updating worker with id {} with new data - {}", userId, userEntity, e);
-            throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+                userEntity.setFirstname(updateUserDto.getFirstname());
+                userEntity.setLastname(updateUserDto.getLastname());
+                userEntity.setEmail(updateUserDto.getEmail());
+                userEntity.setEncryptedPassword(encryptedPassword);
+                userEntity.setRoles(updateUserDto.getRoles());
+                userEntity.setCountryEntity(countryEntity);
+
+                LOGGER.debug("Updating worker with id {} with new data", userId);
+                try {
+                    this.userRepository.save(userEntity);
+
+                } catch (DataIntegrityViolationException e) {
+                    throw e;
+
+                } catch (Exception e) {
+                    LOGGER.error("Failed while updating worker with id {} with new data - {}", userId, userEntity, e);
+                    throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+                }
+
+                // Sessions opened with the old password can't be refreshed anymore
+                this.refreshTokenServiceImp.revokeUserRefreshTokens(userId);
+
+                return UserConverter.fromUserEntityToWorkerDetailsDto(userEntity);
+            });
+
+        } catch (DataIntegrityViolationException e) {
+            throw toUserAlreadyExistsException(userId, updateUserDto.getEmail(), e);
         }
+    }
 
-        return UserConverter.fromUserEntityToWorkerDetailsDto(userEntity);
+    /**
+     * @see WorkerService#patchWorker(Long, Long, PatchWorkerDto)
+     */
+    @Override
+    public WorkerDetailsDto patchWorker(Long companyId, Long userId, PatchWorkerDto patchWorkerDto) {
+
+        if (patchWorkerDto.getRoles() != null) {
+            validateRoles(patchWorkerDto.getRoles());
+        }
+
+        // The password is hashed before the transaction, no connection is held while hashing
+        String encryptedPassword = patchWorkerDto.getPassword() != null && !patchWorkerDto.getPassword().isBlank()
+                ? this.passwordEncoder.encode(patchWorkerDto.getPassword())
+                : null;
+
+        // The email index is only checked when the changes are flushed, a duplicate is translated after the rollback
+        try {
+            return this.transactionTemplate.execute(status -> {
+                UserEntity userEntity = getWorkerByIdAndCompany(companyId, userId);
+                boolean changed = false;
+
+                if (isChanged(patchWorkerDto.getFirstname(), userEntity.getFirstname())) {
+                    userEntity.setFirstname(patchWorkerDto.getFirstname());
+                    changed = true;
+                }
+                if (isChanged(patchWorkerDto.getLastname(), userEntity.getLastname())) {
+                    userEntity.setLastname(patchWorkerDto.getLastname());
+                    changed = true;
+                }
+                if (isChanged(patchWorkerDto.getEmail(), userEntity.getEmail())) {
+                    userEntity.setEmail(patchWorkerDto.getEmail());
+                    changed = true;
+                }
+                if (patchWorkerDto.getRoles() != null && !patchWorkerDto.getRoles().isEmpty()
+                        && !patchWorkerDto.getRoles().equals(userEntity.getRoles())) {
+                    userEntity.setRoles(patchWorkerDto.getRoles());
+                    changed = true;
+                }
+                if (patchWorkerDto.getCountryId() != null
+                        && !patchWorkerDto.getCountryId().equals(userEntity.getCountryEntity().getCountryId())) {
+                    userEntity.setCountryEntity(getCountryEntityById(patchWorkerDto.getCountryId()));
+                    changed = true;
+                }
+                if (encryptedPassword != null) {
+                    userEntity.setEncryptedPassword(encryptedPassword);
+                    changed = true;
+                }
+
+                if (!changed) {
+                    LOGGER.debug("Nothing to update on worker with id {}", userId);
+                    return UserConverter.fromUserEntityToWorkerDetailsDto(userEntity);
+                }
+
+                LOGGER.debug("Patching worker with id {} with new data", userId);
+                try {
+                    this.userRepository.save(userEntity);
+
+                } catch (DataIntegrityViolationException e) {
+                    throw e;
+
+                } catch (Exception e) {
+                    LOGGER.error("Failed while patching worker with id {} with new data - {}", userId, userEntity, e);
+                    throw new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, e);
+                }
+
+                if (encryptedPassword != null) {
+                    // Sessions opened with the old password can't be refreshed anymore
+                    this.refreshTokenServiceImp.revokeUserRefreshTokens(userId);
+                }
+
+                return UserConverter.fromUserEntityToWorkerDetailsDto(userEntity);
+            });
+
+        } catch (DataIntegrityViolationException e) {
+            throw toUserAlreadyExistsException(userId, patchWorkerDto.getEmail(), e);
+        }
     }
 
     /**
      * @see WorkerService#deleteWorker(Long, Long)
      */
     @Override
+    @Transactional
     public void deleteWorker(Long companyId, Long workerId) {
         LOGGER.debug("Getting worker with id {} from database", workerId);
         UserEntity userEntity = getWorkerByIdAndCompany(companyId, workerId);
@@ -267,4 +420,15 @@ public class WorkerServiceImp implements WorkerService {
             throw new InvalidRoleException(ErrorMessages.INVALID_ROLE);
         }
     }
+
+    /**
+     * Check if a patched value is sent and differs from the current one
+     *
+     * @param value   patched value
+     * @param current current value
+     * @return true if the value should be written
+     */
+    private static boolean isChanged(String value, String current) {
+        return value != null && !value.isBlank() && !value.equals(current);
+    }
 }
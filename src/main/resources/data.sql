@@ -86,11 +86,11 @@ INSERT INTO prices (price, type, company_id, event_id, created_at) VALUES (20, '
 INSERT INTO prices (price, type, company_id, event_id, created_at) VALUES (50, 'VIP', 2, 1, now());
 
 -- 10 Tickets
-INSERT INTO tickets (paypal_order_id, status, type, calendar_id, company_id, user_id, purchased_at)
-VALUES ('uubawbdae9add-eae', 'SOLD', 'VIP', 1, 2, 4, now());
+INSERT INTO tickets (paypal_order_id, status, type, calendar_id, company_id, user_id, purchased_at, price)
+VALUES ('uubawbdae9add-eae', 'SOLD', 'VIP', 1, 2, 4, now(), 50);
 
-INSERT INTO tickets (paypal_order_id, status, type, calendar_id, company_id, user_id)
-VALUES ('usdeeeadd-eae', 'WAITING_PAYMENT', 'GENERAL', 1, 2, 4);
+INSERT INTO tickets (paypal_order_id, status, type, calendar_id, company_id, user_id, reserved_until, price)
+VALUES ('usdeeeadd-eae', 'WAITING_PAYMENT', 'GENERAL', 1, 2, 4, now() + interval '15 minutes', 20);
 
 INSERT INTO tickets (status, type, calendar_id, company_id) VALUES ('AVAILABLE', 'GENERAL', 1, 2);
 INSERT INTO tickets (status, type, calendar_id, company_id) VALUES ('AVAILABLE', 'GENERAL', 1, 2);
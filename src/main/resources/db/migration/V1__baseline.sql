@@ -0,0 +1,150 @@
+-- Schema of the first release, before the migrations. Databases created by Hibernate before Flyway are baselined
+-- at this version and start with V2
+
+create table addresses (
+    address_id bigserial not null,
+    city varchar(30) not null,
+    line1 varchar(255) not null,
+    line2 varchar(255),
+    line3 varchar(255),
+    mobile_number varchar(30),
+    post_code varchar(30) not null,
+    country_id int8 not null,
+    primary key (address_id)
+);
+
+create table calendars (
+    calendar_id bigserial not null,
+    created_at timestamp,
+    end_date timestamp not null,
+    start_date timestamp not null,
+    updated_at timestamp,
+    company_id int8 not null,
+    event_id int8 not null,
+    primary key (calendar_id)
+);
+
+create table companies (
+    company_id bigserial not null,
+    created_at timestamp,
+    email varchar(255) not null,
+    name varchar(255) not null,
+    updated_at timestamp,
+    website varchar(255) not null,
+    address_id int8 not null,
+    primary key (company_id)
+);
+
+create table countries (
+    country_id bigserial not null,
+    currency varchar(4) not null,
+    iso_code2 varchar(2) not null,
+    iso_code3 varchar(3) not null,
+    language varchar(4) not null,
+    name varchar(255) not null,
+    phone_code varchar(4) not null,
+    primary key (country_id)
+);
+
+create table events (
+    event_id bigserial not null,
+    created_at timestamp,
+    description varchar(255) not null,
+    name varchar(255) not null,
+    updated_at timestamp,
+    address_id int8 not null,
+    company_id int8 not null,
+    primary key (event_id)
+);
+
+create table prices (
+    price_id bigserial not null,
+    created_at timestamp,
+    price float8 not null,
+    type varchar(255) not null,
+    updated_at timestamp,
+    company_id int8 not null,
+    event_id int8 not null,
+    primary key (price_id)
+);
+
+create table roles (
+    user_id int8 not null,
+    roles varchar(255)
+);
+
+create table tickets (
+    ticket_id bigserial not null,
+    paypal_order_id varchar(255),
+    purchased_at timestamp,
+    status varchar(255) not null,
+    type varchar(255) not null,
+    calendar_id int8 not null,
+    company_id int8 not null,
+    user_id int8,
+    primary key (ticket_id)
+);
+
+create table users (
+    user_id bigserial not null,
+    confirm_email_expire_token timestamp,
+    confirm_email_token varchar(255),
+    created_at timestamp,
+    email varchar(100) not null,
+    encrypted_password varchar(255) not null,
+    firstname varchar(100) not null,
+    is_email_confirmed boolean default false not null,
+    lastname varchar(100) not null,
+    reset_password_expire_token timestamp,
+    reset_password_token varchar(255),
+    updated_at timestamp,
+    company_id int8,
+    country_id int8 not null,
+    primary key (user_id)
+);
+
+create table users_addresses (
+    user_id int8,
+    address_id int8 not null,
+    primary key (address_id)
+);
+
+alter table companies add constraint UK_qjgsqh1oq7xhof2tdte9l7e2b unique (email);
+
+alter table companies add constraint UK_50ygfritln653mnfhxucoy8up unique (name);
+
+alter table companies add constraint UK_fyb8te1vmb12v6e0fdw2mgb59 unique (website);
+
+alter table users add constraint UK_6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table addresses add constraint FKn3sth7s3kur1rafwbbrqqnswt foreign key (country_id) references countries;
+
+alter table calendars add constraint FK4bmv3cla1qwskkrj0b7i1mpea foreign key (company_id) references companies;
+
+alter table calendars add constraint FKp3niw7834t19d07iv455bid05 foreign key (event_id) references events;
+
+alter table companies add constraint FK8w70yf6urddd0ky7ev90okenf foreign key (address_id) references addresses;
+
+alter table events add constraint FKquc7xx27bo60lupj2rf7e0hn2 foreign key (address_id) references addresses;
+
+alter table events add constraint FKpndphgrrt2p3rr01e9ymfwx4k foreign key (company_id) references companies;
+
+alter table prices add constraint FKaye7aluuel15a2sy960evn2to foreign key (company_id) references companies;
+
+alter table prices add constraint FK82rukl3g7lllmijqgy5jn4pfa foreign key (event_id) references events;
+
+alter table roles add constraint FK97mxvrajhkq19dmvboprimeg1 foreign key (user_id) references users;
+
+alter table tickets add constraint FKflmida9hmcf2bq2ih18gxo5wg foreign key (calendar_id) references calendars;
+
+alter table tickets add constraint FKj390qeigmp1p2x8sfckpe0770 foreign key (company_id) references companies;
+
+alter table tickets add constraint FK4eqsebpimnjen0q46ja6fl2hl foreign key (user_id) references users;
+
+alter table users add constraint FKin8gn4o1hpiwe6qe4ey7ykwq7 foreign key (company_id) references companies;
+
+alter table users add constraint FKjlpks00ofkq3sqd9hqiavv5lg foreign key (country_id) references countries;
+
+alter table users_addresses add constraint FKrpoauh74gtrrvj9m8skx6vti1 foreign key (user_id) references users;
+
+alter table users_addresses add constraint FKkiudnofuhukgsdoy6i4ldg43e foreign key (address_id) references addresses;
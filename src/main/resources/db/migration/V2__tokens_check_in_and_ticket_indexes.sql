@@ -0,0 +1,64 @@
+-- Schema added while Hibernate still updated it, some databases already have part of it so every change is skipped
+-- when it exists
+
+-- Refresh tokens, see RefreshTokenEntity
+create table if not exists refresh_tokens (
+    refresh_token_id bigserial not null,
+    created_at timestamp,
+    expires_at timestamp not null,
+    family_id varchar(36) not null,
+    revoked boolean not null,
+    rotated_at timestamp,
+    token_hash varchar(64) not null,
+    user_id int8 not null,
+    primary key (refresh_token_id)
+);
+
+create index if not exists idx_refresh_tokens_family_id on refresh_tokens (family_id);
+create index if not exists idx_refresh_tokens_user_id on refresh_tokens (user_id);
+
+-- Access tokens revoked before they expire, see RevokedTokenEntity
+create table if not exists revoked_tokens (
+    token_id varchar(36) not null,
+    expires_at timestamp not null,
+    user_id int8 not null,
+    primary key (token_id)
+);
+
+create index if not exists idx_revoked_tokens_expires_at on revoked_tokens (expires_at);
+
+-- Email confirmation and password reset tokens, see VerificationTokenEntity
+create table if not exists verification_tokens (
+    verification_token_id bigserial not null,
+    created_at timestamp,
+    expires_at timestamp not null,
+    purpose varchar(20) not null,
+    token_hash varchar(64) not null,
+    user_id int8 not null,
+    primary key (verification_token_id)
+);
+
+create index if not exists idx_verification_tokens_expires_at on verification_tokens (expires_at);
+create index if not exists idx_verification_tokens_user_id_purpose on verification_tokens (user_id, purpose);
+
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conname = lower('UK_o2mlirhldriil2y7krapq4frt')) then
+        alter table refresh_tokens add constraint UK_o2mlirhldriil2y7krapq4frt unique (token_hash);
+    end if;
+    if not exists (select 1 from pg_constraint where conname = lower('UK_clh4tfurdi6ate1t2815l1vn8')) then
+        alter table verification_tokens add constraint UK_clh4tfurdi6ate1t2815l1vn8 unique (token_hash);
+    end if;
+    if not exists (select 1 from pg_constraint where conname = lower('FK54y8mqsnq1rtyf581sfmrbp4f')) then
+        alter table verification_tokens add constraint FK54y8mqsnq1rtyf581sfmrbp4f foreign key (user_id) references users on delete cascade;
+    end if;
+end
+$$;
+
+-- Check-in
+alter table tickets add column if not exists checked_in_at timestamp;
+alter table calendars add column if not exists check_in_manifest_version bigint default 0 not null;
+
+-- Manifest by calendar and the tickets of a customer, most recent first
+create index if not exists idx_tickets_calendar_id_ticket_id on tickets (calendar_id, ticket_id);
+create index if not exists idx_tickets_user_id_purchased_at_ticket_id on tickets (user_id, purchased_at desc, ticket_id);
@@ -0,0 +1,27 @@
+-- Case-insensitive uniqueness, the authoritative duplicate check on signup and company creation.
+-- Values that only differ in case can't be merged automatically, the migration stops and lists them so they are
+-- merged by hand before it runs again
+do $$
+declare
+    target record;
+    duplicates text;
+begin
+    for target in
+        select *
+        from (values ('users', 'email'), ('companies', 'name'), ('companies', 'email'), ('companies', 'website')) as t(table_name, column_name)
+    loop
+        execute format('select string_agg(value, '', '') from (select lower(%I) as value from %I group by 1 having count(*) > 1) d',
+                target.column_name, target.table_name)
+            into duplicates;
+        if duplicates is not null then
+            raise exception '%.% has values that only differ in case, merge them before migrating: %',
+                target.table_name, target.column_name, duplicates;
+        end if;
+    end loop;
+end
+$$;
+
+create unique index if not exists users_email_lower_key on users (lower(email));
+create unique index if not exists companies_name_lower_key on companies (lower(name));
+create unique index if not exists companies_email_lower_key on companies (lower(email));
+create unique index if not exists companies_website_lower_key on companies (lower(website));
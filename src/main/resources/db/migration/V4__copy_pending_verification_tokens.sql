@@ -0,0 +1,29 @@
+-- Verification tokens moved from the users columns to verification_tokens (expand). The pending tokens are copied
+-- with the digest the new table keeps, so the links sent before the move still work.
+-- Nothing reads or writes the old columns anymore, they stay while instances of the previous release may still run
+-- and are dropped by a later migration (contract). Databases where they were already dropped are skipped
+do $$
+begin
+    if exists (select 1 from information_schema.columns
+               where table_schema = current_schema() and table_name = 'users' and column_name = 'reset_password_token') then
+        insert into verification_tokens (created_at, expires_at, purpose, token_hash, user_id)
+        select now(), u.reset_password_expire_token, 'RESET_PASSWORD',
+               encode(sha256(convert_to(u.reset_password_token, 'UTF8')), 'hex'), u.user_id
+        from users u
+        where u.reset_password_token is not null
+        and u.reset_password_expire_token > localtimestamp
+        on conflict (token_hash) do nothing;
+    end if;
+
+    if exists (select 1 from information_schema.columns
+               where table_schema = current_schema() and table_name = 'users' and column_name = 'confirm_email_token') then
+        insert into verification_tokens (created_at, expires_at, purpose, token_hash, user_id)
+        select now(), u.confirm_email_expire_token, 'CONFIRM_EMAIL',
+               encode(sha256(convert_to(u.confirm_email_token, 'UTF8')), 'hex'), u.user_id
+        from users u
+        where u.confirm_email_token is not null
+        and u.confirm_email_expire_token > localtimestamp
+        on conflict (token_hash) do nothing;
+    end if;
+end
+$$;
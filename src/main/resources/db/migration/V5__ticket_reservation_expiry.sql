@@ -0,0 +1,12 @@
+-- Tickets waiting for payment are only held until reserved_until, expired holds are released by
+-- OrderServiceImp#releaseExpiredReservations
+alter table tickets add column if not exists reserved_until timestamp;
+
+-- Holds taken before the column existed get a full hold from now on
+update tickets
+set reserved_until = localtimestamp + interval '15 minutes'
+where status = 'WAITING_PAYMENT'
+and reserved_until is null;
+
+-- Only the tickets waiting for payment are swept
+create index if not exists idx_tickets_reserved_until on tickets (reserved_until) where status = 'WAITING_PAYMENT';
@@ -0,0 +1,14 @@
+-- Price paid for each ticket, kept when the event prices change, see TicketEntity#price
+alter table tickets add column if not exists price float8;
+
+-- The price paid for tickets taken before the column existed is unknown, the current price of the event is the closest
+update tickets t
+set price = (select p.price
+             from prices p
+             join calendars c on c.event_id = p.event_id
+             where c.calendar_id = t.calendar_id
+             and p.type = t.type
+             order by p.price_id desc
+             limit 1)
+where t.status in ('SOLD', 'WAITING_PAYMENT')
+and t.price is null;
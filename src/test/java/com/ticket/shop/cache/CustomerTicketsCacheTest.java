@@ -0,0 +1,114 @@
+package com.ticket.shop.cache;
+
+import com.ticket.shop.command.ticket.CustomerTicketsDto;
+import com.ticket.shop.properties.CustomerTicketsProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class CustomerTicketsCacheTest {
+
+    private CustomerTicketsCache customerTicketsCache;
+
+    private final static Long USER_ID = 5L;
+    private final static Long OTHER_USER_ID = 6L;
+    private final static int SIZE = 10;
+
+    @BeforeEach
+    public void setUp() {
+        this.customerTicketsCache = new CustomerTicketsCache(new CustomerTicketsProperties());
+    }
+
+    /**
+     * Put Tests
+     */
+    @Test
+    public void testPutCachesPage() {
+        CustomerTicketsDto page = getMockedPage();
+
+        // Method to be tested
+        this.customerTicketsCache.put(USER_ID, SIZE, page, this.customerTicketsCache.getGeneration(USER_ID));
+
+        // Assert result
+        assertSame(page, this.customerTicketsCache.get(USER_ID, SIZE));
+        assertNull(this.customerTicketsCache.get(USER_ID, SIZE + 1));
+    }
+
+    @Test
+    public void testPutSkippedWhenUserIsInvalidatedWhileLoading() {
+        long generation = this.customerTicketsCache.getGeneration(USER_ID);
+        // A capture of the user commits while the page is read
+        this.customerTicketsCache.invalidate(List.of(USER_ID));
+
+        // Method to be tested
+        this.customerTicketsCache.put(USER_ID, SIZE, getMockedPage(), generation);
+
+        // Assert result
+        assertNull(this.customerTicketsCache.get(USER_ID, SIZE));
+    }
+
+    @Test
+    public void testPutNotSkippedWhenOtherUserIsInvalidated() {
+        long generation = this.customerTicketsCache.getGeneration(USER_ID);
+        this.customerTicketsCache.invalidate(List.of(OTHER_USER_ID));
+        CustomerTicketsDto page = getMockedPage();
+
+        // Method to be tested
+        this.customerTicketsCache.put(USER_ID, SIZE, page, generation);
+
+        // Assert result
+        assertSame(page, this.customerTicketsCache.get(USER_ID, SIZE));
+    }
+
+    /**
+     * Invalidate Tests
+     */
+    @Test
+    public void testInvalidateRemovesPage() {
+        this.customerTicketsCache.put(USER_ID, SIZE, getMockedPage(), this.customerTicketsCache.getGeneration(USER_ID));
+
+        // Method to be tested
+        this.customerTicketsCache.invalidate(List.of(USER_ID));
+
+        // Assert result
+        assertNull(this.customerTicketsCache.get(USER_ID, SIZE));
+    }
+
+    @Test
+    public void testInvalidateIfEmptySkipsPagesBeingLoaded() {
+        long generation = this.customerTicketsCache.getGeneration(USER_ID);
+
+        // Method to be tested
+        assertTrue(this.customerTicketsCache.invalidateIfEmpty());
+
+        // Assert result
+        this.customerTicketsCache.put(USER_ID, SIZE, getMockedPage(), generation);
+        assertNull(this.customerTicketsCache.get(USER_ID, SIZE));
+    }
+
+    @Test
+    public void testInvalidateIfEmptyWithCachedPages() {
+        CustomerTicketsDto page = getMockedPage();
+        this.customerTicketsCache.put(USER_ID, SIZE, page, this.customerTicketsCache.getGeneration(USER_ID));
+
+        // Method to be tested
+        assertFalse(this.customerTicketsCache.invalidateIfEmpty());
+
+        // Assert result, the users have to be invalidated by the caller
+        assertSame(page, this.customerTicketsCache.get(USER_ID, SIZE));
+    }
+
+    private CustomerTicketsDto getMockedPage() {
+        return CustomerTicketsDto.builder()
+                .results(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.ticket.shop.cache;
+
+import com.ticket.shop.enumerators.TicketType;
+import com.ticket.shop.persistence.DatabaseNotifications;
+import com.ticket.shop.persistence.entity.EventEntity;
+import com.ticket.shop.persistence.entity.PriceEntity;
+import com.ticket.shop.properties.OrderProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+public class EventPriceCacheTest {
+
+    @Mock
+    private DatabaseNotifications databaseNotifications;
+
+    private OrderProperties orderProperties;
+    private EventPriceCache eventPriceCache;
+
+    private final static Long EVENT_ID = 2L;
+    private final static String NOTIFICATION_CHANNEL = "event_prices";
+    private final static int VIP = TicketType.VIP.ordinal();
+
+    @BeforeEach
+    public void setUp() {
+        this.orderProperties = new OrderProperties();
+        this.eventPriceCache = new EventPriceCache(this.orderProperties, this.databaseNotifications);
+    }
+
+    /**
+     * Get Prices Tests
+     */
+    @Test
+    public void testGetPricesFromCache() {
+        this.eventPriceCache.getPricesInCents(getMockedEventEntity(10.0));
+
+        // Method to be tested
+        long[] prices = this.eventPriceCache.getPricesInCents(getMockedEventEntity(20.0));
+
+        // Assert result
+        assertEquals(1000L, prices[VIP]);
+    }
+
+    @Test
+    public void testExpiredPricesAreLoadedAgain() {
+        this.orderProperties.setPriceCacheTtlSeconds(0);
+        this.eventPriceCache.getPricesInCents(getMockedEventEntity(10.0));
+
+        // Method to be tested
+        long[] prices = this.eventPriceCache.getPricesInCents(getMockedEventEntity(20.0));
+
+        // Assert result
+        assertEquals(2000L, prices[VIP]);
+    }
+
+    @Test
+    public void testPricesLoadedDuringInvalidationAreNotCached() {
+        // The old prices are loaded while another request changes them
+        EventEntity eventEntity = getMockedEventEntity(10.0);
+        List<PriceEntity> prices = eventEntity.getPrices();
+        eventEntity.setPrices(new AbstractList<>() {
+            @Override
+            public PriceEntity get(int index) {
+                eventPriceCache.invalidate(EVENT_ID);
+                return prices.get(index);
+            }
+
+            @Override
+            public int size() {
+                return prices.size();
+            }
+        });
+
+        // Method to be tested
+        assertEquals(1000L, this.eventPriceCache.getPricesInCents(eventEntity)[VIP]);
+
+        // Assert result
+        assertEquals(2000L, this.eventPriceCache.getPricesInCents(getMockedEventEntity(20.0))[VIP]);
+    }
+
+    /**
+     * Invalidate Tests
+     */
+    @Test
+    public void testInvalidateNotifiesOtherNodes() {
+        this.eventPriceCache.getPricesInCents(getMockedEventEntity(10.0));
+
+        // Method to be tested
+        this.eventPriceCache.invalidate(EVENT_ID);
+
+        // Assert result
+        verify(this.databaseNotifications).publish(NOTIFICATION_CHANNEL, String.valueOf(EVENT_ID));
+        assertEquals(2000L, this.eventPriceCache.getPricesInCents(getMockedEventEntity(20.0))[VIP]);
+    }
+
+    @Test
+    public void testInvalidationOfOtherNodeRemovesPrices() {
+        this.eventPriceCache.listenToOtherNodes();
+        ArgumentCaptor<DatabaseNotifications.Listener> listener = ArgumentCaptor.forClass(DatabaseNotifications.Listener.class);
+        verify(this.databaseNotifications).listen(eq(NOTIFICATION_CHANNEL), listener.capture());
+        this.eventPriceCache.getPricesInCents(getMockedEventEntity(10.0));
+
+        // Method to be tested
+        listener.getValue().onMessage(String.valueOf(EVENT_ID));
+
+        // Assert result
+        assertEquals(2000L, this.eventPriceCache.getPricesInCents(getMockedEventEntity(20.0))[VIP]);
+    }
+
+    private EventEntity getMockedEventEntity(double vipPrice) {
+        return EventEntity.builder()
+                .eventId(EVENT_ID)
+                .prices(List.of(PriceEntity.builder()
+                        .type(TicketType.VIP)
+                        .price(vipPrice)
+                        .build()))
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.ticket.shop.configuration;
+
+import com.ticket.shop.persistence.ReadWriteRoutingDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class DataSourceConfigTest {
+
+    @Mock
+    private DataSource primaryDataSource;
+
+    @Mock
+    private DataSource replicaDataSource;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private TransactionTemplate transactionTemplate;
+    private DataSource dataSource;
+
+    private final static String REPLICA_READ = "com.ticket.shop.service.EventServiceImp.getEventList";
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        // Mocks
+        when(this.primaryDataSource.getConnection()).thenReturn(this.primaryConnection);
+        when(this.replicaDataSource.getConnection()).thenReturn(this.replicaConnection);
+        when(this.primaryConnection.getAutoCommit()).thenReturn(true);
+        when(this.primaryConnection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+
+        DataSourceConfig dataSourceConfig = new DataSourceConfig();
+        ReadWriteRoutingDataSource routingDataSource = dataSourceConfig.routingDataSource(this.primaryDataSource, this.replicaDataSource);
+        routingDataSource.afterPropertiesSet();
+        routingDataSource.setReplicaAvailable(true);
+        this.dataSource = dataSourceConfig.dataSource(routingDataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(this.dataSource));
+        this.transactionTemplate.setName(REPLICA_READ);
+
+        // The proxy reads the default connection settings when created
+        clearInvocations(this.primaryDataSource, this.primaryConnection);
+    }
+
+    @Test
+    public void testReadOnlyTransactionTakesReplicaConnectionOnFirstStatement() throws SQLException {
+        this.transactionTemplate.setReadOnly(true);
+
+        // Method to be tested
+        this.transactionTemplate.executeWithoutResult(status -> createStatement());
+
+        // Assert result
+        verify(this.replicaConnection).createStatement();
+        verify(this.primaryDataSource, never()).getConnection();
+    }
+
+    @Test
+    public void testReadWriteTransactionTakesPrimaryConnection() throws SQLException {
+        // Method to be tested
+        this.transactionTemplate.executeWithoutResult(status -> createStatement());
+
+        // Assert result
+        verify(this.primaryConnection).createStatement();
+        verify(this.replicaDataSource, never()).getConnection();
+    }
+
+    private void createStatement() {
+        try {
+            DataSourceUtils.getConnection(this.dataSource).createStatement();
+
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
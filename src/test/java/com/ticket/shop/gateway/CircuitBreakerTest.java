@@ -0,0 +1,127 @@
+package com.ticket.shop.gateway;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class CircuitBreakerTest {
+
+    private final static int FAILURE_THRESHOLD = 3;
+    // Long enough to stay open during a test
+    private final static long LONG_OPEN_MILLIS = 60_000;
+    // Open time already passed on the next permission request
+    private final static long NO_OPEN_MILLIS = 0;
+    private final static long SHORT_OPEN_MILLIS = 100;
+
+    @Test
+    public void testClosedUntilFailureThreshold() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", FAILURE_THRESHOLD, LONG_OPEN_MILLIS);
+
+        // Method to be tested
+        for (int i = 0; i < FAILURE_THRESHOLD - 1; i++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onFailure();
+        }
+
+        // Assert result
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void testSuccessResetsConsecutiveFailures() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", FAILURE_THRESHOLD, LONG_OPEN_MILLIS);
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+
+        // Method to be tested
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+
+        // Assert result
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testOpenAfterFailureThreshold() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", FAILURE_THRESHOLD, LONG_OPEN_MILLIS);
+
+        // Method to be tested
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            circuitBreaker.onFailure();
+        }
+
+        // Assert result
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void testHalfOpenLetsASingleTrialCallThrough() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker(NO_OPEN_MILLIS);
+
+        // Method to be tested
+        boolean trial = circuitBreaker.tryAcquirePermission();
+        boolean concurrent = circuitBreaker.tryAcquirePermission();
+
+        // Assert result
+        assertTrue(trial);
+        assertFalse(concurrent);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenClosesAfterSuccessfulTrial() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker(NO_OPEN_MILLIS);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        // Method to be tested
+        circuitBreaker.onSuccess();
+
+        // Assert result
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void testHalfOpenOpensAgainAfterFailedTrial() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker(NO_OPEN_MILLIS);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        // Method to be tested
+        circuitBreaker.onFailure();
+
+        // Assert result
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testFailedTrialOpensForTheWholeOpenTime() throws InterruptedException {
+        CircuitBreaker circuitBreaker = openCircuitBreaker(SHORT_OPEN_MILLIS);
+        Thread.sleep(SHORT_OPEN_MILLIS * 2);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        // Method to be tested
+        circuitBreaker.onFailure();
+
+        // Assert result
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        Thread.sleep(SHORT_OPEN_MILLIS * 2);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    private CircuitBreaker openCircuitBreaker(long openMillis) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", FAILURE_THRESHOLD, openMillis);
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            circuitBreaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        return circuitBreaker;
+    }
+}
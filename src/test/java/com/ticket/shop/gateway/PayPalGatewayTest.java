@@ -0,0 +1,225 @@
+package com.ticket.shop.gateway;
+
+import com.paypal.orders.Order;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.ticket.shop.exception.order.OrderCaptureException;
+import com.ticket.shop.exception.order.PaymentUnavailableException;
+import com.ticket.shop.properties.PayPalProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the gateway against a local server that answers like the PayPal API
+ */
+@SpringBootTest
+public class PayPalGatewayTest {
+
+    private final static String ORDER_ID = "ORDER";
+    private final static String COMPLETED_ORDER = "{\"id\":\"" + ORDER_ID + "\",\"status\":\"COMPLETED\"}";
+    private final static long DEADLINE_MILLIS = 500;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private PayPalProperties payPalProperties;
+    // Answers the capture requests, each test sets its own
+    private volatile HttpHandler captureHandler;
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private final AtomicInteger captureRequests = new AtomicInteger();
+    // Authorization header of each capture request
+    private final List<String> captureAuthorizations = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.serverExecutor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(this.serverExecutor);
+        this.server.createContext("/v1/oauth2/token", exchange -> reply(exchange, 200,
+                "{\"access_token\":\"TOKEN-" + this.tokenRequests.incrementAndGet() + "\",\"token_type\":\"Bearer\",\"expires_in\":32400}"));
+        this.server.createContext("/v2/checkout/orders/", exchange -> {
+            this.captureRequests.incrementAndGet();
+            this.captureAuthorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            this.captureHandler.handle(exchange);
+        });
+        this.server.start();
+        this.captureHandler = exchange -> reply(exchange, 201, COMPLETED_ORDER);
+
+        this.payPalProperties = new PayPalProperties();
+        this.payPalProperties.setBaseUrl("http://localhost:" + this.server.getAddress().getPort());
+        this.payPalProperties.getClient().setId("id");
+        this.payPalProperties.getClient().setSecret("secret");
+        this.payPalProperties.setDeadlineMillis(DEADLINE_MILLIS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.server.stop(0);
+        this.serverExecutor.shutdownNow();
+    }
+
+    /**
+     * Capture Order Tests
+     */
+    @Test
+    public void testCaptureOrderSuccessfully() {
+        PayPalGateway payPalGateway = createPayPalGateway();
+
+        // Method to be tested
+        Order order = payPalGateway.captureOrder(ORDER_ID);
+
+        // Assert result
+        assertEquals("COMPLETED", order.status());
+        assertEquals(1, this.tokenRequests.get());
+    }
+
+    @Test
+    public void testCaptureOrderFailureDueToDeadline() {
+        PayPalGateway payPalGateway = createPayPalGateway();
+        this.captureHandler = exchange -> {
+            sleep(DEADLINE_MILLIS * 4);
+            reply(exchange, 201, COMPLETED_ORDER);
+        };
+
+        // Assert exception
+        long startedAt = System.nanoTime();
+        assertThrows(PaymentUnavailableException.class, () -> payPalGateway.captureOrder(ORDER_ID));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < DEADLINE_MILLIS * 4);
+    }
+
+    @Test
+    public void testCaptureOrderFailureDueToBulkheadFull() throws Exception {
+        this.payPalProperties.setMaxConcurrentCalls(1);
+        this.payPalProperties.setDeadlineMillis(5_000);
+        PayPalGateway payPalGateway = createPayPalGateway();
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch answer = new CountDownLatch(1);
+        this.captureHandler = exchange -> {
+            received.countDown();
+            await(answer);
+            reply(exchange, 201, COMPLETED_ORDER);
+        };
+        CompletableFuture<Order> inProgress = CompletableFuture.supplyAsync(() -> payPalGateway.captureOrder(ORDER_ID));
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+
+        // Assert exception
+        assertThrows(PaymentUnavailableException.class, () -> payPalGateway.captureOrder(ORDER_ID));
+        assertEquals(1, this.captureRequests.get());
+
+        answer.countDown();
+        assertEquals("COMPLETED", inProgress.get(5, TimeUnit.SECONDS).status());
+    }
+
+    @Test
+    public void testAccessTokenRenewedAfterUnauthorized() {
+        PayPalGateway payPalGateway = createPayPalGateway();
+        AtomicInteger calls = new AtomicInteger();
+        this.captureHandler = exchange -> {
+            if (calls.incrementAndGet() == 1) {
+                reply(exchange, 401, "{\"error\":\"invalid_token\"}");
+            } else {
+                reply(exchange, 201, COMPLETED_ORDER);
+            }
+        };
+        assertThrows(OrderCaptureException.class, () -> payPalGateway.captureOrder(ORDER_ID));
+
+        // Method to be tested
+        Order order = payPalGateway.captureOrder(ORDER_ID);
+
+        // Assert result
+        assertEquals("COMPLETED", order.status());
+        assertEquals(2, this.tokenRequests.get());
+        assertEquals(List.of("Bearer TOKEN-1", "Bearer TOKEN-2"), this.captureAuthorizations);
+    }
+
+    @Test
+    public void testCaptureOrderFailureDueToTooManyRequests() {
+        PayPalGateway payPalGateway = createPayPalGateway();
+        this.captureHandler = exchange -> reply(exchange, 429, "{\"name\":\"RATE_LIMIT_REACHED\"}");
+
+        // Assert exception
+        assertThrows(PaymentUnavailableException.class, () -> payPalGateway.captureOrder(ORDER_ID));
+    }
+
+    @Test
+    public void testCaptureOrderFailureDueToServerError() {
+        PayPalGateway payPalGateway = createPayPalGateway();
+        this.captureHandler = exchange -> reply(exchange, 503, "{\"name\":\"SERVICE_UNAVAILABLE\"}");
+
+        // Assert exception
+        assertThrows(PaymentUnavailableException.class, () -> payPalGateway.captureOrder(ORDER_ID));
+    }
+
+    @Test
+    public void testCaptureOrderFailureDueToClientError() {
+        PayPalGateway payPalGateway = createPayPalGateway();
+        this.captureHandler = exchange -> reply(exchange, 422,
+                "{\"name\":\"UNPROCESSABLE_ENTITY\",\"details\":[{\"issue\":\"ORDER_NOT_APPROVED\"}]}");
+
+        // Assert exception
+        OrderCaptureException exception = assertThrows(OrderCaptureException.class, () -> payPalGateway.captureOrder(ORDER_ID));
+        assertEquals("ORDER_NOT_APPROVED", exception.getMessage());
+    }
+
+    @Test
+    public void testCaptureOrderFailsFastWhenCircuitIsOpen() {
+        this.payPalProperties.getCircuitBreaker().setFailureThreshold(2);
+        PayPalGateway payPalGateway = createPayPalGateway();
+        this.captureHandler = exchange -> reply(exchange, 500, "{\"name\":\"INTERNAL_SERVER_ERROR\"}");
+        assertThrows(PaymentUnavailableException.class, () -> payPalGateway.captureOrder(ORDER_ID));
+        assertThrows(PaymentUnavailableException.class, () -> payPalGateway.captureOrder(ORDER_ID));
+
+        // Assert exception
+        assertThrows(PaymentUnavailableException.class, () -> payPalGateway.captureOrder(ORDER_ID));
+        assertEquals(2, this.captureRequests.get());
+    }
+
+    private PayPalGateway createPayPalGateway() {
+        return new PayPalGateway(this.payPalProperties, new SimpleMeterRegistry());
+    }
+
+    private static void reply(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.ticket.shop.persistence;
+
+import com.ticket.shop.properties.ConnectionPoolHealthProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ConnectionPoolHealthIndicatorTest {
+
+    private MeterRegistry meterRegistry;
+    private ConnectionPoolHealthIndicator connectionPoolHealthIndicator;
+
+    private final static long THRESHOLD_MILLIS = 100;
+    private final static double PERCENTILE = 0.95;
+    private final static String PRIMARY_POOL = "primary";
+    private final static String REPLICA_POOL = "replica";
+
+    @BeforeEach
+    public void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        ConnectionPoolHealthProperties connectionPoolHealthProperties = new ConnectionPoolHealthProperties();
+        connectionPoolHealthProperties.setAcquireMillisThreshold(THRESHOLD_MILLIS);
+        connectionPoolHealthProperties.setAcquirePercentile(PERCENTILE);
+        this.connectionPoolHealthIndicator = new ConnectionPoolHealthIndicator(this.meterRegistry, connectionPoolHealthProperties);
+    }
+
+    @Test
+    public void testHealthWithoutPools() {
+        // Method to be tested
+        Health health = this.connectionPoolHealthIndicator.health();
+
+        // Assert result
+        assertEquals(Status.UP, health.getStatus());
+        assertTrue(health.getDetails().isEmpty());
+    }
+
+    @Test
+    public void testHealthUpWhenAcquireTimeIsUnderThreshold() {
+        Timer acquireTimer = registerPool(PRIMARY_POOL, false);
+        acquireTimer.record(Duration.ofMillis(THRESHOLD_MILLIS - 1));
+
+        // Method to be tested
+        Health health = this.connectionPoolHealthIndicator.health();
+
+        // Assert result
+        assertEquals(Status.UP, health.getStatus());
+    }
+
+    @Test
+    public void testHealthUpWhenAcquireTimeIsAtThreshold() {
+        Timer acquireTimer = registerPool(PRIMARY_POOL, false);
+        acquireTimer.record(Duration.ofMillis(THRESHOLD_MILLIS));
+
+        // Method to be tested
+        Health health = this.connectionPoolHealthIndicator.health();
+
+        // Assert result
+        assertEquals(Status.UP, health.getStatus());
+    }
+
+    @Test
+    public void testHealthDegradedWhenAcquireTimeIsOverThreshold() {
+        Timer acquireTimer = registerPool(PRIMARY_POOL, false);
+        acquireTimer.record(Duration.ofMillis(THRESHOLD_MILLIS + 1));
+
+        // Method to be tested
+        Health health = this.connectionPoolHealthIndicator.health();
+
+        // Assert result
+        assertEquals(ConnectionPoolHealthIndicator.DEGRADED, health.getStatus());
+    }
+
+    @Test
+    public void testHealthUsesPublishedPercentileOverMax() {
+        Timer acquireTimer = registerPool(PRIMARY_POOL, true);
+        // A few slow acquisitions above the percentile don't degrade the pool
+        for (int i = 0; i < 99; i++) {
+            acquireTimer.record(Duration.ofMillis(5));
+        }
+        acquireTimer.record(Duration.ofSeconds(2));
+
+        // Method to be tested
+        Health health = this.connectionPoolHealthIndicator.health();
+
+        // Assert result
+        assertEquals(Status.UP, health.getStatus());
+        assertTrue((double) getPoolDetails(health, PRIMARY_POOL).get("acquireMillis") < THRESHOLD_MILLIS);
+    }
+
+    @Test
+    public void testHealthDegradedWhenPublishedPercentileIsOverThreshold() {
+        Timer acquireTimer = registerPool(PRIMARY_POOL, true);
+        // Requests queue for connections most of the time
+        for (int i = 0; i < 100; i++) {
+            acquireTimer.record(Duration.ofMillis(THRESHOLD_MILLIS * 5));
+        }
+
+        // Method to be tested
+        Health health = this.connectionPoolHealthIndicator.health();
+
+        // Assert result
+        assertEquals(ConnectionPoolHealthIndicator.DEGRADED, health.getStatus());
+    }
+
+    @Test
+    public void testHealthDegradedWhenAnyPoolIsDegraded() {
+        registerPool(PRIMARY_POOL, false).record(Duration.ofMillis(1));
+        registerPool(REPLICA_POOL, false).record(Duration.ofMillis(THRESHOLD_MILLIS * 5));
+
+        // Method to be tested
+        Health health = this.connectionPoolHealthIndicator.health();
+
+        // Assert result
+        assertEquals(ConnectionPoolHealthIndicator.DEGRADED, health.getStatus());
+        assertEquals(Set.of(PRIMARY_POOL, REPLICA_POOL), health.getDetails().keySet());
+    }
+
+    @Test
+    public void testHealthDetailsReportPoolUsage() {
+        registerPool(PRIMARY_POOL, false).record(Duration.ofMillis(THRESHOLD_MILLIS * 5));
+        Counter.builder("hikaricp.connections.timeout").tag("pool", PRIMARY_POOL).register(this.meterRegistry).increment(3);
+
+        // Method to be tested
+        Health health = this.connectionPoolHealthIndicator.health();
+
+        // Assert result
+        Map<String, Object> details = getPoolDetails(health, PRIMARY_POOL);
+        assertEquals(10.0, details.get("active"));
+        assertEquals(0.0, details.get("idle"));
+        assertEquals(4.0, details.get("pending"));
+        assertEquals(10.0, details.get("max"));
+        assertEquals((double) THRESHOLD_MILLIS * 5, details.get("acquireMillis"));
+        assertEquals(3.0, details.get("timeouts"));
+    }
+
+    /**
+     * Register the meters hikari publishes for a pool, with every connection in use and threads waiting for one
+     *
+     * @param pool               pool name
+     * @param publishPercentiles true to publish the acquire time percentile, otherwise the window max is used
+     * @return acquire time {@link Timer} of the pool
+     */
+    private Timer registerPool(String pool, boolean publishPercentiles) {
+        Gauge.builder("hikaricp.connections.active", () -> 10).tag("pool", pool).register(this.meterRegistry);
+        Gauge.builder("hikaricp.connections.idle", () -> 0).tag("pool", pool).register(this.meterRegistry);
+        Gauge.builder("hikaricp.connections.pending", () -> 4).tag("pool", pool).register(this.meterRegistry);
+        Gauge.builder("hikaricp.connections.max", () -> 10).tag("pool", pool).register(this.meterRegistry);
+
+        Timer.Builder acquireTimer = Timer.builder("hikaricp.connections.acquire").tag("pool", pool);
+        if (publishPercentiles) {
+            acquireTimer.publishPercentiles(PERCENTILE);
+        }
+        return acquireTimer.register(this.meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getPoolDetails(Health health, String pool) {
+        return (Map<String, Object>) health.getDetails().get(pool);
+    }
+}
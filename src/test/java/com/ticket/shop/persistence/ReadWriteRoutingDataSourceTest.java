@@ -0,0 +1,142 @@
+package com.ticket.shop.persistence;
+
+import com.ticket.shop.persistence.ReadWriteRoutingDataSource.Route;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primaryDataSource;
+
+    @Mock
+    private DataSource replicaDataSource;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    private final static String REPLICA_READ = "com.ticket.shop.service.CountryServiceImp.getCountryList";
+    private final static String PRIMARY_READ = "com.ticket.shop.service.CustomerServiceImp.getCustomerById";
+    private final static String REPOSITORY_READ = "org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById";
+
+    @BeforeEach
+    public void setUp() {
+        this.routingDataSource = new ReadWriteRoutingDataSource(this.primaryDataSource, this.replicaDataSource);
+        this.routingDataSource.afterPropertiesSet();
+        this.routingDataSource.setReplicaAvailable(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    public void testReadOnlyReplicaReadGoesToReplica() {
+        // Mocks
+        startTransaction(REPLICA_READ, true);
+
+        // Method to be tested
+        Object route = this.routingDataSource.determineCurrentLookupKey();
+
+        // Assert result
+        assertEquals(Route.REPLICA, route);
+    }
+
+    @Test
+    public void testReadOnlyReplicaReadTakesReplicaConnection() throws SQLException {
+        // Mocks
+        startTransaction(REPLICA_READ, true);
+        when(this.replicaDataSource.getConnection()).thenReturn(this.replicaConnection);
+
+        // Method to be tested
+        Connection connection = this.routingDataSource.getConnection();
+
+        // Assert result
+        assertSame(this.replicaConnection, connection);
+        verify(this.primaryDataSource, never()).getConnection();
+    }
+
+    @Test
+    public void testReadWriteReplicaReadGoesToPrimary() {
+        // Mocks
+        startTransaction(REPLICA_READ, false);
+
+        // Method to be tested
+        Object route = this.routingDataSource.determineCurrentLookupKey();
+
+        // Assert result
+        assertEquals(Route.PRIMARY, route);
+    }
+
+    @Test
+    public void testReadOnlyServiceReadWithoutReplicaReadGoesToPrimary() {
+        // Mocks
+        startTransaction(PRIMARY_READ, true);
+
+        // Method to be tested
+        Object route = this.routingDataSource.determineCurrentLookupKey();
+
+        // Assert result
+        assertEquals(Route.PRIMARY, route);
+    }
+
+    @Test
+    public void testReadOnlyRepositoryReadGoesToPrimary() {
+        // Mocks
+        startTransaction(REPOSITORY_READ, true);
+
+        // Method to be tested
+        Object route = this.routingDataSource.determineCurrentLookupKey();
+
+        // Assert result
+        assertEquals(Route.PRIMARY, route);
+    }
+
+    @Test
+    public void testUnknownTransactionNameGoesToPrimary() {
+        // Mocks
+        startTransaction("com.ticket.shop.service.MissingServiceImp.getAll", true);
+
+        // Method to be tested
+        Object route = this.routingDataSource.determineCurrentLookupKey();
+
+        // Assert result
+        assertEquals(Route.PRIMARY, route);
+    }
+
+    @Test
+    public void testReplicaReadGoesToPrimaryWhileReplicaUnavailable() {
+        // Mocks
+        startTransaction(REPLICA_READ, true);
+        this.routingDataSource.setReplicaAvailable(false);
+
+        // Method to be tested
+        Object route = this.routingDataSource.determineCurrentLookupKey();
+
+        // Assert result
+        assertEquals(Route.PRIMARY, route);
+    }
+
+    private static void startTransaction(String name, boolean readOnly) {
+        TransactionSynchronizationManager.setCurrentTransactionName(name);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
@@ -0,0 +1,126 @@
+package com.ticket.shop.persistence;
+
+import com.ticket.shop.properties.ReplicaRoutingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class ReplicaLagMonitorTest {
+
+    @Mock
+    private DataSource primaryDataSource;
+
+    @Mock
+    private DataSource replicaDataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Mock
+    private ResultSetMetaData resultSetMetaData;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private final static long MAX_LAG_MILLIS = 5000;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        ReplicaRoutingProperties replicaRoutingProperties = new ReplicaRoutingProperties();
+        replicaRoutingProperties.setMaxLagMillis(MAX_LAG_MILLIS);
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.routingDataSource = new ReadWriteRoutingDataSource(this.primaryDataSource, this.replicaDataSource);
+        this.replicaLagMonitor = new ReplicaLagMonitor(this.routingDataSource, this.replicaDataSource, replicaRoutingProperties, this.meterRegistry);
+
+        // Mocks
+        when(this.replicaDataSource.getConnection()).thenReturn(this.connection);
+        when(this.connection.createStatement()).thenReturn(this.statement);
+        when(this.statement.executeQuery(anyString())).thenReturn(this.resultSet);
+        when(this.resultSet.getMetaData()).thenReturn(this.resultSetMetaData);
+        when(this.resultSetMetaData.getColumnCount()).thenReturn(1);
+    }
+
+    @Test
+    public void testReplicaWithinThresholdIsAvailable() throws SQLException {
+        // Mocks
+        mockLag(100);
+
+        // Method to be tested
+        this.replicaLagMonitor.checkReplicaLag();
+
+        // Assert result
+        assertTrue(this.routingDataSource.isReplicaAvailable());
+        assertEquals(100, this.meterRegistry.get("datasource.replica.lag").gauge().value());
+    }
+
+    @Test
+    public void testReplicaFallsBackAboveThresholdAndRecovers() throws SQLException {
+        // Mocks
+        mockLag(100);
+        this.replicaLagMonitor.checkReplicaLag();
+        mockLag(MAX_LAG_MILLIS + 1);
+
+        // Method to be tested
+        this.replicaLagMonitor.checkReplicaLag();
+
+        // Assert result
+        assertFalse(this.routingDataSource.isReplicaAvailable());
+        assertEquals(0, this.meterRegistry.get("datasource.replica.available").gauge().value());
+
+        // Replica caught up
+        mockLag(MAX_LAG_MILLIS);
+        this.replicaLagMonitor.checkReplicaLag();
+        assertTrue(this.routingDataSource.isReplicaAvailable());
+        assertEquals(1, this.meterRegistry.get("datasource.replica.available").gauge().value());
+    }
+
+    @Test
+    public void testUnreachableReplicaFallsBackAndRecovers() throws SQLException {
+        // Mocks
+        mockLag(100);
+        this.replicaLagMonitor.checkReplicaLag();
+        when(this.replicaDataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // Method to be tested
+        this.replicaLagMonitor.checkReplicaLag();
+
+        // Assert result
+        assertFalse(this.routingDataSource.isReplicaAvailable());
+        assertTrue(Double.isNaN(this.meterRegistry.get("datasource.replica.lag").gauge().value()));
+
+        // Replica reachable again
+        doReturn(this.connection).when(this.replicaDataSource).getConnection();
+        mockLag(100);
+        this.replicaLagMonitor.checkReplicaLag();
+        assertTrue(this.routingDataSource.isReplicaAvailable());
+    }
+
+    private void mockLag(double lagMillis) throws SQLException {
+        when(this.resultSet.next()).thenReturn(true, false);
+        when(this.resultSet.getDouble(1)).thenReturn(lagMillis);
+    }
+}
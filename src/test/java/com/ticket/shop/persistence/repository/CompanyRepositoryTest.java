@@ -0,0 +1,77 @@
+package com.ticket.shop.persistence.repository;
+
+import com.ticket.shop.persistence.projection.CompanyConflictProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against the database, every test is rolled back
+ */
+@SpringBootTest
+@Transactional
+public class CompanyRepositoryTest {
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long companyId;
+
+    private final static String NAME = "Repository Test Company";
+    private final static String EMAIL = "repository@test-company.com";
+    private final static String WEBSITE = "repository.test-company.com";
+    private final static String OTHER_NAME = "Other Repository Test Company";
+    private final static String OTHER_EMAIL = "other@test-company.com";
+    private final static String OTHER_WEBSITE = "other.test-company.com";
+
+    @BeforeEach
+    public void setUp() {
+        this.companyId = insertCompany(NAME, EMAIL, WEBSITE);
+        insertCompany(OTHER_NAME, OTHER_EMAIL, OTHER_WEBSITE);
+    }
+
+    /**
+     * Find Conflicts With Other Companies Tests
+     */
+    @Test
+    public void testFindConflictsWithOtherCompaniesIgnoresTheCompanyItself() {
+        // Method to be tested
+        CompanyConflictProjection conflicts = this.companyRepository.findConflictsWithOtherCompanies(
+                this.companyId, NAME, EMAIL, WEBSITE);
+
+        // Assert result
+        assertFalse(conflicts.isNameTaken());
+        assertFalse(conflicts.isEmailTaken());
+        assertFalse(conflicts.isWebsiteTaken());
+    }
+
+    @Test
+    public void testFindConflictsWithOtherCompaniesIgnoringCase() {
+        // Method to be tested
+        CompanyConflictProjection conflicts = this.companyRepository.findConflictsWithOtherCompanies(
+                this.companyId, NAME, OTHER_EMAIL.toUpperCase(), WEBSITE);
+
+        // Assert result
+        assertFalse(conflicts.isNameTaken());
+        assertTrue(conflicts.isEmailTaken());
+        assertFalse(conflicts.isWebsiteTaken());
+    }
+
+    private Long insertCompany(String name, String email, String website) {
+        Long addressId = this.jdbcTemplate.queryForObject("select min(address_id) from addresses", Long.class);
+        return this.jdbcTemplate.queryForObject("""
+                        insert into companies (name, email, website, address_id, created_at, updated_at)
+                        values (?, ?, ?, ?, now(), now())
+                        returning company_id""",
+                Long.class, name, email, website, addressId);
+    }
+}
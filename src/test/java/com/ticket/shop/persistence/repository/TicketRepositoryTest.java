@@ -0,0 +1,240 @@
+package com.ticket.shop.persistence.repository;
+
+import com.ticket.shop.persistence.projection.CustomerTicketProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against the database, every test is rolled back
+ */
+@SpringBootTest
+@Transactional
+public class TicketRepositoryTest {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long calendarId;
+    private Long companyId;
+
+    private final static String PAYPAL_ORDER_ID = "TEST-ORDER";
+    private final static Timestamp BACKDATED = Timestamp.valueOf("2000-01-01 10:00:00");
+    private final static Double PRICE_PAID = 12.5;
+    private final static Timestamp FAR_FUTURE = Timestamp.valueOf("2999-01-01 10:00:00");
+
+    @BeforeEach
+    public void setUp() {
+        Map<String, Object> calendar = this.jdbcTemplate.queryForMap("select calendar_id, company_id from calendars order by calendar_id limit 1");
+        this.calendarId = ((Number) calendar.get("calendar_id")).longValue();
+        this.companyId = ((Number) calendar.get("company_id")).longValue();
+    }
+
+    /**
+     * Check-in Manifest Version Tests
+     */
+    @Test
+    public void testSellingTicketsChangesManifestVersion() {
+        insertTicket("WAITING_PAYMENT");
+        long version = this.ticketRepository.findCheckInManifestVersion(this.calendarId, this.companyId);
+
+        // Method to be tested
+        this.ticketRepository.updateStatusByPaypalOrderId(PAYPAL_ORDER_ID);
+
+        // Assert result
+        assertNotEquals(version, this.ticketRepository.findCheckInManifestVersion(this.calendarId, this.companyId));
+    }
+
+    @Test
+    public void testCheckInChangesManifestVersion() {
+        Long ticketId = insertTicket("SOLD");
+        long version = this.ticketRepository.findCheckInManifestVersion(this.calendarId, this.companyId);
+
+        // Method to be tested
+        int checkedIn = this.ticketRepository.checkInTicket(ticketId, this.calendarId, this.companyId);
+
+        // Assert result
+        assertEquals(1, checkedIn);
+        assertNotEquals(version, this.ticketRepository.findCheckInManifestVersion(this.calendarId, this.companyId));
+    }
+
+    @Test
+    public void testBackdatedCheckInSyncChangesManifestVersion() {
+        // The ticket was sold after the time the gate scanned it offline
+        Long ticketId = insertTicket("SOLD");
+        long version = this.ticketRepository.findCheckInManifestVersion(this.calendarId, this.companyId);
+
+        // Method to be tested
+        List<Long> accepted = this.ticketRepository.bulkCheckInTickets(this.calendarId, this.companyId,
+                new Long[]{ticketId}, new Timestamp[]{BACKDATED});
+
+        // Assert result
+        assertEquals(List.of(ticketId), accepted);
+        assertNotEquals(version, this.ticketRepository.findCheckInManifestVersion(this.calendarId, this.companyId));
+    }
+
+    @Test
+    public void testCheckInSyncWithoutChangesKeepsManifestVersion() {
+        Long ticketId = insertTicket("SOLD");
+        this.ticketRepository.bulkCheckInTickets(this.calendarId, this.companyId, new Long[]{ticketId}, new Timestamp[]{BACKDATED});
+        long version = this.ticketRepository.findCheckInManifestVersion(this.calendarId, this.companyId);
+
+        // Method to be tested
+        List<Long> accepted = this.ticketRepository.bulkCheckInTickets(this.calendarId, this.companyId,
+                new Long[]{ticketId}, new Timestamp[]{BACKDATED});
+
+        // Assert result
+        assertEquals(List.of(), accepted);
+        assertEquals(version, this.ticketRepository.findCheckInManifestVersion(this.calendarId, this.companyId));
+    }
+
+    /**
+     * Reservation Tests
+     */
+    @Test
+    public void testClaimedTicketsAreHeld() {
+        insertTicket("AVAILABLE");
+        Long userId = this.jdbcTemplate.queryForObject("select min(user_id) from users", Long.class);
+
+        // Method to be tested
+        List<Long> claimed = this.ticketRepository.claimTickets(userId, PAYPAL_ORDER_ID, 900, new Long[]{this.calendarId},
+                new String[]{"GENERAL"}, new Integer[]{1}, new Double[]{PRICE_PAID});
+
+        // Assert result
+        assertEquals(1, claimed.size());
+        Timestamp reservedUntil = this.jdbcTemplate.queryForObject("select reserved_until from tickets where ticket_id = ?",
+                Timestamp.class, claimed.get(0));
+        assertTrue(reservedUntil.after(new Timestamp(System.currentTimeMillis())));
+        assertEquals(PRICE_PAID, this.jdbcTemplate.queryForObject("select price from tickets where ticket_id = ?",
+                Double.class, claimed.get(0)));
+    }
+
+    @Test
+    public void testReleaseExpiredReservations() {
+        Long expiredTicketId = insertReservedTicket(BACKDATED);
+        Long heldTicketId = insertReservedTicket(FAR_FUTURE);
+
+        // Method to be tested
+        List<Long> releasedCalendarIds = this.ticketRepository.releaseExpiredReservations(Integer.MAX_VALUE);
+
+        // Assert result
+        assertTrue(releasedCalendarIds.contains(this.calendarId));
+        assertEquals("AVAILABLE", getStatus(expiredTicketId));
+        assertEquals("WAITING_PAYMENT", getStatus(heldTicketId));
+    }
+
+    @Test
+    public void testExpiredReservationIsNotExtended() {
+        insertReservedTicket(BACKDATED);
+
+        // Method to be tested
+        int held = this.ticketRepository.extendReservationByPaypalOrderId(PAYPAL_ORDER_ID, 900);
+
+        // Assert result
+        assertEquals(0, held);
+    }
+
+    @Test
+    public void testHeldReservationIsExtended() {
+        insertReservedTicket(FAR_FUTURE);
+
+        // Method to be tested
+        int held = this.ticketRepository.extendReservationByPaypalOrderId(PAYPAL_ORDER_ID, 900);
+
+        // Assert result
+        assertEquals(1, held);
+    }
+
+    /**
+     * Customer Tickets Tests
+     */
+    @Test
+    public void testCustomerTicketsKeepThePricePaid() {
+        Long userId = this.jdbcTemplate.queryForObject("select min(user_id) from users", Long.class);
+        Long ticketId = insertTicket("SOLD");
+        this.jdbcTemplate.update("update tickets set user_id = ?, price = ? where ticket_id = ?", userId, PRICE_PAID, ticketId);
+        // The event price changes after the purchase
+        this.jdbcTemplate.update("""
+                        insert into prices (price, type, company_id, event_id, created_at)
+                        select ?, 'GENERAL', company_id, event_id, now() from calendars where calendar_id = ?""",
+                PRICE_PAID * 2, this.calendarId);
+
+        // Method to be tested
+        List<CustomerTicketProjection> tickets = this.ticketRepository.findCustomerTickets(userId, Integer.MAX_VALUE);
+
+        // Assert result
+        CustomerTicketProjection ticket = tickets.stream()
+                .filter(customerTicket -> customerTicket.getTicketId().equals(ticketId))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(PRICE_PAID, ticket.getPrice());
+    }
+
+    /**
+     * Checked In Tests
+     */
+    @Test
+    public void testIsTicketCheckedIn() {
+        Long ticketId = insertTicket("SOLD");
+        this.ticketRepository.checkInTicket(ticketId, this.calendarId, this.companyId);
+
+        // Method to be tested
+        boolean checkedIn = this.ticketRepository.isTicketCheckedIn(ticketId, this.calendarId, this.companyId);
+
+        // Assert result
+        assertTrue(checkedIn);
+    }
+
+    @Test
+    public void testIsTicketCheckedInOnlyOnItsCalendarAndCompany() {
+        Long ticketId = insertTicket("SOLD");
+        this.ticketRepository.checkInTicket(ticketId, this.calendarId, this.companyId);
+
+        // Assert result, another company scanning the ticket doesn't learn it was redeemed
+        assertFalse(this.ticketRepository.isTicketCheckedIn(ticketId, this.calendarId, this.companyId + 1));
+        assertFalse(this.ticketRepository.isTicketCheckedIn(ticketId, this.calendarId + 1, this.companyId));
+    }
+
+    @Test
+    public void testIsTicketCheckedInBeforeCheckIn() {
+        Long ticketId = insertTicket("SOLD");
+
+        // Assert result
+        assertFalse(this.ticketRepository.isTicketCheckedIn(ticketId, this.calendarId, this.companyId));
+    }
+
+    private Long insertReservedTicket(Timestamp reservedUntil) {
+        return this.jdbcTemplate.queryForObject("""
+                        insert into tickets (status, type, calendar_id, company_id, paypal_order_id, reserved_until)
+                        values ('WAITING_PAYMENT', 'GENERAL', ?, ?, ?, ?)
+                        returning ticket_id""",
+                Long.class, this.calendarId, this.companyId, PAYPAL_ORDER_ID, reservedUntil);
+    }
+
+    private String getStatus(Long ticketId) {
+        return this.jdbcTemplate.queryForObject("select status from tickets where ticket_id = ?", String.class, ticketId);
+    }
+
+    private Long insertTicket(String status) {
+        return this.jdbcTemplate.queryForObject("""
+                        insert into tickets (status, type, calendar_id, company_id, paypal_order_id, purchased_at)
+                        values (?, 'GENERAL', ?, ?, ?, now())
+                        returning ticket_id""",
+                Long.class, status, this.calendarId, this.companyId, PAYPAL_ORDER_ID);
+    }
+}
@@ -0,0 +1,124 @@
+package com.ticket.shop.security;
+
+import com.ticket.shop.exception.auth.PasswordHashingUnavailableException;
+import com.ticket.shop.properties.PasswordHashingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class PasswordHashingExecutorTest {
+
+    private final static long MAX_WAIT_MILLIS = 300;
+
+    private PasswordHashingProperties passwordHashingProperties;
+    private PasswordHashingExecutor passwordHashingExecutor;
+    // Holds the only pool thread until released
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setUp() {
+        this.passwordHashingProperties = new PasswordHashingProperties();
+        this.passwordHashingProperties.setThreads(1);
+        this.passwordHashingProperties.setQueueCapacity(1);
+        this.passwordHashingProperties.setMaxWaitMillis(MAX_WAIT_MILLIS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.released.countDown();
+        this.passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    public void testExecuteRejectedWhenQueueIsFull() throws InterruptedException {
+        this.passwordHashingProperties.setMaxWaitMillis(10_000);
+        this.passwordHashingExecutor = new PasswordHashingExecutor(this.passwordHashingProperties, new SimpleMeterRegistry());
+        occupyPoolThread();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> this.passwordHashingExecutor.execute(() -> "hash"));
+        waitUntilQueued();
+
+        // Assert exception
+        assertThrows(PasswordHashingUnavailableException.class, () -> this.passwordHashingExecutor.execute(() -> "hash"));
+
+        this.released.countDown();
+        assertEquals("hash", queued.join());
+    }
+
+    @Test
+    public void testTimedOutHashIsRemovedFromTheQueue() throws InterruptedException {
+        this.passwordHashingExecutor = new PasswordHashingExecutor(this.passwordHashingProperties, new SimpleMeterRegistry());
+        occupyPoolThread();
+        AtomicBoolean hashed = new AtomicBoolean();
+
+        // Assert exception
+        assertThrows(PasswordHashingUnavailableException.class, () -> this.passwordHashingExecutor.execute(() -> hashed.getAndSet(true)));
+
+        // The queue slot is free at once and the abandoned hash never runs
+        CompletableFuture<String> next = CompletableFuture.supplyAsync(() -> this.passwordHashingExecutor.execute(() -> "hash"));
+        this.released.countDown();
+        assertEquals("hash", next.join());
+        assertFalse(hashed.get());
+    }
+
+    @Test
+    public void testExecuteRejectedAtSubmitWhenQueuedHashesTakeTooLong() throws Exception {
+        // Room left in the queue, the rejection comes from the expected wait
+        this.passwordHashingProperties.setQueueCapacity(2);
+        this.passwordHashingExecutor = new PasswordHashingExecutor(this.passwordHashingProperties, new SimpleMeterRegistry());
+        // Hashes take two thirds of the maximum wait, so a hash queued behind a running one can't make it
+        this.passwordHashingExecutor.execute(() -> sleep(MAX_WAIT_MILLIS * 2 / 3));
+        occupyPoolThread();
+        CompletableFuture<Object> queued = CompletableFuture.supplyAsync(() -> this.passwordHashingExecutor.execute(() -> "hash"));
+        waitUntilQueued();
+
+        // Assert exception
+        long startedAt = System.nanoTime();
+        assertThrows(PasswordHashingUnavailableException.class, () -> this.passwordHashingExecutor.execute(() -> "hash"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < MAX_WAIT_MILLIS);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingUnavailableException.class, exception.getCause());
+    }
+
+    private void occupyPoolThread() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        assertTrue(this.passwordHashingExecutor.submit(() -> {
+            started.countDown();
+            try {
+                this.released.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    private void waitUntilQueued() throws InterruptedException {
+        // Queued hashes can't be observed from outside the executor
+        Thread.sleep(100);
+    }
+
+    private static String sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "hash";
+    }
+}
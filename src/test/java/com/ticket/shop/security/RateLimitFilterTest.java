@@ -0,0 +1,235 @@
+package com.ticket.shop.security;
+
+import com.ticket.shop.command.auth.PrincipalDto;
+import com.ticket.shop.enumerators.UserRole;
+import com.ticket.shop.exception.RateLimitExceededException;
+import com.ticket.shop.properties.RateLimitProperties;
+import com.ticket.shop.properties.RateLimitProperties.Budget;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "ticket-shop.rate-limit.enabled=false")
+public class RateLimitFilterTest {
+
+    @Autowired
+    private FilterChainProxy filterChainProxy;
+
+    private RateLimitProperties rateLimitProperties;
+
+    // Each route class gets a different burst, so the count of allowed requests tells the class apart
+    private final static int LOGIN_BURST = 1;
+    private final static int REFRESH_BURST = 2;
+    private final static int ORDERS_BURST = 3;
+    private final static int READS_BURST = 4;
+    // Refills once an hour, nothing comes back during the test
+    private final static double PER_SECOND = 1.0 / 3600;
+    private final static int MAX_REQUESTS = 10;
+    private final static String IP = "10.0.0.1";
+    private final static String OTHER_IP = "10.0.0.2";
+    private final static String READ_PATH = "/api/events";
+
+    @BeforeEach
+    public void setUp() {
+        this.rateLimitProperties = new RateLimitProperties();
+        this.rateLimitProperties.setLogin(new Budget(LOGIN_BURST, PER_SECOND));
+        this.rateLimitProperties.setRefresh(new Budget(REFRESH_BURST, PER_SECOND));
+        this.rateLimitProperties.setOrders(new Budget(ORDERS_BURST, PER_SECOND));
+        this.rateLimitProperties.setReads(new Budget(READS_BURST, PER_SECOND));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Route Classification Tests
+     */
+    @Test
+    public void testCredentialRoutesUseLoginBudget() throws ServletException, IOException {
+        assertEquals(LOGIN_BURST, countAllowed("POST", "/api/auth/login"));
+        assertEquals(LOGIN_BURST, countAllowed("POST", "/api/customers"));
+        assertEquals(LOGIN_BURST, countAllowed("PUT", "/api/auth/reset-password"));
+        assertEquals(LOGIN_BURST, countAllowed("PUT", "/api/auth/reset-password/complete"));
+        // Trailing slashes reach the same handlers
+        assertEquals(LOGIN_BURST, countAllowed("POST", "/api/auth/login/"));
+    }
+
+    @Test
+    public void testRefreshRoutesUseRefreshBudget() throws ServletException, IOException {
+        assertEquals(REFRESH_BURST, countAllowed("POST", "/api/auth/refresh"));
+        assertEquals(REFRESH_BURST, countAllowed("POST", "/api/auth/logout"));
+    }
+
+    @Test
+    public void testOrderRoutesUseOrdersBudget() throws ServletException, IOException {
+        assertEquals(ORDERS_BURST, countAllowed("POST", "/api/paypal/orders"));
+        assertEquals(ORDERS_BURST, countAllowed("POST", "/api/paypal/orders/ORDER-1/capture"));
+    }
+
+    @Test
+    public void testGetRoutesUseReadsBudget() throws ServletException, IOException {
+        assertEquals(READS_BURST, countAllowed("GET", READ_PATH));
+        assertEquals(READS_BURST, countAllowed("GET", "/api/customers"));
+    }
+
+    @Test
+    public void testOtherRoutesAreNotLimited() throws ServletException, IOException {
+        assertEquals(MAX_REQUESTS, countAllowed("PUT", "/api/companies/1"));
+        assertEquals(MAX_REQUESTS, countAllowed("DELETE", "/api/customers/1"));
+    }
+
+    @Test
+    public void testRouteClassesHaveTheirOwnBudget() throws ServletException, IOException {
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(this.rateLimitProperties);
+        assertNull(doFilter(rateLimitFilter, "POST", "/api/auth/login", IP));
+        assertNotNull(doFilter(rateLimitFilter, "POST", "/api/customers", IP));
+
+        // Assert result
+        assertNull(doFilter(rateLimitFilter, "POST", "/api/auth/refresh", IP));
+        assertNull(doFilter(rateLimitFilter, "GET", READ_PATH, IP));
+    }
+
+    /**
+     * Too Many Requests Response Tests
+     */
+    @Test
+    public void testRejectedRequestGetsRetryAfter() throws ServletException, IOException {
+        // A login every minute once the burst is spent
+        this.rateLimitProperties.setLogin(new Budget(LOGIN_BURST, 1.0 / 60));
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(this.rateLimitProperties);
+        assertNull(doFilter(rateLimitFilter, "POST", "/api/auth/login", IP));
+
+        // Method to be tested
+        MockHttpServletResponse response = doFilter(rateLimitFilter, "POST", "/api/auth/login", IP);
+
+        // Assert result
+        assertNotNull(response);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertEquals("60", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(response.getContentAsString().contains(RateLimitExceededException.class.getSimpleName()));
+    }
+
+    /**
+     * Client Key Tests
+     */
+    @Test
+    public void testAnonymousRequestsAreLimitedByIp() throws ServletException, IOException {
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(this.rateLimitProperties);
+        spendReads(rateLimitFilter, IP);
+
+        // Assert result
+        assertNotNull(doFilter(rateLimitFilter, "GET", READ_PATH, IP));
+        assertNull(doFilter(rateLimitFilter, "GET", READ_PATH, OTHER_IP));
+    }
+
+    @Test
+    public void testAuthenticatedRequestsAreLimitedByUser() throws ServletException, IOException {
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(this.rateLimitProperties);
+        authenticate(1L);
+        spendReads(rateLimitFilter, IP);
+
+        // Assert result
+        // The same user from another IP shares the budget
+        assertNotNull(doFilter(rateLimitFilter, "GET", READ_PATH, OTHER_IP));
+        // Another user and anonymous clients behind the same IP don't
+        authenticate(2L);
+        assertNull(doFilter(rateLimitFilter, "GET", READ_PATH, IP));
+        SecurityContextHolder.clearContext();
+        assertNull(doFilter(rateLimitFilter, "GET", READ_PATH, IP));
+    }
+
+    @Test
+    public void testCredentialRequestsAreLimitedByIpWhenAuthenticated() throws ServletException, IOException {
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(this.rateLimitProperties);
+        authenticate(1L);
+        assertNull(doFilter(rateLimitFilter, "POST", "/api/auth/login", IP));
+
+        // Assert result
+        authenticate(2L);
+        assertNotNull(doFilter(rateLimitFilter, "POST", "/api/auth/login", IP));
+    }
+
+    /**
+     * Disabled Rate Limit Tests
+     */
+    @Test
+    public void testDisabledRateLimitLetsEverythingThrough() {
+        // Assert result
+        assertTrue(this.filterChainProxy.getFilterChains().stream()
+                .flatMap(chain -> chain.getFilters().stream())
+                .noneMatch(RateLimitFilter.class::isInstance));
+    }
+
+    /**
+     * Count the requests allowed to a fresh filter before the first rejection
+     *
+     * @param method request method
+     * @param path   request path
+     * @return allowed requests, at most {@link #MAX_REQUESTS}
+     */
+    private int countAllowed(String method, String path) throws ServletException, IOException {
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(this.rateLimitProperties);
+        int allowed = 0;
+        while (allowed < MAX_REQUESTS && doFilter(rateLimitFilter, method, path, IP) == null) {
+            allowed++;
+        }
+        return allowed;
+    }
+
+    private void spendReads(RateLimitFilter rateLimitFilter, String remoteAddr) throws ServletException, IOException {
+        for (int i = 0; i < READS_BURST; i++) {
+            assertNull(doFilter(rateLimitFilter, "GET", READ_PATH, remoteAddr));
+        }
+    }
+
+    /**
+     * Run a request through the filter
+     *
+     * @return the rejected response, or null if the request went down the chain
+     */
+    private MockHttpServletResponse doFilter(RateLimitFilter rateLimitFilter, String method, String path, String remoteAddr)
+            throws ServletException, IOException {
+
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        rateLimitFilter.doFilter(request, response, filterChain);
+
+        return filterChain.getRequest() == null ? response : null;
+    }
+
+    private void authenticate(Long userId) {
+        PrincipalDto principal = PrincipalDto.builder()
+                .userId(userId)
+                .roles(Set.of(UserRole.CUSTOMER))
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null,
+                List.of(new SimpleGrantedAuthority(UserRole.CUSTOMER.name()))));
+    }
+}
@@ -0,0 +1,79 @@
+package com.ticket.shop.security;
+
+import com.ticket.shop.properties.RateLimitProperties.Budget;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class RateLimiterTest {
+
+    private final static int BUCKETS = 65_536;
+    private final static long KEY = 42L;
+    private final static long OTHER_KEY = 43L;
+
+    @Test
+    public void testTryAcquireAllowsBurstThenRejects() {
+        // Refills once a minute, nothing comes back during the test
+        RateLimiter rateLimiter = new RateLimiter(new Budget(3, 1.0 / 60), BUCKETS);
+
+        // Method to be tested
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(KEY));
+        }
+
+        // Assert result
+        long waitNanos = rateLimiter.tryAcquire(KEY);
+        assertTrue(waitNanos > 0);
+        assertTrue(waitNanos <= TimeUnit.SECONDS.toNanos(60));
+    }
+
+    @Test
+    public void testTryAcquireRefillsAfterEmissionInterval() throws InterruptedException {
+        // A request every 100 milliseconds once the burst is spent
+        RateLimiter rateLimiter = new RateLimiter(new Budget(1, 10), BUCKETS);
+        assertEquals(0, rateLimiter.tryAcquire(KEY));
+        long waitNanos = rateLimiter.tryAcquire(KEY);
+        assertTrue(waitNanos > 0);
+        assertTrue(waitNanos <= TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Method to be tested
+        TimeUnit.NANOSECONDS.sleep(waitNanos + TimeUnit.MILLISECONDS.toNanos(5));
+
+        // Assert result
+        assertEquals(0, rateLimiter.tryAcquire(KEY));
+        assertTrue(rateLimiter.tryAcquire(KEY) > 0);
+    }
+
+    @Test
+    public void testTryAcquireRejectedRequestsDoNotSpendTheBudget() throws InterruptedException {
+        RateLimiter rateLimiter = new RateLimiter(new Budget(1, 10), BUCKETS);
+        assertEquals(0, rateLimiter.tryAcquire(KEY));
+        long waitNanos = rateLimiter.tryAcquire(KEY);
+
+        // Method to be tested
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimiter.tryAcquire(KEY) > 0);
+        }
+        TimeUnit.NANOSECONDS.sleep(waitNanos + TimeUnit.MILLISECONDS.toNanos(5));
+
+        // Assert result
+        assertEquals(0, rateLimiter.tryAcquire(KEY));
+    }
+
+    @Test
+    public void testTryAcquireKeysHaveTheirOwnBudget() {
+        RateLimiter rateLimiter = new RateLimiter(new Budget(1, 1.0 / 60), BUCKETS);
+
+        // Method to be tested
+        assertEquals(0, rateLimiter.tryAcquire(KEY));
+
+        // Assert result
+        assertTrue(rateLimiter.tryAcquire(KEY) > 0);
+        assertEquals(0, rateLimiter.tryAcquire(OTHER_KEY));
+    }
+}
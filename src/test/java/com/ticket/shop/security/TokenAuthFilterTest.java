@@ -0,0 +1,192 @@
+package com.ticket.shop.security;
+
+import com.ticket.shop.command.auth.PrincipalDto;
+import com.ticket.shop.enumerators.UserRole;
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.auth.InvalidTokenException;
+import com.ticket.shop.service.AuthService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import java.io.IOException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class TokenAuthFilterTest {
+
+    @Mock
+    private AuthService authService;
+
+    private TokenAuthFilter tokenAuthFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private MockFilterChain filterChain;
+
+    private final static String BEARER_TOKEN = "bearer.token";
+    private final static String COOKIE_TOKEN = "cookie.token";
+    private final static Long USER_ID = 7L;
+    private final static Long COMPANY_ID = 3L;
+
+    @BeforeEach
+    public void setUp() {
+        this.tokenAuthFilter = new TokenAuthFilter(new UserAuthenticationProvider(this.authService));
+        this.request = new MockHttpServletRequest("GET", "/api/events");
+        this.response = new MockHttpServletResponse();
+        this.filterChain = new MockFilterChain();
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Bearer Token Tests
+     */
+    @Test
+    public void testValidBearerTokenPopulatesSecurityContext() throws ServletException, IOException {
+        // Mocks
+        when(this.authService.validateToken(BEARER_TOKEN)).thenReturn(getMockedPrincipal());
+        this.request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + BEARER_TOKEN);
+
+        // Method to be tested
+        this.tokenAuthFilter.doFilter(this.request, this.response, this.filterChain);
+
+        // Assert result
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(getMockedPrincipal(), authentication.getPrincipal());
+        assertEquals(Set.of(UserRole.COMPANY_ADMIN.name(), UserRole.WORKER.name()),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+        assertEquals(BEARER_TOKEN, this.request.getAttribute(TokenAuthFilter.TOKEN_ATTRIBUTE));
+        assertNotNull(this.filterChain.getRequest());
+    }
+
+    @Test
+    public void testBearerTokenTakesPrecedenceOverCookie() throws ServletException, IOException {
+        // Mocks
+        when(this.authService.validateToken(BEARER_TOKEN)).thenReturn(getMockedPrincipal());
+        this.request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + BEARER_TOKEN);
+        this.request.setCookies(new Cookie(TokenAuthFilter.COOKIE_NAME, COOKIE_TOKEN));
+
+        // Method to be tested
+        this.tokenAuthFilter.doFilter(this.request, this.response, this.filterChain);
+
+        // Assert result
+        verify(this.authService).validateToken(BEARER_TOKEN);
+        verify(this.authService, never()).validateToken(COOKIE_TOKEN);
+        assertEquals(BEARER_TOKEN, this.request.getAttribute(TokenAuthFilter.TOKEN_ATTRIBUTE));
+    }
+
+    @Test
+    public void testInvalidBearerTokenFailsTheRequest() {
+        // Mocks
+        when(this.authService.validateToken(BEARER_TOKEN)).thenThrow(new InvalidTokenException(ErrorMessages.INVALID_TOKEN));
+        this.request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + BEARER_TOKEN);
+        // A valid cookie doesn't rescue a bad bearer token
+        this.request.setCookies(new Cookie(TokenAuthFilter.COOKIE_NAME, COOKIE_TOKEN));
+
+        // Assert exception
+        assertThrows(InvalidTokenException.class,
+                () -> this.tokenAuthFilter.doFilter(this.request, this.response, this.filterChain));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNull(this.request.getAttribute(TokenAuthFilter.TOKEN_ATTRIBUTE));
+        assertNull(this.filterChain.getRequest());
+        verify(this.authService, never()).validateToken(COOKIE_TOKEN);
+    }
+
+    /**
+     * Cookie Tests
+     */
+    @Test
+    public void testValidCookiePopulatesSecurityContext() throws ServletException, IOException {
+        // Mocks
+        when(this.authService.validateToken(COOKIE_TOKEN)).thenReturn(getMockedPrincipal());
+        this.request.setCookies(new Cookie(TokenAuthFilter.COOKIE_NAME, COOKIE_TOKEN));
+
+        // Method to be tested
+        this.tokenAuthFilter.doFilter(this.request, this.response, this.filterChain);
+
+        // Assert result
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(getMockedPrincipal(), authentication.getPrincipal());
+        assertEquals(COOKIE_TOKEN, this.request.getAttribute(TokenAuthFilter.TOKEN_ATTRIBUTE));
+        assertNotNull(this.filterChain.getRequest());
+    }
+
+    @Test
+    public void testInvalidCookieFallsThroughAsAnonymous() throws ServletException, IOException {
+        // Mocks
+        when(this.authService.validateToken(COOKIE_TOKEN)).thenThrow(new InvalidTokenException(ErrorMessages.INVALID_TOKEN));
+        this.request.setCookies(new Cookie(TokenAuthFilter.COOKIE_NAME, COOKIE_TOKEN));
+
+        // Method to be tested
+        this.tokenAuthFilter.doFilter(this.request, this.response, this.filterChain);
+
+        // Assert result
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNull(this.request.getAttribute(TokenAuthFilter.TOKEN_ATTRIBUTE));
+        assertNotNull(this.filterChain.getRequest());
+    }
+
+    @Test
+    public void testMalformedAuthorizationHeaderFallsBackToCookie() throws ServletException, IOException {
+        // Mocks
+        when(this.authService.validateToken(COOKIE_TOKEN)).thenReturn(getMockedPrincipal());
+        this.request.addHeader(HttpHeaders.AUTHORIZATION, "Basic dXNlcjpwYXNz");
+        this.request.setCookies(new Cookie(TokenAuthFilter.COOKIE_NAME, COOKIE_TOKEN));
+
+        // Method to be tested
+        this.tokenAuthFilter.doFilter(this.request, this.response, this.filterChain);
+
+        // Assert result
+        assertEquals(COOKIE_TOKEN, this.request.getAttribute(TokenAuthFilter.TOKEN_ATTRIBUTE));
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void testNoCredentialsGoesOnAnonymous() throws ServletException, IOException {
+        // Method to be tested
+        this.tokenAuthFilter.doFilter(this.request, this.response, this.filterChain);
+
+        // Assert result
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(this.filterChain.getRequest());
+        verify(this.authService, never()).validateToken(any());
+    }
+
+    private PrincipalDto getMockedPrincipal() {
+        return PrincipalDto.builder()
+                .userId(USER_ID)
+                .name("worker")
+                .email("worker@service.com")
+                .roles(Set.of(UserRole.COMPANY_ADMIN, UserRole.WORKER))
+                .countryId(1L)
+                .companyId(COMPANY_ID)
+                .build();
+    }
+}
@@ -3,9 +3,13 @@ package com.ticket.shop.service;
 import com.ticket.shop.command.auth.CredentialsDto;
 import com.ticket.shop.command.auth.LoggedInDto;
 import com.ticket.shop.command.auth.PrincipalDto;
+import com.ticket.shop.command.auth.RefreshTokenDto;
 import com.ticket.shop.command.auth.ResetPasswordDto;
 import com.ticket.shop.command.auth.ResetPasswordTokenDto;
+import com.ticket.shop.enumerators.EmailTemplate;
 import com.ticket.shop.enumerators.UserRole;
+import com.ticket.shop.enumerators.VerificationTokenPurpose;
+import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.auth.InvalidTokenException;
 import com.ticket.shop.exception.auth.WrongCredentialsException;
@@ -14,16 +18,16 @@ import com.ticket.shop.persistence.entity.CountryEntity;
 import com.ticket.shop.persistence.entity.UserEntity;
 import com.ticket.shop.persistence.repository.UserRepository;
 import com.ticket.shop.properties.JwtProperties;
-import org.joda.time.DateTime;
+import com.ticket.shop.security.PasswordHashingExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Collections;
-import java.util.Date;
 import java.util.Optional;
 import java.util.Set;
 
@@ -31,7 +35,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -46,28 +53,48 @@ public class AuthServiceImpTest {
 
     @Mock
     private EmailServiceImp emailServiceImp;
+
+    @Mock
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Mock
+    private TokenDenyListServiceImp tokenDenyListServiceImp;
+
+    @Mock
+    private RefreshTokenServiceImp refreshTokenServiceImp;
+
+    @Mock
+    private VerificationTokenServiceImp verificationTokenServiceImp;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
     private AuthServiceImp authServiceImp;
+    private JwtProperties jwtProperties;
 
     private final static String FIRSTNAME = "User";
     private final static String LASTNAME = "Test";
     private final static String EMAIL = "user@service.com";
     private final static String PASSWORD = "Password123";
     private final static String ENCRYPTED_PASSWORD = "321drowssaP";
+    private final static String UPGRADED_ENCRYPTED_PASSWORD = "{bcrypt}321drowssaP";
     private final static Long USER_ID = 10L;
+    private final static Long COMPANY_ID = 3L;
     private final static Set<UserRole> USER_ROLE = Collections.singleton(UserRole.ADMIN);
     private final static String TOKEN = "ajdehjkahnsd";
-    private final static Date DATE_TOKEN = new DateTime().plusDays(4).toDate();
+    private final static String REFRESH_TOKEN = "cmVmcmVzaC10b2tlbg";
 
 
     @BeforeEach
     public void setUp() {
-        JwtProperties jwtProperties = new JwtProperties();
-        jwtProperties.setSecretKey("default");
-        jwtProperties.setExpiresInDays(100L);
-        this.authServiceImp = new AuthServiceImp(this.userRepository, this.passwordEncoder, jwtProperties, this.emailServiceImp);
+        this.jwtProperties = new JwtProperties();
+        this.jwtProperties.setSecretKey("default");
+        this.jwtProperties.setExpiresInDays(100L);
+        this.authServiceImp = new AuthServiceImp(this.userRepository, this.passwordEncoder, this.jwtProperties, this.emailServiceImp, this.passwordHashingExecutor,
+                this.tokenDenyListServiceImp, this.refreshTokenServiceImp, this.verificationTokenServiceImp, this.transactionManager);
 
         // Mocks
         when(this.passwordEncoder.encode(any())).thenReturn(ENCRYPTED_PASSWORD);
+        when(this.refreshTokenServiceImp.createRefreshToken(any())).thenReturn(REFRESH_TOKEN);
     }
 
     /**
@@ -87,6 +114,40 @@ public class AuthServiceImpTest {
         assertNotNull(loginUser);
         assertEquals(getMockedPrincipalDto(), loginUser.getPrincipal());
         assertNotNull(loginUser.getToken());
+        assertEquals(REFRESH_TOKEN, loginUser.getRefreshToken());
+    }
+
+    @Test
+    public void testLoginUserUpgradesPasswordHash() {
+        // Mocks
+        when(this.userRepository.findByEmail(any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.passwordEncoder.matches(any(), any())).thenReturn(true);
+        when(this.passwordEncoder.upgradeEncoding(ENCRYPTED_PASSWORD)).thenReturn(true);
+        when(this.passwordEncoder.encode(any())).thenReturn(UPGRADED_ENCRYPTED_PASSWORD);
+        when(this.passwordHashingExecutor.submit(any())).thenAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return true;
+        });
+
+        // Call method to be tested
+        this.authServiceImp.loginUser(getMockedCredentialsDto());
+
+        // Assert result
+        verify(this.userRepository).updateEncryptedPassword(USER_ID, ENCRYPTED_PASSWORD, UPGRADED_ENCRYPTED_PASSWORD);
+    }
+
+    @Test
+    public void testLoginUserKeepsCurrentPasswordHash() {
+        // Mocks
+        when(this.userRepository.findByEmail(any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.passwordEncoder.matches(any(), any())).thenReturn(true);
+        when(this.passwordEncoder.upgradeEncoding(any())).thenReturn(false);
+
+        // Call method to be tested
+        this.authServiceImp.loginUser(getMockedCredentialsDto());
+
+        // Assert result
+        verify(this.passwordHashingExecutor, never()).submit(any());
     }
 
     @Test
@@ -140,13 +201,98 @@ public class AuthServiceImpTest {
                 () -> this.authServiceImp.validateToken(token));
     }
 
+    @Test
+    public void testValidateStatelessTokenWithoutLoadingUser() {
+        this.jwtProperties.setStateless(true);
+        PrincipalDto principalDto = getMockedPrincipalDto();
+        principalDto.setCompanyId(COMPANY_ID);
+
+        String token = this.authServiceImp.generateJwtToken(principalDto);
+
+        // Call method to be tested
+        PrincipalDto validateToken = this.authServiceImp.validateToken(token);
+
+        // Assert result
+        assertEquals(principalDto, validateToken);
+        verify(this.userRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testValidateTokenFailureDueToRevokedToken() {
+        // Mocks
+        when(this.tokenDenyListServiceImp.isRevoked(any())).thenReturn(true);
+
+        String token = this.authServiceImp.generateJwtToken(getMockedPrincipalDto());
+
+        // Assert result
+        assertThrows(InvalidTokenException.class,
+                () -> this.authServiceImp.validateToken(token));
+        verify(this.userRepository, never()).findById(any());
+    }
+
+    /**
+     * Logout Tests
+     */
+    @Test
+    public void testLogoutRevokesToken() {
+        String token = this.authServiceImp.generateJwtToken(getMockedPrincipalDto());
+
+        // Call method to be tested
+        this.authServiceImp.logout(token, REFRESH_TOKEN);
+
+        // Assert result
+        verify(this.tokenDenyListServiceImp).revoke(any(), eq(USER_ID), any());
+        verify(this.refreshTokenServiceImp).revokeRefreshToken(REFRESH_TOKEN);
+    }
+
+    @Test
+    public void testLogoutWithRefreshTokenOnly() {
+        // Call method to be tested
+        this.authServiceImp.logout(null, REFRESH_TOKEN);
+
+        // Assert result
+        verify(this.refreshTokenServiceImp).revokeRefreshToken(REFRESH_TOKEN);
+        verify(this.tokenDenyListServiceImp, never()).revoke(any(), any(), any());
+    }
+
+    /**
+     * Refresh Token Tests
+     */
+    @Test
+    public void testRefreshTokenSuccessfully() {
+        // Mocks
+        when(this.refreshTokenServiceImp.rotateRefreshToken(REFRESH_TOKEN))
+                .thenReturn(RefreshTokenDto.builder().userId(USER_ID).refreshToken(REFRESH_TOKEN + 1).build());
+        when(this.userRepository.findById(USER_ID)).thenReturn(Optional.of(getMockedUserEntity()));
+
+        // Call method to be tested
+        LoggedInDto loggedIn = this.authServiceImp.refreshToken(REFRESH_TOKEN);
+
+        // Assert result
+        assertEquals(getMockedPrincipalDto(), loggedIn.getPrincipal());
+        assertEquals(REFRESH_TOKEN + 1, loggedIn.getRefreshToken());
+        assertEquals(getMockedPrincipalDto(), this.authServiceImp.validateToken(loggedIn.getToken()));
+    }
+
+    @Test
+    public void testRefreshTokenFailureDueToUserNotFound() {
+        // Mocks
+        when(this.refreshTokenServiceImp.rotateRefreshToken(REFRESH_TOKEN))
+                .thenReturn(RefreshTokenDto.builder().userId(USER_ID).refreshToken(REFRESH_TOKEN + 1).build());
+        when(this.userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+
+        // Assert exception
+        assertThrows(InvalidTokenException.class,
+                () -> this.authServiceImp.refreshToken(REFRESH_TOKEN));
+    }
+
     /**
      * Validate Reset Password Token Test
      */
     @Test
     public void testValidateResetPasswordTokenSuccessfully() {
         // Mocks
-        when(this.userRepository.findByResetPasswordTokenAndResetPasswordExpireTokenIsAfter(any(), any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.verificationTokenServiceImp.getUserByVerificationToken(TOKEN, VerificationTokenPurpose.RESET_PASSWORD)).thenReturn(getMockedUserEntity());
 
         // Call method to be tested
         ResetPasswordTokenDto resetPasswordTokenDto = this.authServiceImp.validateResetPasswordToken(TOKEN);
@@ -162,18 +308,20 @@ public class AuthServiceImpTest {
     @Test
     public void testResetPasswordSuccessfully() {
         // Mocks
-        when(this.userRepository.findByResetPasswordTokenAndResetPasswordExpireTokenIsAfter(any(), any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.verificationTokenServiceImp.getUserByVerificationToken(TOKEN, VerificationTokenPurpose.RESET_PASSWORD)).thenReturn(getMockedUserEntity());
         when(this.passwordEncoder.encode(any())).thenReturn(ENCRYPTED_PASSWORD);
 
         this.authServiceImp.resetPassword(TOKEN, getMockedResetPasswordDto());
 
         verify(this.userRepository).save(any());
+        verify(this.verificationTokenServiceImp).deleteVerificationTokens(USER_ID, VerificationTokenPurpose.RESET_PASSWORD);
+        verify(this.refreshTokenServiceImp).revokeUserRefreshTokens(USER_ID);
     }
 
     @Test
     public void testResetPasswordFailureDueToInvalidResetPasswordTokenException() {
         // Mocks
-        when(this.userRepository.findByResetPasswordTokenAndResetPasswordExpireTokenIsAfter(any(), any())).thenReturn(Optional.empty());
+        when(this.verificationTokenServiceImp.getUserByVerificationToken(TOKEN, VerificationTokenPurpose.RESET_PASSWORD)).thenThrow(new InvalidTokenException(ErrorMessages.INVALID_TOKEN));
 
         assertThrows(InvalidTokenException.class,
                 () -> this.authServiceImp.resetPassword(TOKEN, getMockedResetPasswordDto()));
@@ -182,7 +330,7 @@ public class AuthServiceImpTest {
     @Test
     public void testResetPasswordFailureDueToDatabaseConnectionFailure() {
         // Mocks
-        when(this.userRepository.findByResetPasswordTokenAndResetPasswordExpireTokenIsAfter(any(), any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.verificationTokenServiceImp.getUserByVerificationToken(TOKEN, VerificationTokenPurpose.RESET_PASSWORD)).thenReturn(getMockedUserEntity());
         doThrow(RuntimeException.class).when(this.userRepository).save(any());
 
         assertThrows(DatabaseCommunicationException.class,
@@ -197,21 +345,25 @@ public class AuthServiceImpTest {
         // Mocks
         when(this.userRepository.findByEmail(any())).thenReturn(Optional.of(getMockedUserEntity()));
 
+        when(this.verificationTokenServiceImp.createVerificationToken(any(), eq(VerificationTokenPurpose.RESET_PASSWORD), any())).thenReturn(TOKEN);
+
         // Call method to be tested
         this.authServiceImp.requestRecoverPassword(EMAIL);
 
         // Assert result
-        verify(this.userRepository).save(any());
+        verify(this.emailServiceImp).sendEmail(argThat(emailDto -> TOKEN.equals(emailDto.getResetPasswordToken())), eq(EmailTemplate.RESET_PASSWORD), any());
     }
 
     @Test
     public void testRequestResetPasswordFailureDueToDatabaseConnectionFailure() {
         // Mocks
         when(this.userRepository.findByEmail(any())).thenReturn(Optional.of(getMockedUserEntity()));
-        doThrow(RuntimeException.class).when(this.userRepository).save(any());
+        when(this.verificationTokenServiceImp.createVerificationToken(any(), any(), any()))
+                .thenThrow(new DatabaseCommunicationException(ErrorMessages.DATABASE_COMMUNICATION_ERROR, new RuntimeException()));
 
         assertThrows(DatabaseCommunicationException.class,
                 () -> this.authServiceImp.requestRecoverPassword(EMAIL));
+        verify(this.emailServiceImp, never()).sendEmail(any(), any(), any());
     }
 
     /**
@@ -220,23 +372,24 @@ public class AuthServiceImpTest {
     @Test
     public void testConfirmEmailSuccessfully() {
         // Mocks
-        when(this.userRepository.findByConfirmEmailTokenAndConfirmEmailExpireTokenIsAfter(any(), any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.verificationTokenServiceImp.getUserByVerificationToken(TOKEN, VerificationTokenPurpose.CONFIRM_EMAIL)).thenReturn(getMockedUserEntity());
 
         // Call method to be tested
-        this.authServiceImp.confirmEmail(EMAIL);
+        this.authServiceImp.confirmEmail(TOKEN);
 
         // Assert result
-        verify(this.userRepository).save(any());
+        verify(this.userRepository).save(argThat(UserEntity::isEmailConfirmed));
+        verify(this.verificationTokenServiceImp).deleteVerificationTokens(USER_ID, VerificationTokenPurpose.CONFIRM_EMAIL);
     }
 
     @Test
     public void testConfirmEmailFailureDueToDatabaseConnectionFailure() {
         // Mocks
-        when(this.userRepository.findByConfirmEmailTokenAndConfirmEmailExpireTokenIsAfter(any(), any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.verificationTokenServiceImp.getUserByVerificationToken(TOKEN, VerificationTokenPurpose.CONFIRM_EMAIL)).thenReturn(getMockedUserEntity());
         doThrow(RuntimeException.class).when(this.userRepository).save(any());
 
         assertThrows(DatabaseCommunicationException.class,
-                () -> this.authServiceImp.confirmEmail(EMAIL));
+                () -> this.authServiceImp.confirmEmail(TOKEN));
     }
 
     private UserEntity getMockedUserEntity() {
@@ -248,8 +401,6 @@ public class AuthServiceImpTest {
                 .encryptedPassword(ENCRYPTED_PASSWORD)
                 .roles(USER_ROLE)
                 .countryEntity(getMockedCountryEntity())
-                .resetPasswordToken(TOKEN)
-                .resetPasswordExpireToken(DATE_TOKEN)
                 .build();
     }
 
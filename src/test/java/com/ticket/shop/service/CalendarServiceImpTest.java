@@ -1,5 +1,6 @@
 package com.ticket.shop.service;
 
+import com.ticket.shop.cache.CustomerTicketsCache;
 import com.ticket.shop.command.Paginated;
 import com.ticket.shop.command.calendar.CalendarDetailsDto;
 import com.ticket.shop.command.calendar.CalendarDetailsWithTicketsDto;
@@ -24,6 +25,7 @@ import com.ticket.shop.persistence.repository.CompanyRepository;
 import com.ticket.shop.persistence.repository.EventRepository;
 import com.ticket.shop.persistence.repository.PriceRepository;
 import com.ticket.shop.persistence.repository.TicketRepository;
+import com.ticket.shop.properties.CustomerTicketsProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -63,12 +65,19 @@ public class CalendarServiceImpTest {
     @Mock
     private CompanyRepository companyRepository;
 
+    @Mock
+    private TicketAvailabilityServiceImp ticketAvailabilityServiceImp;
+
+    @Mock
+    private CustomerTicketsCache customerTicketsCache;
+
     private CalendarServiceImp calendarServiceImp;
     private final LocalDateTime refDate = LocalDateTime.now();
 
     @BeforeEach
     public void setUp() {
-        TicketServiceImp ticketServiceImp = new TicketServiceImp(this.ticketRepository, this.priceRepository, this.companyRepository, this.calendarRepository);
+        TicketServiceImp ticketServiceImp = new TicketServiceImp(this.ticketRepository, this.priceRepository, this.companyRepository, this.calendarRepository, this.ticketAvailabilityServiceImp,
+                this.customerTicketsCache, new CustomerTicketsProperties());
         this.calendarServiceImp = new CalendarServiceImp(this.calendarRepository, this.eventRepository, ticketServiceImp);
     }
 
@@ -0,0 +1,366 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.command.checkin.CheckInDetailsDto;
+import com.ticket.shop.command.checkin.CheckInDto;
+import com.ticket.shop.command.checkin.CheckInSyncDto;
+import com.ticket.shop.command.checkin.CheckInSyncResultDto;
+import com.ticket.shop.command.checkin.CheckInTokenDto;
+import com.ticket.shop.command.checkin.RedemptionDto;
+import com.ticket.shop.enumerators.TicketStatus;
+import com.ticket.shop.enumerators.TicketType;
+import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.exception.auth.InvalidTokenException;
+import com.ticket.shop.exception.ticket.TicketAlreadyCheckedInException;
+import com.ticket.shop.exception.ticket.TicketNotFoundException;
+import com.ticket.shop.persistence.entity.CalendarEntity;
+import com.ticket.shop.persistence.entity.TicketEntity;
+import com.ticket.shop.persistence.repository.TicketRepository;
+import com.ticket.shop.persistence.repository.TicketRepositoryCustom.CheckInManifestRowHandler;
+import com.ticket.shop.persistence.repository.UserRepository;
+import com.ticket.shop.properties.CheckInProperties;
+import com.ticket.shop.properties.JwtProperties;
+import com.ticket.shop.security.HmacTokenSigner;
+import com.ticket.shop.security.PasswordHashingExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class CheckInServiceImpTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private EmailServiceImp emailServiceImp;
+
+    @Mock
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Mock
+    private TokenDenyListServiceImp tokenDenyListServiceImp;
+
+    @Mock
+    private RefreshTokenServiceImp refreshTokenServiceImp;
+
+    @Mock
+    private VerificationTokenServiceImp verificationTokenServiceImp;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CheckInProperties checkInProperties;
+    private CheckInServiceImp checkInServiceImp;
+
+    private final static Long COMPANY_ID = 1L;
+    private final static Long CUSTOMER_ID = 2L;
+    private final static Long CALENDAR_ID = 3L;
+    private final static Long TICKET_ID = 4L;
+
+    @BeforeEach
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecretKey("default");
+        jwtProperties.setExpiresInDays(100L);
+        AuthServiceImp authServiceImp = new AuthServiceImp(this.userRepository, this.passwordEncoder, jwtProperties, this.emailServiceImp, this.passwordHashingExecutor,
+                this.tokenDenyListServiceImp, this.refreshTokenServiceImp, this.verificationTokenServiceImp, this.transactionManager);
+        this.checkInProperties = new CheckInProperties();
+        this.checkInServiceImp = new CheckInServiceImp(this.ticketRepository, new HmacTokenSigner(authServiceImp), this.checkInProperties);
+
+        // Mocks
+        when(this.ticketRepository.findSoldByTicketIdAndUserId(any(), any())).thenReturn(Optional.of(getMockedTicketEntity()));
+    }
+
+    /**
+     * Get Check-in Token Tests
+     */
+    @Test
+    public void testGetCheckInTokenSuccessfully() {
+        // Method to be tested
+        CheckInTokenDto checkInTokenDto = this.checkInServiceImp.getCheckInToken(CUSTOMER_ID, TICKET_ID);
+
+        // Assert Results
+        assertNotNull(checkInTokenDto.getToken());
+        assertEquals(TICKET_ID, checkInTokenDto.getTicketId());
+        assertEquals(CALENDAR_ID, checkInTokenDto.getCalendarId());
+    }
+
+    @Test
+    public void testGetCheckInTokenFailureDueToTicketNotFound() {
+        // Mocks
+        when(this.ticketRepository.findSoldByTicketIdAndUserId(any(), any())).thenReturn(Optional.empty());
+
+        // Assert exception
+        assertThrows(TicketNotFoundException.class,
+                () -> this.checkInServiceImp.getCheckInToken(CUSTOMER_ID, TICKET_ID));
+    }
+
+    /**
+     * Check-in Tests
+     */
+    @Test
+    public void testCheckInSuccessfully() {
+        // Mocks
+        when(this.ticketRepository.checkInTicket(any(), any(), any())).thenReturn(1);
+
+        // Method to be tested
+        CheckInDetailsDto checkInDetailsDto = this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, getMockedCheckInDto());
+
+        // Assert Results
+        assertEquals(TICKET_ID, checkInDetailsDto.getTicketId());
+        assertEquals(CALENDAR_ID, checkInDetailsDto.getCalendarId());
+        assertEquals(TicketType.VIP, checkInDetailsDto.getType());
+        assertNotNull(checkInDetailsDto.getCheckedInAt());
+    }
+
+    @Test
+    public void testCheckInTwiceFailureWithoutDatabaseRoundTrip() {
+        // Mocks
+        when(this.ticketRepository.checkInTicket(any(), any(), any())).thenReturn(1);
+        CheckInDto checkInDto = getMockedCheckInDto();
+        this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, checkInDto);
+
+        // Assert exception
+        assertThrows(TicketAlreadyCheckedInException.class,
+                () -> this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, checkInDto));
+        verify(this.ticketRepository, times(1)).checkInTicket(any(), any(), any());
+    }
+
+    @Test
+    public void testCheckInFailureDueToAlreadyCheckedInOnDatabase() {
+        // Mocks
+        when(this.ticketRepository.checkInTicket(any(), any(), any())).thenReturn(0);
+        when(this.ticketRepository.isTicketCheckedIn(any(), any(), any())).thenReturn(true);
+
+        // Assert exception
+        assertThrows(TicketAlreadyCheckedInException.class,
+                () -> this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, getMockedCheckInDto()));
+        // Only tickets of the calendar of the company are reported as checked in
+        verify(this.ticketRepository).isTicketCheckedIn(TICKET_ID, CALENDAR_ID, COMPANY_ID);
+    }
+
+    @Test
+    public void testCheckInFailureDueToTicketNotFound() {
+        // Mocks
+        when(this.ticketRepository.checkInTicket(any(), any(), any())).thenReturn(0);
+        when(this.ticketRepository.isTicketCheckedIn(any(), any(), any())).thenReturn(false);
+
+        // Assert exception
+        assertThrows(TicketNotFoundException.class,
+                () -> this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, getMockedCheckInDto()));
+    }
+
+    @Test
+    public void testCheckInFailureDueToTamperedToken() {
+        // Mock data
+        String token = getMockedCheckInDto().getToken();
+        int index = token.length() / 2;
+        String tamperedToken = token.substring(0, index) + (token.charAt(index) == 'A' ? 'B' : 'A') + token.substring(index + 1);
+
+        // Assert exception
+        assertThrows(InvalidTokenException.class,
+                () -> this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, new CheckInDto(tamperedToken)));
+    }
+
+    @Test
+    public void testCheckInFailureDueToCalendarMismatch() {
+        // Assert exception
+        assertThrows(InvalidTokenException.class,
+                () -> this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID + 1, getMockedCheckInDto()));
+    }
+
+    @Test
+    public void testCheckInFailureDueToDatabaseConnectionFailure() {
+        // Mocks
+        when(this.ticketRepository.checkInTicket(any(), any(), any())).thenThrow(RuntimeException.class);
+
+        // Assert exception
+        assertThrows(DatabaseCommunicationException.class,
+                () -> this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, getMockedCheckInDto()));
+    }
+
+    @Test
+    public void testCheckInAfterIdlePurgeGoesToDatabase() {
+        // Mocks
+        this.checkInProperties.setRedeemedTicketsIdleMinutes(0);
+        when(this.ticketRepository.checkInTicket(any(), any(), any())).thenReturn(1, 0);
+        when(this.ticketRepository.isTicketCheckedIn(any(), any(), any())).thenReturn(true);
+        CheckInDto checkInDto = getMockedCheckInDto();
+        this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, checkInDto);
+
+        // Method to be tested
+        this.checkInServiceImp.purgeIdleRedeemedTickets();
+
+        // Assert exception
+        assertThrows(TicketAlreadyCheckedInException.class,
+                () -> this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, checkInDto));
+        verify(this.ticketRepository, times(2)).checkInTicket(any(), any(), any());
+    }
+
+    @Test
+    public void testCheckInWithTooManyCalendarsGoesToDatabase() {
+        // Mocks
+        this.checkInProperties.setRedeemedTicketsMaxCalendars(0);
+        when(this.ticketRepository.checkInTicket(any(), any(), any())).thenReturn(1, 0);
+        when(this.ticketRepository.isTicketCheckedIn(any(), any(), any())).thenReturn(true);
+        CheckInDto checkInDto = getMockedCheckInDto();
+
+        // Method to be tested
+        this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, checkInDto);
+
+        // Assert exception
+        assertThrows(TicketAlreadyCheckedInException.class,
+                () -> this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, checkInDto));
+        verify(this.ticketRepository, times(2)).checkInTicket(any(), any(), any());
+    }
+
+    /**
+     * Check-in Manifest Tests
+     */
+    @Test
+    public void testWriteCheckInManifestSuccessfully() throws IOException {
+        // Mocks
+        doAnswer(invocation -> {
+            CheckInManifestRowHandler rowHandler = invocation.getArgument(2);
+            rowHandler.handle(TICKET_ID, TicketType.VIP);
+            rowHandler.handle(TICKET_ID + 300, TicketType.GENERAL);
+            return null;
+        }).when(this.ticketRepository).streamCheckInManifest(eq(CALENDAR_ID), eq(COMPANY_ID), any());
+
+        // Method to be tested
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.checkInServiceImp.writeCheckInManifest(COMPANY_ID, CALENDAR_ID, 42L, outputStream);
+
+        // Assert Results
+        DataInputStream manifest = new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(0x5453434D, manifest.readInt());
+        assertEquals(1, manifest.readByte());
+        assertEquals(CALENDAR_ID, manifest.readLong());
+        assertEquals(42L, manifest.readLong());
+        int tagLength = manifest.readByte();
+
+        // The first entry tag matches the check-in token signature
+        assertEquals(TICKET_ID, manifest.readByte());
+        assertEquals(TicketType.VIP.ordinal(), manifest.readByte());
+        byte[] tag = manifest.readNBytes(tagLength);
+        byte[] token = Base64.getUrlDecoder().decode(getMockedCheckInDto().getToken());
+        assertArrayEquals(Arrays.copyOfRange(token, 18, 18 + tagLength), tag);
+
+        // 300 as varint
+        assertEquals((byte) 0xAC, manifest.readByte());
+        assertEquals(0x02, manifest.readByte());
+        assertEquals(TicketType.GENERAL.ordinal(), manifest.readByte());
+        manifest.skipBytes(tagLength);
+
+        assertEquals(0, manifest.readByte());
+        assertEquals(2, manifest.readInt());
+        assertEquals(-1, manifest.read());
+    }
+
+    /**
+     * Sync Check-ins Tests
+     */
+    @Test
+    public void testSyncCheckInsSuccessfully() {
+        // Mocks
+        when(this.ticketRepository.bulkCheckInTickets(any(), any(), any(), any())).thenReturn(List.of(TICKET_ID));
+
+        // Method to be tested
+        CheckInSyncResultDto result = this.checkInServiceImp.syncCheckIns(COMPANY_ID, CALENDAR_ID, getMockedCheckInSyncDto(TICKET_ID));
+
+        // Assert Results
+        assertEquals(List.of(TICKET_ID), result.getAccepted());
+        assertEquals(List.of(), result.getConflicts());
+        assertEquals(List.of(), result.getRejected());
+
+        // Redeemed tickets are rejected online without database round trip
+        assertThrows(TicketAlreadyCheckedInException.class,
+                () -> this.checkInServiceImp.checkIn(COMPANY_ID, CALENDAR_ID, getMockedCheckInDto()));
+        verify(this.ticketRepository, times(0)).checkInTicket(any(), any(), any());
+    }
+
+    @Test
+    public void testSyncCheckInsWithConflictsAndRejections() {
+        // Mocks
+        when(this.ticketRepository.bulkCheckInTickets(any(), any(), any(), any())).thenReturn(List.of(TICKET_ID));
+        when(this.ticketRepository.findCheckedInTicketIds(CALENDAR_ID, COMPANY_ID, List.of(TICKET_ID + 1, TICKET_ID + 2)))
+                .thenReturn(List.of(TICKET_ID + 1));
+
+        // Method to be tested
+        CheckInSyncResultDto result = this.checkInServiceImp.syncCheckIns(COMPANY_ID, CALENDAR_ID,
+                getMockedCheckInSyncDto(TICKET_ID + 2, TICKET_ID, TICKET_ID + 1, TICKET_ID));
+
+        // Assert Results
+        assertEquals(List.of(TICKET_ID), result.getAccepted());
+        assertEquals(List.of(TICKET_ID + 1), result.getConflicts());
+        assertEquals(List.of(TICKET_ID + 2), result.getRejected());
+    }
+
+    @Test
+    public void testSyncCheckInsFailureDueToDatabaseConnectionFailure() {
+        // Mocks
+        when(this.ticketRepository.bulkCheckInTickets(any(), any(), any(), any())).thenThrow(RuntimeException.class);
+
+        // Assert exception
+        assertThrows(DatabaseCommunicationException.class,
+                () -> this.checkInServiceImp.syncCheckIns(COMPANY_ID, CALENDAR_ID, getMockedCheckInSyncDto(TICKET_ID)));
+    }
+
+    private CheckInSyncDto getMockedCheckInSyncDto(Long... ticketIds) {
+        return CheckInSyncDto.builder()
+                .redemptions(Arrays.stream(ticketIds)
+                        .map(ticketId -> RedemptionDto.builder()
+                                .ticketId(ticketId)
+                                .checkedInAt(new Timestamp(System.currentTimeMillis()))
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private CheckInDto getMockedCheckInDto() {
+        return CheckInDto.builder()
+                .token(this.checkInServiceImp.getCheckInToken(CUSTOMER_ID, TICKET_ID).getToken())
+                .build();
+    }
+
+    private TicketEntity getMockedTicketEntity() {
+        return TicketEntity.builder()
+                .ticketId(TICKET_ID)
+                .type(TicketType.VIP)
+                .status(TicketStatus.SOLD)
+                .calendarEntity(CalendarEntity.builder()
+                        .calendarId(CALENDAR_ID)
+                        .build())
+                .build();
+    }
+}
@@ -14,6 +14,7 @@ import com.ticket.shop.exception.country.CountryNotFoundException;
 import com.ticket.shop.persistence.entity.AddressEntity;
 import com.ticket.shop.persistence.entity.CompanyEntity;
 import com.ticket.shop.persistence.entity.CountryEntity;
+import com.ticket.shop.persistence.projection.CompanyConflictProjection;
 import com.ticket.shop.persistence.repository.AddressRepository;
 import com.ticket.shop.persistence.repository.CompanyRepository;
 import com.ticket.shop.persistence.repository.CountryRepository;
@@ -22,11 +23,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +39,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -53,6 +58,9 @@ public class CompanyServiceImpTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private CompanyServiceImp companyServiceImp;
 
     private final static Long COMPANY_ID = 245L;
@@ -63,7 +71,7 @@ public class CompanyServiceImpTest {
     @BeforeEach
     public void setUp() {
         AddressServiceImp addressService = new AddressServiceImp(this.addressRepository, this.countryRepository, this.userRepository);
-        this.companyServiceImp = new CompanyServiceImp(this.companyRepository, this.addressRepository, addressService);
+        this.companyServiceImp = new CompanyServiceImp(this.companyRepository, this.addressRepository, addressService, this.transactionManager);
     }
 
     /**
@@ -72,9 +80,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testCreateCompanySuccessfully() {
         // Mock data
-        when(this.companyRepository.findByName(any())).thenReturn(Optional.empty());
-        when(this.companyRepository.findByEmail(any())).thenReturn(Optional.empty());
-        when(this.companyRepository.findByWebsite(any())).thenReturn(Optional.empty());
+        when(this.companyRepository.findConflicts(any(), any(), any())).thenReturn(getMockedCompanyConflicts(false, false, false));
 
         when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
         when(this.addressRepository.save(any())).thenReturn(getMockedAddressEntity());
@@ -93,9 +99,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testCreateCompanyFailureDueToCountryNotFound() {
         // Mock data
-        when(this.companyRepository.findByName(any())).thenReturn(Optional.empty());
-        when(this.companyRepository.findByEmail(any())).thenReturn(Optional.empty());
-        when(this.companyRepository.findByWebsite(any())).thenReturn(Optional.empty());
+        when(this.companyRepository.findConflicts(any(), any(), any())).thenReturn(getMockedCompanyConflicts(false, false, false));
         when(this.countryRepository.findById(any())).thenReturn(Optional.empty());
 
         // assert
@@ -106,9 +110,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testCreateCompanyFailureDueToAddressNotFound() {
         // Mock data
-        when(this.companyRepository.findByName(any())).thenReturn(Optional.empty());
-        when(this.companyRepository.findByEmail(any())).thenReturn(Optional.empty());
-        when(this.companyRepository.findByWebsite(any())).thenReturn(Optional.empty());
+        when(this.companyRepository.findConflicts(any(), any(), any())).thenReturn(getMockedCompanyConflicts(false, false, false));
 
         when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
         when(this.addressRepository.save(any())).thenReturn(getMockedAddressEntity());
@@ -122,7 +124,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testCreateCompanyFailureDueToCompanyAlreadyExistsNameValidation() {
         // Mock data
-        when(this.companyRepository.findByName(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
+        when(this.companyRepository.findConflicts(any(), any(), any())).thenReturn(getMockedCompanyConflicts(true, false, false));
 
         // assert
         try {
@@ -137,8 +139,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testCreateCompanyFailureDueToCompanyAlreadyExistsEmailValidation() {
         // Mock data
-        when(this.companyRepository.findByName(any())).thenReturn(Optional.empty());
-        when(this.companyRepository.findByEmail(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
+        when(this.companyRepository.findConflicts(any(), any(), any())).thenReturn(getMockedCompanyConflicts(false, true, false));
 
         // assert
         try {
@@ -153,9 +154,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testCreateCompanyFailureDueToCompanyAlreadyExistsWebsiteValidation() {
         // Mock data
-        when(this.companyRepository.findByName(any())).thenReturn(Optional.empty());
-        when(this.companyRepository.findByEmail(any())).thenReturn(Optional.empty());
-        when(this.companyRepository.findByWebsite(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
+        when(this.companyRepository.findConflicts(any(), any(), any())).thenReturn(getMockedCompanyConflicts(false, false, true));
 
         // assert
         try {
@@ -170,9 +169,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testCreateCompanyFailureDueToDatabaseCommunicationException() {
         // Mock data
-        when(this.companyRepository.findByName(any())).thenReturn(Optional.empty());
-        when(this.companyRepository.findByEmail(any())).thenReturn(Optional.empty());
-        when(this.companyRepository.findByWebsite(any())).thenReturn(Optional.empty());
+        when(this.companyRepository.findConflicts(any(), any(), any())).thenReturn(getMockedCompanyConflicts(false, false, false));
 
         when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
         when(this.addressRepository.save(any())).thenReturn(getMockedAddressEntity());
@@ -185,13 +182,36 @@ public class CompanyServiceImpTest {
                 () -> this.companyServiceImp.createCompany(getMockedCreateOrUpdateCompanyDto()));
     }
 
+    @Test
+    public void testCreateCompanyFailureDueToConcurrentDuplicateEmail() {
+        // Mock data
+        when(this.companyRepository.findConflicts(any(), any(), any()))
+                .thenReturn(getMockedCompanyConflicts(false, false, false))
+                .thenReturn(getMockedCompanyConflicts(false, true, false));
+
+        when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
+        when(this.addressRepository.save(any())).thenReturn(getMockedAddressEntity());
+        when(this.addressRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedAddressEntity()));
+
+        when(this.companyRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505")));
+
+        // assert
+        CompanyAlreadyExistsException exception = assertThrows(CompanyAlreadyExistsException.class,
+                () -> this.companyServiceImp.createCompany(getMockedCreateOrUpdateCompanyDto()));
+        assertEquals(ErrorMessages.EMAIL_ALREADY_EXISTS, exception.getMessage());
+        // The address saved with the company is rolled back
+        verify(this.transactionManager).rollback(any());
+        verify(this.transactionManager, never()).commit(any());
+    }
+
     /**
      * Get company by id tests
      */
     @Test
     public void testGetCompanyByIdSuccessfully() {
         // Mock data
-        when(this.companyRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
+        when(this.companyRepository.findWithAddressByCompanyId(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
 
         // Method to be tested
         CompanyDetailsDto company = this.companyServiceImp.getCompanyById(COMPANY_ID);
@@ -204,7 +224,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testGetCompanyByIdFailureDueToCompanyNotFound() {
         // Mock data
-        when(this.companyRepository.findById(any())).thenReturn(Optional.empty());
+        when(this.companyRepository.findWithAddressByCompanyId(any())).thenReturn(Optional.empty());
 
         // Assert
         assertThrows(CompanyNotFoundException.class,
@@ -217,7 +237,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testUpdateCompanySuccessfully() {
         // Mock data
-        when(this.companyRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
+        when(this.companyRepository.findWithAddressByCompanyId(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
         when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
         when(this.companyRepository.save(any())).thenReturn(getMockedCompanyEntity());
 
@@ -232,7 +252,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testUpdateCompanyFailureDueToCompanyNotFound() {
         // Mock data
-        when(this.companyRepository.findById(any())).thenReturn(Optional.empty());
+        when(this.companyRepository.findWithAddressByCompanyId(any())).thenReturn(Optional.empty());
 
         // Assert
         assertThrows(CompanyNotFoundException.class,
@@ -242,7 +262,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testUpdateCompanyFailureDueToCountryNotFound() {
         // Mock data
-        when(this.companyRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
+        when(this.companyRepository.findWithAddressByCompanyId(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
         when(this.countryRepository.findById(any())).thenReturn(Optional.empty());
 
         // Assert
@@ -253,7 +273,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testUpdateCompanyFailureDueToDatabaseCommunication() {
         // Mock data
-        when(this.companyRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
+        when(this.companyRepository.findWithAddressByCompanyId(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
         when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
         when(this.companyRepository.save(any())).thenThrow(RuntimeException.class);
 
@@ -262,13 +282,34 @@ public class CompanyServiceImpTest {
                 () -> this.companyServiceImp.updateCompany(COMPANY_ID, getMockedCreateOrUpdateCompanyDto()));
     }
 
+    @Test
+    public void testUpdateCompanyFailureDueToDuplicateName() {
+        // Mock data
+        when(this.companyRepository.findWithAddressByCompanyId(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
+        when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
+        when(this.companyRepository.findConflictsWithOtherCompanies(any(), any(), any(), any()))
+                .thenReturn(getMockedCompanyConflicts(true, false, false));
+        // The unique indexes are checked when the changes are flushed on commit
+        doThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505")))
+                .when(this.transactionManager).commit(any());
+
+        // Assert
+        CompanyAlreadyExistsException exception = assertThrows(CompanyAlreadyExistsException.class,
+                () -> this.companyServiceImp.updateCompany(COMPANY_ID, getMockedCreateOrUpdateCompanyDto()));
+        assertEquals(ErrorMessages.NAME_ALREADY_EXISTS, exception.getMessage());
+        // The company keeps its own values until the update commits, it can't conflict with itself
+        verify(this.companyRepository).findConflictsWithOtherCompanies(COMPANY_ID, NAME, EMAIL, WEBSITE);
+        verify(this.companyRepository, never()).findConflicts(any(), any(), any());
+    }
+
     /**
      * Delete company tests
      */
     @Test
     public void testDeleteCompanySuccessfully() {
         // Mocks
-        when(this.companyRepository.findById(any())).thenReturn(Optional.of(getMockedCompanyEntity()));
+        when(this.companyRepository.findWithAddressByCompanyId(any())).thenReturn(Optional.of(getMockedCompanyEntity()));
 
         // Call method to be tested
         this.companyServiceImp.deleteCompany(COMPANY_ID);
@@ -279,7 +320,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testDeleteCompanyFailureDueToCompanyNotFound() {
         // Mocks
-        when(this.companyRepository.findById(any())).thenReturn(Optional.empty());
+        when(this.companyRepository.findWithAddressByCompanyId(any())).thenReturn(Optional.empty());
 
         assertThrows(CompanyNotFoundException.class,
                 () -> this.companyServiceImp.deleteCompany(COMPANY_ID));
@@ -288,7 +329,7 @@ public class CompanyServiceImpTest {
     @Test
     public void testDeleteCompanyFailureDueToDatabaseConnectionFailure() {
         // Mocks
-        when(this.companyRepository.findById(any())).thenReturn(Optional.of(getMockedCompanyEntity()));
+        when(this.companyRepository.findWithAddressByCompanyId(any())).thenReturn(Optional.of(getMockedCompanyEntity()));
         doThrow(RuntimeException.class).when(this.companyRepository).delete(any());
 
         assertThrows(DatabaseCommunicationException.class,
@@ -415,4 +456,23 @@ public class CompanyServiceImpTest {
                 1,
                 1);
     }
+
+    private CompanyConflictProjection getMockedCompanyConflicts(boolean nameTaken, boolean emailTaken, boolean websiteTaken) {
+        return new CompanyConflictProjection() {
+            @Override
+            public boolean isNameTaken() {
+                return nameTaken;
+            }
+
+            @Override
+            public boolean isEmailTaken() {
+                return emailTaken;
+            }
+
+            @Override
+            public boolean isWebsiteTaken() {
+                return websiteTaken;
+            }
+        };
+    }
 }
@@ -3,14 +3,17 @@ package com.ticket.shop.service;
 import com.ticket.shop.command.Paginated;
 import com.ticket.shop.command.customer.CreateCustomerDto;
 import com.ticket.shop.command.customer.CustomerDetailsDto;
+import com.ticket.shop.command.customer.PatchCustomerDto;
 import com.ticket.shop.command.customer.UpdateCustomerDto;
 import com.ticket.shop.enumerators.UserRole;
+import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.country.CountryNotFoundException;
 import com.ticket.shop.exception.user.UserAlreadyExistsException;
 import com.ticket.shop.exception.user.UserNotFoundException;
 import com.ticket.shop.persistence.entity.CountryEntity;
 import com.ticket.shop.persistence.entity.UserEntity;
+import com.ticket.shop.persistence.projection.CustomerDetailsProjection;
 import com.ticket.shop.persistence.repository.CountryRepository;
 import com.ticket.shop.persistence.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,14 +21,19 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -34,6 +42,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -51,11 +60,17 @@ public class CustomerServiceImpTest {
     private CustomerServiceImp customerServiceImp;
 
     @Mock
-    private AuthServiceImp authServiceImp;
+    private VerificationTokenServiceImp verificationTokenServiceImp;
 
     @Mock
     private EmailServiceImp emailServiceImp;
 
+    @Mock
+    private RefreshTokenServiceImp refreshTokenServiceImp;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private final static String FIRSTNAME = "customer";
     private final static String LASTNAME = "Test";
     private final static String EMAIL = "test@service.com";
@@ -66,7 +81,7 @@ public class CustomerServiceImpTest {
 
     @BeforeEach
     public void setUp() {
-        this.customerServiceImp = new CustomerServiceImp(this.userRepository, this.countryRepository, this.passwordEncoder, this.authServiceImp, this.emailServiceImp);
+        this.customerServiceImp = new CustomerServiceImp(this.userRepository, this.countryRepository, this.passwordEncoder, this.verificationTokenServiceImp, this.emailServiceImp, this.refreshTokenServiceImp, this.transactionManager);
 
         // Mocks
         when(this.passwordEncoder.encode(any())).thenReturn(ENCRYPTED_PASSWORD);
@@ -103,7 +118,19 @@ public class CustomerServiceImpTest {
     public void testCreateCustomerFailureDueToUserAlreadyExists() {
         // Mock data
         when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
-        when(this.userRepository.findByEmail(any()).isPresent()).thenThrow(UserAlreadyExistsException.class);
+        when(this.userRepository.existsByEmailIgnoreCase(any())).thenReturn(true);
+
+        // Assert exception
+        assertThrows(UserAlreadyExistsException.class,
+                () -> this.customerServiceImp.createCustomer(getMockedCreateCustomerDto()));
+    }
+
+    @Test
+    public void testCreateCustomerFailureDueToConcurrentDuplicateEmail() {
+        // Mock data
+        when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
+        when(this.userRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505")));
 
         // Assert exception
         assertThrows(UserAlreadyExistsException.class,
@@ -154,7 +181,7 @@ public class CustomerServiceImpTest {
     @Test
     public void testGetCustomerListSuccessfully() {
         //Mocks
-        when(this.userRepository.findByRolesContains(any(), any())).thenReturn(getMockedPagedUserEntity());
+        when(this.userRepository.findCustomerDetailsByRole(any(), any())).thenReturn(getMockedPagedCustomerDetailsProjection());
 
         //Call method
         Paginated<CustomerDetailsDto> customerDetailsDto = this.customerServiceImp.getCustomersList(0, 1);
@@ -167,7 +194,7 @@ public class CustomerServiceImpTest {
     @Test
     public void testGetCustomerListFailureDueToDatabaseConnectionFailure() {
         //Mocks
-        when(this.userRepository.findByRolesContains(any(), any())).thenThrow(RuntimeException.class);
+        when(this.userRepository.findCustomerDetailsByRole(any(), any())).thenThrow(RuntimeException.class);
 
         assertThrows(DatabaseCommunicationException.class,
                 () -> this.customerServiceImp.getCustomersList(0, 1));
@@ -198,6 +225,7 @@ public class CustomerServiceImpTest {
         assertNotNull(customerDetails);
         assertEquals(user, customerDetails);
         verify(this.userRepository).save(userEntity);
+        verify(this.refreshTokenServiceImp).revokeUserRefreshTokens(CUSTOMER_ID);
     }
 
     @Test
@@ -212,6 +240,22 @@ public class CustomerServiceImpTest {
                 () -> this.customerServiceImp.updateCustomer(CUSTOMER_ID, getMockedUpdateCustomerDto()));
     }
 
+    @Test
+    public void testUpdateCustomerFailureDueToDuplicateEmail() {
+        // Mocks
+        when(this.userRepository.findById(any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
+        // The email index is checked when the changes are flushed on commit
+        doThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505")))
+                .when(this.transactionManager).commit(any());
+
+        // Assert exception
+        UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class,
+                () -> this.customerServiceImp.updateCustomer(CUSTOMER_ID, getMockedUpdateCustomerDto()));
+        assertEquals(ErrorMessages.EMAIL_ALREADY_EXISTS, exception.getMessage());
+    }
+
     @Test
     public void testUpdateCustomerFailureDueToUserNotFound() {
         // Mocks
@@ -233,6 +277,90 @@ public class CustomerServiceImpTest {
                 () -> this.customerServiceImp.updateCustomer(CUSTOMER_ID, getMockedUpdateCustomerDto()));
     }
 
+    /**
+     * Patch customer tests
+     */
+    @Test
+    public void testPatchCustomerWithoutPasswordDoesNotHashPassword() {
+        // Mocks
+        when(this.userRepository.findById(any())).thenReturn(Optional.of(getMockedUserEntity()));
+        PatchCustomerDto patchCustomerDto = PatchCustomerDto.builder().firstname(FIRSTNAME + 11).build();
+        UserEntity userEntity = getMockedUserEntity();
+        userEntity.setFirstname(FIRSTNAME + 11);
+
+        // Method to be tested
+        CustomerDetailsDto customerDetails = this.customerServiceImp.patchCustomer(CUSTOMER_ID, patchCustomerDto);
+
+        // Assert result
+        assertEquals(FIRSTNAME + 11, customerDetails.getFirstname());
+        assertEquals(LASTNAME, customerDetails.getLastname());
+        verify(this.passwordEncoder, never()).encode(any());
+        verify(this.countryRepository, never()).findById(any());
+        verify(this.userRepository).save(userEntity);
+        verify(this.refreshTokenServiceImp, never()).revokeUserRefreshTokens(any());
+    }
+
+    @Test
+    public void testPatchCustomerWithPasswordHashesPassword() {
+        // Mocks
+        when(this.userRepository.findById(any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.passwordEncoder.encode(PASSWORD + 11)).thenReturn(ENCRYPTED_PASSWORD + 11);
+        PatchCustomerDto patchCustomerDto = PatchCustomerDto.builder().password(PASSWORD + 11).build();
+        UserEntity userEntity = getMockedUserEntity();
+        userEntity.setEncryptedPassword(ENCRYPTED_PASSWORD + 11);
+
+        // Method to be tested
+        this.customerServiceImp.patchCustomer(CUSTOMER_ID, patchCustomerDto);
+
+        // Assert result
+        verify(this.userRepository).save(userEntity);
+        verify(this.refreshTokenServiceImp).revokeUserRefreshTokens(CUSTOMER_ID);
+    }
+
+    @Test
+    public void testPatchCustomerWithoutChangesDoesNotSave() {
+        // Mocks
+        when(this.userRepository.findById(any())).thenReturn(Optional.of(getMockedUserEntity()));
+        PatchCustomerDto patchCustomerDto = PatchCustomerDto.builder()
+                .firstname(FIRSTNAME)
+                .email(EMAIL)
+                .countryId(getMockedCountryEntity().getCountryId())
+                .build();
+
+        // Method to be tested
+        CustomerDetailsDto customerDetails = this.customerServiceImp.patchCustomer(CUSTOMER_ID, patchCustomerDto);
+
+        // Assert result
+        assertEquals(getMockedCustomerDetailsDto(), customerDetails);
+        verify(this.userRepository, never()).save(any());
+    }
+
+    @Test
+    public void testPatchCustomerFailureDueToCountryNotFound() {
+        // Mocks
+        when(this.userRepository.findById(any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.countryRepository.findById(any())).thenReturn(Optional.empty());
+
+        // Assert exception
+        assertThrows(CountryNotFoundException.class,
+                () -> this.customerServiceImp.patchCustomer(CUSTOMER_ID, PatchCustomerDto.builder().countryId(2L).build()));
+    }
+
+    @Test
+    public void testPatchCustomerFailureDueToDuplicateEmail() {
+        // Mocks
+        when(this.userRepository.findById(any())).thenReturn(Optional.of(getMockedUserEntity()));
+        // The email index is checked when the changes are flushed on commit
+        doThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505")))
+                .when(this.transactionManager).commit(any());
+
+        // Assert exception
+        UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class,
+                () -> this.customerServiceImp.patchCustomer(CUSTOMER_ID, PatchCustomerDto.builder().email("taken@service.com").build()));
+        assertEquals(ErrorMessages.EMAIL_ALREADY_EXISTS, exception.getMessage());
+    }
+
     /**
      * Delete customer tests
      */
@@ -319,8 +447,14 @@ public class CustomerServiceImpTest {
                 .build();
     }
 
-    private Page<UserEntity> getMockedPagedUserEntity() {
-        List<UserEntity> content = List.of(getMockedUserEntity());
+    private Page<CustomerDetailsProjection> getMockedPagedCustomerDetailsProjection() {
+        CustomerDetailsProjection customer = new SpelAwareProxyProjectionFactory().createProjection(CustomerDetailsProjection.class, Map.of(
+                "userId", CUSTOMER_ID,
+                "firstname", FIRSTNAME,
+                "lastname", LASTNAME,
+                "email", EMAIL,
+                "countryId", 1L));
+        List<CustomerDetailsProjection> content = List.of(customer);
         Pageable pageable = PageRequest.of(0, 1);
 
         return new PageImpl<>(content, pageable, 1);
@@ -1,5 +1,6 @@
 package com.ticket.shop.service;
 
+import com.ticket.shop.cache.EventPriceCache;
 import com.ticket.shop.command.Paginated;
 import com.ticket.shop.command.address.AddressDetailsDto;
 import com.ticket.shop.command.address.CreateAddressDto;
@@ -15,18 +16,21 @@ import com.ticket.shop.exception.address.AddressNotFoundException;
 import com.ticket.shop.exception.company.CompanyNotFoundException;
 import com.ticket.shop.exception.country.CountryNotFoundException;
 import com.ticket.shop.exception.event.EventNotFoundException;
+import com.ticket.shop.persistence.DatabaseNotifications;
 import com.ticket.shop.persistence.entity.AddressEntity;
 import com.ticket.shop.persistence.entity.CalendarEntity;
 import com.ticket.shop.persistence.entity.CompanyEntity;
 import com.ticket.shop.persistence.entity.CountryEntity;
 import com.ticket.shop.persistence.entity.EventEntity;
 import com.ticket.shop.persistence.entity.PriceEntity;
+import com.ticket.shop.persistence.projection.EventIdProjection;
 import com.ticket.shop.persistence.repository.AddressRepository;
 import com.ticket.shop.persistence.repository.CompanyRepository;
 import com.ticket.shop.persistence.repository.CountryRepository;
 import com.ticket.shop.persistence.repository.EventRepository;
 import com.ticket.shop.persistence.repository.PriceRepository;
 import com.ticket.shop.persistence.repository.UserRepository;
+import com.ticket.shop.properties.OrderProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -35,8 +39,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -44,6 +50,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -65,6 +72,9 @@ public class EventServiceImpTest {
     @Mock
     private PriceRepository priceRepository;
 
+    @Mock
+    private DatabaseNotifications databaseNotifications;
+
     @Mock
     private UserRepository userRepository;
 
@@ -73,8 +83,9 @@ public class EventServiceImpTest {
     @BeforeEach
     void setUp() {
         AddressServiceImp addressServiceImp = new AddressServiceImp(this.addressRepository, this.countryRepository, this.userRepository);
-        PriceServiceImp priceServiceImp = new PriceServiceImp(this.priceRepository);
-        this.eventServiceImp = new EventServiceImp(this.eventRepository, addressServiceImp, this.addressRepository, this.companyRepository, priceServiceImp);
+        EventPriceCache eventPriceCache = new EventPriceCache(new OrderProperties(), this.databaseNotifications);
+        PriceServiceImp priceServiceImp = new PriceServiceImp(this.priceRepository, eventPriceCache);
+        this.eventServiceImp = new EventServiceImp(this.eventRepository, addressServiceImp, this.addressRepository, this.companyRepository, priceServiceImp, eventPriceCache);
     }
 
     /**
@@ -179,7 +190,7 @@ public class EventServiceImpTest {
     @Test
     public void testGetEventByIdSuccessfully() {
         // Mock data
-        when(this.eventRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedEventEntity()));
+        when(this.eventRepository.findWithAddressAndPricesByEventId(any())).thenReturn(Optional.ofNullable(getMockedEventEntity()));
 
         // Method to be tested
         EventDetailsWithCalendarIdsDto calendar = this.eventServiceImp.getEventById(getMockedEventEntity().getEventId());
@@ -192,7 +203,7 @@ public class EventServiceImpTest {
     @Test
     public void testGetEventByIdFailureDueToEventNotFound() {
         // Mock data
-        when(this.eventRepository.findById(any())).thenReturn(Optional.empty());
+        when(this.eventRepository.findWithAddressAndPricesByEventId(any())).thenReturn(Optional.empty());
 
         // assert
         assertThrows(EventNotFoundException.class,
@@ -205,7 +216,10 @@ public class EventServiceImpTest {
     @Test
     public void testGetEventListSuccessfully() {
         //Mocks
-        when(this.eventRepository.findByAll(any(), any(), any())).thenReturn(getMockedPagedEventEntity());
+        when(this.eventRepository.findEventIdsByAll(any(), any(), any())).thenReturn(getMockedPagedEventIds());
+        // the fetch of the prices repeats the event once per price
+        when(this.eventRepository.findWithAddressAndPricesByEventIdIn(any()))
+                .thenReturn(List.of(getMockedEventEntity(), getMockedEventEntity()));
 
         //Call method
         Paginated<EventDetailsDto> eventList = this.eventServiceImp.getEventList(0, 1, null, null);
@@ -215,10 +229,23 @@ public class EventServiceImpTest {
         assertEquals(getMockedPaginatedEventDetailsDto(), eventList);
     }
 
+    @Test
+    public void testGetEventListWithoutEventsSkipsLoadingThem() {
+        //Mocks
+        when(this.eventRepository.findEventIdsByAll(any(), any(), any())).thenReturn(Page.empty(PageRequest.of(0, 1)));
+
+        //Call method
+        Paginated<EventDetailsDto> eventList = this.eventServiceImp.getEventList(0, 1, null, null);
+
+        //Assert result
+        assertEquals(0, eventList.getResults().size());
+        verify(this.eventRepository, never()).findWithAddressAndPricesByEventIdIn(any());
+    }
+
     @Test
     public void testGetEventListFailureDueToDatabaseConnectionFailure() {
         //Mocks
-        when(this.eventRepository.findByAll(any(), any(), any())).thenThrow(RuntimeException.class);
+        when(this.eventRepository.findEventIdsByAll(any(), any(), any())).thenThrow(RuntimeException.class);
 
         assertThrows(DatabaseCommunicationException.class,
                 () -> this.eventServiceImp.getEventList(0, 1, null, null));
@@ -418,8 +445,10 @@ public class EventServiceImpTest {
                 .build();
     }
 
-    private Page<EventEntity> getMockedPagedEventEntity() {
-        List<EventEntity> content = List.of(getMockedEventEntity());
+    private Page<EventIdProjection> getMockedPagedEventIds() {
+        EventIdProjection eventId = new SpelAwareProxyProjectionFactory().createProjection(EventIdProjection.class, Map.of(
+                "eventId", getMockedEventEntity().getEventId()));
+        List<EventIdProjection> content = List.of(eventId);
         Pageable pageable = PageRequest.of(0, 1);
 
         return new PageImpl<>(content, pageable, 1);
@@ -0,0 +1,322 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.cache.CustomerTicketsCache;
+import com.ticket.shop.cache.EventPriceCache;
+import com.ticket.shop.command.order.CreateOrderDto;
+import com.ticket.shop.command.order.OrderDetailsDto;
+import com.ticket.shop.enumerators.TicketType;
+import com.ticket.shop.enumerators.TicketStatus;
+import com.ticket.shop.error.ErrorMessages;
+import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.exception.order.OrderCaptureException;
+import com.ticket.shop.exception.order.OrderPriceMismatchException;
+import com.ticket.shop.exception.order.PaymentUnavailableException;
+import com.ticket.shop.exception.order.ReservationExpiredException;
+import com.ticket.shop.exception.ticket.TicketUnavailableException;
+import com.ticket.shop.gateway.PaymentGateway;
+import com.ticket.shop.gateway.StubPaymentGateway;
+import com.ticket.shop.persistence.entity.CalendarEntity;
+import com.ticket.shop.persistence.entity.CountryEntity;
+import com.ticket.shop.persistence.entity.EventEntity;
+import com.ticket.shop.persistence.entity.UserEntity;
+import com.ticket.shop.persistence.repository.EventRepository;
+import com.ticket.shop.persistence.repository.TicketRepository;
+import com.ticket.shop.persistence.repository.UserRepository;
+import com.ticket.shop.properties.CustomerTicketsProperties;
+import com.ticket.shop.properties.OrderProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class OrderServiceImpTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EventPriceCache eventPriceCache;
+
+    @Mock
+    private WaitingRoomServiceImp waitingRoomServiceImp;
+
+    @Mock
+    private TicketAvailabilityServiceImp ticketAvailabilityServiceImp;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PaymentGateway paymentGateway;
+    private OrderProperties orderProperties;
+    private OrderServiceImp orderServiceImp;
+
+    private final static Long EVENT_ID = 1L;
+    private final static Long CUSTOMER_ID = 2L;
+    private final static Long CALENDAR_ID = 3L;
+    private final static String REQUEST_URL = "http://localhost:8080/api/paypal/orders";
+
+    @BeforeEach
+    public void setUp() {
+        this.paymentGateway = new StubPaymentGateway();
+        this.orderProperties = new OrderProperties();
+        this.orderServiceImp = createOrderService();
+
+        // Mocks
+        when(this.eventRepository.findById(any())).thenReturn(Optional.of(getMockedEventEntity()));
+        when(this.userRepository.findById(any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.eventPriceCache.getPricesInCents(any())).thenReturn(new long[]{5000, 1250});
+        when(this.ticketRepository.claimTickets(any(), anyString(), anyLong(), any(), any(), any(), any())).thenReturn(List.of(10L, 11L));
+        when(this.ticketRepository.extendReservationByPaypalOrderId(anyString(), anyLong())).thenReturn(2);
+    }
+
+    /**
+     * Create Order Tests
+     */
+    @Test
+    public void testCreateOrderSuccessfully() {
+        // Method to be tested
+        OrderDetailsDto orderDetailsDto = this.orderServiceImp.createOrder(getMockedCreateOrderDto(25.0), REQUEST_URL);
+
+        // Assert result
+        assertTrue(orderDetailsDto.getOrderId().startsWith("STUB-"));
+        assertEquals("http://localhost:8080/api/paypal/capture?token=" + orderDetailsDto.getOrderId(),
+                orderDetailsDto.getPaymentLink().toString());
+        verify(this.ticketRepository).updatePaypalOrderIdByReservationId(anyString(), eq(orderDetailsDto.getOrderId()));
+        verify(this.ticketRepository, never()).releaseTicketsByReservationId(anyString());
+    }
+
+    @Test
+    public void testCreateOrderFailureDueToPriceMismatch() {
+        // Assert exception
+        assertThrows(OrderPriceMismatchException.class,
+                () -> this.orderServiceImp.createOrder(getMockedCreateOrderDto(20.0), REQUEST_URL));
+    }
+
+    @Test
+    public void testCreateOrderFailureDueToTicketUnavailable() {
+        // Mocks
+        when(this.ticketRepository.claimTickets(any(), anyString(), anyLong(), any(), any(), any(), any())).thenReturn(List.of(10L));
+
+        // Assert exception
+        assertThrows(TicketUnavailableException.class,
+                () -> this.orderServiceImp.createOrder(getMockedCreateOrderDto(25.0), REQUEST_URL));
+    }
+
+    @Test
+    public void testCreateOrderReleasesTicketsWhenPaymentUnavailable() {
+        // Mocks
+        this.paymentGateway = mock(PaymentGateway.class);
+        this.orderServiceImp = createOrderService();
+        when(this.paymentGateway.createOrder(anyString(), any()))
+                .thenThrow(new PaymentUnavailableException(ErrorMessages.PAYMENT_UNAVAILABLE));
+
+        // Assert exception
+        assertThrows(PaymentUnavailableException.class,
+                () -> this.orderServiceImp.createOrder(getMockedCreateOrderDto(25.0), REQUEST_URL));
+        verify(this.ticketRepository).releaseTicketsByReservationId(anyString());
+        verify(this.ticketRepository, never()).updatePaypalOrderIdByReservationId(anyString(), anyString());
+    }
+
+    @Test
+    public void testCreateOrderFailureWhenTicketsCantBeReleased() {
+        // Mocks
+        this.paymentGateway = mock(PaymentGateway.class);
+        this.orderServiceImp = createOrderService();
+        when(this.paymentGateway.createOrder(anyString(), any()))
+                .thenThrow(new PaymentUnavailableException(ErrorMessages.PAYMENT_UNAVAILABLE));
+        doThrow(new RuntimeException()).when(this.ticketRepository).releaseTicketsByReservationId(anyString());
+
+        // Assert exception, the tickets are left to the reservation sweeper
+        assertThrows(PaymentUnavailableException.class,
+                () -> this.orderServiceImp.createOrder(getMockedCreateOrderDto(25.0), REQUEST_URL));
+        verify(this.ticketRepository).releaseTicketsByReservationId(anyString());
+    }
+
+    @Test
+    public void testCreateOrderReleasesTicketsWhenOrderCantBeLinked() {
+        // Mocks
+        doThrow(new RuntimeException()).when(this.ticketRepository).updatePaypalOrderIdByReservationId(anyString(), anyString());
+
+        // Assert exception
+        assertThrows(DatabaseCommunicationException.class,
+                () -> this.orderServiceImp.createOrder(getMockedCreateOrderDto(25.0), REQUEST_URL));
+        verify(this.ticketRepository).releaseTicketsByReservationId(anyString());
+    }
+
+    /**
+     * Capture Order Tests
+     */
+    @Test
+    public void testCaptureOrderSuccessfully() {
+        OrderDetailsDto orderDetailsDto = this.orderServiceImp.createOrder(getMockedCreateOrderDto(25.0), REQUEST_URL);
+
+        // Method to be tested
+        String orderStatus = this.orderServiceImp.captureOrder(orderDetailsDto.getOrderId());
+
+        // Assert result
+        assertEquals("COMPLETED", orderStatus);
+        verify(this.ticketRepository).updateStatusByPaypalOrderId(orderDetailsDto.getOrderId());
+    }
+
+    @Test
+    public void testCaptureOrderFailureDueToOrderNotFound() {
+        // Assert exception
+        assertThrows(OrderCaptureException.class,
+                () -> this.orderServiceImp.captureOrder("UNKNOWN"));
+        verify(this.ticketRepository, never()).updateStatusByPaypalOrderId(anyString());
+    }
+
+    @Test
+    public void testCaptureOrderFailureDueToPaymentUnavailable() {
+        // Mocks
+        this.paymentGateway = mock(PaymentGateway.class);
+        this.orderServiceImp = createOrderService();
+        when(this.paymentGateway.captureOrder(anyString()))
+                .thenThrow(new PaymentUnavailableException(ErrorMessages.PAYMENT_UNAVAILABLE));
+
+        // Assert exception
+        assertThrows(PaymentUnavailableException.class,
+                () -> this.orderServiceImp.captureOrder("ORDER"));
+        verify(this.ticketRepository, never()).updateStatusByPaypalOrderId(anyString());
+    }
+
+    @Test
+    public void testCaptureOrderFailureDueToReservationExpired() {
+        // Mocks
+        this.paymentGateway = mock(PaymentGateway.class);
+        this.orderServiceImp = createOrderService();
+        when(this.ticketRepository.extendReservationByPaypalOrderId(anyString(), anyLong())).thenReturn(0);
+
+        // Assert exception
+        assertThrows(ReservationExpiredException.class,
+                () -> this.orderServiceImp.captureOrder("ORDER"));
+        verify(this.paymentGateway, never()).captureOrder(anyString());
+        verify(this.ticketRepository, never()).updateStatusByPaypalOrderId(anyString());
+    }
+
+    @Test
+    public void testCaptureOrderAgainAfterTicketsWereSold() {
+        OrderDetailsDto orderDetailsDto = this.orderServiceImp.createOrder(getMockedCreateOrderDto(25.0), REQUEST_URL);
+        this.orderServiceImp.captureOrder(orderDetailsDto.getOrderId());
+
+        // Mocks
+        when(this.ticketRepository.extendReservationByPaypalOrderId(anyString(), anyLong())).thenReturn(0);
+        when(this.ticketRepository.existsByPaypalOrderIdAndStatus(orderDetailsDto.getOrderId(), TicketStatus.SOLD)).thenReturn(true);
+
+        // Method to be tested
+        String orderStatus = this.orderServiceImp.captureOrder(orderDetailsDto.getOrderId());
+
+        // Assert result
+        assertEquals("COMPLETED", orderStatus);
+    }
+
+    /**
+     * Release Expired Reservations Tests
+     */
+    @Test
+    public void testReleaseExpiredReservationsInBatches() {
+        // Mocks
+        this.orderProperties.setReservationSweepBatchSize(2);
+        when(this.ticketRepository.releaseExpiredReservations(2))
+                .thenReturn(List.of(CALENDAR_ID, CALENDAR_ID))
+                .thenReturn(List.of(4L));
+
+        // Method to be tested
+        this.orderServiceImp.releaseExpiredReservations();
+
+        // Assert result
+        verify(this.ticketAvailabilityServiceImp).markChanged(Set.of(CALENDAR_ID, 4L));
+    }
+
+    @Test
+    public void testReleaseExpiredReservationsWithoutExpiredTickets() {
+        // Mocks
+        when(this.ticketRepository.releaseExpiredReservations(anyInt())).thenReturn(List.of());
+
+        // Method to be tested
+        this.orderServiceImp.releaseExpiredReservations();
+
+        // Assert result
+        verify(this.ticketAvailabilityServiceImp, never()).markChanged(any());
+    }
+
+    @Test
+    public void testReleaseExpiredReservationsFailureIsOnlyLogged() {
+        // Mocks
+        when(this.ticketRepository.releaseExpiredReservations(anyInt())).thenThrow(new RuntimeException());
+
+        // Method to be tested
+        this.orderServiceImp.releaseExpiredReservations();
+
+        // Assert result
+        verify(this.ticketAvailabilityServiceImp, never()).markChanged(any());
+    }
+
+    private OrderServiceImp createOrderService() {
+        return new OrderServiceImp(this.paymentGateway, this.eventRepository, this.ticketRepository, this.userRepository,
+                this.eventPriceCache, this.waitingRoomServiceImp, this.ticketAvailabilityServiceImp,
+                new CustomerTicketsCache(new CustomerTicketsProperties()), this.orderProperties, this.transactionManager);
+    }
+
+    private CreateOrderDto getMockedCreateOrderDto(Double totalPrice) {
+        return CreateOrderDto.builder()
+                .eventId(EVENT_ID)
+                .customerId(CUSTOMER_ID)
+                .calendarId(CALENDAR_ID)
+                .ticketType(TicketType.GENERAL)
+                .amountOfTickets(2L)
+                .totalPrice(totalPrice)
+                .build();
+    }
+
+    private EventEntity getMockedEventEntity() {
+        EventEntity eventEntity = EventEntity.builder()
+                .eventId(EVENT_ID)
+                .name("Concert")
+                .calendars(new ArrayList<>())
+                .build();
+        eventEntity.getCalendars().add(CalendarEntity.builder()
+                .calendarId(CALENDAR_ID)
+                .startDate(LocalDateTime.of(2024, 5, 1, 21, 0))
+                .eventEntity(eventEntity)
+                .build());
+        return eventEntity;
+    }
+
+    private UserEntity getMockedUserEntity() {
+        return UserEntity.builder()
+                .userId(CUSTOMER_ID)
+                .countryEntity(CountryEntity.builder()
+                        .currency("EUR")
+                        .build())
+                .build();
+    }
+}
@@ -1,12 +1,15 @@
 package com.ticket.shop.service;
 
+import com.ticket.shop.cache.EventPriceCache;
 import com.ticket.shop.command.price.CreatePriceDto;
 import com.ticket.shop.command.price.PriceDetailsDto;
 import com.ticket.shop.enumerators.TicketType;
 import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.persistence.DatabaseNotifications;
 import com.ticket.shop.persistence.entity.EventEntity;
 import com.ticket.shop.persistence.entity.PriceEntity;
 import com.ticket.shop.persistence.repository.PriceRepository;
+import com.ticket.shop.properties.OrderProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -25,11 +28,16 @@ public class PriceServiceImpTest {
     @Mock
     private PriceRepository priceRepository;
 
+    @Mock
+    private DatabaseNotifications databaseNotifications;
+
+    private EventPriceCache eventPriceCache;
     private PriceServiceImp priceServiceImp;
 
     @BeforeEach
     void setUp() {
-        this.priceServiceImp = new PriceServiceImp(this.priceRepository);
+        this.eventPriceCache = new EventPriceCache(new OrderProperties(), this.databaseNotifications);
+        this.priceServiceImp = new PriceServiceImp(this.priceRepository, this.eventPriceCache);
     }
 
     /**
@@ -47,6 +55,21 @@ public class PriceServiceImpTest {
         assertEquals(getMockedPriceDetailsDtoList(), prices);
     }
 
+    @Test
+    public void testCreatePriceInvalidatesCachedPrices() {
+        // Mock data
+        EventEntity eventEntity = getMockedEventEntity();
+        eventEntity.setPrices(List.of());
+        when(this.priceRepository.saveAll(any())).thenReturn(List.of(getMockedPriceEntity()));
+        assertEquals(EventPriceCache.NO_PRICE, this.eventPriceCache.getPricesInCents(eventEntity)[TicketType.VIP.ordinal()]);
+
+        // Method to be tested
+        this.priceServiceImp.bulkCreatePrices(getMockedCreatePriceDtoList(), eventEntity);
+
+        // Assert result
+        assertEquals(1000L, this.eventPriceCache.getPricesInCents(eventEntity)[TicketType.VIP.ordinal()]);
+    }
+
     @Test
     public void testCreatePriceFailureDueToDatabaseConnectionFailure() {
         // Mock data
@@ -0,0 +1,153 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.command.auth.RefreshTokenDto;
+import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.exception.auth.InvalidTokenException;
+import com.ticket.shop.persistence.entity.RefreshTokenEntity;
+import com.ticket.shop.persistence.repository.RefreshTokenRepository;
+import com.ticket.shop.properties.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class RefreshTokenServiceImpTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenServiceImp refreshTokenServiceImp;
+
+    private final static String REFRESH_TOKEN = "cmVmcmVzaC10b2tlbg";
+    private final static String FAMILY_ID = "1b4e28ba-2fa1-11d2-883f-0016d3cca427";
+    private final static Long REFRESH_TOKEN_ID = 7L;
+    private final static Long USER_ID = 10L;
+
+    @BeforeEach
+    public void setUp() {
+        this.refreshTokenServiceImp = new RefreshTokenServiceImp(this.refreshTokenRepository, new JwtProperties());
+    }
+
+    /**
+     * Create refresh token tests
+     */
+    @Test
+    public void testCreateRefreshTokenStoresOnlyTheHash() {
+        // Method to be tested
+        String refreshToken = this.refreshTokenServiceImp.createRefreshToken(USER_ID);
+
+        // Assert result
+        ArgumentCaptor<RefreshTokenEntity> captor = ArgumentCaptor.forClass(RefreshTokenEntity.class);
+        verify(this.refreshTokenRepository).save(captor.capture());
+        assertNotNull(refreshToken);
+        assertEquals(64, captor.getValue().getTokenHash().length());
+        assertNotEquals(refreshToken, captor.getValue().getTokenHash());
+        assertEquals(USER_ID, captor.getValue().getUserId());
+    }
+
+    @Test
+    public void testCreateRefreshTokenFailureDueToDatabaseConnectionFailure() {
+        // Mocks
+        when(this.refreshTokenRepository.save(any())).thenThrow(RuntimeException.class);
+
+        // Assert exception
+        assertThrows(DatabaseCommunicationException.class,
+                () -> this.refreshTokenServiceImp.createRefreshToken(USER_ID));
+    }
+
+    /**
+     * Rotate refresh token tests
+     */
+    @Test
+    public void testRotateRefreshTokenSuccessfully() {
+        // Mocks
+        when(this.refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(getMockedRefreshTokenEntity()));
+        when(this.refreshTokenRepository.markRotated(eq(REFRESH_TOKEN_ID), any())).thenReturn(1);
+
+        // Method to be tested
+        RefreshTokenDto refreshTokenDto = this.refreshTokenServiceImp.rotateRefreshToken(REFRESH_TOKEN);
+
+        // Assert result
+        ArgumentCaptor<RefreshTokenEntity> captor = ArgumentCaptor.forClass(RefreshTokenEntity.class);
+        verify(this.refreshTokenRepository).save(captor.capture());
+        assertEquals(USER_ID, refreshTokenDto.getUserId());
+        assertNotEquals(REFRESH_TOKEN, refreshTokenDto.getRefreshToken());
+        assertEquals(FAMILY_ID, captor.getValue().getFamilyId());
+    }
+
+    @Test
+    public void testRotateRefreshTokenReusedRevokesFamily() {
+        // Mocks
+        when(this.refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(getMockedRefreshTokenEntity()));
+        when(this.refreshTokenRepository.markRotated(eq(REFRESH_TOKEN_ID), any())).thenReturn(0);
+
+        // Assert exception
+        assertThrows(InvalidTokenException.class,
+                () -> this.refreshTokenServiceImp.rotateRefreshToken(REFRESH_TOKEN));
+        verify(this.refreshTokenRepository).revokeByFamilyId(FAMILY_ID);
+        verify(this.refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    public void testRotateRefreshTokenFailureDueToExpiredToken() {
+        // Mocks
+        RefreshTokenEntity refreshTokenEntity = getMockedRefreshTokenEntity();
+        refreshTokenEntity.setExpiresAt(new Date(System.currentTimeMillis() - 1000));
+        when(this.refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(refreshTokenEntity));
+
+        // Assert exception
+        assertThrows(InvalidTokenException.class,
+                () -> this.refreshTokenServiceImp.rotateRefreshToken(REFRESH_TOKEN));
+        verify(this.refreshTokenRepository, never()).markRotated(any(), any());
+    }
+
+    @Test
+    public void testRotateRefreshTokenFailureDueToUnknownToken() {
+        // Mocks
+        when(this.refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+
+        // Assert exception
+        assertThrows(InvalidTokenException.class,
+                () -> this.refreshTokenServiceImp.rotateRefreshToken(REFRESH_TOKEN));
+    }
+
+    /**
+     * Revoke refresh token tests
+     */
+    @Test
+    public void testRevokeRefreshTokenRevokesFamily() {
+        // Mocks
+        when(this.refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(getMockedRefreshTokenEntity()));
+
+        // Method to be tested
+        this.refreshTokenServiceImp.revokeRefreshToken(REFRESH_TOKEN);
+
+        // Assert result
+        verify(this.refreshTokenRepository).revokeByFamilyId(FAMILY_ID);
+    }
+
+    private RefreshTokenEntity getMockedRefreshTokenEntity() {
+        return RefreshTokenEntity.builder()
+                .refreshTokenId(REFRESH_TOKEN_ID)
+                .tokenHash("0".repeat(64))
+                .familyId(FAMILY_ID)
+                .userId(USER_ID)
+                .expiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .build();
+    }
+}
@@ -0,0 +1,238 @@
+package com.ticket.shop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticket.shop.enumerators.TicketStatus;
+import com.ticket.shop.enumerators.TicketType;
+import com.ticket.shop.exception.ticket.TooManySubscribersException;
+import com.ticket.shop.persistence.DatabaseNotifications;
+import com.ticket.shop.persistence.repository.TicketRepository;
+import com.ticket.shop.persistence.repository.TicketRepository.TicketCount;
+import com.ticket.shop.properties.TicketAvailabilityProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class TicketAvailabilityServiceImpTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private DatabaseNotifications databaseNotifications;
+
+    private TicketAvailabilityProperties ticketAvailabilityProperties;
+    private TicketAvailabilityServiceImp ticketAvailabilityServiceImp;
+
+    private final static Long CALENDAR_ID = 1L;
+    private final static String NOTIFICATION_CHANNEL = "ticket_availability";
+
+    @BeforeEach
+    public void setUp() {
+        this.ticketAvailabilityProperties = new TicketAvailabilityProperties();
+        // Published by the tests, never by the publisher thread
+        this.ticketAvailabilityProperties.setFlushIntervalMillis(3_600_000);
+        this.ticketAvailabilityProperties.setMaxSubscribers(2);
+        this.ticketAvailabilityProperties.setCrossNode(false);
+        this.ticketAvailabilityServiceImp = new TicketAvailabilityServiceImp(this.ticketRepository, this.ticketAvailabilityProperties,
+                new ObjectMapper(), this.databaseNotifications);
+
+        // Mocks
+        when(this.ticketRepository.countByCalendarIdGroupByTypeAndStatus(any())).thenReturn(List.of(getMockedTicketCount()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.ticketAvailabilityServiceImp.stopPublisher();
+    }
+
+    @Test
+    public void testSubscribe() {
+        // Method to be tested
+        assertNotNull(this.ticketAvailabilityServiceImp.subscribe(CALENDAR_ID));
+
+        // Assert result
+        assertTrue(this.ticketAvailabilityServiceImp.hasSubscribers());
+    }
+
+    @Test
+    public void testSubscribeWithTooManySubscribers() {
+        this.ticketAvailabilityServiceImp.subscribe(CALENDAR_ID);
+        this.ticketAvailabilityServiceImp.subscribe(CALENDAR_ID + 1);
+
+        // Assert exception
+        assertThrows(TooManySubscribersException.class,
+                () -> this.ticketAvailabilityServiceImp.subscribe(CALENDAR_ID));
+    }
+
+    @Test
+    public void testPublishChangesCoalescesCalendarChanges() {
+        this.ticketAvailabilityServiceImp.subscribe(CALENDAR_ID);
+        this.ticketAvailabilityServiceImp.subscribe(CALENDAR_ID);
+
+        // Method to be tested
+        this.ticketAvailabilityServiceImp.markChanged(List.of(CALENDAR_ID));
+        this.ticketAvailabilityServiceImp.markChanged(List.of(CALENDAR_ID));
+        this.ticketAvailabilityServiceImp.publishChanges();
+
+        // Assert result
+        verify(this.ticketRepository, times(1)).countByCalendarIdGroupByTypeAndStatus(CALENDAR_ID);
+    }
+
+    @Test
+    public void testPublishChangesWithoutSubscribers() {
+        // Method to be tested
+        this.ticketAvailabilityServiceImp.markChanged(List.of(CALENDAR_ID));
+        this.ticketAvailabilityServiceImp.publishChanges();
+
+        // Assert result
+        assertFalse(this.ticketAvailabilityServiceImp.hasSubscribers());
+        verify(this.ticketRepository, never()).countByCalendarIdGroupByTypeAndStatus(any());
+    }
+
+    @Test
+    public void testPublishChangesDisconnectsSlowSubscriber() throws InterruptedException {
+        this.ticketAvailabilityProperties.setMaxPendingEvents(1);
+        this.ticketAvailabilityProperties.setSenderThreads(1);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(1);
+        this.ticketAvailabilityServiceImp = new TicketAvailabilityServiceImp(this.ticketRepository, this.ticketAvailabilityProperties,
+                new ObjectMapper(), this.databaseNotifications) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                // Client that never reads, the first write blocks until the end of the test
+                return new SseEmitter(timeoutMillis) {
+                    @Override
+                    public void send(Object object, MediaType mediaType) throws IOException {
+                        sending.countDown();
+                        try {
+                            released.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+
+                    @Override
+                    public synchronized void complete() {
+                        completed.countDown();
+                    }
+                };
+            }
+        };
+        // Totals change on every count, so every publish sends an event
+        AtomicLong total = new AtomicLong();
+        when(this.ticketRepository.countByCalendarIdGroupByTypeAndStatus(any()))
+                .thenAnswer(invocation -> List.of(getMockedTicketCount(total.incrementAndGet())));
+        this.ticketAvailabilityServiceImp.subscribe(CALENDAR_ID);
+        this.ticketAvailabilityServiceImp.publishChanges();
+        assertTrue(sending.await(10, TimeUnit.SECONDS));
+
+        // Method to be tested
+        for (int i = 0; i < 2; i++) {
+            this.ticketAvailabilityServiceImp.markChanged(List.of(CALENDAR_ID));
+            this.ticketAvailabilityServiceImp.publishChanges();
+        }
+
+        // Assert result
+        assertFalse(this.ticketAvailabilityServiceImp.hasSubscribers());
+        released.countDown();
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Cross Node Tests
+     */
+    @Test
+    public void testMarkChangedNotifiesOtherNodes() {
+        this.ticketAvailabilityProperties.setCrossNode(true);
+
+        // Method to be tested
+        this.ticketAvailabilityServiceImp.markChanged(List.of(CALENDAR_ID, CALENDAR_ID + 1));
+        this.ticketAvailabilityServiceImp.publishChanges();
+
+        // Assert result
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(this.databaseNotifications).publish(eq(NOTIFICATION_CHANNEL), payload.capture());
+        assertEquals(Set.of("1", "2"), Set.of(payload.getValue().split(",")));
+        verify(this.ticketRepository, never()).countByCalendarIdGroupByTypeAndStatus(any());
+    }
+
+    @Test
+    public void testNotificationOfOtherNodePublishesLocalSubscribers() {
+        this.ticketAvailabilityProperties.setCrossNode(true);
+        this.ticketAvailabilityServiceImp.start();
+        ArgumentCaptor<DatabaseNotifications.Listener> listener = ArgumentCaptor.forClass(DatabaseNotifications.Listener.class);
+        verify(this.databaseNotifications).listen(eq(NOTIFICATION_CHANNEL), listener.capture());
+        this.ticketAvailabilityServiceImp.subscribe(CALENDAR_ID);
+        this.ticketAvailabilityServiceImp.publishChanges();
+
+        // Method to be tested
+        listener.getValue().onMessage(CALENDAR_ID + "," + (CALENDAR_ID + 1));
+        this.ticketAvailabilityServiceImp.publishChanges();
+
+        // Assert result
+        verify(this.ticketRepository, times(2)).countByCalendarIdGroupByTypeAndStatus(CALENDAR_ID);
+        verify(this.ticketRepository, never()).countByCalendarIdGroupByTypeAndStatus(CALENDAR_ID + 1);
+        verify(this.databaseNotifications, never()).publish(anyString(), anyString());
+    }
+
+    @Test
+    public void testMarkChangedWithoutCrossNode() {
+        // Method to be tested
+        this.ticketAvailabilityServiceImp.markChanged(List.of(CALENDAR_ID));
+        this.ticketAvailabilityServiceImp.publishChanges();
+
+        // Assert result
+        verifyNoInteractions(this.databaseNotifications);
+    }
+
+    private TicketCount getMockedTicketCount() {
+        return getMockedTicketCount(10);
+    }
+
+    private TicketCount getMockedTicketCount(long total) {
+        return new TicketCount() {
+            @Override
+            public TicketType getType() {
+                return TicketType.VIP;
+            }
+
+            @Override
+            public TicketStatus getStatus() {
+                return TicketStatus.AVAILABLE;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}
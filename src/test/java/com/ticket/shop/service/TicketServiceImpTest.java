@@ -1,6 +1,8 @@
 package com.ticket.shop.service;
 
+import com.ticket.shop.cache.CustomerTicketsCache;
 import com.ticket.shop.command.ticket.CreateTicketDto;
+import com.ticket.shop.command.ticket.CustomerTicketsDto;
 import com.ticket.shop.command.ticket.TicketDetailsWhenCreatedDto;
 import com.ticket.shop.command.ticket.TotalOfTicketsDto;
 import com.ticket.shop.enumerators.TicketStatus;
@@ -8,30 +10,41 @@ import com.ticket.shop.enumerators.TicketType;
 import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.calendar.CalendarNotFoundException;
 import com.ticket.shop.exception.company.CompanyNotFoundException;
+import com.ticket.shop.exception.ticket.InvalidCursorException;
 import com.ticket.shop.exception.ticket.InvalidTicketTypeException;
 import com.ticket.shop.persistence.entity.CalendarEntity;
 import com.ticket.shop.persistence.entity.CompanyEntity;
 import com.ticket.shop.persistence.entity.EventEntity;
 import com.ticket.shop.persistence.entity.PriceEntity;
 import com.ticket.shop.persistence.entity.TicketEntity;
+import com.ticket.shop.persistence.projection.CustomerTicketProjection;
 import com.ticket.shop.persistence.repository.CalendarRepository;
 import com.ticket.shop.persistence.repository.CompanyRepository;
 import com.ticket.shop.persistence.repository.PriceRepository;
 import com.ticket.shop.persistence.repository.TicketRepository;
+import com.ticket.shop.properties.CustomerTicketsProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -49,13 +62,23 @@ public class TicketServiceImpTest {
     @Mock
     private CalendarRepository calendarRepository;
 
+    @Mock
+    private TicketAvailabilityServiceImp ticketAvailabilityServiceImp;
+
+    private CustomerTicketsCache customerTicketsCache;
+
     private TicketServiceImp ticketServiceImp;
 
     private final LocalDateTime refDate = LocalDateTime.now();
+    private final static Long CUSTOMER_ID = 5L;
+    // Microseconds are kept, like the timestamps returned by the database
+    private final static Timestamp PURCHASED_AT = Timestamp.valueOf("2024-05-01 10:15:30.123456");
 
     @BeforeEach
     void setUp() {
-        this.ticketServiceImp = new TicketServiceImp(this.ticketRepository, this.priceRepository, this.companyRepository, this.calendarRepository);
+        this.customerTicketsCache = new CustomerTicketsCache(new CustomerTicketsProperties());
+        this.ticketServiceImp = new TicketServiceImp(this.ticketRepository, this.priceRepository, this.companyRepository, this.calendarRepository, this.ticketAvailabilityServiceImp,
+                this.customerTicketsCache, new CustomerTicketsProperties());
     }
 
     /**
@@ -164,6 +187,106 @@ public class TicketServiceImpTest {
                 .build();
     }
 
+    /**
+     * Get customer tickets tests
+     */
+    @Test
+    public void testGetCustomerTicketsFirstPageSuccessfully() {
+        // Mock data
+        when(this.ticketRepository.findCustomerTickets(CUSTOMER_ID, 3))
+                .thenReturn(List.of(getMockedCustomerTicketProjection(3L), getMockedCustomerTicketProjection(4L)));
+
+        // Method to be tested
+        CustomerTicketsDto customerTickets = this.ticketServiceImp.getCustomerTickets(CUSTOMER_ID, null, 2);
+
+        // Assert result
+        assertEquals(2, customerTickets.getResults().size());
+        assertEquals(3L, customerTickets.getResults().get(0).getTicketId());
+        assertEquals(TicketType.VIP, customerTickets.getResults().get(0).getType());
+        assertEquals("Concert", customerTickets.getResults().get(0).getEventName());
+        assertNull(customerTickets.getNextCursor());
+    }
+
+    @Test
+    public void testGetCustomerTicketsFollowsTheCursor() {
+        // Mock data
+        when(this.ticketRepository.findCustomerTickets(CUSTOMER_ID, 2))
+                .thenReturn(List.of(getMockedCustomerTicketProjection(3L), getMockedCustomerTicketProjection(4L)));
+
+        // Method to be tested
+        CustomerTicketsDto firstPage = this.ticketServiceImp.getCustomerTickets(CUSTOMER_ID, null, 1);
+        this.ticketServiceImp.getCustomerTickets(CUSTOMER_ID, firstPage.getNextCursor(), 1);
+
+        // Assert result, the next page starts after the exact purchase date and id of the last ticket
+        assertEquals(1, firstPage.getResults().size());
+        assertNotNull(firstPage.getNextCursor());
+        verify(this.ticketRepository).findCustomerTicketsAfter(CUSTOMER_ID, PURCHASED_AT, 3L, 2);
+    }
+
+    @Test
+    public void testGetCustomerTicketsFirstPageIsCached() {
+        // Mock data
+        when(this.ticketRepository.findCustomerTickets(CUSTOMER_ID, 11)).thenReturn(List.of(getMockedCustomerTicketProjection(3L)));
+
+        // Method to be tested
+        CustomerTicketsDto customerTickets = this.ticketServiceImp.getCustomerTickets(CUSTOMER_ID, null, 10);
+        CustomerTicketsDto cachedCustomerTickets = this.ticketServiceImp.getCustomerTickets(CUSTOMER_ID, null, 10);
+        this.customerTicketsCache.invalidate(List.of(CUSTOMER_ID));
+        this.ticketServiceImp.getCustomerTickets(CUSTOMER_ID, null, 10);
+
+        // Assert result
+        assertSame(customerTickets, cachedCustomerTickets);
+        verify(this.ticketRepository, times(2)).findCustomerTickets(CUSTOMER_ID, 11);
+    }
+
+    @Test
+    public void testGetCustomerTicketsFirstPageNotCachedWhenEvictedWhileLoading() {
+        // Mock data
+        // A capture of the customer commits and evicts while the first page is read
+        when(this.ticketRepository.findCustomerTickets(CUSTOMER_ID, 11)).thenAnswer(invocation -> {
+            this.customerTicketsCache.invalidate(List.of(CUSTOMER_ID));
+            return List.of(getMockedCustomerTicketProjection(3L));
+        });
+
+        // Method to be tested
+        this.ticketServiceImp.getCustomerTickets(CUSTOMER_ID, null, 10);
+        this.ticketServiceImp.getCustomerTickets(CUSTOMER_ID, null, 10);
+
+        // Assert result
+        verify(this.ticketRepository, times(2)).findCustomerTickets(CUSTOMER_ID, 11);
+    }
+
+    @Test
+    public void testGetCustomerTicketsFailureDueToInvalidCursor() {
+        // Assert exception
+        assertThrows(InvalidCursorException.class,
+                () -> this.ticketServiceImp.getCustomerTickets(CUSTOMER_ID, "not-a-cursor", 10));
+    }
+
+    @Test
+    public void testGetCustomerTicketsFailureDueToDatabaseCommunicationException() {
+        // Mock data
+        when(this.ticketRepository.findCustomerTickets(any(), anyInt())).thenThrow(RuntimeException.class);
+
+        // Assert exception
+        assertThrows(DatabaseCommunicationException.class,
+                () -> this.ticketServiceImp.getCustomerTickets(CUSTOMER_ID, null, 10));
+    }
+
+    private CustomerTicketProjection getMockedCustomerTicketProjection(Long ticketId) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("ticketId", ticketId);
+        row.put("type", TicketType.VIP.name());
+        row.put("price", 30.0);
+        row.put("eventId", 1L);
+        row.put("eventName", "Concert");
+        row.put("calendarId", 1L);
+        row.put("startDate", Timestamp.valueOf(this.refDate));
+        row.put("purchasedAt", PURCHASED_AT);
+        row.put("checkedInAt", null);
+        return new SpelAwareProxyProjectionFactory().createProjection(CustomerTicketProjection.class, row);
+    }
+
     private List<CreateTicketDto> getMockedCreateTicketDto() {
         return List.of(CreateTicketDto.builder()
                 .type(TicketType.VIP)
@@ -0,0 +1,100 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.persistence.repository.RevokedTokenRepository;
+import com.ticket.shop.properties.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class TokenDenyListServiceImpTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenDenyListServiceImp tokenDenyListServiceImp;
+
+    private final static String TOKEN_ID = "6f1c1f0e-4f0a-4c36-9a43-2a7b8a8d1b11";
+    private final static Long USER_ID = 10L;
+
+    @BeforeEach
+    public void setUp() {
+        this.tokenDenyListServiceImp = new TokenDenyListServiceImp(this.revokedTokenRepository, new JwtProperties());
+    }
+
+    @Test
+    public void testIsRevokedWithoutDatabaseWhenNotOnTheFilter() {
+        // Method to be tested
+        boolean revoked = this.tokenDenyListServiceImp.isRevoked(TOKEN_ID);
+
+        // Assert result
+        assertFalse(revoked);
+        verify(this.revokedTokenRepository, never()).existsById(any());
+    }
+
+    @Test
+    public void testRevokeToken() {
+        // Mocks
+        when(this.revokedTokenRepository.existsById(TOKEN_ID)).thenReturn(true);
+
+        // Method to be tested
+        this.tokenDenyListServiceImp.revoke(TOKEN_ID, USER_ID, new Date());
+
+        // Assert result
+        assertTrue(this.tokenDenyListServiceImp.isRevoked(TOKEN_ID));
+        verify(this.revokedTokenRepository).save(any());
+    }
+
+    @Test
+    public void testRevokeTokenFailureDueToDatabaseConnectionFailure() {
+        // Mocks
+        when(this.revokedTokenRepository.save(any())).thenThrow(RuntimeException.class);
+
+        // Assert exception
+        assertThrows(DatabaseCommunicationException.class,
+                () -> this.tokenDenyListServiceImp.revoke(TOKEN_ID, USER_ID, new Date()));
+    }
+
+    @Test
+    public void testRefreshDenyListLoadsRevokedTokens() {
+        // Mocks
+        when(this.revokedTokenRepository.findTokenIdsByExpiresAtAfter(any())).thenReturn(List.of(TOKEN_ID));
+        when(this.revokedTokenRepository.existsById(TOKEN_ID)).thenReturn(true);
+
+        // Method to be tested
+        this.tokenDenyListServiceImp.refreshDenyList();
+
+        // Assert result
+        assertTrue(this.tokenDenyListServiceImp.isRevoked(TOKEN_ID));
+        verify(this.revokedTokenRepository).deleteByExpiresAtNotAfter(any());
+    }
+
+    @Test
+    public void testRefreshDenyListKeepsTokensRevokedDuringTheReload() {
+        // Mocks, the token is revoked after the query read the table
+        when(this.revokedTokenRepository.findTokenIdsByExpiresAtAfter(any())).thenAnswer(invocation -> {
+            this.tokenDenyListServiceImp.revoke(TOKEN_ID, USER_ID, new Date());
+            return List.of();
+        });
+        when(this.revokedTokenRepository.existsById(TOKEN_ID)).thenReturn(true);
+
+        // Method to be tested
+        this.tokenDenyListServiceImp.refreshDenyList();
+
+        // Assert result
+        assertTrue(this.tokenDenyListServiceImp.isRevoked(TOKEN_ID));
+    }
+}
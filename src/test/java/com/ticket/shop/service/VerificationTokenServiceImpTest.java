@@ -0,0 +1,139 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.enumerators.VerificationTokenPurpose;
+import com.ticket.shop.exception.DatabaseCommunicationException;
+import com.ticket.shop.exception.auth.InvalidTokenException;
+import com.ticket.shop.persistence.entity.UserEntity;
+import com.ticket.shop.persistence.entity.VerificationTokenEntity;
+import com.ticket.shop.persistence.repository.VerificationTokenRepository;
+import com.ticket.shop.security.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class VerificationTokenServiceImpTest {
+
+    @Mock
+    private VerificationTokenRepository verificationTokenRepository;
+
+    private VerificationTokenServiceImp verificationTokenServiceImp;
+
+    private final static String TOKEN = "dmVyaWZpY2F0aW9uLXRva2Vu";
+    private final static Long USER_ID = 10L;
+
+    @BeforeEach
+    public void setUp() {
+        this.verificationTokenServiceImp = new VerificationTokenServiceImp(this.verificationTokenRepository);
+    }
+
+    /**
+     * Create verification token tests
+     */
+    @Test
+    public void testCreateVerificationTokenStoresOnlyTheHash() {
+        // Method to be tested
+        String token = this.verificationTokenServiceImp.createVerificationToken(
+                getMockedUserEntity(), VerificationTokenPurpose.RESET_PASSWORD, Duration.ofHours(1));
+
+        // Assert result
+        ArgumentCaptor<VerificationTokenEntity> captor = ArgumentCaptor.forClass(VerificationTokenEntity.class);
+        verify(this.verificationTokenRepository).deleteByUserIdAndPurpose(USER_ID, VerificationTokenPurpose.RESET_PASSWORD);
+        verify(this.verificationTokenRepository).save(captor.capture());
+        assertNotNull(token);
+        assertEquals(TokenDigest.sha256(token), captor.getValue().getTokenHash());
+        assertNotEquals(token, captor.getValue().getTokenHash());
+        assertEquals(VerificationTokenPurpose.RESET_PASSWORD, captor.getValue().getPurpose());
+        assertTrue(captor.getValue().getExpiresAt().getTime() > System.currentTimeMillis());
+    }
+
+    @Test
+    public void testCreateVerificationTokenFailureDueToDatabaseConnectionFailure() {
+        // Mocks
+        when(this.verificationTokenRepository.save(any())).thenThrow(RuntimeException.class);
+
+        // Assert exception
+        assertThrows(DatabaseCommunicationException.class,
+                () -> this.verificationTokenServiceImp.createVerificationToken(
+                        getMockedUserEntity(), VerificationTokenPurpose.CONFIRM_EMAIL, Duration.ofHours(1)));
+    }
+
+    /**
+     * Get user by verification token tests
+     */
+    @Test
+    public void testGetUserByVerificationTokenSuccessfully() {
+        // Mocks
+        when(this.verificationTokenRepository.findByTokenHashAndPurposeAndExpiresAtAfter(
+                eq(TokenDigest.sha256(TOKEN)), eq(VerificationTokenPurpose.CONFIRM_EMAIL), any()))
+                .thenReturn(Optional.of(getMockedVerificationTokenEntity()));
+
+        // Method to be tested
+        UserEntity userEntity = this.verificationTokenServiceImp.getUserByVerificationToken(TOKEN, VerificationTokenPurpose.CONFIRM_EMAIL);
+
+        // Assert result
+        assertEquals(USER_ID, userEntity.getUserId());
+    }
+
+    @Test
+    public void testGetUserByVerificationTokenFailureDueToInvalidToken() {
+        // Mocks
+        when(this.verificationTokenRepository.findByTokenHashAndPurposeAndExpiresAtAfter(any(), any(), any()))
+                .thenReturn(Optional.empty());
+
+        // Assert exception
+        assertThrows(InvalidTokenException.class,
+                () -> this.verificationTokenServiceImp.getUserByVerificationToken(TOKEN, VerificationTokenPurpose.RESET_PASSWORD));
+    }
+
+    @Test
+    public void testGetUserByVerificationTokenFailureDueToEmptyToken() {
+        // Assert exception
+        assertThrows(InvalidTokenException.class,
+                () -> this.verificationTokenServiceImp.getUserByVerificationToken("", VerificationTokenPurpose.RESET_PASSWORD));
+        verify(this.verificationTokenRepository, never()).findByTokenHashAndPurposeAndExpiresAtAfter(any(), any(), any());
+    }
+
+    /**
+     * Purge expired verification tokens tests
+     */
+    @Test
+    public void testPurgeExpiredVerificationTokens() {
+        // Method to be tested
+        this.verificationTokenServiceImp.purgeExpiredVerificationTokens();
+
+        // Assert result
+        verify(this.verificationTokenRepository).deleteByExpiresAtNotAfter(any());
+    }
+
+    private UserEntity getMockedUserEntity() {
+        return UserEntity.builder()
+                .userId(USER_ID)
+                .email("test@email.com")
+                .build();
+    }
+
+    private VerificationTokenEntity getMockedVerificationTokenEntity() {
+        return VerificationTokenEntity.builder()
+                .tokenHash(TokenDigest.sha256(TOKEN))
+                .purpose(VerificationTokenPurpose.CONFIRM_EMAIL)
+                .userEntity(getMockedUserEntity())
+                .build();
+    }
+}
@@ -0,0 +1,277 @@
+package com.ticket.shop.service;
+
+import com.ticket.shop.command.waitingroom.OpenWaitingRoomDto;
+import com.ticket.shop.command.waitingroom.QueueStatusDto;
+import com.ticket.shop.command.waitingroom.WaitingRoomDetailsDto;
+import com.ticket.shop.exception.auth.InvalidTokenException;
+import com.ticket.shop.exception.calendar.CalendarNotFoundException;
+import com.ticket.shop.exception.waitingroom.AdmissionRequiredException;
+import com.ticket.shop.exception.waitingroom.WaitingRoomFullException;
+import com.ticket.shop.exception.waitingroom.WaitingRoomNotFoundException;
+import com.ticket.shop.persistence.entity.CalendarEntity;
+import com.ticket.shop.persistence.repository.CalendarRepository;
+import com.ticket.shop.persistence.repository.UserRepository;
+import com.ticket.shop.properties.JwtProperties;
+import com.ticket.shop.properties.WaitingRoomProperties;
+import com.ticket.shop.security.HmacTokenSigner;
+import com.ticket.shop.security.PasswordHashingExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class WaitingRoomServiceImpTest {
+
+    @Mock
+    private CalendarRepository calendarRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private EmailServiceImp emailServiceImp;
+
+    @Mock
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Mock
+    private TokenDenyListServiceImp tokenDenyListServiceImp;
+
+    @Mock
+    private RefreshTokenServiceImp refreshTokenServiceImp;
+
+    @Mock
+    private VerificationTokenServiceImp verificationTokenServiceImp;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path tempDir;
+
+    private HmacTokenSigner hmacTokenSigner;
+    private WaitingRoomProperties waitingRoomProperties;
+    private WaitingRoomServiceImp waitingRoomServiceImp;
+
+    private final static Long COMPANY_ID = 1L;
+    private final static Long CUSTOMER_ID = 2L;
+    private final static Long CALENDAR_ID = 3L;
+
+    @BeforeEach
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecretKey("default");
+        jwtProperties.setExpiresInDays(100L);
+        AuthServiceImp authServiceImp = new AuthServiceImp(this.userRepository, this.passwordEncoder, jwtProperties, this.emailServiceImp, this.passwordHashingExecutor,
+                this.tokenDenyListServiceImp, this.refreshTokenServiceImp, this.verificationTokenServiceImp, this.transactionManager);
+        this.hmacTokenSigner = new HmacTokenSigner(authServiceImp);
+
+        this.waitingRoomProperties = new WaitingRoomProperties();
+        this.waitingRoomProperties.setAdmissionsPerSecond(2);
+        this.waitingRoomProperties.setCapacity(3);
+        this.waitingRoomProperties.setLogPath(this.tempDir.resolve("waiting-room.log").toString());
+        this.waitingRoomServiceImp = startWaitingRoomService();
+
+        // Mocks
+        when(this.calendarRepository.findByCompanyIdAndCalendarId(any(), any())).thenReturn(Optional.of(new CalendarEntity()));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        this.waitingRoomServiceImp.closeWaitingRoomLog();
+    }
+
+    @Test
+    public void testOpenWaitingRoomWithDefaultSettings() {
+        // Method to be tested
+        WaitingRoomDetailsDto waitingRoomDetailsDto = this.waitingRoomServiceImp.openWaitingRoom(COMPANY_ID, CALENDAR_ID, OpenWaitingRoomDto.builder().build());
+
+        // Assert result
+        assertEquals(CALENDAR_ID, waitingRoomDetailsDto.getCalendarId());
+        assertEquals(2, waitingRoomDetailsDto.getAdmissionsPerSecond());
+        assertEquals(3, waitingRoomDetailsDto.getCapacity());
+        assertEquals(0, waitingRoomDetailsDto.getWaiting());
+    }
+
+    @Test
+    public void testOpenWaitingRoomWithCalendarNotFound() {
+        // Mocks
+        when(this.calendarRepository.findByCompanyIdAndCalendarId(any(), any())).thenReturn(Optional.empty());
+
+        // Assert exception
+        assertThrows(CalendarNotFoundException.class,
+                () -> this.waitingRoomServiceImp.openWaitingRoom(COMPANY_ID, CALENDAR_ID, OpenWaitingRoomDto.builder().build()));
+    }
+
+    @Test
+    public void testJoinAndGetAdmitted() {
+        this.waitingRoomServiceImp.openWaitingRoom(COMPANY_ID, CALENDAR_ID, OpenWaitingRoomDto.builder().build());
+
+        // Method to be tested
+        QueueStatusDto first = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID, CALENDAR_ID);
+        QueueStatusDto second = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID + 1, CALENDAR_ID);
+        QueueStatusDto third = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID + 2, CALENDAR_ID);
+
+        // Assert result
+        assertEquals(1, first.getPosition());
+        assertEquals(3, third.getPosition());
+        assertEquals(2, third.getAhead());
+        assertEquals(2, third.getEstimatedWaitSeconds());
+        assertNull(first.getAdmissionToken());
+
+        // Two admitted per second
+        this.waitingRoomServiceImp.advanceAdmissions();
+        QueueStatusDto firstStatus = this.waitingRoomServiceImp.getQueueStatus(CUSTOMER_ID, CALENDAR_ID, first.getQueueToken());
+        QueueStatusDto secondStatus = this.waitingRoomServiceImp.getQueueStatus(CUSTOMER_ID + 1, CALENDAR_ID, second.getQueueToken());
+        QueueStatusDto thirdStatus = this.waitingRoomServiceImp.getQueueStatus(CUSTOMER_ID + 2, CALENDAR_ID, third.getQueueToken());
+        assertNotNull(firstStatus.getAdmissionToken());
+        assertNotNull(secondStatus.getAdmissionToken());
+        assertNull(thirdStatus.getAdmissionToken());
+        assertEquals(0, thirdStatus.getAhead());
+        assertEquals(1, thirdStatus.getEstimatedWaitSeconds());
+    }
+
+    @Test
+    public void testJoinWaitingRoomFull() {
+        this.waitingRoomServiceImp.openWaitingRoom(COMPANY_ID, CALENDAR_ID, OpenWaitingRoomDto.builder().build());
+        for (int i = 0; i < 3; i++) {
+            this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID + i, CALENDAR_ID);
+        }
+
+        // Assert exception
+        assertThrows(WaitingRoomFullException.class,
+                () -> this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID + 3, CALENDAR_ID));
+
+        // Admitted customers free room
+        this.waitingRoomServiceImp.advanceAdmissions();
+        assertDoesNotThrow(() -> this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID + 3, CALENDAR_ID));
+    }
+
+    @Test
+    public void testJoinWaitingRoomAgainKeepsPosition() {
+        this.waitingRoomServiceImp.openWaitingRoom(COMPANY_ID, CALENDAR_ID, OpenWaitingRoomDto.builder().build());
+        QueueStatusDto first = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID, CALENDAR_ID);
+        this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID + 1, CALENDAR_ID);
+
+        // Method to be tested
+        QueueStatusDto again = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID, CALENDAR_ID);
+
+        // Assert result
+        assertEquals(first.getPosition(), again.getPosition());
+        assertEquals(2, this.waitingRoomServiceImp.openWaitingRoom(COMPANY_ID, CALENDAR_ID, OpenWaitingRoomDto.builder().build()).getWaiting());
+    }
+
+    @Test
+    public void testJoinWaitingRoomAgainAfterAdmissionExpired() {
+        this.waitingRoomProperties.setAdmissionTokenExpiresInSeconds(0);
+        this.waitingRoomServiceImp.openWaitingRoom(COMPANY_ID, CALENDAR_ID, OpenWaitingRoomDto.builder().build());
+        QueueStatusDto first = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID, CALENDAR_ID);
+        this.waitingRoomServiceImp.advanceAdmissions();
+
+        // Method to be tested
+        QueueStatusDto again = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID, CALENDAR_ID);
+
+        // Assert result
+        assertEquals(first.getPosition() + 1, again.getPosition());
+    }
+
+    @Test
+    public void testJoinWaitingRoomNotOpen() {
+        // Assert exception
+        assertThrows(WaitingRoomNotFoundException.class,
+                () -> this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID, CALENDAR_ID));
+    }
+
+    @Test
+    public void testJoinWaitingRoomClosed() {
+        this.waitingRoomServiceImp.openWaitingRoom(COMPANY_ID, CALENDAR_ID, OpenWaitingRoomDto.builder().build());
+
+        // Method to be tested
+        this.waitingRoomServiceImp.closeWaitingRoom(COMPANY_ID, CALENDAR_ID);
+
+        // Assert exception
+        assertThrows(WaitingRoomNotFoundException.class,
+                () -> this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID, CALENDAR_ID));
+    }
+
+    @Test
+    public void testGetQueueStatusWithTokenOfAnotherCustomer() {
+        this.waitingRoomServiceImp.openWaitingRoom(COMPANY_ID, CALENDAR_ID, OpenWaitingRoomDto.builder().build());
+        QueueStatusDto queueStatusDto = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID, CALENDAR_ID);
+
+        // Assert exception
+        assertThrows(InvalidTokenException.class,
+                () -> this.waitingRoomServiceImp.getQueueStatus(CUSTOMER_ID + 1, CALENDAR_ID, queueStatusDto.getQueueToken()));
+    }
+
+    @Test
+    public void testVerifyAdmission() {
+        this.waitingRoomServiceImp.openWaitingRoom(COMPANY_ID, CALENDAR_ID, OpenWaitingRoomDto.builder().build());
+        QueueStatusDto queueStatusDto = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID, CALENDAR_ID);
+        this.waitingRoomServiceImp.advanceAdmissions();
+        String admissionToken = this.waitingRoomServiceImp.getQueueStatus(CUSTOMER_ID, CALENDAR_ID, queueStatusDto.getQueueToken()).getAdmissionToken();
+
+        // Assert result
+        assertDoesNotThrow(() -> this.waitingRoomServiceImp.verifyAdmission(CUSTOMER_ID, List.of(CALENDAR_ID, CALENDAR_ID + 1), List.of(admissionToken)));
+        assertThrows(AdmissionRequiredException.class,
+                () -> this.waitingRoomServiceImp.verifyAdmission(CUSTOMER_ID + 1, List.of(CALENDAR_ID), List.of(admissionToken)));
+        assertThrows(AdmissionRequiredException.class,
+                () -> this.waitingRoomServiceImp.verifyAdmission(CUSTOMER_ID, List.of(CALENDAR_ID), null));
+    }
+
+    @Test
+    public void testVerifyAdmissionWithoutWaitingRoom() {
+        // Assert result
+        assertDoesNotThrow(() -> this.waitingRoomServiceImp.verifyAdmission(CUSTOMER_ID, List.of(CALENDAR_ID), null));
+    }
+
+    @Test
+    public void testWaitingRoomRestoredAfterRestart() throws IOException {
+        this.waitingRoomServiceImp.openWaitingRoom(COMPANY_ID, CALENDAR_ID, OpenWaitingRoomDto.builder().admissionsPerSecond(1).capacity(10).build());
+        QueueStatusDto first = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID, CALENDAR_ID);
+        QueueStatusDto second = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID + 1, CALENDAR_ID);
+        this.waitingRoomServiceImp.advanceAdmissions();
+
+        // Method to be tested
+        this.waitingRoomServiceImp.closeWaitingRoomLog();
+        this.waitingRoomServiceImp = startWaitingRoomService();
+
+        // Assert result
+        QueueStatusDto firstStatus = this.waitingRoomServiceImp.getQueueStatus(CUSTOMER_ID, CALENDAR_ID, first.getQueueToken());
+        QueueStatusDto secondStatus = this.waitingRoomServiceImp.getQueueStatus(CUSTOMER_ID + 1, CALENDAR_ID, second.getQueueToken());
+        assertNotNull(firstStatus.getAdmissionToken());
+        assertNull(secondStatus.getAdmissionToken());
+        assertEquals(2, secondStatus.getPosition());
+
+        // New customers keep joining after the restored positions
+        QueueStatusDto third = this.waitingRoomServiceImp.joinWaitingRoom(CUSTOMER_ID + 2, CALENDAR_ID);
+        assertEquals(3, third.getPosition());
+    }
+
+    private WaitingRoomServiceImp startWaitingRoomService() {
+        WaitingRoomServiceImp waitingRoomService = new WaitingRoomServiceImp(this.calendarRepository, this.hmacTokenSigner, this.waitingRoomProperties);
+        waitingRoomService.restoreWaitingRooms();
+        return waitingRoomService;
+    }
+}
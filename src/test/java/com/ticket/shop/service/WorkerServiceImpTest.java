@@ -2,9 +2,11 @@ package com.ticket.shop.service;
 
 import com.ticket.shop.command.Paginated;
 import com.ticket.shop.command.worker.CreateWorkerDto;
+import com.ticket.shop.command.worker.PatchWorkerDto;
 import com.ticket.shop.command.worker.UpdateWorkerDto;
 import com.ticket.shop.command.worker.WorkerDetailsDto;
 import com.ticket.shop.enumerators.UserRole;
+import com.ticket.shop.error.ErrorMessages;
 import com.ticket.shop.exception.DatabaseCommunicationException;
 import com.ticket.shop.exception.auth.InvalidRoleException;
 import com.ticket.shop.exception.company.CompanyNotFoundException;
@@ -14,6 +16,7 @@ import com.ticket.shop.exception.user.UserNotFoundException;
 import com.ticket.shop.persistence.entity.CompanyEntity;
 import com.ticket.shop.persistence.entity.CountryEntity;
 import com.ticket.shop.persistence.entity.UserEntity;
+import com.ticket.shop.persistence.projection.WorkerDetailsProjection;
 import com.ticket.shop.persistence.repository.CompanyRepository;
 import com.ticket.shop.persistence.repository.CountryRepository;
 import com.ticket.shop.persistence.repository.UserRepository;
@@ -22,22 +25,29 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -58,11 +68,17 @@ public class WorkerServiceImpTest {
     private WorkerServiceImp workerServiceImp;
 
     @Mock
-    private AuthServiceImp authServiceImp;
+    private VerificationTokenServiceImp verificationTokenServiceImp;
 
     @Mock
     private EmailServiceImp emailServiceImp;
 
+    @Mock
+    private RefreshTokenServiceImp refreshTokenServiceImp;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private final static String FIRSTNAME = "Worker";
     private final static String LASTNAME = "Test";
     private final static String EMAIL = "worker@service.com";
@@ -74,7 +90,7 @@ public class WorkerServiceImpTest {
 
     @BeforeEach
     public void setUp() {
-        this.workerServiceImp = new WorkerServiceImp(this.userRepository, this.countryRepository, this.passwordEncoder, this.companyRepository, this.authServiceImp, this.emailServiceImp);
+        this.workerServiceImp = new WorkerServiceImp(this.userRepository, this.countryRepository, this.passwordEncoder, this.companyRepository, this.verificationTokenServiceImp, this.emailServiceImp, this.refreshTokenServiceImp, this.transactionManager);
 
         // Mocks
         when(this.passwordEncoder.encode(any())).thenReturn(ENCRYPTED_PASSWORD);
@@ -124,7 +140,7 @@ public class WorkerServiceImpTest {
         // Mock data
         when(this.companyRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCompanyEntity()));
         when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
-        when(this.userRepository.findByEmail(any()).isPresent()).thenThrow(UserAlreadyExistsException.class);
+        when(this.userRepository.existsByEmailIgnoreCase(any())).thenReturn(true);
 
         // Assert exception
         assertThrows(UserAlreadyExistsException.class,
@@ -210,6 +226,7 @@ public class WorkerServiceImpTest {
         assertNotNull(workerDetailsDto);
         assertEquals(worker, workerDetailsDto);
         verify(this.userRepository).save(userEntity);
+        verify(this.refreshTokenServiceImp).revokeUserRefreshTokens(WORKER_ID);
     }
 
     @Test
@@ -225,6 +242,22 @@ public class WorkerServiceImpTest {
                 () -> this.workerServiceImp.updateWorker(COMPANY_ID, WORKER_ID, getMockedUpdateCustomerDto()));
     }
 
+    @Test
+    public void testUpdateWorkerFailureDueToDuplicateEmail() {
+        // Mocks
+        when(this.userRepository.findByUserIdAndCompanyId(any(), any())).thenReturn(Optional.of(getMockedUserEntity()));
+        when(this.countryRepository.findById(any())).thenReturn(Optional.ofNullable(getMockedCountryEntity()));
+        // The email index is checked when the changes are flushed on commit
+        doThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505")))
+                .when(this.transactionManager).commit(any());
+
+        // Assert exception
+        UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class,
+                () -> this.workerServiceImp.updateWorker(COMPANY_ID, WORKER_ID, getMockedUpdateCustomerDto()));
+        assertEquals(ErrorMessages.EMAIL_ALREADY_EXISTS, exception.getMessage());
+    }
+
     @Test
     public void testUpdateUserFailureDueToRoleInvalidException() {
 
@@ -263,7 +296,7 @@ public class WorkerServiceImpTest {
     public void testGetWorkersListSuccessfully() {
         //Mocks
         when(this.companyRepository.findById(any())).thenReturn(Optional.of(getMockedCompanyEntity()));
-        when(this.userRepository.findByCompanyEntity(any(), any())).thenReturn(getMockedPagedUserEntity());
+        when(this.userRepository.findWorkerDetailsByCompanyId(any(), any())).thenReturn(getMockedPagedWorkerDetailsProjection());
 
         //Call method
         Paginated<WorkerDetailsDto> workerDetailsDto = this.workerServiceImp.getWorkersList(COMPANY_ID, 0, 1);
@@ -277,7 +310,7 @@ public class WorkerServiceImpTest {
     public void testGetWorkersListFailureDueToDatabaseConnectionFailure() {
         //Mocks
         when(this.companyRepository.findById(any())).thenReturn(Optional.of(getMockedCompanyEntity()));
-        when(this.userRepository.findByCompanyEntity(any(), any())).thenThrow(RuntimeException.class);
+        when(this.userRepository.findWorkerDetailsByCompanyId(any(), any())).thenThrow(RuntimeException.class);
 
         assertThrows(DatabaseCommunicationException.class,
                 () -> this.workerServiceImp.getWorkersList(COMPANY_ID, 0, 1));
@@ -325,6 +358,64 @@ public class WorkerServiceImpTest {
                 () -> this.workerServiceImp.deleteWorker(COMPANY_ID, WORKER_ID));
     }
 
+    /**
+     * Patch worker Tests
+     */
+    @Test
+    public void testPatchWorkerWithoutPasswordDoesNotHashPassword() {
+        // Mocks
+        when(this.userRepository.findByUserIdAndCompanyId(any(), any())).thenReturn(Optional.of(getMockedUserEntity()));
+        PatchWorkerDto patchWorkerDto = PatchWorkerDto.builder().roles(Set.of(UserRole.COMPANY_ADMIN)).build();
+        UserEntity userEntity = getMockedUserEntity();
+        userEntity.setRoles(Set.of(UserRole.COMPANY_ADMIN));
+
+        // Method to be tested
+        WorkerDetailsDto workerDetailsDto = this.workerServiceImp.patchWorker(COMPANY_ID, WORKER_ID, patchWorkerDto);
+
+        // Assert result
+        assertEquals(Set.of(UserRole.COMPANY_ADMIN), workerDetailsDto.getRoles());
+        verify(this.passwordEncoder, never()).encode(any());
+        verify(this.userRepository).save(userEntity);
+        verify(this.refreshTokenServiceImp, never()).revokeUserRefreshTokens(any());
+    }
+
+    @Test
+    public void testPatchWorkerWithoutChangesDoesNotSave() {
+        // Mocks
+        when(this.userRepository.findByUserIdAndCompanyId(any(), any())).thenReturn(Optional.of(getMockedUserEntity()));
+        PatchWorkerDto patchWorkerDto = PatchWorkerDto.builder().lastname(LASTNAME).roles(USER_ROLE).build();
+
+        // Method to be tested
+        WorkerDetailsDto workerDetailsDto = this.workerServiceImp.patchWorker(COMPANY_ID, WORKER_ID, patchWorkerDto);
+
+        // Assert result
+        assertEquals(getMockedWorkerDetailsDto(), workerDetailsDto);
+        verify(this.userRepository, never()).save(any());
+    }
+
+    @Test
+    public void testPatchWorkerFailureDueToRoleInvalidException() {
+
+        // Assert exception
+        assertThrows(InvalidRoleException.class,
+                () -> this.workerServiceImp.patchWorker(COMPANY_ID, WORKER_ID, PatchWorkerDto.builder().roles(Set.of(UserRole.ADMIN)).build()));
+    }
+
+    @Test
+    public void testPatchWorkerFailureDueToDuplicateEmail() {
+        // Mocks
+        when(this.userRepository.findByUserIdAndCompanyId(any(), any())).thenReturn(Optional.of(getMockedUserEntity()));
+        // The email index is checked when the changes are flushed on commit
+        doThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505")))
+                .when(this.transactionManager).commit(any());
+
+        // Assert exception
+        UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class,
+                () -> this.workerServiceImp.patchWorker(COMPANY_ID, WORKER_ID, PatchWorkerDto.builder().email("taken@service.com").build()));
+        assertEquals(ErrorMessages.EMAIL_ALREADY_EXISTS, exception.getMessage());
+    }
+
     private UserEntity getMockedUserEntity() {
         return UserEntity.builder()
                 .userId(WORKER_ID)
@@ -403,8 +494,16 @@ public class WorkerServiceImpTest {
                 .build();
     }
 
-    private Page<UserEntity> getMockedPagedUserEntity() {
-        List<UserEntity> content = List.of(getMockedUserEntity());
+    private Page<WorkerDetailsProjection> getMockedPagedWorkerDetailsProjection() {
+        WorkerDetailsProjection worker = new SpelAwareProxyProjectionFactory().createProjection(WorkerDetailsProjection.class, Map.of(
+                "userId", WORKER_ID,
+                "firstname", FIRSTNAME,
+                "lastname", LASTNAME,
+                "email", EMAIL,
+                "roles", USER_ROLE.stream().map(UserRole::name).collect(Collectors.joining(",")),
+                "countryId", getMockedCountryEntity().getCountryId(),
+                "companyId", COMPANY_ID));
+        List<WorkerDetailsProjection> content = List.of(worker);
         Pageable pageable = PageRequest.of(0, 1);
 
         return new PageImpl<>(content, pageable, 1);